@@ -13,6 +13,7 @@ repositories {
 intellij {
     version.set("2024.2")
     type.set("IU")
+    plugins.set(listOf("com.intellij.java"))
 }
 
 java {
@@ -25,6 +26,9 @@ dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    // the platform's code insight fixtures are JUnit 3 test cases
+    testImplementation("junit:junit:4.13.2")
+    testRuntimeOnly("org.junit.vintage:junit-vintage-engine")
 }
 
 tasks.patchPluginXml {
@@ -34,5 +38,27 @@ tasks.patchPluginXml {
 }
 
 tasks.test {
-    useJUnitPlatform()
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+// Performance benchmarks are tagged "benchmark" and only run on demand
+tasks.register<Test>("benchmark") {
+    group = "verification"
+    description = "Runs the editor performance benchmarks."
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+}
+
+// Rebuilds src/main/resources/cypher/signatures.bin from src/main/catalog/cypher-signatures.txt
+tasks.register<JavaExec>("generateSignatureCatalog") {
+    group = "build"
+    description = "Compiles the Cypher function and procedure catalog into its bundled binary form."
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("com.lindefors.neo4j.cypher.CypherSignatureCatalogGenerator")
+    workingDir = projectDir
 }
@@ -0,0 +1,25 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.lang.ASTFactory;
+import com.intellij.psi.impl.source.tree.LeafElement;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Creates dedicated leaf PSI for tokens that take part in navigation and usage search. Keywords get
+ * identifier leaves too, because labels and property keys such as {@code :Order} or {@code n.count} lex as
+ * keywords. All other tokens fall back to the platform's default leaves.
+ */
+public class CypherASTFactory extends ASTFactory {
+    @Override
+    public @Nullable LeafElement createLeaf(@NotNull IElementType type, @NotNull CharSequence text) {
+        if (type == CypherTokenTypes.PARAMETER) {
+            return new CypherParameterElement(type, text);
+        }
+        if (type == CypherTokenTypes.IDENTIFIER || type == CypherTokenTypes.KEYWORD) {
+            return new CypherIdentifierElement(type, text);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reports {@code MATCH} clauses that give the planner nothing to start from but a scan of every node: no
+ * label or relationship type in the pattern or its {@code WHERE}, no variable in the pattern bound by an
+ * earlier clause and no {@code id()} / {@code elementId()} lookup.
+ */
+public class CypherAllNodesScanRule implements CypherLintRule {
+    @Override
+    public void check(@NotNull CypherLintContext context) {
+        for (int i = 0; i < context.size(); i++) {
+            if (!context.isClauseStart(i)) {
+                continue;
+            }
+            int keywordEnd = context.isKeyword(i, "OPTIONAL") && context.isKeyword(i + 1, "MATCH") ? i + 1 : i;
+            if (!context.isKeyword(keywordEnd, "MATCH")) {
+                continue;
+            }
+            int patternEnd = context.clauseEnd(i);
+            int end = context.isKeyword(patternEnd, "WHERE") ? context.clauseEnd(patternEnd) : patternEnd;
+            if (!hasAnchor(context, keywordEnd + 1, patternEnd, end)) {
+                context.report(i, keywordEnd, "MATCH without a label, relationship type or bound variable scans all nodes");
+            }
+        }
+    }
+
+    /**
+     * Looks for an anchor in {@code [from, to)}; bound variables only count in the pattern, which ends at
+     * {@code patternEnd}, because a comparison with a bound variable in {@code WHERE} does not avoid the scan.
+     */
+    private static boolean hasAnchor(@NotNull CypherLintContext context, int from, int patternEnd, int to) {
+        for (int i = from; i < to; i++) {
+            CypherSemanticRoles.Role role = context.role(i);
+            if (role == CypherSemanticRoles.Role.LABEL || role == CypherSemanticRoles.Role.RELATIONSHIP_TYPE) {
+                return true;
+            }
+            if (role == CypherSemanticRoles.Role.VARIABLE && i < patternEnd && !context.isDeclaration(i)) {
+                return true;
+            }
+            if (role == CypherSemanticRoles.Role.FUNCTION && (context.isWord(i, "id") || context.isWord(i, "elementId"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,96 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.SimpleListCellRenderer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Runs {@link CypherMigrationAnalyzer} over the Cypher files in the selected directories, ordered by the
+ * version in their names, and lists the findings in a popup that navigates to them. Open files are read from
+ * their documents and the others straight from disk, with line separators converted as in a document so
+ * offsets match, one at a time and without building PSI for the scripts.
+ */
+public class CypherAnalyzeMigrationsAction extends AnAction implements DumbAware {
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        VirtualFile[] files = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        boolean enabled = false;
+        if (e.getProject() != null && files != null) {
+            for (VirtualFile file : files) {
+                enabled |= file.isDirectory();
+            }
+        }
+        e.getPresentation().setEnabledAndVisible(enabled);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile[] roots = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        if (project == null || roots == null) {
+            return;
+        }
+        List<VirtualFile> files = new ArrayList<>();
+        List<CypherMigrationAnalyzer.Finding> findings = new ArrayList<>();
+        boolean completed = ProgressManager.getInstance().runProcessWithProgressSynchronously(() -> {
+            files.addAll(CypherProjectFiles.collect(project, roots));
+            files.sort(Comparator.comparing(VirtualFile::getName, CypherMigrationAnalyzer.VERSION_ORDER));
+            List<String> names = new ArrayList<>(files.size());
+            for (VirtualFile file : files) {
+                names.add(file.getName());
+            }
+            findings.addAll(CypherMigrationAnalyzer.analyze(names, script -> {
+                ProgressManager.checkCanceled();
+                return text(files.get(script));
+            }));
+        }, "Analyzing Cypher Migrations", true, project);
+        if (!completed) {
+            return;
+        }
+        if (findings.isEmpty()) {
+            Messages.showInfoMessage(project, "No problems were found in " + files.size() + " migration scripts.",
+                    "Analyze Migrations");
+            return;
+        }
+        JBPopupFactory.getInstance()
+                .createPopupChooserBuilder(findings)
+                .setTitle(findings.size() + " Migration Problems")
+                .setRenderer(SimpleListCellRenderer.create("",
+                        finding -> files.get(finding.script()).getName() + ": " + finding.message()))
+                .setItemChosenCallback(finding -> new OpenFileDescriptor(project, files.get(finding.script()),
+                        finding.offset()).navigate(true))
+                .createPopup()
+                .showCenteredInCurrentWindow(project);
+    }
+
+    private static @NotNull CharSequence text(@NotNull VirtualFile file) {
+        Document document = ReadAction.compute(() -> FileDocumentManager.getInstance().getCachedDocument(file));
+        if (document != null) {
+            return document.getImmutableCharSequence();
+        }
+        return LoadTextUtil.loadText(file);
+    }
+}
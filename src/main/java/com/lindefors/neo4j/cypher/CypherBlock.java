@@ -330,7 +330,7 @@ public class CypherBlock extends AbstractBlock {
         return null;
     }
 
-    private static final Set<String> CLAUSE_START_KEYWORDS = Set.of(
+    static final Set<String> CLAUSE_START_KEYWORDS = Set.of(
             "CALL",
             "CREATE",
             "DELETE",
@@ -349,7 +349,7 @@ public class CypherBlock extends AbstractBlock {
             "WITH"
     );
 
-    private static final Set<String> CLAUSE_CONTINUATION_KEYWORDS = Set.of(
+    static final Set<String> CLAUSE_CONTINUATION_KEYWORDS = Set.of(
             "WHERE",
             "ORDER",
             "BY",
@@ -358,7 +358,7 @@ public class CypherBlock extends AbstractBlock {
             "ON"
     );
 
-    private static final Set<String> INLINE_KEYWORD_PAIRS = Set.of(
+    static final Set<String> INLINE_KEYWORD_PAIRS = Set.of(
             "OPTIONAL MATCH",
             "LOAD CSV",
             "CSV WITH",
@@ -0,0 +1,7 @@
+package com.lindefors.neo4j.cypher;
+
+/**
+ * Reports disconnected {@code MATCH} patterns found by {@link CypherCartesianProductRule}.
+ */
+public class CypherCartesianProductInspection extends CypherLintInspection {
+}
@@ -0,0 +1,171 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reports parts of a {@code MATCH} or {@code OPTIONAL MATCH} that are not connected to the rest of the clause,
+ * such as {@code (b:Y)} in {@code MATCH (a:X), (b:Y)}: Neo4j combines every row of one with every row of the
+ * other. The connectivity graph has a vertex per comma-separated part and per variable; a part is joined to
+ * every variable it mentions, variables compared with {@code =} in the clause's {@code WHERE} are joined to
+ * each other, and variables bound by earlier clauses are all joined to one vertex standing for the incoming
+ * rows. Parts outside the component of the first part, or of the incoming rows when any part uses them, are
+ * reported.
+ */
+public class CypherCartesianProductRule implements CypherLintRule {
+    static final String INSPECTION = "CypherCartesianProduct";
+
+    @Override
+    public @NotNull String inspectionShortName() {
+        return INSPECTION;
+    }
+
+    @Override
+    public void check(@NotNull CypherLintContext context) {
+        for (int i = 0; i < context.size(); i++) {
+            if (!context.isClauseStart(i)) {
+                continue;
+            }
+            int keywordEnd = context.isKeyword(i, "OPTIONAL") && context.isKeyword(i + 1, "MATCH") ? i + 1 : i;
+            if (context.isKeyword(keywordEnd, "MATCH")) {
+                checkClause(context, keywordEnd + 1, context.clauseEnd(i));
+            }
+        }
+    }
+
+    private static void checkClause(@NotNull CypherLintContext context, int patternStart, int patternEnd) {
+        List<CypherPatterns.Part> parts = CypherPatterns.parse(context, patternStart, patternEnd);
+        if (parts.size() < 2) {
+            return;
+        }
+        Graph graph = new Graph(parts.size());
+        Set<String> declared = new HashSet<>();
+        boolean usesIncomingRows = false;
+        for (int part = 0; part < parts.size(); part++) {
+            for (int i = parts.get(part).start(); i < parts.get(part).end(); i++) {
+                if (context.role(i) != CypherSemanticRoles.Role.VARIABLE) {
+                    continue;
+                }
+                int variable = graph.variable(context, i, declared);
+                graph.union(part, variable);
+                usesIncomingRows |= graph.find(variable) == graph.find(graph.incomingRows);
+            }
+        }
+        if (context.isKeyword(patternEnd, "WHERE")) {
+            int whereEnd = context.clauseEnd(patternEnd);
+            for (int i = patternEnd + 1; i < whereEnd; i++) {
+                if (context.type(i) == CypherTokenTypes.OPERATOR && "=".contentEquals(context.text(i))) {
+                    int left = leftOperand(context, i);
+                    int right = rightOperand(context, i);
+                    if (left >= 0 && right >= 0) {
+                        graph.union(graph.variable(context, left, declared), graph.variable(context, right, declared));
+                    }
+                }
+            }
+        }
+
+        int root = graph.find(usesIncomingRows ? graph.incomingRows : 0);
+        for (int part = 0; part < parts.size(); part++) {
+            if (graph.find(part) != root) {
+                CypherPatterns.Part disconnected = parts.get(part);
+                context.report(disconnected.start(), disconnected.end() - 1,
+                        "Pattern is not connected to the rest of the MATCH, which produces a cartesian product; "
+                                + "join it with a relationship or a WHERE equality");
+            }
+        }
+    }
+
+    /**
+     * Returns the variable compared on the left of the {@code =} at {@code index}: {@code a}, {@code a.key}
+     * or {@code f(a)}; -1 if there is none.
+     */
+    private static int leftOperand(@NotNull CypherLintContext context, int index) {
+        if (context.role(index - 1) == CypherSemanticRoles.Role.VARIABLE) {
+            return index - 1;
+        }
+        if (context.role(index - 1) == CypherSemanticRoles.Role.PROPERTY_KEY && context.type(index - 2) == CypherTokenTypes.DOT
+                && context.role(index - 3) == CypherSemanticRoles.Role.VARIABLE) {
+            return index - 3;
+        }
+        if (context.type(index - 1) == CypherTokenTypes.PAREN_CLOSE && context.role(index - 2) == CypherSemanticRoles.Role.VARIABLE
+                && context.type(index - 3) == CypherTokenTypes.PAREN_OPEN) {
+            return index - 2;
+        }
+        return -1;
+    }
+
+    private static int rightOperand(@NotNull CypherLintContext context, int index) {
+        if (context.role(index + 1) == CypherSemanticRoles.Role.VARIABLE) {
+            return index + 1;
+        }
+        if (context.role(index + 1) == CypherSemanticRoles.Role.FUNCTION && context.type(index + 2) == CypherTokenTypes.PAREN_OPEN
+                && context.role(index + 3) == CypherSemanticRoles.Role.VARIABLE) {
+            return index + 3;
+        }
+        return -1;
+    }
+
+    /**
+     * Union-find over the parts ({@code 0..parts-1}), the incoming rows and the variables of one clause.
+     */
+    private static final class Graph {
+        private final int incomingRows;
+        private final Map<String, Integer> variables = new HashMap<>();
+        private int[] parents;
+        private int size;
+
+        private Graph(int parts) {
+            incomingRows = parts;
+            size = parts + 1;
+            parents = new int[Math.max(8, size * 2)];
+            for (int i = 0; i < size; i++) {
+                parents[i] = i;
+            }
+        }
+
+        /**
+         * Returns the vertex of the variable at token {@code index}; a variable used without being declared
+         * in this clause comes from an earlier clause and is joined to the incoming rows.
+         */
+        private int variable(@NotNull CypherLintContext context, int index, @NotNull Set<String> declared) {
+            String name = CypherVariableScopes.normalize(context.text(index));
+            Integer vertex = variables.get(name);
+            if (vertex == null) {
+                vertex = add();
+                variables.put(name, vertex);
+            }
+            if (context.isDeclaration(index)) {
+                declared.add(name);
+            } else if (!declared.contains(name)) {
+                union(vertex, incomingRows);
+            }
+            return vertex;
+        }
+
+        private int add() {
+            if (size == parents.length) {
+                parents = Arrays.copyOf(parents, size * 2);
+            }
+            parents[size] = size;
+            return size++;
+        }
+
+        private int find(int vertex) {
+            while (parents[vertex] != vertex) {
+                parents[vertex] = parents[parents[vertex]];
+                vertex = parents[vertex];
+            }
+            return vertex;
+        }
+
+        private void union(int first, int second) {
+            parents[find(first)] = find(second);
+        }
+    }
+}
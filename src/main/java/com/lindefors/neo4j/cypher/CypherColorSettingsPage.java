@@ -26,9 +26,23 @@ public class CypherColorSettingsPage implements ColorSettingsPage {
             new AttributesDescriptor("Brackets", CypherSyntaxHighlighter.BRACKETS),
             new AttributesDescriptor("Braces", CypherSyntaxHighlighter.BRACES),
             new AttributesDescriptor("Dot", CypherSyntaxHighlighter.DOT),
-            new AttributesDescriptor("Parameter", CypherSyntaxHighlighter.PARAMETER)
+            new AttributesDescriptor("Parameter", CypherSyntaxHighlighter.PARAMETER),
+            new AttributesDescriptor("Variable", CypherSyntaxHighlighter.VARIABLE),
+            new AttributesDescriptor("Label", CypherSyntaxHighlighter.LABEL),
+            new AttributesDescriptor("Relationship type", CypherSyntaxHighlighter.RELATIONSHIP_TYPE),
+            new AttributesDescriptor("Property key", CypherSyntaxHighlighter.PROPERTY_KEY),
+            new AttributesDescriptor("Function call", CypherSyntaxHighlighter.FUNCTION),
+            new AttributesDescriptor("Procedure call", CypherSyntaxHighlighter.PROCEDURE)
     };
 
+    private static final Map<String, TextAttributesKey> TAGS = Map.of(
+            "var", CypherSyntaxHighlighter.VARIABLE,
+            "label", CypherSyntaxHighlighter.LABEL,
+            "type", CypherSyntaxHighlighter.RELATIONSHIP_TYPE,
+            "key", CypherSyntaxHighlighter.PROPERTY_KEY,
+            "fn", CypherSyntaxHighlighter.FUNCTION,
+            "proc", CypherSyntaxHighlighter.PROCEDURE);
+
     @Override
     @Nullable
     public Icon getIcon() {
@@ -46,17 +60,18 @@ public class CypherColorSettingsPage implements ColorSettingsPage {
     public String getDemoText() {
         return """
                 // Sample Cypher
-                MATCH (u:User {id: $userId, name: $(userName)})-[:FRIEND]->(friend)
-                WHERE friend.active = true
-                CALL { WITH $userId RETURN COUNT(*) AS c }
-                RETURN DISTINCT friend.name, friend.age, c ORDER BY friend.age DESC LIMIT 10;
+                MATCH (<var>u</var>:<label>User</label> {<key>id</key>: $userId, <key>name</key>: $(userName)})-[:<type>FRIEND</type>]->(<var>friend</var>)
+                WHERE <var>friend</var>.<key>active</key> = true AND <fn>size</fn>(<var>friend</var>.<key>tags</key>) > 0
+                CALL { WITH $userId RETURN COUNT(*) AS <var>c</var> }
+                RETURN DISTINCT <var>friend</var>.<key>name</key>, <var>friend</var>.<key>age</key>, <var>c</var> ORDER BY <var>friend</var>.<key>age</key> DESC LIMIT 10;
+                CALL <proc>db</proc>.<proc>labels</proc>();
                 """;
     }
 
     @Override
     @Nullable
     public Map<String, TextAttributesKey> getAdditionalHighlightingTagToDescriptorMap() {
-        return null;
+        return TAGS;
     }
 
     @Override
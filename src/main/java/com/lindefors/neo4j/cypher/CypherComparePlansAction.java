@@ -0,0 +1,66 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptor;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Compares two saved query plans ({@link CypherPlanDiff}) in the {@link CypherPlanToolWindowFactory Cypher
+ * Plan} tool window. With two plan files selected, the first one selected is taken as the plan before the
+ * change; with one selected, the plan to compare it with, as the plan after, is chosen in a file dialog.
+ * Changed operators navigate to the Cypher file found for the later plan, as in {@link CypherOpenPlanAction}.
+ */
+public class CypherComparePlansAction extends AnAction implements DumbAware {
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        VirtualFile[] files = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        boolean enabled = e.getProject() != null && files != null && (files.length == 1 || files.length == 2);
+        if (enabled) {
+            for (VirtualFile file : files) {
+                enabled &= CypherOpenPlanAction.isPlanFile(file);
+            }
+        }
+        e.getPresentation().setEnabledAndVisible(enabled);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile[] files = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        if (project == null || files == null || files.length == 0 || files.length > 2) {
+            return;
+        }
+        VirtualFile before = files[0];
+        VirtualFile after;
+        if (files.length == 2) {
+            after = files[1];
+        } else {
+            FileChooserDescriptor descriptor = FileChooserDescriptorFactory.createSingleFileDescriptor("json")
+                    .withTitle("Plan to Compare With " + before.getName());
+            after = FileChooser.chooseFile(descriptor, project, before.getParent());
+            if (after == null) {
+                return;
+            }
+        }
+        CypherPlan beforePlan = CypherOpenPlanAction.load(project, before);
+        CypherPlan afterPlan = beforePlan == null ? null : CypherOpenPlanAction.load(project, after);
+        if (afterPlan == null) {
+            return;
+        }
+        CypherPlanToolWindowFactory.showDiff(project, before.getName() + " \u2192 " + after.getName(),
+                CypherPlanDiff.compare(beforePlan, afterPlan), CypherOpenPlanAction.openSource(project, after));
+    }
+}
@@ -0,0 +1,446 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * What completion should offer at a name position: the surrounding pattern or clause plus the identifiers
+ * visible there. The context depends only on the tokens around the name being typed, never on the name
+ * itself, so it is computed once per completion session and reused while the prefix is narrowed (see
+ * {@link Cache}).
+ *
+ * <p>The checks are token-level heuristics rather than a full parse, so they favor fast bail-outs over
+ * exhaustive accuracy.
+ */
+final class CypherCompletionContext {
+    static final Key<Cache> CACHE_KEY = Key.create("cypher.completion.context");
+
+    private static final Set<String> NODE_PATTERN_KEYWORDS = Set.of("MATCH", "MERGE", "CREATE", "OPTIONAL");
+    private static final Set<String> VALUE_KEYWORDS = Set.of(
+            "RETURN", "WITH", "WHERE", "ORDER", "BY", "SET", "REMOVE",
+            "DELETE", "DETACH", "UNWIND", "FOREACH", "YIELD"
+    );
+    private static final Set<String> CLAUSE_BOUNDARY_KEYWORDS = Set.of("UNION", "CALL");
+
+    enum Kind {
+        /** Inside a node or relationship pattern where nothing is suggested. */
+        NONE,
+        /** After {@code :} or {@code |} inside a node pattern. */
+        LABEL,
+        /** After {@code :} or {@code |} inside a relationship pattern. */
+        RELATIONSHIP_TYPE,
+        /** The procedure name after {@code CALL}. */
+        PROCEDURE,
+        /** A column of the {@code YIELD} list following a procedure call. */
+        YIELD_COLUMN,
+        /** A clause that consumes values, such as {@code RETURN} or {@code WHERE}. */
+        VALUE,
+        /** Anywhere else; keywords and operators only. */
+        GENERAL
+    }
+
+    private final Kind kind;
+    private final List<String> identifiers;
+    private final String procedure;
+
+    private CypherCompletionContext(@NotNull Kind kind, @NotNull List<String> identifiers, @Nullable String procedure) {
+        this.kind = kind;
+        this.identifiers = identifiers;
+        this.procedure = procedure;
+    }
+
+    @NotNull Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Identifiers likely in scope for {@link Kind#VALUE} positions, nearest first.
+     */
+    @NotNull List<String> identifiers() {
+        return identifiers;
+    }
+
+    /**
+     * The called procedure for {@link Kind#YIELD_COLUMN} positions.
+     */
+    @Nullable String procedure() {
+        return procedure;
+    }
+
+    /**
+     * Computes the context for the name starting at {@code nameStart}.
+     */
+    static @NotNull CypherCompletionContext compute(@NotNull CharSequence text, int nameStart) {
+        return compute(CypherTokens.lex(text), nameStart);
+    }
+
+    /**
+     * Computes the context for the name starting at {@code nameStart}, lexing only the statement that
+     * contains it.
+     */
+    static @NotNull CypherCompletionContext compute(@NotNull CypherStatementTable statements, int nameStart) {
+        int index = statements.indexAt(nameStart);
+        return compute(CypherTokens.lex(statements.text(), statements.startOf(index), statements.endOf(index)), nameStart);
+    }
+
+    /**
+     * Computes the context for the name starting at {@code nameStart} from at most {@code window} characters
+     * on either side of it, as used in large-file mode. The window starts at a line start where there is one
+     * before the name, so that it rarely begins inside a string or comment, and is clipped to the statement
+     * when {@code statements} is given.
+     */
+    static @NotNull CypherCompletionContext compute(@NotNull CharSequence text, @Nullable CypherStatementTable statements,
+                                                    int nameStart, int window) {
+        int start = Math.max(0, nameStart - window);
+        int end = (int) Math.min(text.length(), (long) nameStart + window);
+        if (statements != null) {
+            int index = statements.indexAt(nameStart);
+            start = Math.max(start, statements.startOf(index));
+            end = Math.min(end, statements.endOf(index));
+        }
+        int lineStart = start;
+        while (lineStart > 0 && lineStart < nameStart && text.charAt(lineStart - 1) != '\n') {
+            lineStart++;
+        }
+        if (lineStart < nameStart) {
+            start = lineStart;
+        }
+        return compute(CypherTokens.lex(text, start, end), nameStart);
+    }
+
+    static @NotNull CypherCompletionContext compute(@NotNull CypherTokens tokens, int nameStart) {
+        int previous = tokens.indexAtOrAfter(nameStart) - 1;
+        if (tokens.isKeyword(previous, "CALL")) {
+            return new CypherCompletionContext(Kind.PROCEDURE, List.of(), null);
+        }
+        String procedure = findYieldingProcedure(tokens, previous);
+        if (procedure != null) {
+            return new CypherCompletionContext(Kind.YIELD_COLUMN, List.of(), procedure);
+        }
+        if (isInsideNodePattern(tokens, previous)) {
+            return new CypherCompletionContext(isLabelSeparator(tokens, previous) ? Kind.LABEL : Kind.NONE, List.of(), null);
+        }
+        if (isInsideRelationshipPattern(tokens, previous)) {
+            return new CypherCompletionContext(isLabelSeparator(tokens, previous) ? Kind.RELATIONSHIP_TYPE : Kind.NONE,
+                    List.of(), null);
+        }
+        if (isValueContext(tokens, previous)) {
+            return new CypherCompletionContext(Kind.VALUE, collectVisibleIdentifiers(tokens, previous), null);
+        }
+        return new CypherCompletionContext(Kind.GENERAL, List.of(), null);
+    }
+
+    /**
+     * Returns true when the token is a label/type separator ({@code :} or {@code |}), the only place
+     * inside graph patterns where suggestions are offered.
+     */
+    private static boolean isLabelSeparator(@NotNull CypherTokens tokens, int index) {
+        return tokens.is(index, CypherTokenTypes.COLON)
+                || (tokens.is(index, CypherTokenTypes.OPERATOR) && tokens.textEqualsIgnoreCase(index, "|"));
+    }
+
+    /**
+     * When the caret is in a {@code YIELD} column list, returns the name of the procedure called right
+     * before it ({@code CALL db.labels() YIELD |}); otherwise {@code null}.
+     */
+    private static @Nullable String findYieldingProcedure(@NotNull CypherTokens tokens, int previous) {
+        int current = previous;
+        while (current >= 0) {
+            IElementType type = tokens.type(current);
+            if (type == CypherTokenTypes.KEYWORD) {
+                if (tokens.textEqualsIgnoreCase(current, "YIELD")) {
+                    break;
+                }
+                if (!tokens.textEqualsIgnoreCase(current, "AS")) {
+                    return null;
+                }
+            } else if (type != CypherTokenTypes.COMMA && type != CypherTokenTypes.IDENTIFIER) {
+                return null;
+            }
+            current--;
+        }
+        if (current < 0) {
+            return null;
+        }
+
+        int nameEnd = current - 1;
+        if (tokens.is(nameEnd, CypherTokenTypes.PAREN_CLOSE)) {
+            int openingParen = findNearestUnclosedOpening(tokens, nameEnd - 1, CypherTokenTypes.PAREN_OPEN, CypherTokenTypes.PAREN_CLOSE);
+            nameEnd = openingParen - 1;
+        }
+        if (!isNameSegment(tokens, nameEnd)) {
+            return null;
+        }
+        int nameStart = nameEnd;
+        while (tokens.is(nameStart - 1, CypherTokenTypes.DOT) && tokens.adjacent(nameStart - 1)
+                && isNameSegment(tokens, nameStart - 2) && tokens.adjacent(nameStart - 2)) {
+            nameStart -= 2;
+        }
+        if (!tokens.isKeyword(nameStart - 1, "CALL")) {
+            return null;
+        }
+        return tokens.text().subSequence(tokens.start(nameStart), tokens.end(nameEnd)).toString();
+    }
+
+    private static boolean isNameSegment(@NotNull CypherTokens tokens, int index) {
+        return tokens.is(index, CypherTokenTypes.IDENTIFIER) || tokens.is(index, CypherTokenTypes.KEYWORD);
+    }
+
+    /**
+     * Roughly determines if the caret sits within {@code (...)} that is part of a graph pattern.
+     * The heuristic looks for pattern-introducing keywords, commas/parentheses, labels, or relationship connectors.
+     */
+    private static boolean isInsideNodePattern(@NotNull CypherTokens tokens, int previous) {
+        int openingParen = findNearestUnclosedOpening(tokens, previous, CypherTokenTypes.PAREN_OPEN, CypherTokenTypes.PAREN_CLOSE);
+        if (openingParen < 0) {
+            return false;
+        }
+
+        if (hasNodePatternPrefix(tokens, openingParen) || containsNodeLabel(tokens, openingParen)) {
+            return true;
+        }
+
+        int closingParen = findMatchingClosing(tokens, openingParen, CypherTokenTypes.PAREN_OPEN, CypherTokenTypes.PAREN_CLOSE);
+        return closingParen >= 0 && isDashOperator(tokens, closingParen + 1);
+    }
+
+    /**
+     * Checks whether the caret is within {@code [...] } that is surrounded by relationship dashes.
+     */
+    private static boolean isInsideRelationshipPattern(@NotNull CypherTokens tokens, int previous) {
+        int openingBracket = findNearestUnclosedOpening(tokens, previous, CypherTokenTypes.BRACKET_OPEN, CypherTokenTypes.BRACKET_CLOSE);
+        if (openingBracket < 0 || !isDashOperator(tokens, openingBracket - 1)) {
+            return false;
+        }
+
+        int closingBracket = findMatchingClosing(tokens, openingBracket, CypherTokenTypes.BRACKET_OPEN, CypherTokenTypes.BRACKET_CLOSE);
+        return closingBracket < 0 || isDashOperator(tokens, closingBracket + 1);
+    }
+
+    /**
+     * Determines whether the token before the opening parenthesis is something that typically precedes a node pattern.
+     */
+    private static boolean hasNodePatternPrefix(@NotNull CypherTokens tokens, int openingParen) {
+        int previous = openingParen - 1;
+        IElementType type = tokens.type(previous);
+        if (type == null || type == CypherTokenTypes.COMMA || type == CypherTokenTypes.PAREN_OPEN) {
+            return true;
+        }
+        if (type == CypherTokenTypes.KEYWORD
+                && NODE_PATTERN_KEYWORDS.contains(tokens.text(previous).toString().toUpperCase(Locale.ENGLISH))) {
+            return true;
+        }
+        return isDashOperator(tokens, previous);
+    }
+
+    /**
+     * Scans forward from {@code (} to see if a label colon appears before the closing brace or a property map.
+     * This helps catch partial patterns like {@code (f:Fr}.
+     */
+    private static boolean containsNodeLabel(@NotNull CypherTokens tokens, int openingParen) {
+        for (int i = openingParen + 1; i < tokens.size(); i++) {
+            IElementType type = tokens.type(i);
+            if (type == CypherTokenTypes.COLON) {
+                return true;
+            }
+            if (type == CypherTokenTypes.PAREN_CLOSE || type == CypherTokenTypes.BRACE_OPEN) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Walks backward from {@code start} to locate the closest unmatched opening token of the given type.
+     */
+    private static int findNearestUnclosedOpening(@NotNull CypherTokens tokens, int start,
+                                                  @NotNull IElementType openingType,
+                                                  @NotNull IElementType closingType) {
+        int balance = 0;
+        for (int i = start; i >= 0; i--) {
+            IElementType type = tokens.type(i);
+            if (type == closingType) {
+                balance++;
+            } else if (type == openingType) {
+                if (balance == 0) {
+                    return i;
+                }
+                balance--;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Walks forward from an opening token to find its matching closing token, ignoring nested pairs.
+     */
+    private static int findMatchingClosing(@NotNull CypherTokens tokens, int opening,
+                                           @NotNull IElementType openingType,
+                                           @NotNull IElementType closingType) {
+        int balance = 0;
+        for (int i = opening + 1; i < tokens.size(); i++) {
+            IElementType type = tokens.type(i);
+            if (type == openingType) {
+                balance++;
+            } else if (type == closingType) {
+                if (balance == 0) {
+                    return i;
+                }
+                balance--;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns true when the token is a dash-like operator used in relationship patterns.
+     */
+    private static boolean isDashOperator(@NotNull CypherTokens tokens, int index) {
+        return tokens.is(index, CypherTokenTypes.OPERATOR) && tokens.text(index).toString().contains("-");
+    }
+
+    /**
+     * Determines whether completion is invoked in a clause that consumes values (RETURN/WITH/WHERE/etc.).
+     * Walks backwards until it finds a clause keyword or hits a statement boundary.
+     */
+    private static boolean isValueContext(@NotNull CypherTokens tokens, int previous) {
+        for (int i = previous; i >= 0; i--) {
+            IElementType type = tokens.type(i);
+            if (type == CypherTokenTypes.KEYWORD) {
+                String keyword = tokens.text(i).toString().toUpperCase(Locale.ENGLISH);
+                if (VALUE_KEYWORDS.contains(keyword)) {
+                    return true;
+                }
+                if (CLAUSE_BOUNDARY_KEYWORDS.contains(keyword)) {
+                    return false;
+                }
+            }
+            if (type == CypherTokenTypes.SEMICOLON) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collects identifiers that are likely to be in scope for value clauses by scanning backwards until
+     * a statement boundary. Brace blocks are skipped when the caret sits outside them to avoid leaking
+     * subquery-local identifiers. The innermost unclosed brace is tracked during the scan, so the walk
+     * stays linear in the statement length.
+     */
+    private static @NotNull List<String> collectVisibleIdentifiers(@NotNull CypherTokens tokens, int previous) {
+        LinkedHashSet<String> identifiers = new LinkedHashSet<>();
+        int enclosingBrace = findNearestUnclosedOpening(tokens, previous, CypherTokenTypes.BRACE_OPEN, CypherTokenTypes.BRACE_CLOSE);
+        int current = previous;
+        while (current >= 0) {
+            IElementType type = tokens.type(current);
+            if (type == CypherTokenTypes.BRACE_CLOSE) {
+                current = findNearestUnclosedOpening(tokens, current - 1, CypherTokenTypes.BRACE_OPEN, CypherTokenTypes.BRACE_CLOSE) - 1;
+                continue;
+            }
+            if (type == CypherTokenTypes.BRACE_OPEN) {
+                enclosingBrace = findNearestUnclosedOpening(tokens, current - 1, CypherTokenTypes.BRACE_OPEN, CypherTokenTypes.BRACE_CLOSE);
+            }
+            if (type == CypherTokenTypes.SEMICOLON) {
+                break;
+            }
+            if (type == CypherTokenTypes.KEYWORD
+                    && CLAUSE_BOUNDARY_KEYWORDS.contains(tokens.text(current).toString().toUpperCase(Locale.ENGLISH))) {
+                break;
+            }
+            if (isValueIdentifier(tokens, current, enclosingBrace)) {
+                identifiers.add(tokens.text(current).toString());
+            }
+            current--;
+        }
+        return List.copyOf(identifiers);
+    }
+
+    /**
+     * Heuristic for variable-like identifiers: skips labels (preceded by colon/dot) and property keys inside
+     * maps. {@code enclosingBrace} is the innermost unclosed opening brace before the identifier, or -1.
+     */
+    private static boolean isValueIdentifier(@NotNull CypherTokens tokens, int index, int enclosingBrace) {
+        if (!tokens.is(index, CypherTokenTypes.IDENTIFIER)) {
+            return false;
+        }
+        if (tokens.is(index - 1, CypherTokenTypes.COLON) || tokens.is(index - 1, CypherTokenTypes.DOT)) {
+            return false;
+        }
+        if (tokens.is(index + 1, CypherTokenTypes.COLON)) {
+            return enclosingBrace < 0 || tokens.isKeyword(enclosingBrace - 1, "CALL");
+        }
+        return true;
+    }
+
+    /**
+     * Remembers the context computed for one name position of a document. The cached value stays valid
+     * while the only edits are to the name itself, which is what narrowing the completion prefix does;
+     * {@link #edited} is fed by {@link CypherCompletionContextInvalidator} and drops the cache on any other
+     * change.
+     */
+    static final class Cache {
+        private final CypherCompletionContext context;
+        private final int nameStart;
+        private final int nameEnd;
+        private final long stamp;
+
+        private Cache(@NotNull CypherCompletionContext context, int nameStart, int nameEnd, long stamp) {
+            this.context = context;
+            this.nameStart = nameStart;
+            this.nameEnd = nameEnd;
+            this.stamp = stamp;
+        }
+
+        /**
+         * Creates a cache entry for the name starting at {@code nameStart} in {@code text}.
+         */
+        static @NotNull Cache create(@NotNull CypherCompletionContext context, @NotNull CharSequence text,
+                                     int nameStart, long stamp) {
+            int nameEnd = nameStart;
+            while (nameEnd < text.length() && isNameChar(text.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            return new Cache(context, nameStart, nameEnd, stamp);
+        }
+
+        /**
+         * Returns the cached context if it was computed for this name position and is current for
+         * {@code stamp}.
+         */
+        @Nullable CypherCompletionContext get(int nameStart, long stamp) {
+            return this.nameStart == nameStart && this.stamp == stamp ? context : null;
+        }
+
+        /**
+         * Returns the cache updated for an edit, or {@code null} when the edit may have changed the context:
+         * anything outside the name, or text that is not part of a (possibly dotted) name.
+         */
+        @Nullable Cache edited(int offset, @NotNull CharSequence oldText, @NotNull CharSequence newText, long newStamp) {
+            if (offset < nameStart || offset + oldText.length() > nameEnd || !isNameText(oldText) || !isNameText(newText)) {
+                return null;
+            }
+            return new Cache(context, nameStart, nameEnd - oldText.length() + newText.length(), newStamp);
+        }
+
+        private static boolean isNameText(@NotNull CharSequence text) {
+            for (int i = 0; i < text.length(); i++) {
+                if (!isNameChar(text.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isNameChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '_' || c == '.';
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Keeps a document's cached {@link CypherCompletionContext} valid while the user narrows the completion
+ * prefix and drops it on any other edit.
+ */
+public class CypherCompletionContextInvalidator implements DocumentListener {
+    @Override
+    public void documentChanged(@NotNull DocumentEvent event) {
+        Document document = event.getDocument();
+        CypherCompletionContext.Cache cache = document.getUserData(CypherCompletionContext.CACHE_KEY);
+        if (cache != null) {
+            document.putUserData(CypherCompletionContext.CACHE_KEY, cache.edited(event.getOffset(),
+                    event.getOldFragment(), event.getNewFragment(), document.getModificationStamp()));
+        }
+    }
+}
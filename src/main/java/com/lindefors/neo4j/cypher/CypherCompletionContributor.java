@@ -2,38 +2,33 @@ package com.lindefors.neo4j.cypher;
 
 import com.intellij.codeInsight.completion.*;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
 import com.intellij.patterns.PlatformPatterns;
-import com.intellij.psi.PsiElement;
-import com.intellij.psi.tree.IElementType;
-import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.util.ProcessingContext;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Locale;
-import java.util.Set;
+import java.util.Map;
 
 /**
  * Provides lightweight Cypher completions (keywords/operators) while avoiding noisy suggestions
- * inside structural graph patterns such as nodes {@code (n:Label)} or relationships {@code -[r:TYPE]->}.
- * The contributor relies on token-level heuristics instead of a full parse tree, so the checks favor
- * fast bail-outs over exhaustive accuracy.
+ * inside structural graph patterns such as nodes {@code (n:Label)} or relationships {@code -[r:TYPE]->};
+ * there only learned labels and relationship types are offered after {@code :}. Candidates come from the
+ * prebuilt tries in {@link CypherLookupCatalog}, ranked by {@link CypherUsageStatistics}. Procedures from
+ * the bundled {@link CypherSignatureStore} are offered after {@code CALL}, their columns after
+ * {@code YIELD}, and functions wherever values are expected.
+ *
+ * <p>The name, parameter, comment or string at the caret is found by lexing the document text
+ * ({@link CypherCompletionPosition}), never from PSI leaves, which large-file mode collapses. Where the
+ * caret sits is decided by {@link CypherCompletionContext}, which is cached on the document so that
+ * narrowing the prefix during one completion session does not repeat the token walks; only the statement
+ * around the caret is lexed, found through {@link CypherPsiFile#getStatementTable()}. In
+ * large-file mode ({@link CypherLargeFileMode.Feature#COMPLETION}) only a window around the caret is lexed
+ * and the file is not scanned for usage statistics.
  */
 public class CypherCompletionContributor extends CompletionContributor {
-    private static final List<String> OPERATORS = Arrays.asList(
-            "=", "<>", "<", ">", "<=", ">=", "+", "-", "*", "/", "%", "^",
-            "AND", "OR", "XOR", "NOT", "IN", "IS", "CONTAINS", "STARTS", "ENDS"
-    );
-    private static final Set<String> NODE_PATTERN_KEYWORDS = Set.of("MATCH", "MERGE", "CREATE", "OPTIONAL");
-    private static final Set<String> VALUE_KEYWORDS = Set.of(
-            "RETURN", "WITH", "WHERE", "ORDER", "BY", "SET", "REMOVE",
-            "DELETE", "DETACH", "UNWIND", "FOREACH", "YIELD"
-    );
-    private static final Set<String> CLAUSE_BOUNDARY_KEYWORDS = Set.of("UNION", "CALL");
-
     public CypherCompletionContributor() {
         extend(CompletionType.BASIC, PlatformPatterns.psiElement().withLanguage(CypherLanguage.INSTANCE),
                 new CompletionProvider<>() {
@@ -41,318 +36,112 @@ public class CypherCompletionContributor extends CompletionContributor {
                     protected void addCompletions(@NotNull CompletionParameters parameters,
                                                   @NotNull ProcessingContext context,
                                                   @NotNull CompletionResultSet result) {
-                        PsiElement position = parameters.getPosition();
-                        PsiElement parent = position.getParent();
-                        if (isInCommentOrString(position) || isInCommentOrString(parent)) {
+                        Project project = parameters.getPosition().getProject();
+                        Document document = parameters.getEditor().getDocument();
+                        CharSequence text = document.getImmutableCharSequence();
+                        boolean largeFile = CypherLargeFileMode.isDegraded(CypherLargeFileMode.Feature.COMPLETION,
+                                text.length());
+                        CypherStatementTable statements = statementTable(parameters, text);
+                        int caret = parameters.getOffset();
+                        CypherCompletionPosition position = CypherCompletionPosition.at(text, statements, caret,
+                                largeFile ? CypherLargeFileMode.COMPLETION_WINDOW : Integer.MAX_VALUE);
+                        if (position.kind() == CypherCompletionPosition.Kind.COMMENT_OR_STRING) {
                             return;
                         }
-                        if (isInsideNodeOrRelationshipPattern(position)) {
+                        if (position.kind() == CypherCompletionPosition.Kind.PARAMETER) {
+                            addParameterCompletions(project, text.subSequence(position.segmentStart(), caret).toString(), result);
                             return;
                         }
 
-                        if (isValueContext(position)) {
-                            for (String identifier : collectVisibleIdentifiers(position)) {
-                                result.addElement(LookupElementBuilder.create(identifier));
-                            }
-                        }
-
-                        // Add keywords
-                        for (String keyword : CypherTokenTypes.KEYWORDS) {
-                            result.addElement(LookupElementBuilder.create(keyword)
-                                    .withCaseSensitivity(false));
+                        CypherUsageStatistics statistics = CypherUsageStatistics.getInstance(project);
+                        if (!largeFile) {
+                            statistics.learnInBackground(parameters.getOriginalFile());
                         }
 
-                        // Add operators
-                        for (String operator : OPERATORS) {
-                            result.addElement(LookupElementBuilder.create(operator)
-                                    .withCaseSensitivity(false));
+                        result = result.withPrefixMatcher(text.subSequence(position.segmentStart(), caret).toString());
+                        String qualifiedPrefix = text.subSequence(position.nameStart(), caret).toString();
+                        CypherCompletionContext completionContext = completionContext(document, text, statements,
+                                position.nameStart(), largeFile);
+                        switch (completionContext.kind()) {
+                            case NONE -> {
+                            }
+                            case LABEL -> CypherLookupCatalog.addTopMatches(
+                                    CypherLookupCatalog.learned(project, CypherUsageStatistics.Kind.LABEL), statistics, result);
+                            case RELATIONSHIP_TYPE -> CypherLookupCatalog.addTopMatches(
+                                    CypherLookupCatalog.learned(project, CypherUsageStatistics.Kind.RELATIONSHIP_TYPE), statistics, result);
+                            case PROCEDURE -> CypherLookupCatalog.addTopMatches(CypherLookupCatalog.procedures(), statistics,
+                                    result.withPrefixMatcher(qualifiedPrefix));
+                            case YIELD_COLUMN -> result.addAllElements(
+                                    CypherLookupCatalog.yieldColumns(String.valueOf(completionContext.procedure())));
+                            case VALUE -> {
+                                for (String identifier : completionContext.identifiers()) {
+                                    result.addElement(LookupElementBuilder.create(identifier));
+                                }
+                                CypherLookupCatalog.addTopMatches(CypherLookupCatalog.functions(), statistics,
+                                        result.withPrefixMatcher(qualifiedPrefix));
+                                CypherLookupCatalog.addTopMatches(CypherLookupCatalog.keywordsAndOperators(), statistics, result);
+                            }
+                            case GENERAL -> CypherLookupCatalog.addTopMatches(
+                                    CypherLookupCatalog.keywordsAndOperators(), statistics, result);
                         }
                     }
                 });
     }
 
     /**
-     * Returns true when the element belongs to a comment or string literal token.
+     * Returns the statement table of the file being completed when it describes {@code text}.
      */
-    private static boolean isInCommentOrString(@Nullable PsiElement element) {
-        if (element == null || element.getNode() == null) {
-            return false;
-        }
-        return element.getNode().getElementType() == CypherTokenTypes.COMMENT
-                || element.getNode().getElementType() == CypherTokenTypes.STRING;
+    private static @Nullable CypherStatementTable statementTable(@NotNull CompletionParameters parameters,
+                                                                 @NotNull CharSequence text) {
+        CypherStatementTable statements = parameters.getOriginalFile() instanceof CypherPsiFile cypherFile
+                ? cypherFile.getStatementTable() : null;
+        return statements != null && statements.text() == text ? statements : null;
     }
 
     /**
-     * Detects whether the caret is currently inside a node pattern {@code (...)} or relationship pattern {@code -[...] -},
-     * where offering keyword/operator completions would be intrusive.
+     * Returns the context for the name being completed, reusing the one cached on the document while only
+     * that name has been edited since it was computed.
      */
-    private static boolean isInsideNodeOrRelationshipPattern(@NotNull PsiElement position) {
-        return isInsideNodePattern(position) || isInsideRelationshipPattern(position);
+    private static @NotNull CypherCompletionContext completionContext(@NotNull Document document,
+                                                                      @NotNull CharSequence text,
+                                                                      @Nullable CypherStatementTable statements,
+                                                                      int nameStartOffset, boolean largeFile) {
+        long stamp = document.getModificationStamp();
+        CypherCompletionContext.Cache cache = document.getUserData(CypherCompletionContext.CACHE_KEY);
+        CypherCompletionContext cached = cache == null ? null : cache.get(nameStartOffset, stamp);
+        if (cached != null) {
+            return cached;
+        }
+        CypherCompletionContext computed;
+        if (largeFile) {
+            computed = CypherCompletionContext.compute(text, statements, nameStartOffset, CypherLargeFileMode.COMPLETION_WINDOW);
+        } else if (statements != null) {
+            computed = CypherCompletionContext.compute(statements, nameStartOffset);
+        } else {
+            computed = CypherCompletionContext.compute(text, nameStartOffset);
+        }
+        document.putUserData(CypherCompletionContext.CACHE_KEY,
+                CypherCompletionContext.Cache.create(computed, text, nameStartOffset, stamp));
+        return computed;
     }
 
     /**
-     * Roughly determines if the caret sits within {@code (...)} that is part of a graph pattern.
-     * The heuristic looks for pattern-introducing keywords, commas/parentheses, labels, or relationship connectors.
+     * Offers {@code $name} parameters known to {@link CypherParameterIndex} for the typed {@code prefix},
+     * ranked by how often they are used across the project.
      */
-    private static boolean isInsideNodePattern(@NotNull PsiElement position) {
-        PsiElement openingParen = findNearestUnclosedOpening(position, CypherTokenTypes.PAREN_OPEN, CypherTokenTypes.PAREN_CLOSE);
-        if (openingParen == null) {
-            return false;
-        }
-
-        if (hasNodePatternPrefix(openingParen) || containsNodeLabel(openingParen)) {
-            return true;
-        }
-
-        PsiElement closingParen = findMatchingClosing(openingParen, CypherTokenTypes.PAREN_OPEN, CypherTokenTypes.PAREN_CLOSE);
-        if (closingParen == null) {
-            return hasNodePatternPrefix(openingParen);
-        }
-
-        PsiElement afterClose = PsiTreeUtil.nextVisibleLeaf(closingParen);
-        return isDashOperator(afterClose);
-    }
-
-    /**
-     * Checks whether the caret is within {@code [...] } that is surrounded by relationship dashes.
-     */
-    private static boolean isInsideRelationshipPattern(@NotNull PsiElement position) {
-        PsiElement openingBracket = findNearestUnclosedOpening(position, CypherTokenTypes.BRACKET_OPEN, CypherTokenTypes.BRACKET_CLOSE);
-        if (openingBracket == null) {
-            return false;
-        }
-
-        PsiElement beforeBracket = PsiTreeUtil.prevVisibleLeaf(openingBracket);
-        if (!isDashOperator(beforeBracket)) {
-            return false;
-        }
-
-        PsiElement closingBracket = findMatchingClosing(openingBracket, CypherTokenTypes.BRACKET_OPEN, CypherTokenTypes.BRACKET_CLOSE);
-        if (closingBracket == null) {
-            return true;
-        }
-
-        PsiElement afterBracket = PsiTreeUtil.nextVisibleLeaf(closingBracket);
-        return isDashOperator(afterBracket);
-    }
-
-    /**
-     * Determines whether the token before the opening parenthesis is something that typically precedes a node pattern.
-     */
-    private static boolean hasNodePatternPrefix(@NotNull PsiElement openingParen) {
-        PsiElement previous = PsiTreeUtil.prevVisibleLeaf(openingParen);
-        if (previous == null) {
-            return true;
-        }
-
-        IElementType type = previous.getNode().getElementType();
-        if (type == CypherTokenTypes.COMMA || type == CypherTokenTypes.PAREN_OPEN) {
-            return true;
-        }
-
-        if (type == CypherTokenTypes.KEYWORD) {
-            String keyword = previous.getText().toUpperCase(Locale.ENGLISH);
-            if (NODE_PATTERN_KEYWORDS.contains(keyword)) {
-                return true;
-            }
-        }
-
-        return isDashOperator(previous);
-    }
-
-    /**
-     * Scans forward from {@code (} to see if a label colon appears before the closing brace or a property map.
-     * This helps catch partial patterns like {@code (f:Fr}.
-     */
-    private static boolean containsNodeLabel(@NotNull PsiElement openingParen) {
-        PsiElement current = PsiTreeUtil.nextLeaf(openingParen);
-        while (current != null) {
-            IElementType type = current.getNode().getElementType();
-            if (type == CypherTokenTypes.PAREN_CLOSE) {
-                return false;
-            }
-            if (type == CypherTokenTypes.COLON) {
-                return true;
-            }
-            if (type == CypherTokenTypes.BRACE_OPEN) {
-                return false;
-            }
-            current = PsiTreeUtil.nextLeaf(current);
-        }
-        return false;
-    }
-
-    /**
-     * Walks backward from the caret to locate the closest unmatched opening token of the given type.
-     */
-    private static PsiElement findNearestUnclosedOpening(@NotNull PsiElement start,
-                                                         @NotNull IElementType openingType,
-                                                         @NotNull IElementType closingType) {
-        int balance = 0;
-        PsiElement current = start;
-        while (current != null) {
-            IElementType type = current.getNode().getElementType();
-            if (type == closingType) {
-                balance++;
-            } else if (type == openingType) {
-                if (balance == 0) {
-                    return current;
-                }
-                balance--;
-            }
-            current = PsiTreeUtil.prevLeaf(current);
-        }
-        return null;
-    }
-
-    /**
-     * Walks forward from an opening token to find its matching closing token, ignoring nested pairs.
-     */
-    private static PsiElement findMatchingClosing(@NotNull PsiElement opening,
-                                                  @NotNull IElementType openingType,
-                                                  @NotNull IElementType closingType) {
-        int balance = 0;
-        PsiElement current = PsiTreeUtil.nextLeaf(opening);
-        while (current != null) {
-            IElementType type = current.getNode().getElementType();
-            if (type == openingType) {
-                balance++;
-            } else if (type == closingType) {
-                if (balance == 0) {
-                    return current;
-                }
-                balance--;
-            }
-            current = PsiTreeUtil.nextLeaf(current);
-        }
-        return null;
-    }
-
-    /**
-     * Returns true when the element represents a dash-like operator used in relationship patterns.
-     */
-    private static boolean isDashOperator(@Nullable PsiElement element) {
-        if (element == null || element.getNode() == null) {
-            return false;
-        }
-        if (element.getNode().getElementType() != CypherTokenTypes.OPERATOR) {
-            return false;
-        }
-        return element.getText().contains("-");
-    }
-
-    /**
-     * Determines whether completion is invoked in a clause that consumes values (RETURN/WITH/WHERE/etc.).
-     * Walks backwards until it finds a clause keyword or hits a statement boundary.
-     */
-    private static boolean isValueContext(@NotNull PsiElement position) {
-        PsiElement current = PsiTreeUtil.prevVisibleLeaf(position);
-        while (current != null && current.getNode() != null) {
-            IElementType type = current.getNode().getElementType();
-            if (type == CypherTokenTypes.KEYWORD) {
-                String keyword = current.getText().toUpperCase(Locale.ENGLISH);
-                if (VALUE_KEYWORDS.contains(keyword)) {
-                    return true;
-                }
-                if (CLAUSE_BOUNDARY_KEYWORDS.contains(keyword)) {
-                    return false;
-                }
-            }
-            if (type == CypherTokenTypes.SEMICOLON) {
-                return false;
-            }
-            current = PsiTreeUtil.prevVisibleLeaf(current);
-        }
-        return false;
-    }
-
-    /**
-     * Collects identifiers that are likely to be in scope for value clauses by scanning backwards until
-     * a statement boundary. Brace blocks are skipped when the caret sits outside them to avoid leaking
-     * subquery-local identifiers.
-     */
-    private static List<String> collectVisibleIdentifiers(@NotNull PsiElement position) {
-        LinkedHashSet<String> identifiers = new LinkedHashSet<>();
-        PsiElement current = PsiTreeUtil.prevVisibleLeaf(position);
-        while (current != null && current.getNode() != null) {
-            IElementType type = current.getNode().getElementType();
-            if (type == CypherTokenTypes.BRACE_CLOSE) {
-                current = skipBraceSection(current);
-                continue;
-            }
-            if (type == CypherTokenTypes.SEMICOLON) {
-                break;
-            }
-            if (type == CypherTokenTypes.KEYWORD) {
-                String keyword = current.getText().toUpperCase(Locale.ENGLISH);
-                if (CLAUSE_BOUNDARY_KEYWORDS.contains(keyword)) {
-                    break;
-                }
-            }
-            if (isValueIdentifier(current)) {
-                identifiers.add(current.getText());
-            }
-            current = PsiTreeUtil.prevVisibleLeaf(current);
-        }
-        return List.copyOf(identifiers);
-    }
-
-    /**
-     * Steps back to the token before a balanced {...} block. Used to ignore subquery/property maps when
-     * completion is triggered outside of them.
-     */
-    @Nullable
-    private static PsiElement skipBraceSection(@NotNull PsiElement closingBrace) {
-        int balance = 1;
-        PsiElement current = PsiTreeUtil.prevLeaf(closingBrace);
-        while (current != null) {
-            if (current.getNode() != null) {
-                IElementType type = current.getNode().getElementType();
-                if (type == CypherTokenTypes.BRACE_CLOSE) {
-                    balance++;
-                } else if (type == CypherTokenTypes.BRACE_OPEN) {
-                    balance--;
-                    if (balance == 0) {
-                        return PsiTreeUtil.prevVisibleLeaf(current);
-                    }
-                }
-            }
-            current = PsiTreeUtil.prevLeaf(current);
-        }
-        return current;
-    }
-
-    /**
-     * Heuristic for variable-like identifiers: skips labels (preceded by colon/dot) and property keys inside maps.
-     */
-    private static boolean isValueIdentifier(@NotNull PsiElement element) {
-        if (element.getNode() == null || element.getNode().getElementType() != CypherTokenTypes.IDENTIFIER) {
-            return false;
-        }
-        PsiElement previous = PsiTreeUtil.prevVisibleLeaf(element);
-        if (previous != null && previous.getNode() != null) {
-            IElementType type = previous.getNode().getElementType();
-            if (type == CypherTokenTypes.COLON || type == CypherTokenTypes.DOT) {
-                return false;
-            }
-        }
-
-        PsiElement next = PsiTreeUtil.nextVisibleLeaf(element);
-        if (next != null && next.getNode() != null && next.getNode().getElementType() == CypherTokenTypes.COLON) {
-            PsiElement brace = findNearestUnclosedOpening(element, CypherTokenTypes.BRACE_OPEN, CypherTokenTypes.BRACE_CLOSE);
-            return brace == null || isSubqueryBrace(brace);
-        }
-        return true;
-    }
-
-    private static boolean isSubqueryBrace(@NotNull PsiElement braceOpen) {
-        PsiElement beforeBrace = PsiTreeUtil.prevVisibleLeaf(braceOpen);
-        if (beforeBrace == null || beforeBrace.getNode() == null) {
-            return false;
-        }
-        if (beforeBrace.getNode().getElementType() != CypherTokenTypes.KEYWORD) {
-            return false;
+    private static void addParameterCompletions(@NotNull Project project, @NotNull String prefix,
+                                                @NotNull CompletionResultSet result) {
+        if (!prefix.startsWith("$")) {
+            return;
+        }
+        CompletionResultSet parameterResult = result.withPrefixMatcher(prefix);
+        Map<String, Integer> counts = CypherParameterIndex.usageCounts(project, GlobalSearchScope.projectScope(project),
+                name -> parameterResult.getPrefixMatcher().prefixMatches("$" + name));
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            int count = entry.getValue();
+            LookupElementBuilder element = LookupElementBuilder.create("$" + entry.getKey())
+                    .withTypeText(count == 1 ? "1 usage" : count + " usages", true);
+            parameterResult.addElement(PrioritizedLookupElement.withPriority(element, count));
         }
-        return "CALL".equalsIgnoreCase(beforeBrace.getText());
     }
 }
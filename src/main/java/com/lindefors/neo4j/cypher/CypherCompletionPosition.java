@@ -0,0 +1,112 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * What the caret is in when completion starts: a comment or string, a {@code $parameter}, or a possibly
+ * dotted name. It is found by lexing the document text from the start of the statement (or of the window
+ * around the caret) up to the caret rather than from PSI leaves, so it holds in large-file mode, where the
+ * syntax tree collapses whole statements into one leaf, and it does not see the dummy identifier the
+ * platform inserts into the completion copy of the file.
+ */
+record CypherCompletionPosition(@NotNull Kind kind, int nameStart, int segmentStart) {
+    enum Kind {
+        /** Inside a comment or string literal, where nothing is completed. */
+        COMMENT_OR_STRING,
+        /** In a {@code $name} parameter; {@link #segmentStart()} is the {@code $}. */
+        PARAMETER,
+        /** Anywhere else. */
+        NAME
+    }
+
+    /**
+     * Returns the position at {@code caret}, lexing from the start of its statement in {@code statements},
+     * or from {@code caret - window} when that is later or there is no table; a window starts at the next
+     * line start when there is one before the caret, as in {@link CypherCompletionContext}.
+     */
+    static @NotNull CypherCompletionPosition at(@NotNull CharSequence text, @Nullable CypherStatementTable statements,
+                                                int caret, int window) {
+        int statementStart = statements == null ? 0 : statements.startOf(statements.indexAt(caret));
+        int start = Math.max(statementStart, caret - window);
+        int lineStart = start;
+        while (lineStart > statementStart && lineStart < caret && text.charAt(lineStart - 1) != '\n') {
+            lineStart++;
+        }
+        if (lineStart < caret) {
+            start = lineStart;
+        }
+        // the adjacent tokens that end at the caret, e.g. "apoc", ".", "periodic", ".", "it"
+        IElementType[] types = new IElementType[8];
+        int[] starts = new int[8];
+        int size = 0;
+        IElementType lastType = null;
+        int lastStart = caret;
+        int lastEnd = caret;
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(text, start, caret, 0);
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            lastType = type;
+            lastStart = lexer.getTokenStart();
+            lastEnd = lexer.getTokenEnd();
+            if (type == TokenType.WHITE_SPACE || type == CypherTokenTypes.COMMENT) {
+                size = 0;
+            } else {
+                if (size == types.length) {
+                    types = Arrays.copyOf(types, size * 2);
+                    starts = Arrays.copyOf(starts, size * 2);
+                }
+                types[size] = type;
+                starts[size] = lastStart;
+                size++;
+            }
+            lexer.advance();
+        }
+        if (lastEnd == caret && isOpen(text, lastType, lastStart, lastEnd)) {
+            return new CypherCompletionPosition(Kind.COMMENT_OR_STRING, caret, caret);
+        }
+        if (lastEnd != caret || lastType == TokenType.WHITE_SPACE || lastType == CypherTokenTypes.COMMENT) {
+            size = 0;
+        }
+        if (size > 0 && types[size - 1] == CypherTokenTypes.PARAMETER) {
+            return new CypherCompletionPosition(Kind.PARAMETER, starts[size - 1], starts[size - 1]);
+        }
+        int segment = size > 0 && isSegment(types[size - 1]) ? size - 1 : size;
+        int segmentStart = segment < size ? starts[segment] : caret;
+        int first = segment;
+        while (first >= 2 && types[first - 1] == CypherTokenTypes.DOT && isSegment(types[first - 2])) {
+            first -= 2;
+        }
+        return new CypherCompletionPosition(Kind.NAME, first < size ? starts[first] : caret, segmentStart);
+    }
+
+    /**
+     * Returns true when a token ending at the caret does not end there, i.e. a line comment or an unclosed
+     * block comment or string.
+     */
+    private static boolean isOpen(@NotNull CharSequence text, @Nullable IElementType type, int start, int end) {
+        if (type == CypherTokenTypes.COMMENT) {
+            return text.charAt(start + 1) == '/'
+                    || end - start < 4 || text.charAt(end - 2) != '*' || text.charAt(end - 1) != '/';
+        }
+        if (type == CypherTokenTypes.STRING) {
+            char quote = text.charAt(start);
+            int quotes = 0;
+            for (int i = end - 1; i > start && text.charAt(i) == quote; i--) {
+                quotes++;
+            }
+            // an even number of trailing quotes is an escaped quote inside the string
+            return quotes % 2 == 0;
+        }
+        return false;
+    }
+
+    private static boolean isSegment(@Nullable IElementType type) {
+        return type == CypherTokenTypes.IDENTIFIER || type == CypherTokenTypes.KEYWORD;
+    }
+}
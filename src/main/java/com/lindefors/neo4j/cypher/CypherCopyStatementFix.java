@@ -0,0 +1,38 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.datatransfer.StringSelection;
+
+/**
+ * Copies a suggested schema statement, such as {@code CREATE INDEX}, to be added to a migration script; the
+ * file being inspected is not changed.
+ */
+final class CypherCopyStatementFix implements LocalQuickFix {
+    private final String name;
+    private final String statement;
+
+    CypherCopyStatementFix(@NotNull String name, @NotNull String statement) {
+        this.name = name;
+        this.statement = statement;
+    }
+
+    @Override
+    public @NotNull String getFamilyName() {
+        return name;
+    }
+
+    @Override
+    public boolean startInWriteAction() {
+        return false;
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        CopyPasteManager.getInstance().setContents(new StringSelection(statement));
+    }
+}
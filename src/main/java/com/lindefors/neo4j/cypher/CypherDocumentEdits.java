@@ -0,0 +1,94 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.util.Key;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the last {@value #MAX_STEPS} edits of the documents whose {@link CypherStatementTable} is tracked,
+ * so that a table built for an earlier text can be updated from the edited ranges instead of by comparing
+ * the texts. Documents are tracked from the first {@link #update} on them; other documents cost one user
+ * data lookup per change.
+ */
+public class CypherDocumentEdits implements DocumentListener {
+    static final int MAX_STEPS = 32;
+
+    private static final Key<Log> LOG_KEY = Key.create("cypher.document.edits");
+
+    /**
+     * The texts before and after one document change; texts are the document's immutable snapshots and are
+     * compared by identity.
+     */
+    private record Step(@NotNull CharSequence before, @NotNull CharSequence after, @NotNull CypherStatementTable.Edit edit) {
+    }
+
+    /**
+     * The recorded steps, oldest first, and the current text; replaced as a whole on every change.
+     */
+    private record Log(@NotNull List<Step> steps, @NotNull CharSequence current) {
+    }
+
+    @Override
+    public void documentChanged(@NotNull DocumentEvent event) {
+        Document document = event.getDocument();
+        Log log = document.getUserData(LOG_KEY);
+        if (log == null) {
+            return;
+        }
+        CharSequence after = document.getImmutableCharSequence();
+        List<Step> steps = new ArrayList<>(Math.min(log.steps().size() + 1, MAX_STEPS));
+        steps.addAll(log.steps().subList(Math.max(0, log.steps().size() + 1 - MAX_STEPS), log.steps().size()));
+        steps.add(new Step(log.current(), after, new CypherStatementTable.Edit(event.getOffset(),
+                event.getOldLength(), event.getNewLength())));
+        document.putUserData(LOG_KEY, new Log(List.copyOf(steps), after));
+    }
+
+    /**
+     * Returns the statement table for {@code text}, updated from {@code table} with the recorded edits of
+     * {@code document} when they lead from the table's text to {@code text}, and by comparing the texts
+     * otherwise.
+     */
+    static @NotNull CypherStatementTable update(@Nullable Document document, @NotNull CypherStatementTable table,
+                                                @NotNull CharSequence text) {
+        if (document == null) {
+            return table.update(text);
+        }
+        Log log = document.getUserData(LOG_KEY);
+        if (log == null) {
+            document.putUserData(LOG_KEY, new Log(List.of(), document.getImmutableCharSequence()));
+            return table.update(text);
+        }
+        CypherStatementTable.Edit edit = edit(log.steps(), table.text(), text);
+        return edit == null ? table.update(text) : table.update(text, edit);
+    }
+
+    /**
+     * Folds the steps leading from {@code from} to {@code to} into one edit, or returns {@code null} when
+     * they were not all recorded.
+     */
+    private static @Nullable CypherStatementTable.Edit edit(@NotNull List<Step> steps, @NotNull CharSequence from,
+                                                            @NotNull CharSequence to) {
+        CypherStatementTable.Edit edit = null;
+        CharSequence text = from;
+        for (Step step : steps) {
+            if (edit == null && step.before() != from) {
+                continue;
+            }
+            if (step.before() != text) {
+                return null;
+            }
+            edit = edit == null ? step.edit() : edit.then(step.edit());
+            text = step.after();
+            if (text == to) {
+                return edit;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,77 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.lang.documentation.AbstractDocumentationProvider;
+import com.intellij.lang.documentation.DocumentationMarkup;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Shows catalog documentation for built-in, APOC and GDS functions and procedures, both for completion
+ * items and for names under the caret. Signatures are decoded only when the popup asks for them.
+ */
+public class CypherDocumentationProvider extends AbstractDocumentationProvider {
+    @Override
+    public @Nullable PsiElement getDocumentationElementForLookupItem(PsiManager psiManager, Object object, PsiElement element) {
+        if (object instanceof CypherSignatureStore.Entry entry) {
+            return new CypherSignatureElement(psiManager, entry.signature());
+        }
+        return null;
+    }
+
+    @Override
+    public @Nullable PsiElement getCustomDocumentationElement(@NotNull Editor editor,
+                                                              @NotNull PsiFile file,
+                                                              @Nullable PsiElement contextElement,
+                                                              int targetOffset) {
+        if (!CypherQualifiedNames.isSegment(contextElement)) {
+            return null;
+        }
+        CypherSignatureStore.Signature signature = CypherSignatureStore.bundled().find(CypherQualifiedNames.around(contextElement));
+        return signature == null ? null : new CypherSignatureElement(file.getManager(), signature);
+    }
+
+    @Override
+    public @Nullable String getQuickNavigateInfo(PsiElement element, PsiElement originalElement) {
+        if (element instanceof CypherSignatureElement signatureElement) {
+            return StringUtil.escapeXmlEntities(definition(signatureElement.getSignature()));
+        }
+        return null;
+    }
+
+    @Override
+    public @Nullable String generateDoc(PsiElement element, @Nullable PsiElement originalElement) {
+        if (!(element instanceof CypherSignatureElement signatureElement)) {
+            return null;
+        }
+        CypherSignatureStore.Signature signature = signatureElement.getSignature();
+        StringBuilder html = new StringBuilder();
+        html.append(DocumentationMarkup.DEFINITION_START)
+                .append(StringUtil.escapeXmlEntities(definition(signature)))
+                .append(DocumentationMarkup.DEFINITION_END)
+                .append(DocumentationMarkup.CONTENT_START)
+                .append(StringUtil.escapeXmlEntities(signature.description()))
+                .append(DocumentationMarkup.CONTENT_END);
+        if (!signature.yields().isEmpty()) {
+            html.append(DocumentationMarkup.SECTIONS_START)
+                    .append(DocumentationMarkup.SECTION_HEADER_START).append("Yields:")
+                    .append(DocumentationMarkup.SECTION_SEPARATOR);
+            for (CypherSignatureStore.Column column : signature.yields()) {
+                html.append("<code>").append(StringUtil.escapeXmlEntities(column.name() + " :: " + column.type()))
+                        .append("</code><br>");
+            }
+            html.append(DocumentationMarkup.SECTION_END).append(DocumentationMarkup.SECTIONS_END);
+        }
+        return html.toString();
+    }
+
+    private static @NotNull String definition(@NotNull CypherSignatureStore.Signature signature) {
+        String prefix = signature.kind() == CypherSignatureStore.Kind.PROCEDURE ? "CALL " : "";
+        String suffix = signature.returnType() == null ? "" : " :: " + signature.returnType();
+        return prefix + signature.name() + signature.parametersText() + suffix;
+    }
+}
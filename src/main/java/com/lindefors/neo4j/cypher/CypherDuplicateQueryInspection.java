@@ -0,0 +1,62 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.lang.injection.InjectedLanguageManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports statements whose {@link CypherFingerprints fingerprint} is shared with other statements in the
+ * project, i.e. copies of one query that differ at most in layout, keyword case and literal values. Each
+ * such copy takes its own slot in the Neo4j query plan cache. The file is fingerprinted in one lexer pass
+ * and every distinct fingerprint costs one lookup in {@link CypherFingerprintIndex}; the duplicates
+ * themselves are listed in the Cypher Duplicates tool window.
+ *
+ * <p>Injected fragments are not indexed and are skipped, as are files in large-file mode
+ * ({@link CypherLargeFileMode.Feature#SYNTAX_TREE}).
+ */
+public class CypherDuplicateQueryInspection extends LocalInspectionTool {
+    @Override
+    public ProblemDescriptor @Nullable [] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
+        if (!(file instanceof CypherPsiFile)
+                || InjectedLanguageManager.getInstance(file.getProject()).isInjectedFragment(file)
+                || CypherLargeFileMode.isDegraded(CypherLargeFileMode.Feature.SYNTAX_TREE, file.getTextLength())) {
+            return null;
+        }
+        CharSequence text = file.getViewProvider().getContents();
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(file.getProject());
+        List<ProblemDescriptor> problems = new ArrayList<>();
+        for (Map.Entry<Long, int[]> entry : CypherFingerprints.collectOffsets(text).entrySet()) {
+            ProgressManager.checkCanceled();
+            int count = CypherFingerprintIndex.countOccurrences(entry.getKey(), scope);
+            if (count < 2) {
+                continue;
+            }
+            String message = count == 2
+                    ? "Query is duplicated once more in the project, differing at most in literals"
+                    : "Query is duplicated " + (count - 1) + " more times in the project, differing at most in literals";
+            for (int offset : entry.getValue()) {
+                problems.add(manager.createProblemDescriptor(file, firstTokenRange(text, offset), message,
+                        ProblemHighlightType.GENERIC_ERROR_OR_WARNING, isOnTheFly));
+            }
+        }
+        return problems.toArray(ProblemDescriptor.EMPTY_ARRAY);
+    }
+
+    private static @NotNull TextRange firstTokenRange(@NotNull CharSequence text, int offset) {
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(text, offset, text.length(), 0);
+        return new TextRange(offset, lexer.getTokenType() == null ? offset : lexer.getTokenEnd());
+    }
+}
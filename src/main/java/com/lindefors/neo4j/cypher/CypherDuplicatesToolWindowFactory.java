@@ -0,0 +1,167 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.ActionToolbar;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.ui.DoubleClickListener;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.treeStructure.Tree;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.awt.event.MouseEvent;
+import java.util.Map;
+
+/**
+ * Tool window listing clusters of duplicated queries from {@link CypherFingerprintIndex}, largest first,
+ * with one navigable node per occurrence. The clusters are recomputed in a non-blocking read action when
+ * the window opens, on request, and shortly after Cypher files change while the window is showing.
+ */
+public class CypherDuplicatesToolWindowFactory implements ToolWindowFactory, DumbAware {
+    private static final int REFRESH_DELAY_MS = 1000;
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        Panel panel = new Panel(project);
+        Content content = ContentFactory.getInstance().createContent(panel, null, false);
+        content.setDisposer(panel);
+        toolWindow.getContentManager().addContent(content);
+        panel.refresh();
+    }
+
+    /**
+     * One occurrence of a duplicated query; the tree renders it by {@link #toString()}.
+     */
+    private record Occurrence(@NotNull VirtualFile file, int offset, int line) {
+        @Override
+        public @NotNull String toString() {
+            return file.getName() + ":" + (line + 1);
+        }
+    }
+
+    private static final class Panel extends SimpleToolWindowPanel implements Disposable {
+        private static final String EMPTY_TEXT = "No duplicated queries";
+
+        private final Project project;
+        private final DefaultTreeModel model = new DefaultTreeModel(new DefaultMutableTreeNode());
+        private final Tree tree = new Tree(model);
+        private final Alarm refreshAlarm = new Alarm(this);
+
+        private Panel(@NotNull Project project) {
+            super(true, true);
+            this.project = project;
+            tree.setRootVisible(false);
+            tree.setShowsRootHandles(true);
+            tree.getEmptyText().setText(EMPTY_TEXT);
+            new DoubleClickListener() {
+                @Override
+                protected boolean onDoubleClick(@NotNull MouseEvent event) {
+                    return navigateToSelection();
+                }
+            }.installOn(tree);
+
+            DefaultActionGroup actions = new DefaultActionGroup(new AnAction("Refresh", "Find duplicated queries again",
+                    AllIcons.Actions.Refresh) {
+                @Override
+                public void actionPerformed(@NotNull AnActionEvent event) {
+                    refresh();
+                }
+            });
+            ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("CypherDuplicates", actions, true);
+            toolbar.setTargetComponent(tree);
+            setToolbar(toolbar.getComponent());
+            setContent(ScrollPaneFactory.createScrollPane(tree));
+
+            PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+                @Override
+                public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                    if (event.getFile() instanceof CypherPsiFile && isShowing()) {
+                        refreshAlarm.cancelAllRequests();
+                        refreshAlarm.addRequest(Panel.this::refresh, REFRESH_DELAY_MS);
+                    }
+                }
+            }, this);
+        }
+
+        private void refresh() {
+            tree.getEmptyText().setText("Searching...");
+            ReadAction.nonBlocking(this::buildTree)
+                    .inSmartMode(project)
+                    .expireWith(this)
+                    .finishOnUiThread(ModalityState.any(), root -> {
+                        model.setRoot(root);
+                        tree.getEmptyText().setText(EMPTY_TEXT);
+                    })
+                    .submit(AppExecutorUtil.getAppExecutorService());
+        }
+
+        private @NotNull DefaultMutableTreeNode buildTree() {
+            DefaultMutableTreeNode root = new DefaultMutableTreeNode();
+            FileDocumentManager documents = FileDocumentManager.getInstance();
+            for (CypherFingerprintIndex.Cluster cluster
+                    : CypherFingerprintIndex.findClusters(project, GlobalSearchScope.projectScope(project))) {
+                DefaultMutableTreeNode clusterNode = new DefaultMutableTreeNode();
+                String summary = null;
+                for (Map.Entry<VirtualFile, int[]> entry : cluster.occurrences().entrySet()) {
+                    Document document = documents.getDocument(entry.getKey());
+                    if (document == null) {
+                        continue;
+                    }
+                    CharSequence text = document.getImmutableCharSequence();
+                    for (int offset : entry.getValue()) {
+                        if (offset >= text.length()) {
+                            continue;
+                        }
+                        if (summary == null) {
+                            summary = CypherStatementSummary.describe(text, offset, text.length());
+                        }
+                        clusterNode.add(new DefaultMutableTreeNode(
+                                new Occurrence(entry.getKey(), offset, document.getLineNumber(offset))));
+                    }
+                }
+                if (clusterNode.getChildCount() > 1) {
+                    clusterNode.setUserObject(clusterNode.getChildCount() + " copies: " + summary);
+                    root.add(clusterNode);
+                }
+            }
+            return root;
+        }
+
+        private boolean navigateToSelection() {
+            if (tree.getLastSelectedPathComponent() instanceof DefaultMutableTreeNode node
+                    && node.getUserObject() instanceof Occurrence occurrence && occurrence.file().isValid()) {
+                new OpenFileDescriptor(project, occurrence.file(), occurrence.offset()).navigate(true);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void dispose() {
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.lindefors.neo4j.cypher;
+
+/**
+ * Reports bulk statements at risk of an Eager operator, found by {@link CypherEagerRule}.
+ */
+public class CypherEagerInspection extends CypherLintInspection {
+}
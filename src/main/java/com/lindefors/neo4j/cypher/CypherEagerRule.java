@@ -0,0 +1,191 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reports bulk statements, driven by {@code LOAD CSV} or {@code UNWIND}, whose reads and writes interleave in
+ * a way that makes the planner insert an Eager operator. Eager pulls every input row through the preceding
+ * clauses before the next one starts, so a large CSV file ends up in memory at once.
+ *
+ * <p>Clauses are visited in order while the labels, relationship types and property keys
+ * ({@link CypherSymbols#key symbol keys}) read and written so far are tracked. A clause conflicts when it
+ * reads a symbol an earlier clause wrote (e.g. two {@code MERGE}s on one label), writes a symbol an earlier
+ * clause read (e.g. {@code MATCH (p:Person) ... CREATE (:Person)}), or reads after a {@code DELETE}.
+ * Statements that already batch with {@code IN TRANSACTIONS} are not reported. When the row source is the
+ * first clause and nothing is returned, the fix moves the rest of the statement into
+ * {@code CALL { ... } IN TRANSACTIONS OF } {@value #BATCH_SIZE} {@code ROWS}, which bounds the Eager to one
+ * batch.
+ */
+public class CypherEagerRule implements CypherLintRule {
+    static final String INSPECTION = "CypherEager";
+    static final int BATCH_SIZE = 1000;
+
+    @Override
+    public @NotNull String inspectionShortName() {
+        return INSPECTION;
+    }
+
+    @Override
+    public void check(@NotNull CypherLintContext context) {
+        for (int i = 0; i < context.size(); i++) {
+            if (context.isWord(i, "IN") && context.isWord(i + 1, "TRANSACTIONS")) {
+                return;
+            }
+        }
+        int source = -1;
+        boolean deleted = false;
+        Set<String> read = new HashSet<>();
+        Set<String> written = new HashSet<>();
+        for (int i = 0; i < context.size(); i++) {
+            if (!context.isClauseStart(i)) {
+                continue;
+            }
+            int keywordEnd = context.isKeyword(i, "OPTIONAL") || context.isKeyword(i, "DETACH") ? i + 1 : i;
+            int end = context.clauseEnd(i);
+            Set<String> reads = new HashSet<>();
+            Set<String> writes = new HashSet<>();
+            boolean reading = false;
+            if (context.isKeyword(i, "LOAD") || context.isKeyword(i, "UNWIND")) {
+                if (source < 0) {
+                    source = i;
+                }
+                continue;
+            } else if (context.isKeyword(keywordEnd, "MATCH") || context.isKeyword(i, "WHERE")) {
+                reading = true;
+                collect(context, keywordEnd + 1, end, reads, true);
+            } else if (context.isKeyword(i, "MERGE")) {
+                int onClause = indexOfOn(context, i, end);
+                collect(context, i + 1, onClause, reads, true);
+                collect(context, i + 1, onClause, writes, false);
+                collectSetTargets(context, onClause, end, writes);
+            } else if (context.isKeyword(i, "CREATE")) {
+                collect(context, i + 1, end, writes, false);
+            } else if (context.isKeyword(i, "SET") || context.isKeyword(i, "REMOVE")) {
+                collectSetTargets(context, i + 1, end, writes);
+            } else if (context.isKeyword(keywordEnd, "DELETE")) {
+                deleted = true;
+                continue;
+            } else {
+                continue;
+            }
+
+            String conflict = null;
+            if (reading && deleted) {
+                conflict = "Reading after DELETE";
+            } else {
+                String symbol = firstShared(reads, written);
+                if (symbol != null) {
+                    conflict = "Reading " + describe(symbol) + " after it was written";
+                } else if ((symbol = firstShared(writes, read)) != null) {
+                    conflict = "Writing " + describe(symbol) + " after it was read";
+                }
+            }
+            if (conflict != null && source >= 0) {
+                context.report(i, keywordEnd, conflict + " makes the planner add an Eager operator, which holds every "
+                        + "input row in memory; batch the writes with CALL { ... } IN TRANSACTIONS", batchFix(context, source));
+                return;
+            }
+            read.addAll(reads);
+            written.addAll(writes);
+        }
+    }
+
+    /**
+     * Collects the symbol keys of the names in {@code [from, to)}; without {@code withPropertyKeys} only
+     * labels and relationship types.
+     */
+    private static void collect(@NotNull CypherLintContext context, int from, int to, @NotNull Set<String> keys,
+                                boolean withPropertyKeys) {
+        for (int i = from; i < to; i++) {
+            CypherSemanticRoles.Role role = context.role(i);
+            if (role == CypherSemanticRoles.Role.LABEL || role == CypherSemanticRoles.Role.RELATIONSHIP_TYPE
+                    || withPropertyKeys && role == CypherSemanticRoles.Role.PROPERTY_KEY) {
+                keys.add(CypherSymbols.key(role, CypherVariableScopes.normalize(context.text(i))));
+            }
+        }
+    }
+
+    /**
+     * Collects what {@code SET} / {@code REMOVE} items write: labels, and property keys on the left of
+     * {@code =} / {@code +=} or removed outright. Values on the right-hand side are ignored.
+     */
+    private static void collectSetTargets(@NotNull CypherLintContext context, int from, int to, @NotNull Set<String> keys) {
+        boolean target = true;
+        int depth = context.depth(from);
+        for (int i = from; i < to; i++) {
+            if (context.depth(i) == depth && context.type(i) == CypherTokenTypes.COMMA
+                    || context.isKeyword(i, "SET")) {
+                target = true;
+            } else if (context.depth(i) == depth && context.type(i) == CypherTokenTypes.OPERATOR
+                    && ("=".contentEquals(context.text(i)) || "+=".contentEquals(context.text(i)))) {
+                target = false;
+            } else if (target && (context.role(i) == CypherSemanticRoles.Role.LABEL
+                    || context.role(i) == CypherSemanticRoles.Role.PROPERTY_KEY)) {
+                keys.add(CypherSymbols.key(context.role(i), CypherVariableScopes.normalize(context.text(i))));
+            }
+        }
+    }
+
+    private static int indexOfOn(@NotNull CypherLintContext context, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (context.isKeyword(i, "ON") && context.depth(i) == context.depth(from)) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static @Nullable String firstShared(@NotNull Set<String> first, @NotNull Set<String> second) {
+        for (String key : first) {
+            if (second.contains(key)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    private static @NotNull String describe(@NotNull String key) {
+        String name = key.substring(key.indexOf(':') + 1);
+        return switch (CypherSymbols.typeName(key)) {
+            case "label" -> ":" + name;
+            case "relationship type" -> "[:" + name + "]";
+            default -> "property " + name;
+        };
+    }
+
+    /**
+     * Wraps everything after the row source in a batched subquery, or returns {@code null} when the source is
+     * not the first clause, has no row variable, or the statement returns rows.
+     */
+    private static @Nullable CypherLintFix batchFix(@NotNull CypherLintContext context, int source) {
+        if (source != 0) {
+            return null;
+        }
+        int restStart = context.clauseEnd(source);
+        int last = context.size() - 1;
+        if (context.type(last) == CypherTokenTypes.SEMICOLON) {
+            last--;
+        }
+        String row = null;
+        for (int i = source; i < restStart; i++) {
+            if (context.isKeyword(i, "AS") && context.role(i + 1) == CypherSemanticRoles.Role.VARIABLE) {
+                row = context.text(i + 1).toString();
+            }
+        }
+        if (row == null || restStart > last) {
+            return null;
+        }
+        for (int i = restStart; i <= last; i++) {
+            if (context.isClauseStart(i) && context.depth(i) == 0 && context.isKeyword(i, "RETURN")) {
+                return null;
+            }
+        }
+        String rest = context.source(restStart, last).toString().replace("\n", "\n  ");
+        return context.replace("Run in CALL { ... } IN TRANSACTIONS", restStart, last,
+                "CALL {\n  WITH " + row + "\n  " + rest + "\n} IN TRANSACTIONS OF " + BATCH_SIZE + " ROWS");
+    }
+}
@@ -0,0 +1,150 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.util.registry.Registry;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Reports variable-length relationships in {@code MATCH} without an upper bound ({@code -[*]->},
+ * {@code -[:KNOWS*2..]-}) or with one above the maximum hop count (registry key {@value #MAX_HOPS_KEY},
+ * {@value #DEFAULT_MAX_HOPS} by default), and {@code ORDER BY} without {@code LIMIT} in statements expanding
+ * at least the sort hop count (registry key {@value #SORT_HOPS_KEY}, {@value #DEFAULT_SORT_HOPS} by
+ * default), which sorts every path found. Ranges come from {@link CypherPatterns.Range}. Expansions inside
+ * {@code shortestPath()}, {@code allShortestPaths()} or a {@code SHORTEST} / {@code ANY} path selector stop
+ * at the first match and are not reported.
+ *
+ * <p>The fixes add an upper bound of the maximum hop count, or {@code LIMIT} {@value #SORT_LIMIT} after the
+ * sort. The thresholds are the rule's {@link #settings()}, so cached results are dropped when a registry
+ * value changes.
+ */
+public class CypherExpansionRule implements CypherLintRule {
+    static final String INSPECTION = "CypherUnboundedExpansion";
+    static final String MAX_HOPS_KEY = "cypher.lint.expansion.max.hops";
+    static final String SORT_HOPS_KEY = "cypher.lint.sort.expansion.hops";
+    static final int DEFAULT_MAX_HOPS = 10;
+    static final int DEFAULT_SORT_HOPS = 5;
+    static final int SORT_LIMIT = 1000;
+
+    private final int maxHops;
+    private final int sortHops;
+
+    public CypherExpansionRule() {
+        this(-1, -1);
+    }
+
+    /**
+     * Creates a rule with fixed thresholds; a negative threshold is read from its registry key instead.
+     */
+    CypherExpansionRule(int maxHops, int sortHops) {
+        this.maxHops = maxHops;
+        this.sortHops = sortHops;
+    }
+
+    @Override
+    public @NotNull String inspectionShortName() {
+        return INSPECTION;
+    }
+
+    @Override
+    public @NotNull List<?> settings() {
+        return List.of(maxHops(), sortHops());
+    }
+
+    @Override
+    public void check(@NotNull CypherLintContext context) {
+        int maxHops = maxHops();
+        int sortHops = sortHops();
+        boolean largeExpansion = false;
+        for (int i = 0; i < context.size(); i++) {
+            if (!context.isClauseStart(i)) {
+                continue;
+            }
+            int keywordEnd = context.isKeyword(i, "OPTIONAL") ? i + 1 : i;
+            if (context.isKeyword(keywordEnd, "MATCH")) {
+                for (CypherPatterns.Part part : CypherPatterns.parse(context, keywordEnd + 1, context.clauseEnd(i))) {
+                    if (hasPathSelector(context, part)) {
+                        continue;
+                    }
+                    for (CypherPatterns.Relationship relationship : part.relationships()) {
+                        CypherPatterns.Range range = relationship.range();
+                        if (range == null || isInShortestPath(context, relationship.open())) {
+                            continue;
+                        }
+                        largeExpansion |= range.isUnbounded() || range.upper() >= sortHops;
+                        checkRange(context, range, maxHops);
+                    }
+                }
+            } else if (largeExpansion && context.isKeyword(i, "ORDER")) {
+                checkSort(context, i);
+            }
+        }
+    }
+
+    private int maxHops() {
+        return maxHops >= 0 ? maxHops : Registry.intValue(MAX_HOPS_KEY, DEFAULT_MAX_HOPS);
+    }
+
+    private int sortHops() {
+        return sortHops >= 0 ? sortHops : Registry.intValue(SORT_HOPS_KEY, DEFAULT_SORT_HOPS);
+    }
+
+    private static void checkRange(@NotNull CypherLintContext context, @NotNull CypherPatterns.Range range, int maxHops) {
+        if (range.isUnbounded()) {
+            int bound = Math.max(range.lower(), maxHops);
+            String insertion = context.type(range.last()) == CypherTokenTypes.DOT ? String.valueOf(bound) : ".." + bound;
+            context.report(range.star(), range.last(), "Variable-length relationship without an upper bound can expand "
+                    + "through the whole graph", context.insertAfter("Add upper bound of " + bound + " hops", range.last(), insertion));
+        } else if (range.upper() > maxHops) {
+            CypherLintFix fix = range.lower() <= maxHops
+                    ? context.replace("Lower upper bound to " + maxHops + " hops", range.last(), range.last(), String.valueOf(maxHops))
+                    : null;
+            context.report(range.star(), range.last(), "Variable-length relationship of up to " + range.upper()
+                    + " hops; more than " + maxHops + " hops rarely terminates on a connected graph", fix);
+        }
+    }
+
+    /**
+     * Reports the {@code ORDER BY} at {@code order} unless a {@code LIMIT} follows it, possibly after
+     * {@code SKIP}.
+     */
+    private static void checkSort(@NotNull CypherLintContext context, int order) {
+        int next = context.clauseEnd(order);
+        if (context.isKeyword(next, "SKIP")) {
+            next = context.clauseEnd(next);
+        }
+        if (context.isKeyword(next, "LIMIT")) {
+            return;
+        }
+        int last = next - 1;
+        if (context.type(last) == CypherTokenTypes.SEMICOLON) {
+            last--;
+        }
+        context.report(order, order + 1, "ORDER BY without LIMIT sorts every row of a variable-length expansion",
+                context.insertAfter("Add LIMIT " + SORT_LIMIT, last, " LIMIT " + SORT_LIMIT));
+    }
+
+    /**
+     * Returns true when the part starts with a path selector such as {@code SHORTEST 1} or {@code ANY}, e.g.
+     * {@code p = SHORTEST 1 (a)-[*]-(b)}.
+     */
+    private static boolean hasPathSelector(@NotNull CypherLintContext context, @NotNull CypherPatterns.Part part) {
+        for (int i = part.start(); i < part.end() && context.type(i) != CypherTokenTypes.PAREN_OPEN; i++) {
+            if (context.isWord(i, "SHORTEST") || context.isWord(i, "ANY")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isInShortestPath(@NotNull CypherLintContext context, int open) {
+        int depth = context.depth(open);
+        for (int i = open - 1; i > 0; i--) {
+            if (context.depth(i) < depth) {
+                return context.type(i) == CypherTokenTypes.PAREN_OPEN
+                        && (context.isWord(i - 1, "shortestPath") || context.isWord(i - 1, "allShortestPaths"));
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,52 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.lang.cacheBuilder.WordsScanner;
+import com.intellij.lang.findUsages.FindUsagesProvider;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Enables Find Usages for Cypher symbols. The actual search is served by {@link CypherReferenceSearcher}.
+ */
+public class CypherFindUsagesProvider implements FindUsagesProvider {
+    @Override
+    public @Nullable WordsScanner getWordsScanner() {
+        return new CypherWordsScanner();
+    }
+
+    @Override
+    public boolean canFindUsagesFor(@NotNull PsiElement psiElement) {
+        if (psiElement instanceof CypherIdentifierElement identifier) {
+            return identifier.isVariable() || identifier.symbolKey() != null;
+        }
+        return psiElement instanceof CypherParameterElement parameter && parameter.getName() != null;
+    }
+
+    @Override
+    public @Nullable String getHelpId(@NotNull PsiElement psiElement) {
+        return null;
+    }
+
+    @Override
+    public @NotNull String getType(@NotNull PsiElement element) {
+        if (element instanceof CypherParameterElement) {
+            return "parameter";
+        }
+        if (element instanceof CypherIdentifierElement identifier) {
+            String key = identifier.symbolKey();
+            return key == null ? "variable" : CypherSymbols.typeName(key);
+        }
+        return "";
+    }
+
+    @Override
+    public @NotNull String getDescriptiveName(@NotNull PsiElement element) {
+        return element.getText();
+    }
+
+    @Override
+    public @NotNull String getNodeText(@NotNull PsiElement element, boolean useFullName) {
+        return element.getText();
+    }
+}
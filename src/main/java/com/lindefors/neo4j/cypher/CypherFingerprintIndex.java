@@ -0,0 +1,143 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Project index from statement fingerprint ({@link CypherFingerprints}) to the offsets of the statements
+ * with that fingerprint in each Cypher file. Like all file-based indexes it is updated per changed file, so
+ * duplicate lookups stay cheap while the project is edited.
+ */
+public class CypherFingerprintIndex extends FileBasedIndexExtension<Long, int[]> {
+    public static final ID<Long, int[]> NAME = ID.create("com.lindefors.neo4j.cypher.fingerprints");
+
+    private static final KeyDescriptor<Long> FINGERPRINT_DESCRIPTOR = new KeyDescriptor<>() {
+        @Override
+        public int getHashCode(Long value) {
+            return value.hashCode();
+        }
+
+        @Override
+        public boolean isEqual(Long first, Long second) {
+            return first.equals(second);
+        }
+
+        @Override
+        public void save(@NotNull DataOutput out, Long value) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public Long read(@NotNull DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    /**
+     * Statements sharing one fingerprint, with their offsets per file.
+     */
+    public record Cluster(long fingerprint, @NotNull Map<VirtualFile, int[]> occurrences) {
+        public int size() {
+            int size = 0;
+            for (int[] offsets : occurrences.values()) {
+                size += offsets.length;
+            }
+            return size;
+        }
+    }
+
+    @Override
+    public @NotNull ID<Long, int[]> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<Long, int[], FileContent> getIndexer() {
+        return inputData -> CypherFingerprints.collectOffsets(inputData.getContentAsText());
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<Long> getKeyDescriptor() {
+        return FINGERPRINT_DESCRIPTOR;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<int[]> getValueExternalizer() {
+        return CypherParameterIndex.OFFSETS_EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(CypherFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Counts the statements with the given fingerprint. Counting only touches the packed offset arrays.
+     */
+    public static int countOccurrences(long fingerprint, @NotNull GlobalSearchScope scope) {
+        int[] total = {0};
+        FileBasedIndex.getInstance().processValues(NAME, fingerprint, null, (file, offsets) -> {
+            total[0] += offsets.length;
+            return true;
+        }, scope);
+        return total[0];
+    }
+
+    /**
+     * Returns every fingerprint shared by at least two statements in {@code scope}, largest clusters first.
+     */
+    public static @NotNull List<Cluster> findClusters(@NotNull Project project, @NotNull GlobalSearchScope scope) {
+        FileBasedIndex index = FileBasedIndex.getInstance();
+        List<Long> fingerprints = new ArrayList<>();
+        index.processAllKeys(NAME, fingerprint -> {
+            fingerprints.add(fingerprint);
+            return true;
+        }, project);
+
+        List<Cluster> clusters = new ArrayList<>();
+        for (Long fingerprint : fingerprints) {
+            ProgressManager.checkCanceled();
+            Map<VirtualFile, int[]> occurrences = new LinkedHashMap<>();
+            index.processValues(NAME, fingerprint, null, (file, offsets) -> {
+                occurrences.put(file, offsets);
+                return true;
+            }, scope);
+            Cluster cluster = new Cluster(fingerprint, occurrences);
+            if (cluster.size() > 1) {
+                clusters.add(cluster);
+            }
+        }
+        clusters.sort(Comparator.comparingInt(Cluster::size).reversed());
+        return clusters;
+    }
+}
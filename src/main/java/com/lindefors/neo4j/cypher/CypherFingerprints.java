@@ -0,0 +1,139 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fingerprints of Cypher statements for finding duplicated queries. A fingerprint is a rolling 64-bit hash
+ * over the statement's {@link CypherLexer} tokens in which whitespace, comments and the terminating
+ * semicolon are ignored, keywords are upper-cased, and string, number and boolean literals are replaced by
+ * a placeholder per kind. Two statements that differ only in layout, keyword case or literal values, and
+ * would therefore be planned separately by Neo4j, get the same fingerprint.
+ *
+ * <p>Statements with fewer than {@value #MIN_TOKENS} tokens are not fingerprinted; short queries such as
+ * {@code MATCH (n) RETURN n} repeat naturally and are not worth reporting.
+ */
+public final class CypherFingerprints {
+    static final int MIN_TOKENS = 8;
+
+    /**
+     * Returned by {@link #fingerprint} for statements that are too short to fingerprint.
+     */
+    static final long NONE = 0;
+
+    private static final long TOKEN_PRIME = 0x100000001b3L;
+    private static final long ROLLING_PRIME = 0x9e3779b97f4a7c15L;
+    private static final long STRING_PLACEHOLDER = 0x5354524c; // "STRL"
+    private static final long NUMBER_PLACEHOLDER = 0x4e554d4c; // "NUML"
+    private static final long BOOLEAN_PLACEHOLDER = 0x424f4f4c; // "BOOL"
+
+    private CypherFingerprints() {
+    }
+
+    /**
+     * Returns the fingerprint of the statement in {@code text[start, end)}, or {@link #NONE}.
+     */
+    static long fingerprint(@NotNull CharSequence text, int start, int end) {
+        Statement statement = new Statement();
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(text, start, end, 0);
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            if (type != TokenType.WHITE_SPACE && type != CypherTokenTypes.COMMENT && type != CypherTokenTypes.SEMICOLON) {
+                statement.add(text, type, lexer.getTokenStart(), lexer.getTokenEnd());
+            }
+            lexer.advance();
+        }
+        return statement.fingerprint();
+    }
+
+    /**
+     * Fingerprints every statement of the text in one lexer pass and groups the offsets of the statements'
+     * first tokens by fingerprint, in ascending order.
+     */
+    public static @NotNull Map<Long, int[]> collectOffsets(@NotNull CharSequence text) {
+        Map<Long, int[]> offsets = new HashMap<>();
+        Statement statement = new Statement();
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(text, 0, text.length(), 0);
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            if (type == CypherTokenTypes.SEMICOLON) {
+                statement.addTo(offsets);
+                statement = new Statement();
+            } else if (type != TokenType.WHITE_SPACE && type != CypherTokenTypes.COMMENT) {
+                statement.add(text, type, lexer.getTokenStart(), lexer.getTokenEnd());
+            }
+            lexer.advance();
+        }
+        statement.addTo(offsets);
+        return offsets;
+    }
+
+    private static final class Statement {
+        private long hash;
+        private int tokens;
+        private int firstOffset = -1;
+
+        private void add(@NotNull CharSequence text, @NotNull IElementType type, int start, int end) {
+            if (firstOffset < 0) {
+                firstOffset = start;
+            }
+            hash = hash * ROLLING_PRIME + tokenHash(text, type, start, end);
+            tokens++;
+        }
+
+        private long fingerprint() {
+            return tokens < MIN_TOKENS || hash == NONE ? NONE : hash;
+        }
+
+        private void addTo(@NotNull Map<Long, int[]> offsets) {
+            long fingerprint = fingerprint();
+            if (fingerprint != NONE) {
+                offsets.merge(fingerprint, new int[]{firstOffset}, (existing, added) -> {
+                    int[] merged = Arrays.copyOf(existing, existing.length + 1);
+                    merged[existing.length] = added[0];
+                    return merged;
+                });
+            }
+        }
+    }
+
+    private static long tokenHash(@NotNull CharSequence text, @NotNull IElementType type, int start, int end) {
+        if (type == CypherTokenTypes.STRING) {
+            return STRING_PLACEHOLDER;
+        }
+        if (type == CypherTokenTypes.NUMBER) {
+            return NUMBER_PLACEHOLDER;
+        }
+        boolean keyword = type == CypherTokenTypes.KEYWORD;
+        if (keyword && (isWord(text, start, end, "TRUE") || isWord(text, start, end, "FALSE"))) {
+            return BOOLEAN_PLACEHOLDER;
+        }
+        // Debug names, unlike element type indices, are stable across IDE sessions, so persisted fingerprints stay valid.
+        long hash = 0xcbf29ce484222325L ^ type.getDebugName().hashCode();
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            hash ^= keyword ? Character.toUpperCase(c) : c;
+            hash *= TOKEN_PRIME;
+        }
+        return hash;
+    }
+
+    private static boolean isWord(@NotNull CharSequence text, int start, int end, @NotNull String word) {
+        if (end - start != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.toUpperCase(text.charAt(start + i)) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
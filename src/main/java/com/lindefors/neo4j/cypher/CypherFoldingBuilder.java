@@ -4,105 +4,195 @@ import com.intellij.lang.ASTNode;
 import com.intellij.lang.folding.FoldingBuilderEx;
 import com.intellij.lang.folding.FoldingDescriptor;
 import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.registry.Registry;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.TokenType;
 import com.intellij.psi.tree.IElementType;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.List;
 
 /**
- * Provides basic folding for Cypher files by pairing parentheses, brackets, and braces when their
- * contents span multiple lines.
+ * Provides folding for Cypher files: parentheses, brackets and braces whose contents span multiple lines,
+ * multi-line block comments and whole multi-line statements.
+ *
+ * <p>Regions are computed in one iterative lexer pass over the document text, pairing delimiters with a
+ * primitive stack and tracking line numbers from the newlines passed, so no AST walk or per-bracket
+ * {@link Document#getLineNumber} lookups are needed. In quick mode only braces and block comments are
+ * reported. The number of regions is capped by the {@value #MAX_REGIONS_KEY} registry key, and no regions are
+ * computed in large-file mode ({@link CypherLargeFileMode.Feature#FOLDING}).
  */
-public class CypherFoldingBuilder extends FoldingBuilderEx {
+public class CypherFoldingBuilder extends FoldingBuilderEx implements DumbAware {
+    static final String MAX_REGIONS_KEY = "cypher.folding.max.regions";
+    private static final int STATEMENT_PLACEHOLDER_LENGTH = 40;
+
+    private static final int PAREN = 0;
+    private static final int BRACKET = 1;
+    private static final int BRACE = 2;
+    private static final String[] PLACEHOLDERS = {"(...)", "[...]", "{...}"};
+
     /**
-     * Builds fold regions by walking tokens in document order and pairing matching delimiters with a stack.
+     * A region to fold, with the text shown while it is collapsed.
      */
+    record Region(int start, int end, @NotNull String placeholder) {
+    }
+
     @Override
     public FoldingDescriptor @NotNull [] buildFoldRegions(@NotNull PsiElement root,
                                                           @NotNull Document document,
                                                           boolean quick) {
-        List<FoldingDescriptor> descriptors = new ArrayList<>();
-        Deque<ASTNode> stack = new ArrayDeque<>();
-
-        walkAst(root.getNode(), node -> {
-            IElementType type = node.getElementType();
-            if (isOpening(type)) {
-                stack.push(node);
-                return;
-            }
+        ASTNode node = root.getNode();
+        if (node == null || CypherLargeFileMode.isDegraded(CypherLargeFileMode.Feature.FOLDING, document.getTextLength())) {
+            return FoldingDescriptor.EMPTY_ARRAY;
+        }
+        List<Region> regions = computeRegions(document.getImmutableCharSequence(), quick,
+                Registry.intValue(MAX_REGIONS_KEY, 2000));
+        FoldingDescriptor[] descriptors = new FoldingDescriptor[regions.size()];
+        for (int i = 0; i < descriptors.length; i++) {
+            Region region = regions.get(i);
+            descriptors[i] = new FoldingDescriptor(node, new TextRange(region.start(), region.end()), null,
+                    region.placeholder());
+        }
+        return descriptors;
+    }
+
+    /**
+     * Computes fold regions in a single lexer pass. Unbalanced or mismatched closing delimiters are
+     * ignored; once {@code maxRegions} regions have been found the pass stops.
+     */
+    static @NotNull List<Region> computeRegions(@NotNull CharSequence text, boolean quick, int maxRegions) {
+        List<Region> regions = new ArrayList<>();
+        if (maxRegions <= 0) {
+            return regions;
+        }
+        int[] kinds = new int[16];
+        int[] starts = new int[16];
+        int[] lines = new int[16];
+        int depth = 0;
+
+        int line = 0;
+        int statementStart = -1;
+        int statementLine = 0;
+        int statementEnd = -1;
+        int statementEndLine = 0;
 
-            if (isClosing(type) && !stack.isEmpty()) {
-                ASTNode opening = stack.peek();
-                if (matches(opening.getElementType(), type)) {
-                    stack.pop();
-                    if (isMultiline(document, opening, node)) {
-                        TextRange range = new TextRange(opening.getTextRange().getStartOffset(),
-                                node.getTextRange().getEndOffset());
-                        descriptors.add(new FoldingDescriptor(opening, range));
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(text, 0, text.length(), 0);
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null && regions.size() < maxRegions) {
+            int start = lexer.getTokenStart();
+            int end = lexer.getTokenEnd();
+            int endLine = line + countNewlines(text, start, end);
+
+            if (type == CypherTokenTypes.COMMENT) {
+                if (endLine > line && end - start > 1 && text.charAt(start) == '/' && text.charAt(start + 1) == '*') {
+                    regions.add(new Region(start, end, "/*...*/"));
+                }
+            } else if (type != TokenType.WHITE_SPACE) {
+                int kind = openingKind(type);
+                if (kind >= 0) {
+                    if (depth == kinds.length) {
+                        kinds = Arrays.copyOf(kinds, depth * 2);
+                        starts = Arrays.copyOf(starts, depth * 2);
+                        lines = Arrays.copyOf(lines, depth * 2);
+                    }
+                    kinds[depth] = kind;
+                    starts[depth] = start;
+                    lines[depth] = line;
+                    depth++;
+                } else {
+                    kind = closingKind(type);
+                    if (kind >= 0 && depth > 0 && kinds[depth - 1] == kind) {
+                        depth--;
+                        if (line > lines[depth] && (!quick || kind == BRACE)) {
+                            regions.add(new Region(starts[depth], end, PLACEHOLDERS[kind]));
+                        }
                     }
                 }
-            }
-        });
 
-        return descriptors.toArray(FoldingDescriptor[]::new);
-    }
+                if (!quick) {
+                    if (statementStart < 0) {
+                        statementStart = start;
+                        statementLine = line;
+                    }
+                    statementEnd = end;
+                    statementEndLine = endLine;
+                    if (type == CypherTokenTypes.SEMICOLON) {
+                        addStatement(regions, text, statementStart, statementLine, statementEnd, statementEndLine);
+                        statementStart = -1;
+                    }
+                }
+            }
 
-    @Override
-    public @NotNull String getPlaceholderText(@NotNull ASTNode node) {
-        IElementType type = node.getElementType();
-        if (type == CypherTokenTypes.BRACE_OPEN) {
-            return "{...}";
+            line = endLine;
+            lexer.advance();
         }
-        if (type == CypherTokenTypes.BRACKET_OPEN) {
-            return "[...]";
+        if (statementStart >= 0 && regions.size() < maxRegions) {
+            addStatement(regions, text, statementStart, statementLine, statementEnd, statementEndLine);
         }
-        if (type == CypherTokenTypes.PAREN_OPEN) {
-            return "(...)";
+        return regions;
+    }
+
+    private static void addStatement(@NotNull List<Region> regions, @NotNull CharSequence text,
+                                     int start, int startLine, int end, int endLine) {
+        if (endLine > startLine) {
+            regions.add(new Region(start, end, statementPlaceholder(text, start, end)));
         }
-        return "...";
     }
 
-    @Override
-    public boolean isCollapsedByDefault(@NotNull ASTNode node) {
-        return false;
+    /**
+     * Shows the start of the statement's first line, e.g. {@code MATCH (p:Person)...}.
+     */
+    private static @NotNull String statementPlaceholder(@NotNull CharSequence text, int start, int end) {
+        int lineEnd = start;
+        while (lineEnd < end && text.charAt(lineEnd) != '\n' && text.charAt(lineEnd) != '\r'
+                && lineEnd - start < STATEMENT_PLACEHOLDER_LENGTH) {
+            lineEnd++;
+        }
+        return text.subSequence(start, lineEnd).toString().stripTrailing() + "...";
     }
 
-    private void walkAst(@NotNull ASTNode node, @NotNull java.util.function.Consumer<ASTNode> visitor) {
-        for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
-            visitor.accept(child);
-            walkAst(child, visitor);
+    private static int countNewlines(@NotNull CharSequence text, int start, int end) {
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                count++;
+            }
         }
+        return count;
     }
 
-    private boolean isOpening(IElementType type) {
-        return type == CypherTokenTypes.BRACE_OPEN
-                || type == CypherTokenTypes.BRACKET_OPEN
-                || type == CypherTokenTypes.PAREN_OPEN;
+    private static int openingKind(IElementType type) {
+        if (type == CypherTokenTypes.PAREN_OPEN) {
+            return PAREN;
+        }
+        if (type == CypherTokenTypes.BRACKET_OPEN) {
+            return BRACKET;
+        }
+        return type == CypherTokenTypes.BRACE_OPEN ? BRACE : -1;
     }
 
-    private boolean isClosing(IElementType type) {
-        return type == CypherTokenTypes.BRACE_CLOSE
-                || type == CypherTokenTypes.BRACKET_CLOSE
-                || type == CypherTokenTypes.PAREN_CLOSE;
+    private static int closingKind(IElementType type) {
+        if (type == CypherTokenTypes.PAREN_CLOSE) {
+            return PAREN;
+        }
+        if (type == CypherTokenTypes.BRACKET_CLOSE) {
+            return BRACKET;
+        }
+        return type == CypherTokenTypes.BRACE_CLOSE ? BRACE : -1;
     }
 
-    private boolean matches(IElementType opening, IElementType closing) {
-        return (opening == CypherTokenTypes.BRACE_OPEN && closing == CypherTokenTypes.BRACE_CLOSE)
-                || (opening == CypherTokenTypes.BRACKET_OPEN && closing == CypherTokenTypes.BRACKET_CLOSE)
-                || (opening == CypherTokenTypes.PAREN_OPEN && closing == CypherTokenTypes.PAREN_CLOSE);
+    @Override
+    public @NotNull String getPlaceholderText(@NotNull ASTNode node) {
+        return "...";
     }
 
-    /**
-     * Ensures folding only hides ranges that actually span multiple lines.
-     */
-    private boolean isMultiline(Document document, ASTNode opening, ASTNode closing) {
-        int startLine = document.getLineNumber(opening.getTextRange().getStartOffset());
-        int endLine = document.getLineNumber(closing.getTextRange().getEndOffset());
-        return endLine > startLine;
+    @Override
+    public boolean isCollapsedByDefault(@NotNull ASTNode node) {
+        return false;
     }
 }
@@ -4,6 +4,8 @@ import com.intellij.formatting.Block;
 import com.intellij.formatting.FormattingContext;
 import com.intellij.formatting.FormattingModel;
 import com.intellij.formatting.FormattingModelProvider;
+import com.intellij.formatting.Indent;
+import com.intellij.formatting.Spacing;
 import com.intellij.formatting.WrapType;
 import com.intellij.formatting.SpacingBuilder;
 import com.intellij.formatting.Wrap;
@@ -11,18 +13,29 @@ import com.intellij.lang.ASTNode;
 import com.intellij.formatting.FormattingModelBuilder;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.codeStyle.CodeStyleSettings;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.codeStyle.CommonCodeStyleSettings;
+import com.intellij.psi.formatter.common.AbstractBlock;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
 
 /**
  * Builds IntelliJ formatting models for Cypher files using token-based spacing rules and simple
  * brace-depth indentation. The model delegates spacing to {@link CypherBlock} for pattern-aware tweaks.
+ * In large-file mode ({@link CypherLargeFileMode.Feature#FORMATTING}) the model is a single childless
+ * block, so reformatting leaves the file unchanged.
  */
 public class CypherFormattingModelBuilder implements FormattingModelBuilder {
     @Override
     public @NotNull FormattingModel createModel(@NotNull FormattingContext formattingContext) {
         PsiElement element = formattingContext.getPsiElement();
         CodeStyleSettings settings = formattingContext.getCodeStyleSettings();
+        PsiFile file = element.getContainingFile();
+        if (CypherLargeFileMode.isDegraded(CypherLargeFileMode.Feature.FORMATTING, file.getTextLength())) {
+            return FormattingModelProvider.createFormattingModelForPsiFile(file, new UnformattedBlock(element.getNode()), settings);
+        }
         SpacingBuilder spacingBuilder = createSpacingBuilder(settings);
         CommonCodeStyleSettings.IndentOptions indentOptions = settings.getIndentOptions(element.getContainingFile().getFileType());
         int indentSize = resolveIndentSize(indentOptions);
@@ -59,4 +72,33 @@ public class CypherFormattingModelBuilder implements FormattingModelBuilder {
         }
         return 4;
     }
+
+    /**
+     * Childless root block used in large-file mode; the formatter finds no whitespace to adjust.
+     */
+    private static final class UnformattedBlock extends AbstractBlock {
+        private UnformattedBlock(@NotNull ASTNode node) {
+            super(node, null, null);
+        }
+
+        @Override
+        protected List<Block> buildChildren() {
+            return List.of();
+        }
+
+        @Override
+        public @Nullable Spacing getSpacing(@Nullable Block child1, @NotNull Block child2) {
+            return null;
+        }
+
+        @Override
+        public Indent getIndent() {
+            return Indent.getNoneIndent();
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return true;
+        }
+    }
 }
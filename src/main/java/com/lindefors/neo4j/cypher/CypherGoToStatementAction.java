@@ -0,0 +1,77 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.ScrollType;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.ui.InputValidator;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Moves the caret to a statement by its 1-based number, using the file's {@link CypherStatementTable}.
+ */
+public class CypherGoToStatementAction extends AnAction implements DumbAware {
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabledAndVisible(e.getData(CommonDataKeys.EDITOR) != null
+                && e.getData(CommonDataKeys.PSI_FILE) instanceof CypherPsiFile);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Editor editor = e.getData(CommonDataKeys.EDITOR);
+        PsiFile file = e.getData(CommonDataKeys.PSI_FILE);
+        if (editor == null || !(file instanceof CypherPsiFile cypherFile)) {
+            return;
+        }
+        CypherStatementTable statements = cypherFile.getStatementTable();
+        int count = statements.statementCount();
+        int current = statements.indexAt(editor.getCaretModel().getOffset()) + 1;
+        String input = Messages.showInputDialog(editor.getProject(), "Statement number (1-" + count + "):",
+                "Go to Statement", null, String.valueOf(current), new InputValidator() {
+                    @Override
+                    public boolean checkInput(String inputString) {
+                        return parseStatementNumber(inputString, count) > 0;
+                    }
+
+                    @Override
+                    public boolean canClose(String inputString) {
+                        return checkInput(inputString);
+                    }
+                });
+        int number = parseStatementNumber(input, count);
+        if (number <= 0 || statements.text().length() != editor.getDocument().getTextLength()) {
+            return;
+        }
+        int index = number - 1;
+        int offset = CypherStatementSummary.firstTokenOffset(statements.text(), statements.startOf(index), statements.endOf(index));
+        editor.getCaretModel().moveToOffset(offset);
+        editor.getScrollingModel().scrollToCaret(ScrollType.CENTER);
+    }
+
+    /**
+     * Returns the statement number entered, or -1 when it is not a number in {@code 1..count}.
+     */
+    static int parseStatementNumber(@Nullable String input, int count) {
+        if (input == null) {
+            return -1;
+        }
+        try {
+            int number = Integer.parseInt(input.trim());
+            return number >= 1 && number <= count ? number : -1;
+        } catch (NumberFormatException ignored) {
+            return -1;
+        }
+    }
+}
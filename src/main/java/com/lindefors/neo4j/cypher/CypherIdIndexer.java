@@ -0,0 +1,37 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.impl.cache.impl.id.IdDataConsumer;
+import com.intellij.psi.impl.cache.impl.id.IdIndexEntry;
+import com.intellij.psi.impl.cache.impl.id.IdIndexer;
+import com.intellij.psi.search.UsageSearchContext;
+import com.intellij.util.indexing.FileContent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Builds the id index for Cypher files from the same lexer-based word stream as
+ * {@link CypherWordsScanner}, so oversized string literals are skipped here as well.
+ */
+public class CypherIdIndexer implements IdIndexer {
+    @Override
+    public @NotNull Map<IdIndexEntry, Integer> map(@NotNull FileContent inputData) {
+        CharSequence text = inputData.getContentAsText();
+        IdDataConsumer consumer = new IdDataConsumer();
+        CypherWordsScanner.scan(text, CypherWordsScanner.maxIndexedStringLength(), (start, end, kind) -> {
+            int mask = switch (kind) {
+                case COMMENTS -> UsageSearchContext.IN_COMMENTS;
+                case LITERALS -> UsageSearchContext.IN_STRINGS;
+                default -> UsageSearchContext.IN_CODE;
+            };
+            consumer.addOccurrence(text, start, end, mask);
+            return true;
+        });
+        return consumer.getResult();
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+}
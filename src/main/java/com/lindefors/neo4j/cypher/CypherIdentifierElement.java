@@ -0,0 +1,188 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiNameIdentifierOwner;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.impl.source.tree.LeafPsiElement;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.IncorrectOperationException;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Leaf PSI for {@link CypherTokenTypes#IDENTIFIER} tokens, and for keywords used as names. Variables are
+ * resolved through the per-statement symbol table in {@link CypherSemanticRoles}: the first visible
+ * occurrence of a variable is its declaration, and every later occurrence carries a
+ * {@link CypherVariableReference} to it. Lookups only walk the siblings within the owning statement.
+ * Labels, relationship types and property keys are project-wide {@link CypherSymbols}; each occurrence
+ * carries a {@link CypherSymbolReference}, and usages are found through {@link CypherSymbolIndex}.
+ */
+public class CypherIdentifierElement extends LeafPsiElement implements PsiNameIdentifierOwner {
+    private static final Pattern SIMPLE_NAME = Pattern.compile("[\\p{L}_][\\p{L}\\p{N}_]*");
+
+    public CypherIdentifierElement(@NotNull IElementType type, @NotNull CharSequence text) {
+        super(type, text);
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return CypherVariableScopes.normalize(getText());
+    }
+
+    @Override
+    public @NotNull PsiElement getNameIdentifier() {
+        return this;
+    }
+
+    @Override
+    public PsiElement setName(@NotNull String name) throws IncorrectOperationException {
+        if (name.isEmpty() || name.indexOf('`') >= 0) {
+            throw new IncorrectOperationException("Invalid name: " + name);
+        }
+        boolean simple = SIMPLE_NAME.matcher(name).matches() && !CypherTokenTypes.KEYWORDS.contains(name.toUpperCase(Locale.ENGLISH));
+        return replaceWithText(simple ? name : "`" + name + "`").getPsi();
+    }
+
+    @Override
+    public @Nullable PsiReference getReference() {
+        Occurrence occurrence = occurrence();
+        if (occurrence == null) {
+            return null;
+        }
+        if (occurrence.role() == CypherSemanticRoles.Role.VARIABLE) {
+            return occurrence.isDeclaration() ? null : new CypherVariableReference(this);
+        }
+        return symbolKey(occurrence) == null ? null : new CypherSymbolReference(this);
+    }
+
+    /**
+     * Usages are listed from the owning statement by {@link CypherReferenceSearcher}, so the platform's
+     * word-based search only needs to look at the element itself.
+     */
+    @Override
+    public @NotNull SearchScope getUseScope() {
+        return new LocalSearchScope(this);
+    }
+
+    boolean isVariable() {
+        Occurrence occurrence = occurrence();
+        return occurrence != null && occurrence.role() == CypherSemanticRoles.Role.VARIABLE;
+    }
+
+    /**
+     * Returns the {@link CypherSymbols#key symbol key} when this identifier is a label, relationship type or
+     * property key, or {@code null} otherwise.
+     */
+    @Nullable String symbolKey() {
+        return symbolKey(occurrence());
+    }
+
+    private @Nullable String symbolKey(@Nullable Occurrence occurrence) {
+        return occurrence == null ? null : CypherSymbols.key(occurrence.role(), getName());
+    }
+
+    /**
+     * Returns the declaring occurrence of this variable: the element itself for a declaration, or
+     * {@code null} when this identifier is not a variable.
+     */
+    @Nullable CypherIdentifierElement resolveDeclaration() {
+        Occurrence occurrence = occurrence();
+        if (occurrence == null || occurrence.role() != CypherSemanticRoles.Role.VARIABLE) {
+            return null;
+        }
+        if (occurrence.isDeclaration()) {
+            return this;
+        }
+        int offset = occurrence.base + occurrence.roles.start(occurrence.roles.declaration(occurrence.index));
+        return leafAt(this, offset) instanceof CypherIdentifierElement declaration ? declaration : null;
+    }
+
+    /**
+     * Passes every other occurrence of the variable declared by this element, in text order.
+     */
+    boolean processUsages(@NotNull Processor<? super CypherIdentifierElement> processor) {
+        Occurrence occurrence = occurrence();
+        if (occurrence == null || occurrence.role() != CypherSemanticRoles.Role.VARIABLE || !occurrence.isDeclaration()) {
+            return true;
+        }
+        CypherSemanticRoles roles = occurrence.roles;
+        ASTNode node = getNode();
+        int nodeStart = node.getStartOffset();
+        for (int i = occurrence.index + 1; i < roles.size(); i++) {
+            if (roles.declaration(i) != occurrence.index) {
+                continue;
+            }
+            int target = occurrence.base + roles.start(i);
+            while (node != null && nodeStart + node.getTextLength() <= target) {
+                nodeStart += node.getTextLength();
+                node = node.getTreeNext();
+            }
+            if (node == null) {
+                return true;
+            }
+            if (nodeStart == target && node.getPsi() instanceof CypherIdentifierElement usage && !processor.process(usage)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private @Nullable Occurrence occurrence() {
+        PsiFile file = getContainingFile();
+        if (!(file instanceof CypherPsiFile cypherFile)) {
+            return null;
+        }
+        CypherSemanticCache cache = cypherFile.getSemanticCache();
+        CypherStatementTable statements = cache.statements();
+        if (statements.text().length() != file.getTextLength()) {
+            return null;
+        }
+        int offset = getNode().getStartOffset();
+        int statement = statements.indexAt(offset);
+        int base = statements.startOf(statement);
+        CypherSemanticRoles roles = cache.roles(statement);
+        int index = roles.indexAt(offset - base);
+        if (index < 0 || roles.start(index) != offset - base) {
+            return null;
+        }
+        return new Occurrence(roles, base, index);
+    }
+
+    /**
+     * Finds the leaf starting at {@code offset} by walking the siblings of {@code anchor}; the file tree is
+     * flat, and declarations are in the same statement as their usages.
+     */
+    private static @Nullable PsiElement leafAt(@NotNull PsiElement anchor, int offset) {
+        ASTNode node = anchor.getNode();
+        int start = node.getStartOffset();
+        while (node != null && start > offset) {
+            node = node.getTreePrev();
+            if (node != null) {
+                start -= node.getTextLength();
+            }
+        }
+        while (node != null && start + node.getTextLength() <= offset) {
+            start += node.getTextLength();
+            node = node.getTreeNext();
+        }
+        return node != null && start == offset ? node.getPsi() : null;
+    }
+
+    private record Occurrence(@NotNull CypherSemanticRoles roles, int base, int index) {
+        @NotNull CypherSemanticRoles.Role role() {
+            return roles.role(index);
+        }
+
+        boolean isDeclaration() {
+            return roles.declaration(index) == index;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the property lookups the planner can start a {@code MATCH} or {@code MERGE} pattern part from:
+ * labelled nodes and typed relationships with equality predicates, either inline ({@code (:Person {name: $n})})
+ * or in the {@code WHERE} of the same {@code MATCH} ({@code p.email = $e}, {@code p.id IN $ids},
+ * {@code p.name STARTS WITH 'A'}). Parts that contain a variable bound by an earlier clause or part are
+ * skipped, since they start from that variable instead.
+ *
+ * <p>Nothing here depends on the schema, so the lookups of a statement can be matched against any
+ * {@link CypherSchema}.
+ */
+final class CypherIndexLookups {
+    /**
+     * A node or relationship pattern spanning {@code [start, end)}, relative to the statement start, on which
+     * an index of one of {@code entities} ({@link CypherSymbols#key symbol keys}) for one of
+     * {@code properties} would serve the lookup.
+     */
+    record Lookup(int start, int end, @NotNull List<String> entities, @NotNull List<String> properties) {
+    }
+
+    private CypherIndexLookups() {
+    }
+
+    /**
+     * Returns, for each pattern part that is not anchored to a bound variable, the lookups it could start
+     * from; parts without property predicates are left out.
+     */
+    static @NotNull List<List<Lookup>> collect(@NotNull CypherLintContext context) {
+        List<List<Lookup>> result = new ArrayList<>();
+        Set<String> bound = new HashSet<>();
+        int boundUpTo = 0;
+        for (int i = 0; i < context.size(); i++) {
+            if (!context.isClauseStart(i)) {
+                continue;
+            }
+            int keywordEnd = context.isKeyword(i, "OPTIONAL") ? i + 1 : i;
+            boolean merge = context.isKeyword(i, "MERGE");
+            if (!merge && !context.isKeyword(keywordEnd, "MATCH")) {
+                continue;
+            }
+            for (; boundUpTo < i; boundUpTo++) {
+                if (context.role(boundUpTo) == CypherSemanticRoles.Role.VARIABLE) {
+                    bound.add(CypherVariableScopes.normalize(context.text(boundUpTo)));
+                }
+            }
+            int end = context.clauseEnd(i);
+            int patternEnd = merge ? mergePatternEnd(context, i, end) : end;
+            Map<String, List<String>> predicates = !merge && context.isKeyword(end, "WHERE")
+                    ? wherePredicates(context, end + 1, context.clauseEnd(end)) : Map.of();
+            for (CypherPatterns.Part part : CypherPatterns.parse(context, keywordEnd + 1, patternEnd)) {
+                if (isAnchored(part, bound)) {
+                    continue;
+                }
+                List<Lookup> lookups = new ArrayList<>(1);
+                for (CypherPatterns.Node node : part.nodes()) {
+                    addLookup(context, lookups, node.open(), node.close(), node.variable(), node.labels(),
+                            CypherSemanticRoles.Role.LABEL, node.propertyKeys(), predicates);
+                }
+                for (CypherPatterns.Relationship relationship : part.relationships()) {
+                    addLookup(context, lookups, relationship.open(), relationship.close(), relationship.variable(),
+                            relationship.types(), CypherSemanticRoles.Role.RELATIONSHIP_TYPE, relationship.propertyKeys(),
+                            predicates);
+                }
+                if (!lookups.isEmpty()) {
+                    result.add(lookups);
+                }
+                addVariables(part, bound);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the first lookup of every pattern part in {@code context} that {@code schema} has no index for.
+     */
+    static @NotNull List<Lookup> unindexed(@NotNull CypherLintContext context, @NotNull CypherSchema schema) {
+        List<Lookup> unindexed = new ArrayList<>();
+        for (List<Lookup> lookups : collect(context)) {
+            if (!isIndexed(lookups, schema)) {
+                unindexed.add(lookups.get(0));
+            }
+        }
+        return unindexed;
+    }
+
+    private static boolean isIndexed(@NotNull List<Lookup> lookups, @NotNull CypherSchema schema) {
+        for (Lookup lookup : lookups) {
+            for (String entity : lookup.entities()) {
+                if (schema.covers(entity, lookup.properties())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a statement creating a range index for the first entity and property of {@code lookup}, e.g.
+     * {@code CREATE INDEX person_name IF NOT EXISTS FOR (n:Person) ON (n.name)}.
+     */
+    static @NotNull String createIndexStatement(@NotNull Lookup lookup) {
+        String entityKey = lookup.entities().get(0);
+        String entity = entityKey.substring(entityKey.indexOf(':') + 1);
+        String property = lookup.properties().get(0);
+        boolean relationship = CypherSymbols.typeName(entityKey).equals("relationship type");
+        String pattern = relationship ? "()-[r:" + quote(entity) + "]-()" : "(n:" + quote(entity) + ")";
+        String name = (entity + "_" + property).toLowerCase(Locale.ENGLISH).replaceAll("[^a-z0-9_]", "_");
+        return "CREATE INDEX " + name + " IF NOT EXISTS FOR " + pattern + " ON (" + (relationship ? "r." : "n.")
+                + quote(property) + ")";
+    }
+
+    static @NotNull String quote(@NotNull String name) {
+        return name.matches("[A-Za-z_][A-Za-z0-9_]*") ? name : "`" + name.replace("`", "``") + "`";
+    }
+
+    private static void addLookup(@NotNull CypherLintContext context, @NotNull List<Lookup> lookups, int open, int close,
+                                  @Nullable String variable, @NotNull List<String> names, @NotNull CypherSemanticRoles.Role role,
+                                  @NotNull List<String> inline, @NotNull Map<String, List<String>> predicates) {
+        List<String> properties = new ArrayList<>(inline);
+        List<String> filtered = variable == null ? null : predicates.get(variable);
+        if (filtered != null) {
+            properties.addAll(filtered);
+        }
+        if (names.isEmpty() || properties.isEmpty()) {
+            return;
+        }
+        List<String> entities = new ArrayList<>(names.size());
+        for (String name : names) {
+            entities.add(CypherSymbols.key(role, name));
+        }
+        lookups.add(new Lookup(context.startOffset(open), context.endOffset(close), entities, properties));
+    }
+
+    /**
+     * Returns the property keys compared by equality, {@code IN} or {@code STARTS WITH} per variable in
+     * tokens {@code [from, to)}, e.g. {@code p -> [email]} for {@code p.email = $e}.
+     */
+    private static @NotNull Map<String, List<String>> wherePredicates(@NotNull CypherLintContext context, int from, int to) {
+        Map<String, List<String>> predicates = new HashMap<>();
+        for (int i = from; i + 2 < to; i++) {
+            if (context.role(i) != CypherSemanticRoles.Role.VARIABLE || context.type(i + 1) != CypherTokenTypes.DOT
+                    || context.role(i + 2) != CypherSemanticRoles.Role.PROPERTY_KEY) {
+                continue;
+            }
+            boolean compared = isEquals(context, i + 3) || isEquals(context, i - 1)
+                    || context.isWord(i + 3, "IN") || context.isWord(i + 3, "STARTS");
+            if (compared) {
+                predicates.computeIfAbsent(CypherVariableScopes.normalize(context.text(i)), variable -> new ArrayList<>(1))
+                        .add(CypherVariableScopes.normalize(context.text(i + 2)));
+            }
+        }
+        return predicates;
+    }
+
+    private static boolean isEquals(@NotNull CypherLintContext context, int index) {
+        return context.type(index) == CypherTokenTypes.OPERATOR && "=".contentEquals(context.text(index));
+    }
+
+    /**
+     * Returns the end of the pattern of the {@code MERGE} at {@code start}, before any {@code ON CREATE} or
+     * {@code ON MATCH}.
+     */
+    private static int mergePatternEnd(@NotNull CypherLintContext context, int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            if (context.isKeyword(i, "ON") && context.depth(i) == context.depth(start)) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static boolean isAnchored(@NotNull CypherPatterns.Part part, @NotNull Set<String> bound) {
+        for (CypherPatterns.Node node : part.nodes()) {
+            if (node.variable() != null && bound.contains(node.variable())) {
+                return true;
+            }
+        }
+        for (CypherPatterns.Relationship relationship : part.relationships()) {
+            if (relationship.variable() != null && bound.contains(relationship.variable())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addVariables(@NotNull CypherPatterns.Part part, @NotNull Set<String> bound) {
+        for (CypherPatterns.Node node : part.nodes()) {
+            if (node.variable() != null) {
+                bound.add(node.variable());
+            }
+        }
+        for (CypherPatterns.Relationship relationship : part.relationships()) {
+            if (relationship.variable() != null) {
+                bound.add(relationship.variable());
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.search.IndexPatternBuilder;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Lets TODO patterns be searched in Cypher comments using {@link CypherLexer}. Line and block comments
+ * share one token type, so the two-character opening delimiter is always trimmed and the closing
+ * {@code *}{@code /} is trimmed when the token text ends with it.
+ */
+public class CypherIndexPatternBuilder implements IndexPatternBuilder {
+    private static final TokenSet COMMENTS = TokenSet.create(CypherTokenTypes.COMMENT);
+
+    @Override
+    public @Nullable Lexer getIndexingLexer(@NotNull PsiFile file) {
+        return file instanceof CypherPsiFile ? new CypherLexer() : null;
+    }
+
+    @Override
+    public @Nullable TokenSet getCommentTokenSet(@NotNull PsiFile file) {
+        return file instanceof CypherPsiFile ? COMMENTS : null;
+    }
+
+    @Override
+    public int getCommentStartDelta(IElementType tokenType) {
+        return tokenType == CypherTokenTypes.COMMENT ? 2 : 0;
+    }
+
+    @Override
+    public int getCommentEndDelta(IElementType tokenType) {
+        return 0;
+    }
+
+    @Override
+    public int getCommentEndDelta(IElementType tokenType, @NotNull CharSequence tokenText) {
+        return tokenType == CypherTokenTypes.COMMENT && isClosedBlockComment(tokenText) ? 2 : 0;
+    }
+
+    private static boolean isClosedBlockComment(@NotNull CharSequence text) {
+        int length = text.length();
+        return length >= 4 && text.charAt(0) == '/' && text.charAt(1) == '*'
+                && text.charAt(length - 2) == '*' && text.charAt(length - 1) == '/';
+    }
+}
@@ -0,0 +1,80 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Support for Cypher injected into string literals of other languages by {@link CypherLanguageInjector}.
+ *
+ * <p>The platform recreates injected files whenever their host literal is reparsed, which happens for
+ * every literal in a region the user edits or scrolls back into after a reparse. To avoid lexing and
+ * classifying the same query again, the {@link CypherSemanticCache} of each injected fragment is kept in an
+ * application-wide LRU map keyed by a hash of the fragment text; a new fragment with the same text starts
+ * from the remembered statement table and roles. At most {@value #MAX_FRAGMENTS} fragments are remembered.
+ */
+final class CypherInjectedFragments {
+    static final int MAX_FRAGMENTS = 2048;
+
+    /**
+     * Keywords a query can start with; literals starting with anything else are not treated as Cypher.
+     */
+    private static final Set<String> LEADING_KEYWORDS = Set.of(
+            "MATCH", "OPTIONAL", "MERGE", "CREATE", "WITH", "UNWIND", "CALL", "RETURN", "USE", "LOAD",
+            "FOREACH", "SHOW", "DROP", "EXPLAIN", "PROFILE", "DETACH", "DELETE", "SET", "REMOVE", "CYPHER");
+
+    private static final Map<Long, CypherSemanticCache> FRAGMENTS = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CypherSemanticCache> eldest) {
+            return size() > MAX_FRAGMENTS;
+        }
+    };
+
+    private CypherInjectedFragments() {
+    }
+
+    /**
+     * Returns true when the first token of {@code text[start, end)} that is neither whitespace nor a comment
+     * is a word a Cypher query can start with. Only the leading tokens are lexed.
+     */
+    static boolean looksLikeCypher(@NotNull CharSequence text, int start, int end) {
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(text, start, end, 0);
+        IElementType type;
+        while ((type = lexer.getTokenType()) == TokenType.WHITE_SPACE || type == CypherTokenTypes.COMMENT) {
+            lexer.advance();
+        }
+        // compared by text whatever the token type: DROP and CYPHER, for example, lex as identifiers
+        if (type == null) {
+            return false;
+        }
+        String keyword = text.subSequence(lexer.getTokenStart(), lexer.getTokenEnd()).toString();
+        return LEADING_KEYWORDS.contains(keyword.toUpperCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Returns the remembered cache of a fragment with the same text, or {@code null}.
+     */
+    static @Nullable CypherSemanticCache lookup(@NotNull CharSequence text) {
+        long hash = CypherSemanticCache.hash(text, 0, text.length());
+        CypherSemanticCache cache;
+        synchronized (FRAGMENTS) {
+            cache = FRAGMENTS.get(hash);
+        }
+        return cache != null && cache.statements().text().length() == text.length() ? cache : null;
+    }
+
+    static void remember(@NotNull CypherSemanticCache cache) {
+        CharSequence text = cache.statements().text();
+        long hash = CypherSemanticCache.hash(text, 0, text.length());
+        synchronized (FRAGMENTS) {
+            FRAGMENTS.put(hash, cache);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.lindefors.neo4j.cypher;
+
+/**
+ * Reports literals that should be parameters, found by {@link CypherInlineLiteralRule}.
+ */
+public class CypherInlineLiteralInspection extends CypherLintInspection {
+}
@@ -0,0 +1,151 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Reports string and number literals in predicate and property positions, which Neo4j compiles into the plan
+ * so that every distinct value occupies its own plan cache entry:
+ * <ul>
+ *     <li>property map values of node and relationship patterns, {@code (:Person {name: 'Oliver Stone'})};</li>
+ *     <li>comparisons with a property in {@code WHERE}, {@code n.id = 42} or {@code 42 <= n.age};</li>
+ *     <li>assignments in {@code SET} and {@code ON CREATE SET}, {@code n.name = 'x'}.</li>
+ * </ul>
+ * The fix replaces the literal token with a {@code PARAMETER} named after its property key, numbered when
+ * the name is already used in the statement; the rest of the statement stays byte-identical.
+ */
+public class CypherInlineLiteralRule implements CypherLintRule {
+    static final String INSPECTION = "CypherInlineLiteral";
+
+    private static final Set<String> COMPARISONS = Set.of("=", "<>", "<", ">", "<=", ">=");
+
+    @Override
+    public @NotNull String inspectionShortName() {
+        return INSPECTION;
+    }
+
+    @Override
+    public void check(@NotNull CypherLintContext context) {
+        TreeMap<Integer, String> literals = new TreeMap<>();
+        Set<String> used = new HashSet<>();
+        String clause = "";
+        for (int i = 0; i < context.size(); i++) {
+            if (context.type(i) == CypherTokenTypes.PARAMETER) {
+                used.add(parameterName(context.text(i)));
+            }
+            if (!context.isClauseStart(i)) {
+                continue;
+            }
+            int keywordEnd = context.isKeyword(i, "OPTIONAL") ? i + 1 : i;
+            clause = context.text(keywordEnd).toString().toUpperCase(Locale.ENGLISH);
+            int end = context.clauseEnd(i);
+            if (clause.equals("MATCH") || clause.equals("MERGE") || clause.equals("CREATE")) {
+                for (CypherPatterns.Part part : CypherPatterns.parse(context, keywordEnd + 1, end)) {
+                    for (CypherPatterns.Node node : part.nodes()) {
+                        addMapValues(context, node.open(), node.close(), literals);
+                    }
+                    for (CypherPatterns.Relationship relationship : part.relationships()) {
+                        addMapValues(context, relationship.open(), relationship.close(), literals);
+                    }
+                }
+            }
+            if (clause.equals("WHERE") || clause.equals("SET") || clause.equals("MERGE")) {
+                addComparisons(context, keywordEnd + 1, end, !clause.equals("WHERE"), literals);
+            }
+        }
+        for (var literal : literals.entrySet()) {
+            String name = uniqueName(literal.getValue(), used);
+            context.report(literal.getKey(), literal.getKey(), "Literal is compiled into the plan; pass it as a parameter so "
+                    + "the plan can be reused", context.replace("Replace with $" + name, literal.getKey(), literal.getKey(), "$" + name));
+        }
+    }
+
+    /**
+     * Adds the literal values of the property map directly inside the pattern between {@code open} and
+     * {@code close}, keyed by their property key.
+     */
+    private static void addMapValues(@NotNull CypherLintContext context, int open, int close,
+                                     @NotNull TreeMap<Integer, String> literals) {
+        int depth = context.depth(open) + 2;
+        for (int i = open + 1; i + 2 < close; i++) {
+            if (context.depth(i) == depth && context.role(i) == CypherSemanticRoles.Role.PROPERTY_KEY
+                    && context.type(i + 1) == CypherTokenTypes.COLON && isLiteral(context, i + 2)
+                    && (context.type(i + 3) == CypherTokenTypes.COMMA || context.type(i + 3) == CypherTokenTypes.BRACE_CLOSE)) {
+                literals.put(i + 2, CypherVariableScopes.normalize(context.text(i)));
+            }
+        }
+    }
+
+    /**
+     * Adds literals compared with, or assigned to, a property {@code v.key} in {@code [from, to)}. Only
+     * {@code =} counts for assignments; predicates also use the other comparison operators and
+     * {@code STARTS WITH}, {@code ENDS WITH} and {@code CONTAINS}.
+     */
+    private static void addComparisons(@NotNull CypherLintContext context, int from, int to, boolean assignment,
+                                       @NotNull TreeMap<Integer, String> literals) {
+        for (int i = from; i + 2 < to; i++) {
+            if (context.type(i + 1) != CypherTokenTypes.DOT || context.role(i + 2) != CypherSemanticRoles.Role.PROPERTY_KEY) {
+                continue;
+            }
+            String key = CypherVariableScopes.normalize(context.text(i + 2));
+            int after = i + 3;
+            if (isComparison(context, after, assignment) && isLiteral(context, after + 1) && isOperandEnd(context, after + 2)) {
+                literals.put(after + 1, key);
+            } else if (!assignment && (context.isWord(after, "STARTS") || context.isWord(after, "ENDS"))
+                    && context.isWord(after + 1, "WITH") && isLiteral(context, after + 2) && isOperandEnd(context, after + 3)) {
+                literals.put(after + 2, key);
+            } else if (!assignment && context.isWord(after, "CONTAINS") && isLiteral(context, after + 1)
+                    && isOperandEnd(context, after + 2)) {
+                literals.put(after + 1, key);
+            } else if (!assignment && i - 2 >= from && isComparison(context, i - 1, false) && isLiteral(context, i - 2)
+                    && !isOperator(context, i - 3)) {
+                literals.put(i - 2, key);
+            }
+        }
+    }
+
+    private static boolean isLiteral(@NotNull CypherLintContext context, int index) {
+        return context.type(index) == CypherTokenTypes.STRING || context.type(index) == CypherTokenTypes.NUMBER;
+    }
+
+    private static boolean isComparison(@NotNull CypherLintContext context, int index, boolean assignment) {
+        return isOperator(context, index) && (assignment ? "=".contentEquals(context.text(index))
+                : COMPARISONS.contains(context.text(index).toString()));
+    }
+
+    private static boolean isOperator(@NotNull CypherLintContext context, int index) {
+        return context.type(index) == CypherTokenTypes.OPERATOR;
+    }
+
+    /**
+     * Returns true when nothing binds tighter to the literal before token {@code index}, e.g. not in
+     * {@code n.x = 1 + 2}, where the value is an expression rather than a literal.
+     */
+    private static boolean isOperandEnd(@NotNull CypherLintContext context, int index) {
+        return !isOperator(context, index) && context.type(index) != CypherTokenTypes.DOT
+                && context.type(index) != CypherTokenTypes.BRACKET_OPEN;
+    }
+
+    private static @NotNull String parameterName(@NotNull CharSequence token) {
+        String name = token.toString();
+        name = name.startsWith("$") ? name.substring(1) : name.replace("{", "").replace("}", "");
+        return CypherVariableScopes.normalize(name.strip());
+    }
+
+    /**
+     * Returns {@code key}, or {@code key2}, {@code key3}, ... when it is taken, and marks the result as used.
+     * Keys that are not plain identifiers become {@code param}.
+     */
+    private static @NotNull String uniqueName(@NotNull String key, @NotNull Set<String> used) {
+        String base = key.matches("[A-Za-z_][A-Za-z0-9_]*") ? key : "param";
+        String name = base;
+        for (int suffix = 2; !used.add(name); suffix++) {
+            name = base + suffix;
+        }
+        return name;
+    }
+}
@@ -0,0 +1,133 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.lang.injection.MultiHostInjector;
+import com.intellij.lang.injection.MultiHostRegistrar;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.ElementManipulators;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiClassType;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiLanguageInjectionHost;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.util.InheritanceUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.uast.UAnnotation;
+import org.jetbrains.uast.UCallExpression;
+import org.jetbrains.uast.UElement;
+import org.jetbrains.uast.UExpression;
+import org.jetbrains.uast.UNamedExpression;
+import org.jetbrains.uast.UParenthesizedExpression;
+import org.jetbrains.uast.UPolyadicExpression;
+import org.jetbrains.uast.UastContextKt;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Injects Cypher into Java and Kotlin string literals that hold queries: the first argument of driver and
+ * Spring Data Neo4j calls such as {@code session.run("MATCH ...")} or {@code neo4jClient.query(...)}, and
+ * the value of Spring Data Neo4j {@code @Query} annotations. Hosts are examined through UAST, so one
+ * injector serves both languages. A call only counts when it resolves to a method of a Neo4j type
+ * ({@link #QUERY_OWNERS}), as SQL APIs have {@code query} and {@code run} methods too and SQL shares many
+ * leading keywords with Cypher.
+ *
+ * <p>Every string literal in an open file passes through here, so the cheap check comes first: the literal
+ * must start with a keyword a query can start with ({@link CypherInjectedFragments#looksLikeCypher}), which
+ * only lexes its first tokens. Only then is the literal converted to UAST to inspect where it is used.
+ * Injected fragments are plain {@link CypherPsiFile}s and reuse the lexing and roles of identical fragments
+ * through {@link CypherInjectedFragments}. Operands of a concatenation are injected separately.
+ */
+public class CypherLanguageInjector implements MultiHostInjector {
+    private static final Set<String> QUERY_METHODS = Set.of("run", "executableQuery", "query");
+    private static final List<String> QUERY_OWNERS = List.of(
+            "org.neo4j.driver.QueryRunner",
+            "org.neo4j.driver.Session",
+            "org.neo4j.driver.Transaction",
+            "org.neo4j.driver.Driver",
+            "org.neo4j.driver.async.AsyncQueryRunner",
+            "org.neo4j.driver.reactive.ReactiveQueryRunner",
+            "org.springframework.data.neo4j.core.Neo4jClient",
+            "org.springframework.data.neo4j.core.ReactiveNeo4jClient");
+    private static final Set<String> QUERY_ANNOTATIONS = Set.of(
+            "org.springframework.data.neo4j.repository.query.Query",
+            "org.springframework.data.neo4j.annotation.Query");
+
+    @Override
+    public void getLanguagesToInject(@NotNull MultiHostRegistrar registrar, @NotNull PsiElement context) {
+        if (!(context instanceof PsiLanguageInjectionHost host) || !host.isValidHost()) {
+            return;
+        }
+        TextRange range = ElementManipulators.getValueTextRange(host);
+        if (range.isEmpty() || !CypherInjectedFragments.looksLikeCypher(host.getText(), range.getStartOffset(), range.getEndOffset())) {
+            return;
+        }
+        UElement element = UastContextKt.toUElement(host);
+        if (element == null || !isQueryPosition(element)) {
+            return;
+        }
+        registrar.startInjecting(CypherLanguage.INSTANCE)
+                .addPlace(null, null, host, range)
+                .doneInjecting();
+    }
+
+    @Override
+    public @NotNull List<? extends Class<? extends PsiElement>> elementsToInjectIn() {
+        return List.of(PsiLanguageInjectionHost.class);
+    }
+
+    /**
+     * Returns true when the literal, possibly as part of a concatenation or in parentheses, is the first
+     * argument of a query method of a Neo4j type or the value of a query annotation.
+     */
+    private static boolean isQueryPosition(@NotNull UElement element) {
+        UElement child = element;
+        UElement parent = element.getUastParent();
+        while (parent instanceof UPolyadicExpression || parent instanceof UParenthesizedExpression) {
+            child = parent;
+            parent = parent.getUastParent();
+        }
+        if (parent instanceof UNamedExpression) {
+            parent = parent.getUastParent();
+        }
+        if (parent instanceof UAnnotation annotation) {
+            return QUERY_ANNOTATIONS.contains(annotation.getQualifiedName());
+        }
+        if (parent instanceof UCallExpression call && QUERY_METHODS.contains(call.getMethodName())) {
+            List<UExpression> arguments = call.getValueArguments();
+            return !arguments.isEmpty() && isSameSource(arguments.get(0), child) && isNeo4jCall(call);
+        }
+        return false;
+    }
+
+    /**
+     * Returns true when the class declaring the method {@code call} resolves to, or the class of its
+     * receiver, is or extends one of the {@link #QUERY_OWNERS}. Calls that do not resolve are not injected.
+     */
+    private static boolean isNeo4jCall(@NotNull UCallExpression call) {
+        PsiMethod method = call.resolve();
+        if (method == null) {
+            return false;
+        }
+        if (isQueryOwner(method.getContainingClass())) {
+            return true;
+        }
+        return call.getReceiverType() instanceof PsiClassType receiver && isQueryOwner(receiver.resolve());
+    }
+
+    private static boolean isQueryOwner(@Nullable PsiClass type) {
+        if (type == null) {
+            return false;
+        }
+        for (String owner : QUERY_OWNERS) {
+            if (InheritanceUtil.isInheritor(type, owner)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSameSource(@NotNull UElement first, @Nullable UElement second) {
+        return second != null && first.getSourcePsi() != null && first.getSourcePsi() == second.getSourcePsi();
+    }
+}
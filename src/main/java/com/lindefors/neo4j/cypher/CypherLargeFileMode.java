@@ -0,0 +1,100 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.util.registry.Registry;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Size thresholds above which editor features are degraded so that very large Cypher files stay usable.
+ * Each {@link Feature} has its own registry key holding a size in kilobytes; {@code -1} never degrades it.
+ * Lexer-based highlighting, semantic highlighting, the structure view, statement navigation and completion
+ * of the text around the caret work at any size.
+ */
+public final class CypherLargeFileMode {
+    /**
+     * Characters scanned on either side of the caret to determine the completion context in a large file.
+     */
+    static final int COMPLETION_WINDOW = 16 * 1024;
+
+    public enum Feature {
+        /**
+         * The syntax tree is built from collapsed runs of statements instead of one leaf per token. Every
+         * feature that works on name leaves is off in the file: navigation to declarations, highlighting,
+         * finding and renaming usages of variables, parameters and symbols, and documentation for function
+         * and procedure names; the duplicate query check skips the file as well.
+         */
+        SYNTAX_TREE("cypher.large.file.tree.kb", 8 * 1024,
+                "syntax tree collapsed per statement group (no navigation, usages, rename, name documentation "
+                        + "or duplicate query check)"),
+        /**
+         * Reformatting is skipped.
+         */
+        FORMATTING("cypher.large.file.formatting.kb", 2 * 1024, "formatting disabled"),
+        /**
+         * No fold regions are computed.
+         */
+        FOLDING("cypher.large.file.folding.kb", 4 * 1024, "folding disabled"),
+        /**
+         * Completion looks only at a window around the caret and does not learn from the file.
+         */
+        COMPLETION("cypher.large.file.completion.kb", 4 * 1024, "completion limited to the text around the caret");
+
+        private final String registryKey;
+        private final int defaultKb;
+        private final String description;
+
+        Feature(String registryKey, int defaultKb, String description) {
+            this.registryKey = registryKey;
+            this.defaultKb = defaultKb;
+            this.description = description;
+        }
+
+        @NotNull String registryKey() {
+            return registryKey;
+        }
+
+        @NotNull String description() {
+            return description;
+        }
+
+        /**
+         * Returns the size in characters above which this feature is degraded, or -1 when it never is.
+         */
+        long threshold() {
+            int kb = Registry.intValue(registryKey, defaultKb);
+            return kb < 0 ? -1 : kb * 1024L;
+        }
+    }
+
+    private CypherLargeFileMode() {
+    }
+
+    public static boolean isDegraded(@NotNull Feature feature, long length) {
+        long threshold = feature.threshold();
+        return threshold >= 0 && length > threshold;
+    }
+
+    public static @NotNull Set<Feature> degradedFeatures(long length) {
+        Set<Feature> features = EnumSet.noneOf(Feature.class);
+        for (Feature feature : Feature.values()) {
+            if (isDegraded(feature, length)) {
+                features.add(feature);
+            }
+        }
+        return features;
+    }
+
+    /**
+     * Describes the degraded features for display, e.g. {@code "formatting disabled, folding disabled"}.
+     */
+    static @NotNull String describe(@NotNull Set<Feature> features) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (Feature feature : features) {
+            joiner.add(feature.description());
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,90 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.fileEditor.FileEditorManagerEvent;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.NlsContexts;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.wm.StatusBar;
+import com.intellij.openapi.wm.StatusBarWidget;
+import com.intellij.openapi.wm.StatusBarWidgetFactory;
+import com.intellij.openapi.wm.impl.status.EditorBasedWidget;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.Component;
+import java.util.Set;
+
+/**
+ * Status bar indicator shown while the selected Cypher file is in large-file mode; its tooltip lists the
+ * degraded features.
+ */
+public class CypherLargeFileWidgetFactory implements StatusBarWidgetFactory {
+    static final String ID = "CypherLargeFileMode";
+
+    @Override
+    public @NotNull String getId() {
+        return ID;
+    }
+
+    @Override
+    public @NlsContexts.ConfigurableName @NotNull String getDisplayName() {
+        return "Cypher Large-File Mode";
+    }
+
+    @Override
+    public @NotNull StatusBarWidget createWidget(@NotNull Project project) {
+        return new Widget(project);
+    }
+
+    @Override
+    public boolean canBeEnabledOn(@NotNull StatusBar statusBar) {
+        return true;
+    }
+
+    private static final class Widget extends EditorBasedWidget implements StatusBarWidget.TextPresentation {
+        private Widget(@NotNull Project project) {
+            super(project);
+        }
+
+        @Override
+        public @NotNull String ID() {
+            return ID;
+        }
+
+        @Override
+        public @Nullable WidgetPresentation getPresentation() {
+            return this;
+        }
+
+        @Override
+        public @NotNull String getText() {
+            return degradedFeatures().isEmpty() ? "" : "Cypher: large file";
+        }
+
+        @Override
+        public @Nullable String getTooltipText() {
+            Set<CypherLargeFileMode.Feature> features = degradedFeatures();
+            return features.isEmpty() ? null : "Large-file mode: " + CypherLargeFileMode.describe(features);
+        }
+
+        @Override
+        public float getAlignment() {
+            return Component.CENTER_ALIGNMENT;
+        }
+
+        @Override
+        public void selectionChanged(@NotNull FileEditorManagerEvent event) {
+            if (myStatusBar != null) {
+                myStatusBar.updateWidget(ID);
+            }
+        }
+
+        private @NotNull Set<CypherLargeFileMode.Feature> degradedFeatures() {
+            VirtualFile file = getSelectedFile();
+            if (file == null || !(file.getFileType() instanceof CypherFileType)) {
+                return Set.of();
+            }
+            return CypherLargeFileMode.degradedFeatures(file.getLength());
+        }
+    }
+}
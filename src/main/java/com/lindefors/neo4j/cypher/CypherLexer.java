@@ -13,9 +13,22 @@ import java.util.Set;
  * Minimal, hand-written lexer for Cypher that recognizes keywords, identifiers, parameters, comments,
  * strings, punctuation, and simple operators. The lexer is single-state because Cypher does not require
  * multi-state lexing for the subset the plugin supports.
+ *
+ * <p>By default the lexer uses bounded error recovery, so that an unclosed delimiter only affects the
+ * text near it and typing a single quote re-lexes a line rather than the rest of the file:
+ * <ul>
+ *   <li>strings, backtick identifiers and {@code $(...)} parameters end at a line break when they are
+ *   not closed on their line;</li>
+ *   <li>a block comment whose {@code *}{@code /} is not found before the next {@code /}{@code *} or within
+ *   {@value #BLOCK_COMMENT_LOOKAHEAD} characters ends at the end of its first line.</li>
+ * </ul>
+ * With recovery disabled, unclosed tokens run to the end of the input and strings may span lines.
  */
 public class CypherLexer extends LexerBase {
     private static final Set<String> KEYWORDS = CypherTokenTypes.KEYWORDS;
+    static final int BLOCK_COMMENT_LOOKAHEAD = 64 * 1024;
+
+    private final boolean boundedRecovery;
 
     private CharSequence buffer = "";
     private int endOffset;
@@ -24,6 +37,14 @@ public class CypherLexer extends LexerBase {
     private int tokenEnd;
     private IElementType tokenType;
 
+    public CypherLexer() {
+        this(true);
+    }
+
+    public CypherLexer(boolean boundedRecovery) {
+        this.boundedRecovery = boundedRecovery;
+    }
+
     @Override
     public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
         this.buffer = buffer;
@@ -169,18 +190,44 @@ public class CypherLexer extends LexerBase {
     }
 
     private void scanBlockComment() {
+        int start = position;
         position += 2;
-        while (position < endOffset) {
-            if (buffer.charAt(position) == '*' && position + 1 < endOffset && buffer.charAt(position + 1) == '/') {
+        int limit = boundedRecovery ? (int) Math.min(endOffset, (long) start + BLOCK_COMMENT_LOOKAHEAD) : endOffset;
+        while (position < limit) {
+            char c = buffer.charAt(position);
+            if (c == '*' && position + 1 < endOffset && buffer.charAt(position + 1) == '/') {
                 position += 2;
+                tokenType = CypherTokenTypes.COMMENT;
+                tokenEnd = position;
+                return;
+            }
+            if (boundedRecovery && c == '/' && position + 1 < endOffset && buffer.charAt(position + 1) == '*') {
                 break;
             }
             position++;
         }
+        if (boundedRecovery && position < endOffset) {
+            position = lineEnd(start + 2);
+        }
         tokenType = CypherTokenTypes.COMMENT;
         tokenEnd = position;
     }
 
+    /**
+     * Returns the offset of the first line break at or after {@code from}, or the end offset.
+     */
+    private int lineEnd(int from) {
+        int i = from;
+        while (i < endOffset && !isLineBreak(buffer.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isLineBreak(char c) {
+        return c == '\n' || c == '\r';
+    }
+
     private void scanString(char quote) {
         // Cypher strings:
         // - Standard strings use single quotes and escape a quote by doubling it: 'Bob''s'
@@ -198,6 +245,9 @@ public class CypherLexer extends LexerBase {
                 position++; // consume closing quote
                 break;
             }
+            if (boundedRecovery && isLineBreak(c)) {
+                break; // unterminated on this line: leave the line break to the next token
+            }
             position++;
         }
         tokenType = CypherTokenTypes.STRING;
@@ -229,7 +279,8 @@ public class CypherLexer extends LexerBase {
         position++; // consume $
         if (position < endOffset && buffer.charAt(position) == '(') {
             position++; // consume opening paren
-            while (position < endOffset && buffer.charAt(position) != ')') {
+            while (position < endOffset && buffer.charAt(position) != ')'
+                    && !(boundedRecovery && isLineBreak(buffer.charAt(position)))) {
                 position++;
             }
             if (position < endOffset && buffer.charAt(position) == ')') {
@@ -285,7 +336,11 @@ public class CypherLexer extends LexerBase {
         position++;
         if (quoted) {
             while (position < endOffset) {
-                char c = buffer.charAt(position++);
+                char c = buffer.charAt(position);
+                if (boundedRecovery && isLineBreak(c)) {
+                    break;
+                }
+                position++;
                 if (c == '`') {
                     break;
                 }
@@ -0,0 +1,81 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lint results of the statements in one {@link CypherSemanticCache}, computed on first request and shared
+ * across versions of a file the same way: results are also kept by a hash of the statement text, and the
+ * cache for the next version looks statements up there first. Results computed with a different set of
+ * rules, or with different {@link CypherLintRule#settings() rule settings}, are never reused.
+ */
+final class CypherLintCache {
+    private final CypherSemanticCache semantics;
+    private final List<CypherLintRule> rules;
+    private final List<List<?>> settings;
+    private final AtomicReferenceArray<List<CypherLintProblem>> byIndex;
+    private final Map<Long, List<CypherLintProblem>> byHash = new ConcurrentHashMap<>();
+    private final Map<Long, List<CypherLintProblem>> previous;
+
+    private CypherLintCache(@NotNull CypherSemanticCache semantics, @NotNull List<CypherLintRule> rules,
+                            @NotNull List<List<?>> settings, @NotNull Map<Long, List<CypherLintProblem>> previous) {
+        this.semantics = semantics;
+        this.rules = rules;
+        this.settings = settings;
+        this.byIndex = new AtomicReferenceArray<>(semantics.statements().statementCount());
+        this.previous = previous;
+    }
+
+    static @NotNull CypherLintCache create(@NotNull CypherSemanticCache semantics, @NotNull List<CypherLintRule> rules,
+                                           @Nullable CypherLintCache previous) {
+        List<List<?>> settings = settings(rules);
+        boolean reusable = previous != null && previous.rules.equals(rules) && previous.settings.equals(settings);
+        return new CypherLintCache(semantics, rules, settings, reusable ? previous.byHash : Map.of());
+    }
+
+    private static @NotNull List<List<?>> settings(@NotNull List<CypherLintRule> rules) {
+        return rules.stream().<List<?>>map(CypherLintRule::settings).toList();
+    }
+
+    @NotNull CypherSemanticCache semantics() {
+        return semantics;
+    }
+
+    /**
+     * Returns true when this cache holds results of {@code rules} with their current settings.
+     */
+    boolean isCurrent(@NotNull List<CypherLintRule> rules) {
+        return this.rules.equals(rules) && settings.equals(settings(rules));
+    }
+
+    /**
+     * Returns the problems of statement {@code index}, with offsets relative to the statement start. Safe to
+     * call from several threads; a statement may then be linted twice, with identical results.
+     */
+    @NotNull List<CypherLintProblem> problems(int index) {
+        List<CypherLintProblem> problems = byIndex.get(index);
+        if (problems != null) {
+            return problems;
+        }
+        CypherStatementTable statements = semantics.statements();
+        CharSequence text = statements.text();
+        int start = statements.startOf(index);
+        int end = statements.endOf(index);
+        long hash = CypherSemanticCache.hash(text, start, end);
+        problems = byHash.get(hash);
+        if (problems == null) {
+            problems = previous.get(hash);
+        }
+        if (problems == null) {
+            problems = CypherLintEngine.lint(text, start, end, semantics.roles(index), rules);
+        }
+        byHash.put(hash, problems);
+        byIndex.set(index, problems);
+        return problems;
+    }
+}
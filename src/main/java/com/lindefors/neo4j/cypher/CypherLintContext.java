@@ -0,0 +1,214 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One statement as seen by {@link CypherLintRule}s: its significant tokens, addressed by index, with
+ * nesting depth, clause boundaries and the {@link CypherSemanticRoles semantic role} of each token
+ * precomputed in one pass. Out-of-range indices are safe everywhere and behave like a missing token.
+ *
+ * <p>A clause starts at a keyword the formatter puts on a new line ({@link CypherBlock#CLAUSE_START_KEYWORDS}
+ * and {@link CypherBlock#CLAUSE_CONTINUATION_KEYWORDS}), such as {@code MATCH}, {@code WHERE} or
+ * {@code RETURN}. The second keyword of a pair like {@code OPTIONAL MATCH}, {@code LOAD CSV WITH} or
+ * {@code DETACH DELETE} does not start another clause, and {@code ON CREATE SET} stays part of its
+ * {@code MERGE}. Clauses of subqueries start at the depth of their braces.
+ */
+public final class CypherLintContext {
+    private final CypherTokens tokens;
+    private final CharSequence text;
+    private final int base;
+    private final CypherSemanticRoles.Role[] roles;
+    private final boolean[] declarations;
+    private final int[] depths;
+    private final boolean[] clauseStarts;
+    private final List<CypherLintProblem> problems = new ArrayList<>();
+    private CypherLintRule rule;
+
+    CypherLintContext(@NotNull CharSequence text, int start, int end, @NotNull CypherSemanticRoles semanticRoles) {
+        tokens = CypherTokens.lex(text, start, end);
+        this.text = text;
+        base = start;
+        int size = tokens.size();
+        roles = new CypherSemanticRoles.Role[size];
+        declarations = new boolean[size];
+        depths = new int[size];
+        clauseStarts = new boolean[size];
+        int role = 0;
+        int depth = 0;
+        for (int i = 0; i < size; i++) {
+            int relativeStart = tokens.start(i) - base;
+            while (role < semanticRoles.size() && semanticRoles.start(role) < relativeStart) {
+                role++;
+            }
+            if (role < semanticRoles.size() && semanticRoles.start(role) == relativeStart) {
+                roles[i] = semanticRoles.role(role);
+                declarations[i] = semanticRoles.declaration(role) == role;
+            }
+            IElementType type = tokens.type(i);
+            if (type == CypherTokenTypes.PAREN_CLOSE || type == CypherTokenTypes.BRACKET_CLOSE || type == CypherTokenTypes.BRACE_CLOSE) {
+                depth = Math.max(0, depth - 1);
+            }
+            depths[i] = depth;
+            clauseStarts[i] = isClauseKeyword(i);
+            if (type == CypherTokenTypes.PAREN_OPEN || type == CypherTokenTypes.BRACKET_OPEN || type == CypherTokenTypes.BRACE_OPEN) {
+                depth++;
+            }
+        }
+    }
+
+    private boolean isClauseKeyword(int index) {
+        if (!tokens.is(index, CypherTokenTypes.KEYWORD)) {
+            return false;
+        }
+        String keyword = upperCase(index);
+        if (!CypherBlock.CLAUSE_START_KEYWORDS.contains(keyword) && !CypherBlock.CLAUSE_CONTINUATION_KEYWORDS.contains(keyword)
+                || "ON".equals(keyword)) {
+            return false;
+        }
+        if (tokens.is(index - 1, CypherTokenTypes.KEYWORD) && CypherBlock.INLINE_KEYWORD_PAIRS.contains(upperCase(index - 1) + " " + keyword)) {
+            return false;
+        }
+        if (isWord(index - 1, "DETACH") || isWord(index - 1, "STARTS") || isWord(index - 1, "ENDS")) {
+            return false;
+        }
+        // ON CREATE SET / ON MATCH SET
+        return !("SET".equals(keyword) && isWord(index - 2, "ON"));
+    }
+
+    private @NotNull String upperCase(int index) {
+        return tokens.text(index).toString().toUpperCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Number of significant tokens in the statement.
+     */
+    public int size() {
+        return tokens.size();
+    }
+
+    public @Nullable IElementType type(int index) {
+        return tokens.type(index);
+    }
+
+    public @NotNull CharSequence text(int index) {
+        return index >= 0 && index < tokens.size() ? tokens.text(index) : "";
+    }
+
+    /**
+     * Returns true when token {@code index} is the given keyword, ignoring case.
+     */
+    public boolean isKeyword(int index, @NotNull String keyword) {
+        return tokens.isKeyword(index, keyword);
+    }
+
+    /**
+     * Returns true when token {@code index} is a keyword or identifier spelled {@code word}, ignoring case;
+     * use this for words such as {@code IN} or {@code TRANSACTIONS} that the lexer does not treat as keywords.
+     */
+    public boolean isWord(int index, @NotNull String word) {
+        return (tokens.is(index, CypherTokenTypes.KEYWORD) || tokens.is(index, CypherTokenTypes.IDENTIFIER))
+                && tokens.textEqualsIgnoreCase(index, word);
+    }
+
+    /**
+     * Returns how many brackets of any kind enclose token {@code index}; a bracket itself has the depth of
+     * its surroundings.
+     */
+    public int depth(int index) {
+        return index >= 0 && index < depths.length ? depths[index] : 0;
+    }
+
+    public boolean isClauseStart(int index) {
+        return index >= 0 && index < clauseStarts.length && clauseStarts[index];
+    }
+
+    /**
+     * Returns the index just past the clause starting at {@code index}: the next clause at the same depth,
+     * the bracket closing the enclosing subquery, or the end of the statement.
+     */
+    public int clauseEnd(int index) {
+        int depth = depth(index);
+        for (int i = index + 1; i < depths.length; i++) {
+            if (depths[i] < depth || depths[i] == depth && clauseStarts[i]) {
+                return i;
+            }
+        }
+        return depths.length;
+    }
+
+    /**
+     * Returns the semantic role of token {@code index}, or {@code null} for tokens that are not names.
+     */
+    public @Nullable CypherSemanticRoles.Role role(int index) {
+        return index >= 0 && index < roles.length ? roles[index] : null;
+    }
+
+    /**
+     * Returns true when token {@code index} is the declaring occurrence of a variable.
+     */
+    public boolean isDeclaration(int index) {
+        return index >= 0 && index < declarations.length && declarations[index];
+    }
+
+    /**
+     * Returns the start offset of token {@code index}, relative to the start of the statement.
+     */
+    int startOffset(int index) {
+        return tokens.start(index) - base;
+    }
+
+    /**
+     * Returns the end offset of token {@code index}, relative to the start of the statement.
+     */
+    int endOffset(int index) {
+        return tokens.end(index) - base;
+    }
+
+    /**
+     * Returns the source text from the start of token {@code from} to the end of token {@code to}, including
+     * any whitespace and comments between them.
+     */
+    public @NotNull CharSequence source(int from, int to) {
+        return text.subSequence(tokens.start(from), tokens.end(to));
+    }
+
+    /**
+     * Creates a fix that replaces the source of tokens {@code from} to {@code to}, inclusive.
+     */
+    public @NotNull CypherLintFix replace(@NotNull String name, int from, int to, @NotNull String replacement) {
+        return new CypherLintFix(name, tokens.start(from) - base, tokens.end(to) - base, source(from, to).toString(), replacement);
+    }
+
+    /**
+     * Creates a fix that inserts {@code insertion} directly after token {@code index}.
+     */
+    public @NotNull CypherLintFix insertAfter(@NotNull String name, int index, @NotNull String insertion) {
+        int offset = tokens.end(index) - base;
+        return new CypherLintFix(name, offset, offset, "", insertion);
+    }
+
+    /**
+     * Reports a problem spanning tokens {@code from} to {@code to}, inclusive.
+     */
+    public void report(int from, int to, @NotNull String message) {
+        report(from, to, message, null);
+    }
+
+    public void report(int from, int to, @NotNull String message, @Nullable CypherLintFix fix) {
+        problems.add(new CypherLintProblem(rule, tokens.start(from) - base, tokens.end(to) - base, message, fix));
+    }
+
+    void setRule(@NotNull CypherLintRule rule) {
+        this.rule = rule;
+    }
+
+    @NotNull List<CypherLintProblem> problems() {
+        return problems;
+    }
+}
@@ -0,0 +1,32 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Runs {@link CypherLintRule}s over one statement: the {@link CypherLintContext} is built once and every rule
+ * checks it in turn. Only the statement text is read, so statements can be linted on any thread.
+ */
+final class CypherLintEngine {
+    private CypherLintEngine() {
+    }
+
+    /**
+     * Lints {@code text[start, end)}, classified as {@code roles}, and returns the problems with offsets
+     * relative to {@code start}.
+     */
+    static @NotNull List<CypherLintProblem> lint(@NotNull CharSequence text, int start, int end,
+                                                 @NotNull CypherSemanticRoles roles,
+                                                 @NotNull List<? extends CypherLintRule> rules) {
+        CypherLintContext context = new CypherLintContext(text, start, end, roles);
+        if (context.size() == 0) {
+            return List.of();
+        }
+        for (CypherLintRule rule : rules) {
+            context.setRule(rule);
+            rule.check(context);
+        }
+        return context.problems().isEmpty() ? List.of() : List.copyOf(context.problems());
+    }
+}
@@ -0,0 +1,12 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A fix offered with a {@link CypherLintProblem}: replace the statement text in {@code [start, end)}, relative
+ * to the statement start, with {@code replacement}. {@code original} is the text being replaced, so a fix is
+ * only applied while the statement still reads the same.
+ */
+public record CypherLintFix(@NotNull String name, int start, int end, @NotNull String original,
+                            @NotNull String replacement) {
+}
@@ -0,0 +1,82 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Reports query-performance problems found by the {@link CypherLintRule}s registered on the
+ * {@code com.lindefors.neo4j.cypher.lintRule} extension point. All rules run over one shared
+ * {@link CypherLintContext} per statement, and results are cached per statement text in the file's
+ * {@link CypherLintCache}, so re-highlighting after an edit only lints the statements that changed.
+ * Rules naming an inspection in {@link CypherLintRule#inspectionShortName()} are reported by the subclass
+ * registered under that short name, so they can be configured separately; the shared cache still lints
+ * each statement once for all of them.
+ *
+ * <p>In batch inspections, files with at least {@value #PARALLEL_THRESHOLD} statements are linted on all
+ * cores before the problems are collected; linting reads only the immutable file text, so no read action is
+ * needed on the worker threads.
+ */
+public abstract class CypherLintInspection extends LocalInspectionTool {
+    static final int PARALLEL_THRESHOLD = 64;
+
+    @Override
+    public ProblemDescriptor @Nullable [] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
+        if (!(file instanceof CypherPsiFile cypherFile)) {
+            return null;
+        }
+        List<CypherLintRule> rules = CypherLintRule.EP_NAME.getExtensionList();
+        if (rules.isEmpty()) {
+            return null;
+        }
+        CypherLintCache cache = cypherFile.getLintCache(rules);
+        CypherStatementTable statements = cache.semantics().statements();
+        if (statements.text().length() != file.getTextLength()) {
+            return null;
+        }
+        int count = statements.statementCount();
+        if (!isOnTheFly && count >= PARALLEL_THRESHOLD) {
+            JobLauncher.getInstance().invokeConcurrentlyUnderProgress(IntStream.range(0, count).boxed().toList(),
+                    ProgressManager.getInstance().getProgressIndicator(), index -> {
+                        cache.problems(index);
+                        return true;
+                    });
+        }
+
+        List<ProblemDescriptor> descriptors = new ArrayList<>();
+        for (int index = 0; index < count; index++) {
+            ProgressManager.checkCanceled();
+            int base = statements.startOf(index);
+            for (CypherLintProblem problem : cache.problems(index)) {
+                if (!reports(problem.rule())) {
+                    continue;
+                }
+                LocalQuickFix[] fixes = problem.fix() == null
+                        ? LocalQuickFix.EMPTY_ARRAY : new LocalQuickFix[]{new CypherLintQuickFix(problem.fix(), base)};
+                descriptors.add(manager.createProblemDescriptor(file,
+                        new TextRange(base + problem.start(), base + problem.end()), problem.message(),
+                        ProblemHighlightType.GENERIC_ERROR_OR_WARNING, isOnTheFly, fixes));
+            }
+        }
+        return descriptors.toArray(ProblemDescriptor.EMPTY_ARRAY);
+    }
+
+    /**
+     * Returns true when this inspection reports the problems of {@code rule}.
+     */
+    protected boolean reports(@NotNull CypherLintRule rule) {
+        return getShortName().equals(rule.inspectionShortName());
+    }
+}
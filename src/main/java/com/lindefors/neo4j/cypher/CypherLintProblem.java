@@ -0,0 +1,12 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A problem reported by a {@link CypherLintRule}, with an optional fix. Offsets are relative to the start of
+ * the statement, so a result can be reused for an identical statement anywhere.
+ */
+public record CypherLintProblem(@NotNull CypherLintRule rule, int start, int end, @NotNull String message,
+                                @Nullable CypherLintFix fix) {
+}
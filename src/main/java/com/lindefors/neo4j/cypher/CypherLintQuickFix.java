@@ -0,0 +1,45 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Applies a {@link CypherLintFix} at the file offset of its statement. The fix holds no PSI, so it also
+ * works on the file copy used for intention previews.
+ */
+final class CypherLintQuickFix implements LocalQuickFix {
+    private final CypherLintFix fix;
+    private final int statementStart;
+
+    CypherLintQuickFix(@NotNull CypherLintFix fix, int statementStart) {
+        this.fix = fix;
+        this.statementStart = statementStart;
+    }
+
+    @Override
+    public @NotNull String getFamilyName() {
+        return fix.name();
+    }
+
+    @Override
+    public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+        PsiFile file = descriptor.getPsiElement().getContainingFile();
+        Document document = file == null ? null : PsiDocumentManager.getInstance(project).getDocument(file);
+        if (document == null) {
+            return;
+        }
+        int start = statementStart + fix.start();
+        int end = statementStart + fix.end();
+        CharSequence text = document.getCharsSequence();
+        if (end > text.length() || !fix.original().contentEquals(text.subSequence(start, end))) {
+            return;
+        }
+        document.replaceString(start, end, fix.replacement());
+        PsiDocumentManager.getInstance(project).commitDocument(document);
+    }
+}
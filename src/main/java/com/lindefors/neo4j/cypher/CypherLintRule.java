@@ -0,0 +1,42 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.extensions.ExtensionPointName;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A query-performance check reported by a {@link CypherLintInspection}. Rules are registered on the
+ * {@code com.lindefors.neo4j.cypher.lintRule} extension point and see one statement at a time through a
+ * {@link CypherLintContext}, which holds the tokens, nesting depths, clause boundaries and name roles of the
+ * statement. The context is computed once per statement and shared by all rules, so a rule only indexes
+ * into prepared arrays and never walks PSI.
+ *
+ * <p>Rules are shared between threads and must be stateless. Their results are cached by statement text,
+ * so a rule must depend only on the statement it is given and on its {@link #settings()}.
+ */
+public interface CypherLintRule {
+    ExtensionPointName<CypherLintRule> EP_NAME = ExtensionPointName.create("com.lindefors.neo4j.cypher.lintRule");
+
+    /**
+     * Reports the problems of the statement in {@code context} through {@link CypherLintContext#report}.
+     */
+    void check(@NotNull CypherLintContext context);
+
+    /**
+     * Returns the values besides the statement that this rule's results depend on, such as thresholds read
+     * from the registry; cached results are dropped when they are no longer equal.
+     */
+    default @NotNull List<?> settings() {
+        return List.of();
+    }
+
+    /**
+     * Returns the short name of the {@link CypherLintInspection} that reports this rule's problems, or
+     * {@code null} to report them through the general {@link CypherQueryPerformanceInspection}.
+     */
+    default @Nullable String inspectionShortName() {
+        return null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Whole-text parameterization for {@link CypherParameterizeLiteralsAction}: runs {@link CypherInlineLiteralRule}
+ * over every statement and collects its fixes with absolute offsets. Each fix replaces one literal token,
+ * so everything else in the text is left byte-identical.
+ */
+final class CypherLiteralParameters {
+    private static final List<CypherLintRule> RULES = List.of(new CypherInlineLiteralRule());
+
+    private CypherLiteralParameters() {
+    }
+
+    /**
+     * Returns the fixes for all literals in {@code text}, in ascending offset order and with offsets relative
+     * to the start of the text.
+     */
+    static @NotNull List<CypherLintFix> fixes(@NotNull CharSequence text) {
+        List<CypherLintFix> fixes = new ArrayList<>();
+        CypherStatementTable statements = CypherStatementTable.build(text);
+        for (int statement = 0; statement < statements.statementCount(); statement++) {
+            int start = statements.startOf(statement);
+            int end = statements.endOf(statement);
+            CypherSemanticRoles roles = CypherSemanticRoles.classify(text, start, end);
+            for (CypherLintProblem problem : CypherLintEngine.lint(text, start, end, roles, RULES)) {
+                CypherLintFix fix = problem.fix();
+                if (fix != null) {
+                    fixes.add(new CypherLintFix(fix.name(), start + fix.start(), start + fix.end(), fix.original(),
+                            fix.replacement()));
+                }
+            }
+        }
+        return fixes;
+    }
+
+    /**
+     * Returns {@code text} with {@code fixes}, as returned by {@link #fixes}, applied.
+     */
+    static @NotNull String apply(@NotNull CharSequence text, @NotNull List<CypherLintFix> fixes) {
+        StringBuilder result = new StringBuilder(text.length());
+        int copied = 0;
+        for (CypherLintFix fix : fixes) {
+            result.append(text, copied, fix.start()).append(fix.replacement());
+            copied = fix.end();
+        }
+        return result.append(text, copied, text.length()).toString();
+    }
+}
@@ -0,0 +1,34 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reports {@code LOAD CSV} statements that write without batching: every row is then applied in a single
+ * transaction whose state grows with the file. Writes inside {@code CALL { ... } IN TRANSACTIONS}, or under
+ * the legacy {@code USING PERIODIC COMMIT}, are committed in batches and not reported.
+ */
+public class CypherLoadCsvTransactionsRule implements CypherLintRule {
+    @Override
+    public void check(@NotNull CypherLintContext context) {
+        int load = -1;
+        boolean writes = false;
+        for (int i = 0; i < context.size(); i++) {
+            if (load < 0 && context.isClauseStart(i) && context.isKeyword(i, "LOAD") && context.isKeyword(i + 1, "CSV")) {
+                load = i;
+            } else if (context.isWord(i, "IN") && context.isWord(i + 1, "TRANSACTIONS")
+                    || context.isKeyword(i, "USING") && context.isWord(i + 1, "PERIODIC")) {
+                return;
+            } else if (context.isClauseStart(i) && isWrite(context, i)) {
+                writes = true;
+            }
+        }
+        if (load >= 0 && writes) {
+            context.report(load, load + 1, "LOAD CSV writes all rows in one transaction; use CALL { ... } IN TRANSACTIONS");
+        }
+    }
+
+    private static boolean isWrite(@NotNull CypherLintContext context, int index) {
+        return context.isKeyword(index, "CREATE") || context.isKeyword(index, "MERGE") || context.isKeyword(index, "SET")
+                || context.isKeyword(index, "DELETE") || context.isKeyword(index, "DETACH") || context.isKeyword(index, "REMOVE");
+    }
+}
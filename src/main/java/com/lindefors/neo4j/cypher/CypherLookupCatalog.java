@@ -0,0 +1,207 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.codeInsight.completion.InsertHandler;
+import com.intellij.codeInsight.completion.PrioritizedLookupElement;
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.codeInsight.lookup.LookupElementPresentation;
+import com.intellij.codeInsight.lookup.LookupElementRenderer;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prebuilt, immutable completion items organised in prefix tries. Keywords and operators are built once
+ * per IDE session; learned labels and relationship types are rebuilt only when
+ * {@link CypherUsageStatistics} changes. Completion sends just the best {@link #MAX_RESULTS} prefix
+ * matches, ranked by learned usage, instead of every candidate. Function and procedure tries are built
+ * from {@link CypherSignatureStore} the first time they are needed and only read the catalog's name index;
+ * signatures are decoded when an item is rendered or its documentation is shown.
+ */
+final class CypherLookupCatalog {
+    static final int MAX_RESULTS = 50;
+
+    static final List<String> OPERATORS = Arrays.asList(
+            "=", "<>", "<", ">", "<=", ">=", "+", "-", "*", "/", "%", "^",
+            "AND", "OR", "XOR", "NOT", "IN", "IS", "CONTAINS", "STARTS", "ENDS"
+    );
+
+    private static final InsertHandler<LookupElement> RECORD_ACCEPTED = (context, element) -> {
+        if (element.getObject() instanceof CypherUsageStatistics.Kind kind) {
+            CypherUsageStatistics.getInstance(context.getProject()).recordAccepted(kind, element.getLookupString());
+        }
+    };
+
+    /**
+     * Records the accepted function or procedure and appends {@code ()} unless a call already follows,
+     * placing the caret inside the parentheses when the signature takes arguments.
+     */
+    private static final InsertHandler<LookupElement> SIGNATURE_INSERTED = (context, element) -> {
+        CypherUsageStatistics.getInstance(context.getProject())
+                .recordAccepted(CypherUsageStatistics.Kind.FUNCTION, element.getLookupString());
+        if (!(element.getObject() instanceof CypherSignatureStore.Entry entry)) {
+            return;
+        }
+        Document document = context.getDocument();
+        int tail = context.getTailOffset();
+        if (tail < document.getTextLength() && document.getCharsSequence().charAt(tail) == '(') {
+            return;
+        }
+        document.insertString(tail, "()");
+        boolean hasArguments = !entry.signature().arguments().isEmpty();
+        context.getEditor().getCaretModel().moveToOffset(tail + (hasArguments ? 1 : 2));
+    };
+
+    private static final LookupElementRenderer<LookupElement> SIGNATURE_RENDERER = new LookupElementRenderer<>() {
+        @Override
+        public void renderElement(LookupElement element, LookupElementPresentation presentation) {
+            CypherSignatureStore.Signature signature = ((CypherSignatureStore.Entry) element.getObject()).signature();
+            presentation.setItemText(element.getLookupString());
+            presentation.setTailText(signature.parametersText(), true);
+            presentation.setTypeText(signature.kind() == CypherSignatureStore.Kind.FUNCTION
+                    ? signature.returnType() : "procedure");
+            presentation.setTypeGrayed(true);
+        }
+    };
+
+    private static final CypherPrefixTrie<Item> KEYWORDS_AND_OPERATORS = buildKeywordsAndOperators();
+
+    private static final Key<CachedValue<CypherPrefixTrie<Item>>> LABELS_KEY = Key.create("cypher.learned.labels");
+    private static final Key<CachedValue<CypherPrefixTrie<Item>>> TYPES_KEY = Key.create("cypher.learned.types");
+
+    private CypherLookupCatalog() {
+    }
+
+    /**
+     * A completion candidate with the statistics key it is ranked by.
+     */
+    record Item(@NotNull CypherUsageStatistics.Kind kind, @NotNull String name, @NotNull LookupElement element) {
+    }
+
+    static @NotNull CypherPrefixTrie<Item> keywordsAndOperators() {
+        return KEYWORDS_AND_OPERATORS;
+    }
+
+    /**
+     * Returns a trie over the bundled built-in, APOC and GDS functions.
+     */
+    static @NotNull CypherPrefixTrie<Item> functions() {
+        return SignatureTries.FUNCTIONS;
+    }
+
+    /**
+     * Returns a trie over the bundled built-in, APOC and GDS procedures, keyed by qualified name.
+     */
+    static @NotNull CypherPrefixTrie<Item> procedures() {
+        return SignatureTries.PROCEDURES;
+    }
+
+    /**
+     * Returns items for the {@code YIELD} columns of a bundled procedure, or an empty list when the
+     * procedure is unknown.
+     */
+    static @NotNull List<LookupElement> yieldColumns(@NotNull String procedure) {
+        CypherSignatureStore.Signature signature = CypherSignatureStore.bundled().find(procedure);
+        if (signature == null) {
+            return List.of();
+        }
+        List<LookupElement> columns = new ArrayList<>(signature.yields().size());
+        for (CypherSignatureStore.Column column : signature.yields()) {
+            columns.add(LookupElementBuilder.create(column.name()).withTypeText(column.type(), true));
+        }
+        return columns;
+    }
+
+    /**
+     * Returns a trie over the labels or relationship types learned for the project.
+     */
+    static @NotNull CypherPrefixTrie<Item> learned(@NotNull Project project, @NotNull CypherUsageStatistics.Kind kind) {
+        Key<CachedValue<CypherPrefixTrie<Item>>> key = kind == CypherUsageStatistics.Kind.RELATIONSHIP_TYPE ? TYPES_KEY : LABELS_KEY;
+        return CachedValuesManager.getManager(project).getCachedValue(project, key, () -> {
+            CypherUsageStatistics statistics = CypherUsageStatistics.getInstance(project);
+            CypherPrefixTrie.Builder<Item> builder = CypherPrefixTrie.builder();
+            String typeText = kind == CypherUsageStatistics.Kind.RELATIONSHIP_TYPE ? "relationship type" : "label";
+            for (Map.Entry<String, Integer> entry : statistics.snapshot(kind).entrySet()) {
+                builder.add(entry.getKey(), item(kind, entry.getKey(), typeText, true));
+            }
+            return CachedValueProvider.Result.create(builder.build(), statistics);
+        }, false);
+    }
+
+    /**
+     * Adds the best-ranked prefix matches from {@code trie}. When candidates were cut off, completion is
+     * restarted on the next prefix change so narrowing can surface them.
+     */
+    static void addTopMatches(@NotNull CypherPrefixTrie<Item> trie,
+                              @NotNull CypherUsageStatistics statistics,
+                              @NotNull CompletionResultSet result) {
+        String prefix = result.getPrefixMatcher().getPrefix();
+        CypherPrefixTrie.Matches<Item> matches = trie.topMatches(prefix, MAX_RESULTS,
+                item -> statistics.count(item.kind(), item.name()));
+        for (Item item : matches.items()) {
+            int count = statistics.count(item.kind(), item.name());
+            result.addElement(PrioritizedLookupElement.withPriority(item.element(), Math.log1p(count)));
+        }
+        if (matches.truncated()) {
+            result.restartCompletionOnAnyPrefixChange();
+        }
+    }
+
+    static @NotNull Item item(@NotNull CypherUsageStatistics.Kind kind,
+                              @NotNull String name,
+                              @NotNull String typeText,
+                              boolean caseSensitive) {
+        LookupElementBuilder element = LookupElementBuilder.create(kind, name)
+                .withCaseSensitivity(caseSensitive)
+                .withTypeText(typeText, true)
+                .withInsertHandler(RECORD_ACCEPTED);
+        return new Item(kind, name, element);
+    }
+
+    /**
+     * Holds the signature tries so the catalog is not opened until completion first asks for them.
+     */
+    private static final class SignatureTries {
+        private static final CypherPrefixTrie<Item> FUNCTIONS = build(CypherSignatureStore.Kind.FUNCTION);
+        private static final CypherPrefixTrie<Item> PROCEDURES = build(CypherSignatureStore.Kind.PROCEDURE);
+
+        private static @NotNull CypherPrefixTrie<Item> build(@NotNull CypherSignatureStore.Kind kind) {
+            CypherSignatureStore store = CypherSignatureStore.bundled();
+            CypherPrefixTrie.Builder<Item> builder = CypherPrefixTrie.builder();
+            for (int i = 0; i < store.size(); i++) {
+                if (store.kind(i) != kind) {
+                    continue;
+                }
+                String name = store.name(i);
+                LookupElementBuilder element = LookupElementBuilder.create(new CypherSignatureStore.Entry(store, i), name)
+                        .withCaseSensitivity(false)
+                        .withTypeText(kind == CypherSignatureStore.Kind.FUNCTION ? "function" : "procedure", true)
+                        .withExpensiveRenderer(SIGNATURE_RENDERER)
+                        .withInsertHandler(SIGNATURE_INSERTED);
+                builder.add(name, new Item(CypherUsageStatistics.Kind.FUNCTION, name, element));
+            }
+            return builder.build();
+        }
+    }
+
+    private static @NotNull CypherPrefixTrie<Item> buildKeywordsAndOperators() {
+        CypherPrefixTrie.Builder<Item> builder = CypherPrefixTrie.builder();
+        for (String keyword : CypherTokenTypes.KEYWORDS) {
+            builder.add(keyword, item(CypherUsageStatistics.Kind.KEYWORD, keyword, "keyword", false));
+        }
+        for (String operator : OPERATORS) {
+            builder.add(operator, item(CypherUsageStatistics.Kind.OPERATOR, operator, "operator", false));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Checks the node patterns of {@code MERGE} clauses against the uniqueness and key constraints of a
+ * {@link CypherSchema}. Without a constraint on the merged properties, {@code MERGE} finds existing nodes by
+ * scanning the label and cannot lock the key it checks, so concurrent {@code MERGE}s contend on label-wide
+ * locks, deadlock or create duplicates. With a constraint on only some of the merged properties, the others
+ * make {@code MERGE} create a second node whenever they differ; they belong in {@code ON CREATE SET}.
+ * Nodes bound by an earlier clause or part are not merged and are skipped.
+ */
+final class CypherMergeConstraints {
+    /**
+     * A problem spanning {@code [start, end)}, relative to the statement start, with a fix that rewrites the
+     * {@code MERGE} or a {@code CREATE CONSTRAINT} statement to suggest.
+     */
+    record Finding(int start, int end, @NotNull String message, @Nullable CypherLintFix fix,
+                   @Nullable String createConstraint) {
+    }
+
+    private CypherMergeConstraints() {
+    }
+
+    static @NotNull List<Finding> check(@NotNull CypherLintContext context, @NotNull CypherSchema schema) {
+        List<Finding> findings = new ArrayList<>();
+        Set<String> bound = new HashSet<>();
+        int boundUpTo = 0;
+        for (int i = 0; i < context.size(); i++) {
+            if (!context.isClauseStart(i) || !context.isKeyword(i, "MERGE")) {
+                continue;
+            }
+            for (; boundUpTo < i; boundUpTo++) {
+                if (context.role(boundUpTo) == CypherSemanticRoles.Role.VARIABLE) {
+                    bound.add(CypherVariableScopes.normalize(context.text(boundUpTo)));
+                }
+            }
+            int end = context.clauseEnd(i);
+            int patternEnd = end;
+            for (int j = i + 1; j < end && patternEnd == end; j++) {
+                if (context.isKeyword(j, "ON") && context.depth(j) == context.depth(i)) {
+                    patternEnd = j;
+                }
+            }
+            for (CypherPatterns.Part part : CypherPatterns.parse(context, i + 1, patternEnd)) {
+                for (CypherPatterns.Node node : part.nodes()) {
+                    if (node.labels().isEmpty() || node.propertyKeys().isEmpty()
+                            || node.variable() != null && bound.contains(node.variable())) {
+                        continue;
+                    }
+                    Finding finding = checkNode(context, schema, node, patternEnd, end);
+                    if (finding != null) {
+                        findings.add(finding);
+                    }
+                }
+                for (CypherPatterns.Node node : part.nodes()) {
+                    if (node.variable() != null) {
+                        bound.add(node.variable());
+                    }
+                }
+            }
+        }
+        return findings;
+    }
+
+    private static @Nullable Finding checkNode(@NotNull CypherLintContext context, @NotNull CypherSchema schema,
+                                               @NotNull CypherPatterns.Node node, int patternEnd, int end) {
+        List<String> properties = node.propertyKeys();
+        List<String> key = null;
+        for (int i = 0; i < node.labels().size() && key == null; i++) {
+            key = schema.uniqueKey(CypherSymbols.key(CypherSemanticRoles.Role.LABEL, node.labels().get(i)), properties);
+        }
+        String label = node.labels().get(0);
+        if (key == null) {
+            boolean indexed = false;
+            for (int i = 0; i < node.labels().size() && !indexed; i++) {
+                indexed = schema.covers(CypherSymbols.key(CypherSemanticRoles.Role.LABEL, node.labels().get(i)), properties);
+            }
+            return new Finding(context.startOffset(node.open()), context.endOffset(node.close()),
+                    "No uniqueness constraint on :" + label + "(" + String.join(", ", properties) + "): "
+                            + (indexed ? "" : "MERGE scans every :" + label + " node and ")
+                            + "concurrent MERGEs contend for locks or create duplicates",
+                    null, createConstraintStatement(label, properties));
+        }
+        if (properties.size() == key.size()) {
+            return null;
+        }
+        return new Finding(context.startOffset(node.open()), context.endOffset(node.close()),
+                "MERGE matches on all " + properties.size() + " properties, but only " + String.join(", ", key)
+                        + " is unique; merge on the key and set the rest in ON CREATE SET",
+                mergeOnKeyFix(context, node, key, patternEnd, end), null);
+    }
+
+    /**
+     * Keeps only the {@code key} entries in the property map of {@code node} and moves the other entries into
+     * {@code ON CREATE SET}: into an existing one, or a new one after the pattern, on a line of its own in
+     * multi-line statements. Returns {@code null} when the node has no variable to set properties on, or its
+     * map holds more than plain {@code key: value} entries.
+     */
+    private static @Nullable CypherLintFix mergeOnKeyFix(@NotNull CypherLintContext context, @NotNull CypherPatterns.Node node,
+                                                         @NotNull List<String> key, int patternEnd, int end) {
+        String variable = node.variable();
+        int mapOpen = -1;
+        for (int i = node.open() + 1; i < node.close() && mapOpen < 0; i++) {
+            if (context.type(i) == CypherTokenTypes.BRACE_OPEN && context.depth(i) == context.depth(node.open()) + 1) {
+                mapOpen = i;
+            }
+        }
+        if (variable == null || mapOpen < 0) {
+            return null;
+        }
+        int mapClose = CypherPatterns.closing(context, mapOpen, node.close());
+        List<String> kept = new ArrayList<>();
+        List<String> moved = new ArrayList<>();
+        int entryStart = mapOpen + 1;
+        for (int i = mapOpen + 1; i <= mapClose; i++) {
+            if (i < mapClose && (context.type(i) != CypherTokenTypes.COMMA || context.depth(i) != context.depth(mapOpen) + 1)) {
+                continue;
+            }
+            if (context.role(entryStart) != CypherSemanticRoles.Role.PROPERTY_KEY
+                    || context.type(entryStart + 1) != CypherTokenTypes.COLON || entryStart + 2 >= i) {
+                return null;
+            }
+            String property = CypherVariableScopes.normalize(context.text(entryStart));
+            if (key.contains(property)) {
+                kept.add(context.source(entryStart, i - 1).toString());
+            } else {
+                moved.add(variable + "." + context.text(entryStart) + " = " + context.source(entryStart + 2, i - 1));
+            }
+            entryStart = i + 1;
+        }
+
+        int anchor = patternEnd - 1;
+        if (anchor > node.close() && context.type(anchor) == CypherTokenTypes.SEMICOLON) {
+            anchor--;
+        }
+        String insertion = (context.source(0, context.size() - 1).toString().indexOf('\n') >= 0 ? "\n" : " ")
+                + "ON CREATE SET " + String.join(", ", moved);
+        for (int i = patternEnd; i + 2 < end; i++) {
+            if (context.isKeyword(i, "ON") && context.isWord(i + 1, "CREATE") && context.isKeyword(i + 2, "SET")) {
+                anchor = i + 2;
+                insertion = " " + String.join(", ", moved) + ",";
+                break;
+            }
+        }
+        String between = context.source(mapClose, anchor).toString().substring(1);
+        return context.replace("Merge on " + String.join(", ", key) + " and move the rest to ON CREATE SET", mapOpen, anchor,
+                "{" + String.join(", ", kept) + "}" + between + insertion);
+    }
+
+    /**
+     * Returns a statement creating a uniqueness constraint on all of {@code properties}, the merged key, e.g.
+     * {@code CREATE CONSTRAINT person_id IF NOT EXISTS FOR (n:Person) REQUIRE n.id IS UNIQUE}, or
+     * {@code ... REQUIRE (n.name, n.country) IS UNIQUE} for a composite key.
+     */
+    static @NotNull String createConstraintStatement(@NotNull String label, @NotNull List<String> properties) {
+        String name = (label + "_" + String.join("_", properties)).toLowerCase(Locale.ENGLISH).replaceAll("[^a-z0-9_]", "_");
+        List<String> required = new ArrayList<>();
+        for (String property : properties) {
+            required.add("n." + CypherIndexLookups.quote(property));
+        }
+        return "CREATE CONSTRAINT " + name + " IF NOT EXISTS FOR (n:" + CypherIndexLookups.quote(label) + ") REQUIRE "
+                + (required.size() == 1 ? required.get(0) : "(" + String.join(", ", required) + ")") + " IS UNIQUE";
+    }
+}
@@ -0,0 +1,64 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports {@code MERGE} node patterns without a uniqueness or key constraint on their properties, and
+ * patterns merging on more properties than their constraint covers; see {@link CypherMergeConstraints}.
+ * Constraints come from the project's {@link CypherSchemaIndex#schema schema}. Nothing is reported while
+ * the project defines no constraint, and statements without property keys are not lexed again.
+ */
+public class CypherMergeContentionInspection extends LocalInspectionTool {
+    @Override
+    public ProblemDescriptor @Nullable [] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
+        if (!(file instanceof CypherPsiFile cypherFile)) {
+            return null;
+        }
+        CypherSchema schema = CypherSchemaIndex.schema(file.getProject());
+        if (!schema.hasConstraints()) {
+            return null;
+        }
+        CypherSemanticCache semantics = cypherFile.getSemanticCache();
+        CypherStatementTable statements = semantics.statements();
+        CharSequence text = statements.text();
+        if (text.length() != file.getTextLength()) {
+            return null;
+        }
+        List<ProblemDescriptor> descriptors = new ArrayList<>();
+        for (int index = 0; index < statements.statementCount(); index++) {
+            ProgressManager.checkCanceled();
+            CypherSemanticRoles roles = semantics.roles(index);
+            if (!roles.contains(CypherSemanticRoles.Role.PROPERTY_KEY)) {
+                continue;
+            }
+            int base = statements.startOf(index);
+            CypherLintContext context = new CypherLintContext(text, base, statements.endOf(index), roles);
+            for (CypherMergeConstraints.Finding finding : CypherMergeConstraints.check(context, schema)) {
+                LocalQuickFix[] fixes;
+                if (finding.fix() != null) {
+                    fixes = new LocalQuickFix[]{new CypherLintQuickFix(finding.fix(), base)};
+                } else if (finding.createConstraint() != null) {
+                    fixes = new LocalQuickFix[]{new CypherCopyStatementFix("Copy CREATE CONSTRAINT statement", finding.createConstraint())};
+                } else {
+                    fixes = LocalQuickFix.EMPTY_ARRAY;
+                }
+                descriptors.add(manager.createProblemDescriptor(file,
+                        new TextRange(base + finding.start(), base + finding.end()), finding.message(),
+                        ProblemHighlightType.GENERIC_ERROR_OR_WARNING, isOnTheFly, fixes));
+            }
+        }
+        return descriptors.toArray(ProblemDescriptor.EMPTY_ARRAY);
+    }
+}
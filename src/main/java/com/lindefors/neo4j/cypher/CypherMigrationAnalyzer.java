@@ -0,0 +1,216 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Checks an ordered set of migration scripts for schema statements that come too late or twice. Scripts are
+ * ordered by the version at the start of their name ({@link #VERSION_ORDER}): {@code V1_2__load.cypher},
+ * {@code 003-indexes.cypher} or {@code 20240105_people.cypher}.
+ *
+ * <p>Each script is split with {@link CypherStatementTable} and only the statements that matter are lexed:
+ * a first pass reads the {@code CREATE INDEX} / {@code CREATE CONSTRAINT} statements into
+ * {@link CypherSchema.Index}es, a second pass replays the scripts in order, adding the definitions to one
+ * schema as they are passed, and matches the {@code MATCH} / {@code MERGE} lookups of the data statements
+ * ({@link CypherIndexLookups}) against it. Each pass loads one script text at a time and drops it before
+ * the next, so only the definitions are held across scripts. A lookup that only a later definition serves
+ * is reported, as is a definition that repeats an earlier one or the index backing an earlier constraint.
+ */
+final class CypherMigrationAnalyzer {
+    /**
+     * Orders script names by their leading version, compared component by component; names without a
+     * version come last, by name.
+     */
+    static final Comparator<String> VERSION_ORDER = (first, second) -> {
+        long[] firstVersion = version(first);
+        long[] secondVersion = version(second);
+        if (firstVersion == null || secondVersion == null) {
+            return firstVersion != null ? -1 : secondVersion != null ? 1 : first.compareTo(second);
+        }
+        for (int i = 0; i < Math.max(firstVersion.length, secondVersion.length); i++) {
+            long a = i < firstVersion.length ? firstVersion[i] : 0;
+            long b = i < secondVersion.length ? secondVersion[i] : 0;
+            if (a != b) {
+                return Long.compare(a, b);
+            }
+        }
+        return first.compareTo(second);
+    };
+
+    /**
+     * A problem at {@code offset} in script {@code script}, an index into the analyzed list.
+     */
+    record Finding(int script, int offset, @NotNull String message) {
+    }
+
+    /**
+     * An index defined by statement {@code statement} of script {@code script}; {@code text} for a text index.
+     */
+    private record Definition(int script, int statement, @NotNull CypherSchema.Index index, boolean text) {
+    }
+
+    private CypherMigrationAnalyzer() {
+    }
+
+    /**
+     * Returns the leading version of a script name as its numeric components, or {@code null} when the name
+     * does not start with one. A {@code V} prefix is skipped and {@code __} ends the version, so
+     * {@code V1_2__add_people.cypher} is version {@code 1.2}.
+     */
+    static long @Nullable [] version(@NotNull String name) {
+        int i = name.length() > 1 && (name.charAt(0) == 'V' || name.charAt(0) == 'v') && Character.isDigit(name.charAt(1)) ? 1 : 0;
+        List<Long> components = new ArrayList<>();
+        while (i < name.length() && Character.isDigit(name.charAt(i))) {
+            int start = i;
+            while (i < name.length() && Character.isDigit(name.charAt(i)) && i - start < 18) {
+                i++;
+            }
+            components.add(Long.parseLong(name.substring(start, i)));
+            boolean separator = i + 1 < name.length() && ".-_".indexOf(name.charAt(i)) >= 0
+                    && Character.isDigit(name.charAt(i + 1));
+            if (!separator) {
+                break;
+            }
+            i++;
+        }
+        if (components.isEmpty()) {
+            return null;
+        }
+        long[] version = new long[components.size()];
+        for (int c = 0; c < version.length; c++) {
+            version[c] = components.get(c);
+        }
+        return version;
+    }
+
+    /**
+     * Analyzes the scripts named {@code names}, which must already be in {@link #VERSION_ORDER}; {@code texts}
+     * loads the text of the script at an index and is called at most twice per script.
+     */
+    static @NotNull List<Finding> analyze(@NotNull List<String> names, @NotNull IntFunction<CharSequence> texts) {
+        List<Finding> findings = new ArrayList<>();
+        List<Definition> definitions = definitions(names, texts, findings);
+        if (definitions.isEmpty()) {
+            return findings;
+        }
+        CypherSchema current = CypherSchema.of(List.of());
+        int next = 0;
+        for (int script = 0; script < names.size() && next < definitions.size(); script++) {
+            CharSequence text = texts.apply(script);
+            CypherStatementTable statements = CypherStatementTable.build(text);
+            for (int statement = 0; statement < statements.statementCount() && next < definitions.size(); statement++) {
+                Definition definition = definitions.get(next);
+                if (definition.script() == script && definition.statement() == statement) {
+                    current.add(definition.index());
+                    next++;
+                    continue;
+                }
+                int start = statements.startOf(statement);
+                int end = statements.endOf(statement);
+                CypherSemanticRoles roles = CypherSemanticRoles.classify(text, start, end);
+                if (!roles.contains(CypherSemanticRoles.Role.PROPERTY_KEY)) {
+                    continue;
+                }
+                CypherLintContext context = new CypherLintContext(text, start, end, roles);
+                for (List<CypherIndexLookups.Lookup> lookups : CypherIndexLookups.collect(context)) {
+                    if (serves(current, lookups)) {
+                        continue;
+                    }
+                    for (int later = next; later < definitions.size(); later++) {
+                        Definition pending = definitions.get(later);
+                        if (serves(pending.index(), lookups)) {
+                            findings.add(new Finding(script, start + lookups.get(0).start(), "Runs before the "
+                                    + (pending.index().unique() ? "constraint" : "index") + " on " + describe(pending.index())
+                                    + " is created in " + names.get(pending.script()) + ", so this lookup scans"));
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * Reads the index definitions of all scripts in order, reporting those that repeat an earlier one.
+     * Only statements starting with {@code CREATE} are lexed.
+     */
+    private static @NotNull List<Definition> definitions(@NotNull List<String> names, @NotNull IntFunction<CharSequence> texts,
+                                                         @NotNull List<Finding> findings) {
+        List<Definition> definitions = new ArrayList<>();
+        for (int script = 0; script < names.size(); script++) {
+            CharSequence text = texts.apply(script);
+            CypherStatementTable statements = CypherStatementTable.build(text);
+            for (int statement = 0; statement < statements.statementCount(); statement++) {
+                int start = statements.startOf(statement);
+                int end = statements.endOf(statement);
+                int first = CypherStatementSummary.firstTokenOffset(text, start, end);
+                if (end - first < 6 || !"CREATE".contentEquals(text.subSequence(first, first + 6).toString().toUpperCase(Locale.ENGLISH))) {
+                    continue;
+                }
+                CypherLintContext context = new CypherLintContext(text, start, end, CypherSemanticRoles.classify(text, start, end));
+                CypherSchema.Index index = CypherSchema.definition(context);
+                if (index == null) {
+                    continue;
+                }
+                Definition definition = new Definition(script, statement, index, context.isWord(1, "TEXT"));
+                for (Definition earlier : definitions) {
+                    String message = overlap(earlier, definition);
+                    if (message != null) {
+                        findings.add(new Finding(script, first, message + " created in "
+                                + names.get(earlier.script()) + "; redundant indexes only slow down writes"));
+                        break;
+                    }
+                }
+                definitions.add(definition);
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * Describes how {@code later} repeats {@code earlier}, or returns {@code null} when it does not: both
+     * index the same properties of the same label or type, and either both or neither is a text index. The
+     * index backing a constraint counts as a range index, so an index next to a constraint is reported too.
+     */
+    private static @Nullable String overlap(@NotNull Definition earlier, @NotNull Definition later) {
+        CypherSchema.Index first = earlier.index();
+        CypherSchema.Index second = later.index();
+        if (!first.entity().equals(second.entity()) || !first.properties().equals(second.properties())
+                || earlier.text() != later.text()) {
+            return null;
+        }
+        return "Duplicates the " + (first.unique() ? "constraint" : "index") + " on " + describe(first);
+    }
+
+    private static boolean serves(@NotNull CypherSchema schema, @NotNull List<CypherIndexLookups.Lookup> lookups) {
+        for (CypherIndexLookups.Lookup lookup : lookups) {
+            for (String entity : lookup.entities()) {
+                if (schema.covers(entity, lookup.properties())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean serves(@NotNull CypherSchema.Index index, @NotNull List<CypherIndexLookups.Lookup> lookups) {
+        for (CypherIndexLookups.Lookup lookup : lookups) {
+            if (lookup.entities().contains(index.entity()) && index.serves(lookup.properties())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static @NotNull String describe(@NotNull CypherSchema.Index index) {
+        String entity = index.entity();
+        return ":" + entity.substring(entity.indexOf(':') + 1) + "(" + String.join(", ", index.properties()) + ")";
+    }
+}
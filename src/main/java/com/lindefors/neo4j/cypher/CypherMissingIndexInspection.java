@@ -0,0 +1,65 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports {@code MATCH} and {@code MERGE} lookups that no index serves, so the planner scans every node of
+ * the label (or relationship of the type) and filters. Lookups come from {@link CypherIndexLookups} and are
+ * checked against the project's {@link CypherSchemaIndex#schema schema} with one hash lookup per predicate;
+ * a pattern part is reported only when none of its lookups is indexed. Nothing is reported while the
+ * project defines no schema at all, and statements without property keys are not lexed again.
+ */
+public class CypherMissingIndexInspection extends LocalInspectionTool {
+    @Override
+    public ProblemDescriptor @Nullable [] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
+        if (!(file instanceof CypherPsiFile cypherFile)) {
+            return null;
+        }
+        CypherSchema schema = CypherSchemaIndex.schema(file.getProject());
+        if (schema.isEmpty()) {
+            return null;
+        }
+        CypherSemanticCache semantics = cypherFile.getSemanticCache();
+        CypherStatementTable statements = semantics.statements();
+        CharSequence text = statements.text();
+        if (text.length() != file.getTextLength()) {
+            return null;
+        }
+        List<ProblemDescriptor> descriptors = new ArrayList<>();
+        for (int index = 0; index < statements.statementCount(); index++) {
+            ProgressManager.checkCanceled();
+            CypherSemanticRoles roles = semantics.roles(index);
+            if (!roles.contains(CypherSemanticRoles.Role.PROPERTY_KEY)) {
+                continue;
+            }
+            int base = statements.startOf(index);
+            CypherLintContext context = new CypherLintContext(text, base, statements.endOf(index), roles);
+            for (CypherIndexLookups.Lookup lookup : CypherIndexLookups.unindexed(context, schema)) {
+                String createIndex = CypherIndexLookups.createIndexStatement(lookup);
+                descriptors.add(manager.createProblemDescriptor(file,
+                        new TextRange(base + lookup.start(), base + lookup.end()),
+                        "No index serves this lookup, so every " + describe(lookup) + " is scanned; consider "
+                                + createIndex, ProblemHighlightType.GENERIC_ERROR_OR_WARNING, isOnTheFly,
+                        new CypherCopyStatementFix("Copy CREATE INDEX statement", createIndex)));
+            }
+        }
+        return descriptors.toArray(ProblemDescriptor.EMPTY_ARRAY);
+    }
+
+    private static @NotNull String describe(@NotNull CypherIndexLookups.Lookup lookup) {
+        String entity = lookup.entities().get(0);
+        String name = entity.substring(entity.indexOf(':') + 1);
+        return CypherSymbols.typeName(entity).equals("label") ? ":" + name + " node" : ":" + name + " relationship";
+    }
+}
@@ -0,0 +1,125 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+
+/**
+ * Opens a saved {@code PROFILE} / {@code EXPLAIN} plan (a {@code .json} file) in the
+ * {@link CypherPlanToolWindowFactory Cypher Plan} tool window, next to the Cypher file it was captured from:
+ * a file with the same base name in the same directory ({@code people.cypher} for {@code people.json} or
+ * {@code people.profile.json}), or else the Cypher file in the active editor. The plan is read and parsed
+ * under a modal progress.
+ */
+public class CypherOpenPlanAction extends AnAction implements DumbAware {
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        VirtualFile file = e.getData(CommonDataKeys.VIRTUAL_FILE);
+        e.getPresentation().setEnabledAndVisible(e.getProject() != null && isPlanFile(file));
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile planFile = e.getData(CommonDataKeys.VIRTUAL_FILE);
+        if (project == null || !isPlanFile(planFile)) {
+            return;
+        }
+        CypherPlan plan = load(project, planFile);
+        if (plan == null) {
+            return;
+        }
+        CypherPlanToolWindowFactory.show(project, planFile.getName(), plan, openSource(project, planFile));
+    }
+
+    /**
+     * The Cypher file a plan was captured from, opened in an editor, and the index of the statement to use
+     * when the plan does not record its query; {@code file} and {@code document} are {@code null} when no
+     * Cypher file was found.
+     */
+    record Source(@Nullable VirtualFile file, @Nullable Document document, int statement) {
+    }
+
+    /**
+     * Finds the Cypher file for {@code planFile} and opens it without moving the focus.
+     */
+    static @NotNull Source openSource(@NotNull Project project, @NotNull VirtualFile planFile) {
+        Editor activeEditor = FileEditorManager.getInstance(project).getSelectedTextEditor();
+        VirtualFile source = sourceFile(planFile);
+        int statement = 0;
+        if (source == null && activeEditor != null) {
+            VirtualFile activeFile = FileDocumentManager.getInstance().getFile(activeEditor.getDocument());
+            if (activeFile != null && activeFile.getFileType() == CypherFileType.INSTANCE) {
+                source = activeFile;
+                statement = CypherStatementTable.build(activeEditor.getDocument().getImmutableCharSequence())
+                        .indexAt(activeEditor.getCaretModel().getOffset());
+            }
+        }
+        if (source == null) {
+            return new Source(null, null, 0);
+        }
+        FileEditorManager.getInstance(project).openTextEditor(new OpenFileDescriptor(project, source), false);
+        return new Source(source, FileDocumentManager.getInstance().getDocument(source), statement);
+    }
+
+    /**
+     * Reads and parses a plan file under a modal progress, reporting failures in a dialog.
+     */
+    static @Nullable CypherPlan load(@NotNull Project project, @NotNull VirtualFile file) {
+        try {
+            return ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                    () -> CypherPlan.parse(VfsUtilCore.loadText(file)), "Reading Query Plan", true, project);
+        } catch (IOException | IllegalArgumentException ex) {
+            Messages.showErrorDialog(project, file.getName() + " is not a readable query plan: " + ex.getMessage(),
+                    "Open Query Plan");
+            return null;
+        }
+    }
+
+    static boolean isPlanFile(@Nullable VirtualFile file) {
+        return file != null && !file.isDirectory() && "json".equalsIgnoreCase(file.getExtension());
+    }
+
+    /**
+     * Returns the Cypher file next to {@code planFile} whose name is the plan's name up to any of its dots.
+     */
+    private static @Nullable VirtualFile sourceFile(@NotNull VirtualFile planFile) {
+        VirtualFile directory = planFile.getParent();
+        String base = planFile.getNameWithoutExtension();
+        while (directory != null && !base.isEmpty()) {
+            for (String extension : new String[]{".cypher", ".cyp"}) {
+                VirtualFile candidate = directory.findChild(base + extension);
+                if (candidate != null && !candidate.isDirectory()) {
+                    return candidate;
+                }
+            }
+            int dot = base.lastIndexOf('.');
+            if (dot < 0) {
+                return null;
+            }
+            base = base.substring(0, dot);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiNamedElement;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.impl.source.tree.LeafPsiElement;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.IncorrectOperationException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Leaf PSI for {@link CypherTokenTypes#PARAMETER} tokens. Named parameters act as their own declaration:
+ * every occurrence resolves to itself and is considered a reference to any other occurrence with the
+ * same name.
+ */
+public class CypherParameterElement extends LeafPsiElement implements PsiNamedElement {
+    public CypherParameterElement(@NotNull IElementType type, @NotNull CharSequence text) {
+        super(type, text);
+    }
+
+    @Override
+    public @Nullable String getName() {
+        return CypherParameters.nameOf(getText());
+    }
+
+    @Override
+    public PsiElement setName(@NotNull String name) throws IncorrectOperationException {
+        if (getName() == null) {
+            throw new IncorrectOperationException("Expression parameters cannot be renamed");
+        }
+        return replaceWithText(CypherParameters.withName(getText(), name)).getPsi();
+    }
+
+    @Override
+    public @Nullable PsiReference getReference() {
+        return getName() == null ? null : new CypherParameterReference(this);
+    }
+
+    /**
+     * Usages are located through {@link CypherParameterIndex} by {@link CypherReferenceSearcher}, so the
+     * platform's word-based search only needs to look at the element itself.
+     */
+    @Override
+    public @NotNull SearchScope getUseScope() {
+        return new LocalSearchScope(this);
+    }
+}
@@ -0,0 +1,138 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Project index from parameter name ({@code $name} or legacy {@code {name}}) to the offsets of its
+ * occurrences in each Cypher file. Values are plain {@code int[]} offsets stored delta-encoded as
+ * variable-length ints, so indexing is a single lexer pass per file and the on-disk footprint is a few
+ * bytes per occurrence.
+ */
+public class CypherParameterIndex extends FileBasedIndexExtension<String, int[]> {
+    public static final ID<String, int[]> NAME = ID.create("com.lindefors.neo4j.cypher.parameters");
+
+    static final DataExternalizer<int[]> OFFSETS_EXTERNALIZER = new DataExternalizer<>() {
+        @Override
+        public void save(@NotNull DataOutput out, int[] value) throws IOException {
+            DataInputOutputUtil.writeINT(out, value.length);
+            int previous = 0;
+            for (int offset : value) {
+                DataInputOutputUtil.writeINT(out, offset - previous);
+                previous = offset;
+            }
+        }
+
+        @Override
+        public int[] read(@NotNull DataInput in) throws IOException {
+            int size = DataInputOutputUtil.readINT(in);
+            int[] offsets = new int[size];
+            int previous = 0;
+            for (int i = 0; i < size; i++) {
+                previous += DataInputOutputUtil.readINT(in);
+                offsets[i] = previous;
+            }
+            return offsets;
+        }
+    };
+
+    @Override
+    public @NotNull ID<String, int[]> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, int[], FileContent> getIndexer() {
+        return inputData -> CypherParameters.collectOffsets(inputData.getContentAsText());
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<int[]> getValueExternalizer() {
+        return OFFSETS_EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(CypherFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Counts occurrences of every indexed parameter name accepted by {@code nameFilter}. Counting only
+     * touches the packed offset arrays, so ranking completion items never loads PSI.
+     */
+    public static @NotNull Map<String, Integer> usageCounts(@NotNull Project project,
+                                                            @NotNull GlobalSearchScope scope,
+                                                            @NotNull Predicate<String> nameFilter) {
+        FileBasedIndex index = FileBasedIndex.getInstance();
+        List<String> names = new ArrayList<>();
+        index.processAllKeys(NAME, name -> {
+            if (nameFilter.test(name)) {
+                names.add(name);
+            }
+            return true;
+        }, project);
+
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String name : names) {
+            int[] total = {0};
+            index.processValues(NAME, name, null, (file, offsets) -> {
+                total[0] += offsets.length;
+                return true;
+            }, scope);
+            if (total[0] > 0) {
+                counts.put(name, total[0]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Collects the files and offsets where {@code name} occurs. The result is materialized before any
+     * PSI is touched because index value processors must not re-enter the index.
+     */
+    public static @NotNull Map<VirtualFile, int[]> findOccurrences(@NotNull String name,
+                                                                   @NotNull GlobalSearchScope scope) {
+        Map<VirtualFile, int[]> occurrences = new LinkedHashMap<>();
+        FileBasedIndex.getInstance().processValues(NAME, name, null, (file, offsets) -> {
+            occurrences.put(file, offsets);
+            return true;
+        }, scope);
+        return occurrences;
+    }
+}
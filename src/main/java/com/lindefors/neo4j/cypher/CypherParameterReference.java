@@ -0,0 +1,35 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReferenceBase;
+import com.intellij.util.IncorrectOperationException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Self-resolving reference that ties parameter occurrences together by name.
+ */
+public class CypherParameterReference extends PsiReferenceBase<CypherParameterElement> {
+    CypherParameterReference(@NotNull CypherParameterElement element) {
+        super(element, TextRange.from(0, element.getTextLength()));
+    }
+
+    @Override
+    public @Nullable PsiElement resolve() {
+        return getElement();
+    }
+
+    @Override
+    public boolean isReferenceTo(@NotNull PsiElement element) {
+        return element instanceof CypherParameterElement parameter
+                && Objects.equals(parameter.getName(), getElement().getName());
+    }
+
+    @Override
+    public PsiElement handleElementRename(@NotNull String newElementName) throws IncorrectOperationException {
+        return getElement().setName(newElementName);
+    }
+}
@@ -0,0 +1,92 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the inline literals of every Cypher file in the selected files and directories with parameters,
+ * as the {@link CypherInlineLiteralInspection} quick-fix does for one literal. Fixes are computed from the
+ * document texts under a modal progress, then applied back to front in one undoable command.
+ */
+public class CypherParameterizeLiteralsAction extends AnAction implements DumbAware {
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        VirtualFile[] files = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        boolean enabled = false;
+        if (e.getProject() != null && files != null) {
+            for (VirtualFile file : files) {
+                enabled |= file.isDirectory() || file.getFileType() == CypherFileType.INSTANCE;
+            }
+        }
+        e.getPresentation().setEnabledAndVisible(enabled);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        VirtualFile[] roots = e.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        if (project == null || roots == null) {
+            return;
+        }
+        Map<Document, List<CypherLintFix>> changes = new LinkedHashMap<>();
+        boolean completed = ProgressManager.getInstance().runProcessWithProgressSynchronously(() -> {
+            for (VirtualFile file : CypherProjectFiles.collect(project, roots)) {
+                ProgressManager.checkCanceled();
+                Document document = ReadAction.compute(() -> FileDocumentManager.getInstance().getDocument(file));
+                if (document != null && document.isWritable()) {
+                    List<CypherLintFix> fixes = CypherLiteralParameters.fixes(document.getImmutableCharSequence());
+                    if (!fixes.isEmpty()) {
+                        changes.put(document, fixes);
+                    }
+                }
+            }
+        }, "Finding Cypher Literals", true, project);
+        if (!completed) {
+            return;
+        }
+        int count = changes.values().stream().mapToInt(List::size).sum();
+        if (count == 0) {
+            Messages.showInfoMessage(project, "No literals to replace were found.", "Parameterize Literals");
+            return;
+        }
+        if (Messages.showOkCancelDialog(project, "Replace " + count + " literals in " + changes.size()
+                        + " files with parameters? Callers must then pass the parameter values.",
+                "Parameterize Literals", "Replace", "Cancel", Messages.getQuestionIcon()) != Messages.OK) {
+            return;
+        }
+        WriteCommandAction.runWriteCommandAction(project, "Parameterize Cypher Literals", null, () -> {
+            for (Map.Entry<Document, List<CypherLintFix>> change : changes.entrySet()) {
+                Document document = change.getKey();
+                List<CypherLintFix> fixes = change.getValue();
+                for (int i = fixes.size() - 1; i >= 0; i--) {
+                    CypherLintFix fix = fixes.get(i);
+                    if (fix.end() <= document.getTextLength()
+                            && fix.original().contentEquals(document.getImmutableCharSequence().subSequence(fix.start(), fix.end()))) {
+                        document.replaceString(fix.start(), fix.end(), fix.replacement());
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Helpers for the {@link CypherTokenTypes#PARAMETER} token shapes produced by {@link CypherLexer}:
+ * {@code $name}, legacy {@code {name}} and APOC-style {@code $(expression)}. Only the first two carry a
+ * parameter name; expression parameters are ignored by name-based features.
+ */
+public final class CypherParameters {
+    private CypherParameters() {
+    }
+
+    /**
+     * Extracts the parameter name from a {@code PARAMETER} token text, or returns {@code null} for
+     * expression parameters and bare {@code $} tokens.
+     */
+    public static @Nullable String nameOf(@NotNull CharSequence tokenText) {
+        int length = tokenText.length();
+        if (length < 2) {
+            return null;
+        }
+        char first = tokenText.charAt(0);
+        if (first == '$') {
+            if (tokenText.charAt(1) == '(') {
+                return null;
+            }
+            return tokenText.subSequence(1, length).toString();
+        }
+        if (first == '{' && tokenText.charAt(length - 1) == '}') {
+            String name = tokenText.subSequence(1, length - 1).toString().trim();
+            return name.isEmpty() ? null : name;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the token text with its parameter name replaced, preserving the original syntax
+     * (including whitespace inside legacy braces).
+     */
+    public static @NotNull String withName(@NotNull CharSequence tokenText, @NotNull String newName) {
+        String text = tokenText.toString();
+        String oldName = nameOf(text);
+        if (oldName == null) {
+            return text;
+        }
+        if (text.charAt(0) == '$') {
+            return "$" + newName;
+        }
+        int nameStart = text.indexOf(oldName);
+        return text.substring(0, nameStart) + newName + text.substring(nameStart + oldName.length());
+    }
+
+    /**
+     * Lexes the text once and groups the start offsets of every named parameter by name. Offsets are in
+     * ascending order, which lets the index store them delta-encoded.
+     */
+    public static @NotNull Map<String, int[]> collectOffsets(@NotNull CharSequence text) {
+        Map<String, int[]> offsets = new HashMap<>();
+        Map<String, Integer> sizes = new HashMap<>();
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(text, 0, text.length(), 0);
+        while (lexer.getTokenType() != null) {
+            if (lexer.getTokenType() == CypherTokenTypes.PARAMETER) {
+                String name = nameOf(text.subSequence(lexer.getTokenStart(), lexer.getTokenEnd()));
+                if (name != null) {
+                    int size = sizes.getOrDefault(name, 0);
+                    int[] values = offsets.get(name);
+                    if (values == null) {
+                        values = new int[4];
+                    } else if (size == values.length) {
+                        values = Arrays.copyOf(values, size * 2);
+                    }
+                    values[size] = lexer.getTokenStart();
+                    offsets.put(name, values);
+                    sizes.put(name, size + 1);
+                }
+            }
+            lexer.advance();
+        }
+        offsets.replaceAll((name, values) -> Arrays.copyOf(values, sizes.get(name)));
+        return offsets;
+    }
+}
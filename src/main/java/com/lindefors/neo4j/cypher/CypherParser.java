@@ -9,18 +9,54 @@ import org.jetbrains.annotations.NotNull;
 /**
  * Trivial parser that produces a flat AST by consuming all tokens. This keeps the plugin lightweight
  * while still enabling editor features that rely on PSI nodes.
+ *
+ * <p>In large-file mode ({@link CypherLargeFileMode.Feature#SYNTAX_TREE}) runs of whole statements are
+ * collapsed into single {@link CypherTokenTypes#STATEMENTS} leaves of about {@value #STATEMENTS_CHUNK_SIZE}
+ * characters, so the tree holds a few nodes per chunk instead of one per token. Features that need a leaf
+ * per name are off in such files (see {@link CypherLargeFileMode.Feature#SYNTAX_TREE}); completion works
+ * from the document text.
  */
 public class CypherParser implements PsiParser {
+    static final int STATEMENTS_CHUNK_SIZE = 16 * 1024;
+
     /**
      * Consumes tokens until EOF and wraps them under the provided root element type.
      */
     @Override
     public @NotNull ASTNode parse(@NotNull IElementType root, @NotNull PsiBuilder builder) {
         PsiBuilder.Marker marker = builder.mark();
-        while (!builder.eof()) {
-            builder.advanceLexer();
+        if (CypherLargeFileMode.isDegraded(CypherLargeFileMode.Feature.SYNTAX_TREE, builder.getOriginalText().length())) {
+            parseCollapsed(builder);
+        } else {
+            while (!builder.eof()) {
+                builder.advanceLexer();
+            }
         }
         marker.done(root);
         return builder.getTreeBuilt();
     }
+
+    /**
+     * Collapses tokens into chunks that end after the first semicolon past {@value #STATEMENTS_CHUNK_SIZE}
+     * characters, so chunk boundaries coincide with statement boundaries.
+     */
+    private static void parseCollapsed(@NotNull PsiBuilder builder) {
+        PsiBuilder.Marker chunk = null;
+        int chunkStart = 0;
+        while (!builder.eof()) {
+            if (chunk == null) {
+                chunk = builder.mark();
+                chunkStart = builder.getCurrentOffset();
+            }
+            IElementType type = builder.getTokenType();
+            builder.advanceLexer();
+            if (type == CypherTokenTypes.SEMICOLON && builder.getCurrentOffset() - chunkStart >= STATEMENTS_CHUNK_SIZE) {
+                chunk.collapse(CypherTokenTypes.STATEMENTS);
+                chunk = null;
+            }
+        }
+        if (chunk != null) {
+            chunk.collapse(CypherTokenTypes.STATEMENTS);
+        }
+    }
 }
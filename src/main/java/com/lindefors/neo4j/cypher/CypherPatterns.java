@@ -0,0 +1,184 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the graph patterns of a {@code MATCH}, {@code MERGE} or {@code CREATE} clause from a
+ * {@link CypherLintContext}. A clause holds comma-separated parts; each part is a path of node patterns
+ * {@code (n:Label {key: value})} joined by relationship patterns {@code -[r:TYPE]->}. Names are taken from
+ * the semantic roles of the context, so labels, types and property keys need no parsing of their own.
+ * Parenthesized and quantified path patterns are entered and their nodes read as part of the enclosing part.
+ */
+final class CypherPatterns {
+    /**
+     * A node pattern between tokens {@code open} and {@code close}.
+     */
+    record Node(int open, int close, @Nullable String variable, @NotNull List<String> labels,
+                @NotNull List<String> propertyKeys) {
+    }
+
+    /**
+     * A relationship pattern between the brackets {@code open} and {@code close}; {@code range} is set for
+     * variable-length relationships.
+     */
+    record Relationship(int open, int close, @Nullable String variable, @NotNull List<String> types,
+                        @NotNull List<String> propertyKeys, @Nullable Range range) {
+    }
+
+    /**
+     * The hop range of a variable-length relationship, from the {@code *} token at {@code star} to token
+     * {@code last}: {@code *} is {@code 1..}{@link #UNBOUNDED}, {@code *3} is {@code 3..3}, {@code *..5} is
+     * {@code 1..5} and {@code *2..} is {@code 2..}{@link #UNBOUNDED}.
+     */
+    record Range(int star, int last, int lower, int upper) {
+        static final int UNBOUNDED = -1;
+
+        boolean isUnbounded() {
+            return upper == UNBOUNDED;
+        }
+    }
+
+    /**
+     * One comma-separated part of a clause, spanning tokens {@code [start, end)}.
+     */
+    record Part(int start, int end, @NotNull List<Node> nodes, @NotNull List<Relationship> relationships) {
+    }
+
+    private CypherPatterns() {
+    }
+
+    /**
+     * Parses the pattern parts in tokens {@code [from, to)}, which should span a clause without its keywords
+     * and without a trailing {@code WHERE}.
+     */
+    static @NotNull List<Part> parse(@NotNull CypherLintContext context, int from, int to) {
+        List<Part> parts = new ArrayList<>();
+        int depth = context.depth(from);
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || context.depth(i) == depth && context.type(i) == CypherTokenTypes.COMMA) {
+                if (i > start) {
+                    parts.add(parsePart(context, start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return parts;
+    }
+
+    private static @NotNull Part parsePart(@NotNull CypherLintContext context, int start, int end) {
+        List<Node> nodes = new ArrayList<>();
+        List<Relationship> relationships = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            if (context.type(i) == CypherTokenTypes.PAREN_OPEN && context.role(i - 1) != CypherSemanticRoles.Role.FUNCTION
+                    && context.type(i + 1) != CypherTokenTypes.PAREN_OPEN) {
+                int close = closing(context, i, end);
+                nodes.add(new Node(i, close, variable(context, i, close), names(context, i, close, CypherSemanticRoles.Role.LABEL),
+                        propertyKeys(context, i, close)));
+                i = close;
+            } else if (context.type(i) == CypherTokenTypes.BRACKET_OPEN && isDash(context, i - 1)) {
+                int close = closing(context, i, end);
+                relationships.add(new Relationship(i, close, variable(context, i, close),
+                        names(context, i, close, CypherSemanticRoles.Role.RELATIONSHIP_TYPE), propertyKeys(context, i, close),
+                        range(context, i, close)));
+                i = close;
+            }
+        }
+        return new Part(start, end, nodes, relationships);
+    }
+
+    /**
+     * Returns the index of the bracket closing the one at {@code open}, or the last index before {@code end}.
+     */
+    static int closing(@NotNull CypherLintContext context, int open, int end) {
+        int depth = context.depth(open);
+        for (int i = open + 1; i < end; i++) {
+            if (context.depth(i) == depth) {
+                return i;
+            }
+        }
+        return end - 1;
+    }
+
+    private static @Nullable String variable(@NotNull CypherLintContext context, int open, int close) {
+        int first = open + 1;
+        return first < close && context.role(first) == CypherSemanticRoles.Role.VARIABLE
+                ? CypherVariableScopes.normalize(context.text(first)) : null;
+    }
+
+    private static @NotNull List<String> names(@NotNull CypherLintContext context, int open, int close,
+                                               @NotNull CypherSemanticRoles.Role role) {
+        List<String> names = new ArrayList<>(1);
+        int depth = context.depth(open) + 1;
+        for (int i = open + 1; i < close; i++) {
+            if (context.depth(i) == depth && context.role(i) == role) {
+                names.add(CypherVariableScopes.normalize(context.text(i)));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns the keys of the property map directly inside the pattern, e.g. {@code name} in
+     * {@code (:Person {name: $name})}.
+     */
+    private static @NotNull List<String> propertyKeys(@NotNull CypherLintContext context, int open, int close) {
+        List<String> keys = new ArrayList<>(1);
+        int depth = context.depth(open) + 2;
+        for (int i = open + 1; i < close; i++) {
+            if (context.depth(i) == depth && context.role(i) == CypherSemanticRoles.Role.PROPERTY_KEY
+                    && context.type(i + 1) == CypherTokenTypes.COLON) {
+                keys.add(CypherVariableScopes.normalize(context.text(i)));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Reads the range of the relationship between brackets {@code open} and {@code close}. The lexer has no
+     * range token, so {@code *1..5} arrives as the operator {@code *}, a number, two dots and a number.
+     */
+    private static @Nullable Range range(@NotNull CypherLintContext context, int open, int close) {
+        int depth = context.depth(open) + 1;
+        int star = -1;
+        for (int i = open + 1; i < close && star < 0; i++) {
+            if (context.depth(i) == depth && context.type(i) == CypherTokenTypes.OPERATOR && "*".contentEquals(context.text(i))) {
+                star = i;
+            }
+        }
+        if (star < 0) {
+            return null;
+        }
+        int i = star + 1;
+        int lower = number(context, i);
+        if (lower >= 0) {
+            i++;
+        }
+        if (context.type(i) != CypherTokenTypes.DOT || context.type(i + 1) != CypherTokenTypes.DOT) {
+            return lower >= 0 ? new Range(star, i - 1, lower, lower) : new Range(star, star, 1, Range.UNBOUNDED);
+        }
+        int upper = number(context, i + 2);
+        int from = lower >= 0 ? lower : 1;
+        return upper >= 0 ? new Range(star, i + 2, from, upper) : new Range(star, i + 1, from, Range.UNBOUNDED);
+    }
+
+    private static int number(@NotNull CypherLintContext context, int index) {
+        if (context.type(index) != CypherTokenTypes.NUMBER) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(context.text(index).toString());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static boolean isDash(@NotNull CypherLintContext context, int index) {
+        CharSequence text = context.text(index);
+        return context.type(index) == CypherTokenTypes.OPERATOR && text.length() > 0 && text.charAt(text.length() - 1) == '-';
+    }
+}
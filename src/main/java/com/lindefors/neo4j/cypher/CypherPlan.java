@@ -0,0 +1,199 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A saved {@code PROFILE} or {@code EXPLAIN} plan: the tree of {@link Operator}s with their statistics. Both
+ * common JSON shapes are read: the driver's serialized {@code ProfiledPlan} (statistics as fields such as
+ * {@code dbHits} and {@code records}, details under {@code arguments} or {@code args}) and the Neo4j Browser
+ * export (statistics as {@code Rows}, {@code DbHits}, {@code Memory}, ... arguments). The plan may be the
+ * whole file or nested in it, e.g. under {@code profile} or {@code plan} of an exported result summary,
+ * next to the {@code query} it was captured for.
+ *
+ * <p>Operators are numbered in pre-order, so {@link #operators()} lists parents before their children and
+ * {@link Operator#id()} indexes it; statistics missing from a plan, such as all of them in an
+ * {@code EXPLAIN}, are {@code 0}.
+ */
+final class CypherPlan {
+    /**
+     * One operator; {@code type} without the runtime suffix, e.g. {@code NodeIndexSeek} for
+     * {@code NodeIndexSeek@neo4j}, and {@code details} the planner's description of it, e.g.
+     * {@code p:Person(name) WHERE name = $name}. The children list is the operator's inputs, left first.
+     */
+    record Operator(int id, @NotNull String type, @NotNull String details, @NotNull List<String> identifiers,
+                    long rows, long estimatedRows, long dbHits, long pageCacheHits, long pageCacheMisses, long time,
+                    long memory, @NotNull List<Operator> children) {
+        // identity semantics: the generated methods would walk the whole subtree, and trees hash their nodes
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return type;
+        }
+    }
+
+    private final List<Operator> operators;
+    private final @Nullable String query;
+
+    private CypherPlan(@NotNull List<Operator> operators, @Nullable String query) {
+        this.operators = operators;
+        this.query = query;
+    }
+
+    /**
+     * Reads a plan from JSON.
+     *
+     * @throws IllegalArgumentException when {@code json} is not valid JSON or contains no operator
+     */
+    static @NotNull CypherPlan parse(@NotNull CharSequence json) {
+        Object value = CypherPlanJson.parse(json);
+        Map<?, ?> root = findRoot(value);
+        if (root == null) {
+            throw new IllegalArgumentException("No plan operator found");
+        }
+        List<Operator> operators = new ArrayList<>();
+        Deque<Map<?, ?>> pending = new ArrayDeque<>();
+        Deque<List<Operator>> parents = new ArrayDeque<>();
+        pending.push(root);
+        parents.push(new ArrayList<>(1));
+        while (!pending.isEmpty()) {
+            Map<?, ?> node = pending.pop();
+            List<Operator> siblings = parents.pop();
+            Operator operator = operator(operators.size(), node);
+            operators.add(operator);
+            siblings.add(operator);
+            List<?> children = node.get("children") instanceof List<?> list ? list : List.of();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                if (children.get(i) instanceof Map<?, ?> child) {
+                    pending.push(child);
+                    parents.push(operator.children());
+                }
+            }
+        }
+        return new CypherPlan(operators, query(value));
+    }
+
+    @NotNull Operator root() {
+        return operators.get(0);
+    }
+
+    /**
+     * All operators in pre-order.
+     */
+    @NotNull List<Operator> operators() {
+        return operators;
+    }
+
+    /**
+     * The query the plan was captured for, when the file records it.
+     */
+    @Nullable String query() {
+        return query;
+    }
+
+    /**
+     * Returns the database hits of all operators together, the usual measure of a plan's cost.
+     */
+    long totalDbHits() {
+        long total = 0;
+        for (Operator operator : operators) {
+            total += operator.dbHits();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the cost used to compare operators: database hits in a profile, estimated rows in an
+     * {@code EXPLAIN} plan, which has no statistics.
+     */
+    static long cost(@NotNull Operator operator) {
+        return operator.dbHits() > 0 || operator.rows() > 0 ? operator.dbHits() : operator.estimatedRows();
+    }
+
+    /**
+     * Returns the first object, breadth first, that has an {@code operatorType}.
+     */
+    private static @Nullable Map<?, ?> findRoot(@Nullable Object value) {
+        Deque<Object> queue = new ArrayDeque<>();
+        queue.add(value == null ? List.of() : value);
+        while (!queue.isEmpty()) {
+            Object next = queue.poll();
+            if (next instanceof Map<?, ?> map) {
+                if (map.get("operatorType") instanceof String) {
+                    return map;
+                }
+                queue.addAll(map.values().stream().filter(v -> v instanceof Map || v instanceof List).toList());
+            } else if (next instanceof List<?> list) {
+                queue.addAll(list.stream().filter(v -> v instanceof Map || v instanceof List).toList());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the query text recorded next to the plan: a top-level {@code query} string, or the
+     * {@code text} of a {@code query} object.
+     */
+    private static @Nullable String query(@Nullable Object value) {
+        if (!(value instanceof Map<?, ?> map)) {
+            return null;
+        }
+        Object query = map.get("query");
+        if (query instanceof Map<?, ?> queryMap) {
+            query = queryMap.get("text");
+        }
+        return query instanceof String text ? text : null;
+    }
+
+    private static @NotNull Operator operator(int id, @NotNull Map<?, ?> node) {
+        Map<?, ?> arguments = node.get("arguments") instanceof Map<?, ?> map ? map
+                : node.get("args") instanceof Map<?, ?> args ? args : Map.of();
+        String type = String.valueOf(node.get("operatorType"));
+        int runtime = type.indexOf('@');
+        List<String> identifiers = new ArrayList<>();
+        if (node.get("identifiers") instanceof List<?> list) {
+            for (Object identifier : list) {
+                identifiers.add(String.valueOf(identifier));
+            }
+        }
+        return new Operator(id, runtime > 0 ? type.substring(0, runtime) : type,
+                arguments.get("Details") instanceof String details ? details : "", List.copyOf(identifiers),
+                number(node, arguments, "rows", "records", "Rows"),
+                number(node, arguments, "estimatedRows", "EstimatedRows", "EstimatedRows"),
+                number(node, arguments, "dbHits", "dbHits", "DbHits"),
+                number(node, arguments, "pageCacheHits", "pageCacheHits", "PageCacheHits"),
+                number(node, arguments, "pageCacheMisses", "pageCacheMisses", "PageCacheMisses"),
+                number(node, arguments, "time", "time", "Time"),
+                number(node, arguments, "memory", "Memory", "Memory"),
+                new ArrayList<>());
+    }
+
+    /**
+     * Returns the first of {@code field}, {@code alternative} (fields of the operator) and {@code argument}
+     * (an argument of it) that is a number, rounded, or {@code 0}.
+     */
+    private static long number(@NotNull Map<?, ?> node, @NotNull Map<?, ?> arguments,
+                               @NotNull String field, @NotNull String alternative, @NotNull String argument) {
+        for (Object value : new Object[]{node.get(field), node.get(alternative), arguments.get(argument)}) {
+            if (value instanceof Number number) {
+                return Math.round(number.doubleValue());
+            }
+        }
+        return 0;
+    }
+}
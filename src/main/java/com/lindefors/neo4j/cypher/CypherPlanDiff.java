@@ -0,0 +1,198 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.text.NumberFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * The structural alignment of two plans for the same query, e.g. before and after adding an index. The
+ * trees are aligned top-down: the roots are paired, and the children of paired operators are paired by
+ * operator type in order, the rest by position. Where one plan has an operator more in a chain, that
+ * operator is marked added or removed and the operators below it are still paired: when its only child has
+ * the type of the other plan's operator, or when the other plan's operator is a leaf, as for a
+ * {@code Filter} over a {@code NodeByLabelScan} that an index seek made unnecessary, where the scan is
+ * paired with the seek. The alignment visits every operator once, on an explicit stack.
+ */
+final class CypherPlanDiff {
+    private static final int MAX_MATCHED_CHILDREN = 64;
+
+    /**
+     * An operator of the merged tree: {@code before} or {@code after} is {@code null} for an operator only
+     * one plan has.
+     */
+    record Node(@Nullable CypherPlan.Operator before, @Nullable CypherPlan.Operator after, @NotNull List<Node> children) {
+        /**
+         * Returns true when the operator was added, removed or replaced, or any of its statistics changed.
+         */
+        boolean isChanged() {
+            return before == null || after == null || !before.type().equals(after.type())
+                    || before.dbHits() != after.dbHits() || before.rows() != after.rows()
+                    || before.estimatedRows() != after.estimatedRows() || before.memory() != after.memory();
+        }
+
+        // identity semantics, as for CypherPlan.Operator
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public @NotNull String toString() {
+            return before == null ? "+" + after : after == null ? "-" + before : String.valueOf(after);
+        }
+    }
+
+    private final CypherPlan before;
+    private final CypherPlan after;
+    private final Node root;
+
+    private CypherPlanDiff(@NotNull CypherPlan before, @NotNull CypherPlan after, @NotNull Node root) {
+        this.before = before;
+        this.after = after;
+        this.root = root;
+    }
+
+    /**
+     * A pair still to align, to be added to {@code target}.
+     */
+    private record Task(@Nullable CypherPlan.Operator before, @Nullable CypherPlan.Operator after,
+                        @NotNull List<Node> target) {
+    }
+
+    static @NotNull CypherPlanDiff compare(@NotNull CypherPlan before, @NotNull CypherPlan after) {
+        List<Node> roots = new ArrayList<>(1);
+        Deque<Task> tasks = new ArrayDeque<>();
+        tasks.push(new Task(before.root(), after.root(), roots));
+        while (!tasks.isEmpty()) {
+            Task task = tasks.pop();
+            CypherPlan.Operator left = task.before();
+            CypherPlan.Operator right = task.after();
+            if (left != null && right != null && !left.type().equals(right.type())) {
+                if (hasOnlyChild(left, right.type()) || left.children().size() == 1 && right.children().isEmpty()) {
+                    Node removed = new Node(left, null, new ArrayList<>(1));
+                    task.target().add(removed);
+                    tasks.push(new Task(left.children().get(0), right, removed.children()));
+                    continue;
+                }
+                if (hasOnlyChild(right, left.type()) || right.children().size() == 1 && left.children().isEmpty()) {
+                    Node added = new Node(null, right, new ArrayList<>(1));
+                    task.target().add(added);
+                    tasks.push(new Task(left, right.children().get(0), added.children()));
+                    continue;
+                }
+            }
+            Node node = new Node(left, right, new ArrayList<>());
+            task.target().add(node);
+            List<Task> children = pairChildren(left, right, node.children());
+            for (int i = children.size() - 1; i >= 0; i--) {
+                tasks.push(children.get(i));
+            }
+        }
+        return new CypherPlanDiff(before, after, roots.get(0));
+    }
+
+    @NotNull Node root() {
+        return root;
+    }
+
+    @NotNull CypherPlan before() {
+        return before;
+    }
+
+    @NotNull CypherPlan after() {
+        return after;
+    }
+
+    /**
+     * Summarizes the change of the plan totals, e.g.
+     * {@code db hits 5,103 → 105 (-98%), rows 12, ...}.
+     */
+    @NotNull String summary() {
+        return "db hits " + delta(before, after, CypherPlan.Operator::dbHits)
+                + ", rows " + delta(before.root().rows(), after.root().rows())
+                + ", estimated rows " + delta(before.root().estimatedRows(), after.root().estimatedRows())
+                + ", memory " + delta(before, after, CypherPlan.Operator::memory)
+                + ", operators " + delta(before.operators().size(), after.operators().size());
+    }
+
+    /**
+     * Describes a change of a value, e.g. {@code 5,001 → 3 (-100%)}, or just the value when it is unchanged.
+     */
+    static @NotNull String delta(long before, long after) {
+        NumberFormat format = NumberFormat.getIntegerInstance();
+        if (before == after) {
+            return format.format(after);
+        }
+        String change = before == 0 ? "new" : (after > before ? "+" : "") + Math.round(100.0 * (after - before) / before) + "%";
+        return format.format(before) + " \u2192 " + format.format(after) + " (" + change + ")";
+    }
+
+    private static @NotNull String delta(@NotNull CypherPlan before, @NotNull CypherPlan after,
+                                         @NotNull ToLongFunction<CypherPlan.Operator> statistic) {
+        return delta(before.operators().stream().mapToLong(statistic).sum(),
+                after.operators().stream().mapToLong(statistic).sum());
+    }
+
+    private static boolean hasOnlyChild(@NotNull CypherPlan.Operator operator, @NotNull String type) {
+        return operator.children().size() == 1 && operator.children().get(0).type().equals(type);
+    }
+
+    /**
+     * Pairs the children of {@code left} and {@code right} by the longest common sequence of their types;
+     * the unpaired children between two pairs are paired by position, and the rest stand alone.
+     */
+    private static @NotNull List<Task> pairChildren(@Nullable CypherPlan.Operator left, @Nullable CypherPlan.Operator right,
+                                                    @NotNull List<Node> target) {
+        List<CypherPlan.Operator> leftChildren = left == null ? List.of() : left.children();
+        List<CypherPlan.Operator> rightChildren = right == null ? List.of() : right.children();
+        int[][] common = commonTypes(leftChildren, rightChildren);
+        List<Task> tasks = new ArrayList<>(Math.max(leftChildren.size(), rightChildren.size()));
+        int i = 0;
+        int j = 0;
+        while (i < leftChildren.size() || j < rightChildren.size()) {
+            boolean match = i < leftChildren.size() && j < rightChildren.size()
+                    && leftChildren.get(i).type().equals(rightChildren.get(j).type())
+                    && common[i][j] == common[i + 1][j + 1] + 1;
+            if (match || i < leftChildren.size() && j < rightChildren.size()
+                    && common[i + 1][j] == common[i][j] && common[i][j + 1] == common[i][j]) {
+                tasks.add(new Task(leftChildren.get(i++), rightChildren.get(j++), target));
+            } else if (j == rightChildren.size() || i < leftChildren.size() && common[i + 1][j] == common[i][j]) {
+                tasks.add(new Task(leftChildren.get(i++), null, target));
+            } else {
+                tasks.add(new Task(null, rightChildren.get(j++), target));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the suffix table of the longest common sequence of operator types: {@code [i][j]} is its
+     * length for the children from {@code i} and {@code j} on. Unusually wide operators are paired by
+     * position only.
+     */
+    private static int @NotNull [] @NotNull [] commonTypes(@NotNull List<CypherPlan.Operator> left,
+                                                           @NotNull List<CypherPlan.Operator> right) {
+        int[][] common = new int[left.size() + 1][right.size() + 1];
+        if (left.size() > MAX_MATCHED_CHILDREN || right.size() > MAX_MATCHED_CHILDREN) {
+            return common;
+        }
+        for (int i = left.size() - 1; i >= 0; i--) {
+            for (int j = right.size() - 1; j >= 0; j--) {
+                common[i][j] = left.get(i).type().equals(right.get(j).type())
+                        ? common[i + 1][j + 1] + 1 : Math.max(common[i + 1][j], common[i][j + 1]);
+            }
+        }
+        return common;
+    }
+}
@@ -0,0 +1,97 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.markup.HighlighterLayer;
+import com.intellij.openapi.editor.markup.LineMarkerRenderer;
+import com.intellij.openapi.editor.markup.MarkupModel;
+import com.intellij.openapi.editor.markup.RangeHighlighter;
+import com.intellij.openapi.util.Key;
+import com.intellij.ui.ColorUtil;
+import com.intellij.ui.JBColor;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+
+import java.awt.Color;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Paints the cost of plan operators onto the lines of their source as a gutter bar, from pale yellow for
+ * cheap lines to red for the most expensive one. A line's cost is the {@link CypherPlan#cost} of every
+ * operator whose {@link CypherPlanSourceMap mapped} source covers it; the error stripe tooltip gives the
+ * numbers. Heatmaps are kept per owner, such as a plan tab, so plans shown for the same file replace and
+ * clear only their own.
+ */
+final class CypherPlanHeatmap {
+    private static final Key<Map<Object, List<RangeHighlighter>>> HIGHLIGHTERS_KEY = Key.create("cypher.plan.heatmap");
+    private static final Color COLD = new JBColor(new Color(0xF5E79E), new Color(0x8A7A2E));
+    private static final Color HOT = new JBColor(new Color(0xE0443E), new Color(0xC4413B));
+
+    private CypherPlanHeatmap() {
+    }
+
+    /**
+     * Returns the total cost per line (zero-based) of the operators mapped by {@code map}, ordered by line.
+     */
+    static @NotNull Map<Integer, Long> lineCosts(@NotNull CypherPlanSourceMap map, @NotNull Document document) {
+        Map<Integer, Long> costs = new TreeMap<>();
+        int length = document.getTextLength();
+        for (CypherPlan.Operator operator : map.plan().operators()) {
+            int start = map.startOf(operator);
+            long cost = CypherPlan.cost(operator);
+            if (start < 0 || cost == 0 || map.endOf(operator) > length) {
+                continue;
+            }
+            int last = document.getLineNumber(Math.max(start, map.endOf(operator) - 1));
+            for (int line = document.getLineNumber(start); line <= last; line++) {
+                costs.merge(line, cost, Long::sum);
+            }
+        }
+        return costs;
+    }
+
+    /**
+     * Replaces the heatmap {@code owner} shows in {@code editor} with the one for {@code map}. Must be called
+     * on the UI thread, as {@link #clear} is.
+     */
+    static void show(@NotNull Editor editor, @NotNull Object owner, @NotNull CypherPlanSourceMap map) {
+        clear(editor, owner);
+        Map<Integer, Long> costs = lineCosts(map, editor.getDocument());
+        long max = costs.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        long total = Math.max(1, map.plan().operators().stream().mapToLong(CypherPlan::cost).sum());
+        MarkupModel markup = editor.getMarkupModel();
+        List<RangeHighlighter> highlighters = new ArrayList<>(costs.size());
+        NumberFormat format = NumberFormat.getIntegerInstance();
+        for (Map.Entry<Integer, Long> entry : costs.entrySet()) {
+            Color color = ColorUtil.mix(COLD, HOT, (double) entry.getValue() / max);
+            RangeHighlighter highlighter = markup.addLineHighlighter(entry.getKey(), HighlighterLayer.ADDITIONAL_SYNTAX, null);
+            highlighter.setLineMarkerRenderer((LineMarkerRenderer) (e, graphics, r) -> {
+                graphics.setColor(color);
+                graphics.fillRect(r.x, r.y, JBUI.scale(4), r.height);
+            });
+            highlighter.setErrorStripeMarkColor(color);
+            highlighter.setErrorStripeTooltip("Plan cost " + format.format(entry.getValue()) + " ("
+                    + Math.round(100.0 * entry.getValue() / total) + "% of the plan)");
+            highlighters.add(highlighter);
+        }
+        Map<Object, List<RangeHighlighter>> owners = editor.getUserData(HIGHLIGHTERS_KEY);
+        if (owners == null) {
+            owners = new HashMap<>();
+            editor.putUserData(HIGHLIGHTERS_KEY, owners);
+        }
+        owners.put(owner, highlighters);
+    }
+
+    static void clear(@NotNull Editor editor, @NotNull Object owner) {
+        Map<Object, List<RangeHighlighter>> owners = editor.getUserData(HIGHLIGHTERS_KEY);
+        List<RangeHighlighter> highlighters = owners == null ? null : owners.remove(owner);
+        if (highlighters != null) {
+            highlighters.forEach(editor.getMarkupModel()::removeHighlighter);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader for saved query plans: objects become {@link Map}s keeping their key order, arrays
+ * {@link List}s, numbers {@link Long} or {@link Double}, and {@code true}, {@code false} and {@code null}
+ * their Java counterparts. Nesting is tracked on an explicit stack, so plans thousands of operators deep
+ * do not overflow the call stack.
+ */
+final class CypherPlanJson {
+    private final CharSequence text;
+    private int offset;
+
+    private CypherPlanJson(@NotNull CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses one JSON value.
+     *
+     * @throws IllegalArgumentException when {@code text} is not valid JSON
+     */
+    static @Nullable Object parse(@NotNull CharSequence text) {
+        CypherPlanJson reader = new CypherPlanJson(text);
+        Object value = reader.value();
+        reader.skipWhitespace();
+        if (reader.offset < text.length()) {
+            throw reader.error("Unexpected content after the value");
+        }
+        return value;
+    }
+
+    private @Nullable Object value() {
+        // containers still open, with the key an object is waiting to assign
+        Deque<Object> containers = new ArrayDeque<>();
+        Deque<String> keys = new ArrayDeque<>();
+        while (true) {
+            skipWhitespace();
+            Object value;
+            char c = peek();
+            if (c == '{' || c == '[') {
+                offset++;
+                Object container = c == '{' ? new LinkedHashMap<String, Object>() : new ArrayList<>();
+                containers.push(container);
+                skipWhitespace();
+                if (peek() == (c == '{' ? '}' : ']')) {
+                    offset++;
+                    value = containers.pop();
+                } else {
+                    if (c == '{') {
+                        keys.push(key());
+                    }
+                    continue;
+                }
+            } else {
+                value = scalar();
+            }
+            // close every container this value completes
+            while (true) {
+                if (containers.isEmpty()) {
+                    return value;
+                }
+                add(containers.peek(), keys, value);
+                skipWhitespace();
+                char next = peek();
+                if (next == ',') {
+                    offset++;
+                    if (containers.peek() instanceof Map) {
+                        skipWhitespace();
+                        keys.push(key());
+                    }
+                    break;
+                }
+                if (next != (containers.peek() instanceof Map ? '}' : ']')) {
+                    throw error("Expected ',' or the end of the " + (containers.peek() instanceof Map ? "object" : "array"));
+                }
+                offset++;
+                value = containers.pop();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void add(@NotNull Object container, @NotNull Deque<String> keys, @Nullable Object value) {
+        if (container instanceof Map) {
+            ((Map<String, Object>) container).put(keys.pop(), value);
+        } else {
+            ((List<Object>) container).add(value);
+        }
+    }
+
+    private @NotNull String key() {
+        if (peek() != '"') {
+            throw error("Expected a key");
+        }
+        String key = string();
+        skipWhitespace();
+        if (peek() != ':') {
+            throw error("Expected ':'");
+        }
+        offset++;
+        return key;
+    }
+
+    private @Nullable Object scalar() {
+        char c = peek();
+        if (c == '"') {
+            return string();
+        }
+        if (c == '-' || c >= '0' && c <= '9') {
+            return number();
+        }
+        for (String literal : new String[]{"true", "false", "null"}) {
+            if (startsWith(literal)) {
+                offset += literal.length();
+                return literal.equals("null") ? null : Boolean.valueOf(literal);
+            }
+        }
+        throw error("Expected a value");
+    }
+
+    private @NotNull String string() {
+        offset++;
+        StringBuilder result = new StringBuilder();
+        while (offset < text.length()) {
+            char c = text.charAt(offset++);
+            if (c == '"') {
+                return result.toString();
+            }
+            if (c != '\\') {
+                result.append(c);
+                continue;
+            }
+            char escaped = peek();
+            offset++;
+            switch (escaped) {
+                case 'n' -> result.append('\n');
+                case 't' -> result.append('\t');
+                case 'r' -> result.append('\r');
+                case 'b' -> result.append('\b');
+                case 'f' -> result.append('\f');
+                case 'u' -> {
+                    if (offset + 4 > text.length()) {
+                        throw error("Incomplete escape");
+                    }
+                    try {
+                        result.append((char) Integer.parseInt(text.subSequence(offset, offset + 4).toString(), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid escape");
+                    }
+                    offset += 4;
+                }
+                default -> result.append(escaped);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private @NotNull Number number() {
+        int start = offset;
+        boolean decimal = false;
+        while (offset < text.length()) {
+            char c = text.charAt(offset);
+            if (c == '.' || c == 'e' || c == 'E') {
+                decimal = true;
+            } else if (!(c >= '0' && c <= '9' || c == '-' || c == '+')) {
+                break;
+            }
+            offset++;
+        }
+        String number = text.subSequence(start, offset).toString();
+        try {
+            return decimal ? (Number) Double.parseDouble(number) : (Number) Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            try {
+                return Double.parseDouble(number);
+            } catch (NumberFormatException ignored) {
+                offset = start;
+                throw error("Invalid number");
+            }
+        }
+    }
+
+    private boolean startsWith(@NotNull String literal) {
+        return offset + literal.length() <= text.length()
+                && literal.contentEquals(text.subSequence(offset, offset + literal.length()));
+    }
+
+    private char peek() {
+        if (offset >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        return text.charAt(offset);
+    }
+
+    private void skipWhitespace() {
+        while (offset < text.length() && Character.isWhitespace(text.charAt(offset))) {
+            offset++;
+        }
+    }
+
+    private @NotNull IllegalArgumentException error(@NotNull String message) {
+        return new IllegalArgumentException(message + " at offset " + offset);
+    }
+}
@@ -0,0 +1,291 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Maps the operators of a {@link CypherPlan} onto the statement it was captured for. Plans carry no source
+ * positions, so operators are matched by what they do and which variables they handle: an operator that
+ * introduces a variable (a scan, seek or expand) maps to the node or relationship pattern declaring it, and
+ * other operators map to the clause of their kind ({@code Filter} to {@code WHERE}, {@code Sort} to
+ * {@code ORDER BY}, {@code EagerAggregation} to {@code WITH} or {@code RETURN}, ...) that mentions most of
+ * their variables. Operators such as {@code Apply} or {@code Eager} that match nothing stay unmapped.
+ *
+ * <p>A map is computed for one statement text, so whoever shows the plan keeps it and passes it back to
+ * {@link #of}, which reuses it as long as the plan and the statement text are unchanged, even when edits
+ * elsewhere have moved the statement.
+ */
+final class CypherPlanSourceMap {
+    private static final String[] PATTERN_CLAUSES = {"MATCH", "OPTIONAL", "MERGE"};
+
+    private final CypherPlan plan;
+    private final String statement;
+    private final int start;
+    // start and end offset per operator id, relative to the statement, or -1 when unmapped
+    private final int[] ranges;
+
+    private CypherPlanSourceMap(@NotNull CypherPlan plan, @NotNull String statement, int start, int @NotNull [] ranges) {
+        this.plan = plan;
+        this.statement = statement;
+        this.start = start;
+        this.ranges = ranges;
+    }
+
+    /**
+     * Returns the map of {@code plan} onto the statement in {@code [start, end)} of {@code text}, reusing
+     * {@code cached} when it was computed for the same plan and statement text.
+     */
+    static @NotNull CypherPlanSourceMap of(@NotNull CypherPlan plan, @NotNull CharSequence text, int start, int end,
+                                           @Nullable CypherPlanSourceMap cached) {
+        if (cached != null && cached.plan == plan && cached.isFor(text, start, end)) {
+            return cached.start == start ? cached : new CypherPlanSourceMap(plan, cached.statement, start, cached.ranges);
+        }
+        String statement = text.subSequence(start, end).toString();
+        CypherLintContext context = new CypherLintContext(text, start, end, CypherSemanticRoles.classify(text, start, end));
+        List<Clause> clauses = clauses(context);
+        int[] ranges = new int[plan.operators().size() * 2];
+        for (CypherPlan.Operator operator : plan.operators()) {
+            int[] range = map(context, clauses, operator);
+            ranges[operator.id() * 2] = range == null ? -1 : range[0];
+            ranges[operator.id() * 2 + 1] = range == null ? -1 : range[1];
+        }
+        return new CypherPlanSourceMap(plan, statement, start, ranges);
+    }
+
+    /**
+     * Returns the index of the statement in {@code statements} that {@code query} was captured for, or
+     * {@code -1}. Statements are compared by {@link CypherFingerprints fingerprint}, so layout and literal
+     * values may differ; queries too short to fingerprint are compared with whitespace collapsed.
+     */
+    static int findStatement(@NotNull CypherStatementTable statements, @NotNull String query) {
+        long fingerprint = CypherFingerprints.fingerprint(query, 0, query.length());
+        String normalized = fingerprint == CypherFingerprints.NONE ? normalize(query) : null;
+        CharSequence text = statements.text();
+        for (int i = 0; i < statements.statementCount(); i++) {
+            int start = statements.startOf(i);
+            int end = statements.endOf(i);
+            if (normalized == null ? CypherFingerprints.fingerprint(text, start, end) == fingerprint
+                    : normalize(text.subSequence(start, end)).equals(normalized)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static @NotNull String normalize(@NotNull CharSequence query) {
+        String normalized = query.toString().replaceAll("\\s+", " ").strip();
+        return normalized.endsWith(";") ? normalized.substring(0, normalized.length() - 1).stripTrailing() : normalized;
+    }
+
+    /**
+     * Returns true when the map was computed for the statement text in {@code [start, end)} of {@code text},
+     * wherever that statement was.
+     */
+    boolean isFor(@NotNull CharSequence text, int start, int end) {
+        if (end - start != statement.length()) {
+            return false;
+        }
+        for (int i = 0; i < statement.length(); i++) {
+            if (statement.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @NotNull CypherPlan plan() {
+        return plan;
+    }
+
+    /**
+     * Returns the absolute start offset of the source of {@code operator}, or {@code -1} when it is unmapped.
+     */
+    int startOf(@NotNull CypherPlan.Operator operator) {
+        int offset = ranges[operator.id() * 2];
+        return offset < 0 ? -1 : start + offset;
+    }
+
+    /**
+     * Returns the absolute end offset of the source of {@code operator}, or {@code -1} when it is unmapped.
+     */
+    int endOf(@NotNull CypherPlan.Operator operator) {
+        int offset = ranges[operator.id() * 2 + 1];
+        return offset < 0 ? -1 : start + offset;
+    }
+
+    /**
+     * A clause from its keyword token {@code start} to {@code end}, with the variables it declares and
+     * mentions.
+     */
+    private record Clause(int start, int end, @NotNull String keyword, @NotNull Set<String> declared,
+                          @NotNull Set<String> mentioned) {
+    }
+
+    private static @NotNull List<Clause> clauses(@NotNull CypherLintContext context) {
+        List<Clause> clauses = new ArrayList<>();
+        for (int i = 0; i < context.size(); i++) {
+            if (!context.isClauseStart(i)) {
+                continue;
+            }
+            int end = context.clauseEnd(i);
+            Set<String> declared = new HashSet<>();
+            Set<String> mentioned = new HashSet<>();
+            for (int token = i + 1; token < end; token++) {
+                if (context.role(token) == CypherSemanticRoles.Role.VARIABLE) {
+                    String name = CypherVariableScopes.normalize(context.text(token));
+                    mentioned.add(name);
+                    if (context.isDeclaration(token)) {
+                        declared.add(name);
+                    }
+                }
+            }
+            clauses.add(new Clause(i, end, context.text(i).toString().toUpperCase(Locale.ENGLISH), declared, mentioned));
+        }
+        return clauses;
+    }
+
+    /**
+     * Returns the statement-relative source range of {@code operator}, or {@code null}.
+     */
+    private static int @Nullable [] map(@NotNull CypherLintContext context, @NotNull List<Clause> clauses,
+                                        @NotNull CypherPlan.Operator operator) {
+        Set<String> introduced = new HashSet<>(operator.identifiers());
+        for (CypherPlan.Operator child : operator.children()) {
+            child.identifiers().forEach(introduced::remove);
+        }
+        introduced.removeIf(CypherPlanSourceMap::isAnonymous);
+        String[] keywords = clauseKeywords(operator.type());
+        boolean patternOperator = keywords == PATTERN_CLAUSES;
+        Clause best = null;
+        int bestScore = 0;
+        for (Clause clause : clauses) {
+            if (!contains(keywords, clause.keyword())) {
+                continue;
+            }
+            int score = 0;
+            for (String name : introduced) {
+                score += clause.declared().contains(name) ? 4 : 0;
+            }
+            for (String name : operator.identifiers()) {
+                score += clause.mentioned().contains(name) ? 1 : 0;
+            }
+            if (best == null && !patternOperator || score > bestScore) {
+                best = clause;
+                bestScore = score;
+            }
+        }
+        if (best == null || patternOperator && bestScore < 4) {
+            return null;
+        }
+        if (patternOperator) {
+            for (int i = best.start(); i < best.end(); i++) {
+                if (context.isDeclaration(i) && context.depth(i) > 0
+                        && introduced.contains(CypherVariableScopes.normalize(context.text(i)))) {
+                    return enclosingElement(context, i);
+                }
+            }
+        }
+        int last = best.end() - 1;
+        if (last > best.start() && context.type(last) == CypherTokenTypes.SEMICOLON) {
+            last--;
+        }
+        return new int[]{context.startOffset(best.start()), context.endOffset(last)};
+    }
+
+    /**
+     * Returns the range of the node or relationship pattern around the variable at token {@code index}.
+     */
+    private static int @NotNull [] enclosingElement(@NotNull CypherLintContext context, int index) {
+        int depth = context.depth(index) - 1;
+        int open = index;
+        while (open > 0 && !(context.depth(open) == depth && isOpening(context.type(open)))) {
+            open--;
+        }
+        int close = index;
+        while (close < context.size() - 1 && context.depth(close) > depth) {
+            close++;
+        }
+        return new int[]{context.startOffset(open), context.endOffset(close)};
+    }
+
+    private static boolean isOpening(@Nullable IElementType type) {
+        return type == CypherTokenTypes.PAREN_OPEN || type == CypherTokenTypes.BRACKET_OPEN;
+    }
+
+    /**
+     * Returns the clause keywords an operator of {@code type} can come from; operators that read the graph
+     * come from pattern clauses.
+     */
+    private static @NotNull String @NotNull [] clauseKeywords(@NotNull String type) {
+        if (type.startsWith("Filter")) {
+            return new String[]{"WHERE"};
+        }
+        if (type.startsWith("Sort") || type.startsWith("Top") || type.startsWith("PartialSort") || type.startsWith("PartialTop")) {
+            return new String[]{"ORDER"};
+        }
+        if (type.endsWith("Limit")) {
+            return new String[]{"LIMIT"};
+        }
+        if (type.equals("Skip")) {
+            return new String[]{"SKIP"};
+        }
+        if (type.equals("ProduceResults")) {
+            return new String[]{"RETURN"};
+        }
+        if (type.contains("Aggregation") || type.contains("Distinct") || type.equals("Projection")) {
+            return new String[]{"WITH", "RETURN"};
+        }
+        if (type.startsWith("Create")) {
+            return new String[]{"CREATE"};
+        }
+        if (type.startsWith("Merge") || type.equals("LockingMerge")) {
+            return new String[]{"MERGE"};
+        }
+        if (type.startsWith("Set")) {
+            return new String[]{"SET", "ON"};
+        }
+        if (type.startsWith("Remove")) {
+            return new String[]{"REMOVE"};
+        }
+        if (type.contains("Delete")) {
+            return new String[]{"DELETE", "DETACH"};
+        }
+        if (type.equals("LoadCSV")) {
+            return new String[]{"LOAD"};
+        }
+        if (type.equals("Unwind")) {
+            return new String[]{"UNWIND"};
+        }
+        if (type.startsWith("ProcedureCall")) {
+            return new String[]{"CALL"};
+        }
+        if (type.startsWith("Foreach")) {
+            return new String[]{"FOREACH"};
+        }
+        return PATTERN_CLAUSES;
+    }
+
+    private static boolean contains(@NotNull String @NotNull [] keywords, @NotNull String keyword) {
+        for (String candidate : keywords) {
+            if (candidate.equals(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true for the names the planner gives unnamed pattern elements, such as {@code anon_0} or
+     * {@code   UNNAMED12}.
+     */
+    private static boolean isAnonymous(@NotNull String name) {
+        return name.startsWith("anon_") || name.startsWith(" ");
+    }
+}
@@ -0,0 +1,496 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.ui.ColoredTreeCellRenderer;
+import com.intellij.ui.DoubleClickListener;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import com.intellij.ui.treeStructure.Tree;
+import com.intellij.util.Alarm;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.JTree;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.awt.Color;
+import java.awt.event.MouseEvent;
+import java.text.NumberFormat;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Tool window showing saved query plans opened with {@link CypherOpenPlanAction}, one tab per plan. The
+ * operator tree is a {@link TreeModel} over the parsed {@link CypherPlan} itself, so no tree nodes are built
+ * and only the rows in view are rendered, whatever the size of the plan; the first {@value #EXPANDED_ROWS}
+ * rows are expanded. Each operator shows its statistics and share of the plan's cost.
+ *
+ * <p>When the plan's statement is found in a Cypher file, the operator costs are painted onto its lines
+ * ({@link CypherPlanHeatmap}), double-clicking an operator selects its source, and both follow edits to the
+ * file: the {@link CypherPlanSourceMap} is recomputed in a background read action shortly after a change.
+ * Each tab keeps its own statement table, statement index and map, so the table is updated from the edits,
+ * the statement is only searched for again when its text changed, and the map is reused while the
+ * statement itself is unchanged.
+ *
+ * <p>A {@link CypherPlanDiff} of two plans is shown the same way, as the merged operator tree with the
+ * change of each operator's statistics, green where the cost went down and red where it went up, and the
+ * change of the plan totals above it.
+ */
+public class CypherPlanToolWindowFactory implements ToolWindowFactory, DumbAware {
+    static final String ID = "Cypher Plan";
+    private static final int EXPANDED_ROWS = 200;
+    private static final int MAX_DETAILS_LENGTH = 100;
+    private static final int REFRESH_DELAY_MS = 500;
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+    }
+
+    @Override
+    public boolean shouldBeAvailable(@NotNull Project project) {
+        return false;
+    }
+
+    /**
+     * Shows {@code plan} in a new tab, mapped onto the statement of {@code source} it was captured for.
+     */
+    static void show(@NotNull Project project, @NotNull String title, @NotNull CypherPlan plan,
+                     @NotNull CypherOpenPlanAction.Source source) {
+        Panel panel = new Panel(project, plan, source);
+        if (addTab(project, title, panel)) {
+            panel.refreshSourceMap();
+        }
+    }
+
+    /**
+     * Shows {@code diff} in a new tab; operators navigate to their source in {@code source}.
+     */
+    static void showDiff(@NotNull Project project, @NotNull String title, @NotNull CypherPlanDiff diff,
+                         @NotNull CypherOpenPlanAction.Source source) {
+        DiffPanel panel = new DiffPanel(project, diff, source);
+        if (addTab(project, title, panel)) {
+            panel.refreshSourceMaps();
+        }
+    }
+
+    private static <T extends SimpleToolWindowPanel & Disposable> boolean addTab(@NotNull Project project,
+                                                                                @NotNull String title, @NotNull T panel) {
+        ToolWindow toolWindow = ToolWindowManager.getInstance(project).getToolWindow(ID);
+        if (toolWindow == null) {
+            Disposer.dispose(panel);
+            return false;
+        }
+        Content content = ContentFactory.getInstance().createContent(panel, title, false);
+        content.setDisposer(panel);
+        toolWindow.getContentManager().addContent(content);
+        toolWindow.getContentManager().setSelectedContent(content);
+        toolWindow.setAvailable(true);
+        toolWindow.activate(null);
+        return true;
+    }
+
+    /**
+     * Describes the statistics of {@code operator}, e.g. {@code rows 10, est. 12, db hits 2,000 (34%)},
+     * leaving out those the plan does not have.
+     */
+    static @NotNull String statistics(@NotNull CypherPlan.Operator operator, long totalCost) {
+        NumberFormat format = NumberFormat.getIntegerInstance();
+        StringBuilder result = new StringBuilder();
+        if (operator.rows() > 0 || operator.dbHits() > 0) {
+            result.append("rows ").append(format.format(operator.rows())).append(", ");
+        }
+        result.append("est. ").append(format.format(operator.estimatedRows()));
+        if (operator.dbHits() > 0) {
+            result.append(", db hits ").append(format.format(operator.dbHits()));
+        }
+        if (totalCost > 0 && CypherPlan.cost(operator) > 0) {
+            result.append(" (").append(Math.round(100.0 * CypherPlan.cost(operator) / totalCost)).append("%)");
+        }
+        if (operator.pageCacheHits() > 0 || operator.pageCacheMisses() > 0) {
+            result.append(", page cache ").append(format.format(operator.pageCacheHits())).append(" hits / ")
+                    .append(format.format(operator.pageCacheMisses())).append(" misses");
+        }
+        if (operator.time() > 0) {
+            result.append(", time ").append(format.format(operator.time()));
+        }
+        if (operator.memory() > 0) {
+            result.append(", memory ").append(format.format(operator.memory())).append(" B");
+        }
+        return result.toString();
+    }
+
+    /**
+     * A read-only tree of {@code T}s, read straight from the nodes through {@code children}.
+     */
+    record ChildrenModel<T>(@NotNull T root, @NotNull Function<T, List<T>> children) implements TreeModel {
+        @Override
+        public @NotNull Object getRoot() {
+            return root;
+        }
+
+        @Override
+        public Object getChild(Object parent, int index) {
+            return childrenOf(parent).get(index);
+        }
+
+        @Override
+        public int getChildCount(Object parent) {
+            return childrenOf(parent).size();
+        }
+
+        @Override
+        public boolean isLeaf(Object node) {
+            return childrenOf(node).isEmpty();
+        }
+
+        @Override
+        public void valueForPathChanged(TreePath path, Object newValue) {
+        }
+
+        @Override
+        public int getIndexOfChild(Object parent, Object child) {
+            return childrenOf(parent).indexOf(child);
+        }
+
+        @Override
+        public void addTreeModelListener(TreeModelListener listener) {
+        }
+
+        @Override
+        public void removeTreeModelListener(TreeModelListener listener) {
+        }
+
+        @SuppressWarnings("unchecked")
+        private @NotNull List<T> childrenOf(Object node) {
+            return children.apply((T) node);
+        }
+    }
+
+    /**
+     * Creates a tree over {@code model} with its first {@value #EXPANDED_ROWS} rows expanded.
+     */
+    private static @NotNull Tree createTree(@NotNull TreeModel model, @NotNull ColoredTreeCellRenderer renderer,
+                                            @NotNull BooleanSupplier onDoubleClick) {
+        Tree tree = new Tree(model);
+        tree.setLargeModel(true);
+        tree.setRootVisible(true);
+        tree.setShowsRootHandles(true);
+        tree.setCellRenderer(renderer);
+        for (int row = 0; row < tree.getRowCount() && row < EXPANDED_ROWS; row++) {
+            tree.expandRow(row);
+        }
+        new DoubleClickListener() {
+            @Override
+            protected boolean onDoubleClick(@NotNull MouseEvent event) {
+                return onDoubleClick.getAsBoolean();
+            }
+        }.installOn(tree);
+        return tree;
+    }
+
+    private static @NotNull JBLabel summaryLabel(@NotNull String text) {
+        JBLabel summary = new JBLabel(text);
+        summary.setBorder(JBUI.Borders.empty(4, 8));
+        return summary;
+    }
+
+    private static @NotNull String abbreviate(@NotNull String details) {
+        return details.length() > MAX_DETAILS_LENGTH ? details.substring(0, MAX_DETAILS_LENGTH - 3) + "..." : details;
+    }
+
+    /**
+     * The statements of a document text, the index of the plan's statement among them or {@code -1}, and the
+     * map onto it, or {@code null} when the statement was not found.
+     */
+    private record SourceState(@NotNull CypherStatementTable statements, int index, @Nullable CypherPlanSourceMap map) {
+    }
+
+    /**
+     * Maps {@code plan} onto its statement in the current text of {@code document}: the statement matching
+     * the plan's recorded query, or else statement {@code statement}. The statement table, statement index
+     * and map of {@code previous}, computed for an earlier text, are updated or reused where they still hold.
+     */
+    private static @NotNull SourceState mapSource(@NotNull Project project, @NotNull CypherPlan plan,
+                                                  @NotNull Document document, int statement,
+                                                  @Nullable SourceState previous) {
+        CharSequence text = document.getImmutableCharSequence();
+        CypherStatementTable statements = PsiDocumentManager.getInstance(project).getCachedPsiFile(document)
+                instanceof CypherPsiFile cypherFile ? cypherFile.getStatementTable() : null;
+        if (statements == null || statements.text() != text) {
+            statements = previous == null ? CypherStatementTable.build(text)
+                    : previous.statements().text() == text ? previous.statements()
+                    : CypherDocumentEdits.update(document, previous.statements(), text);
+        }
+        CypherPlanSourceMap cached = previous == null ? null : previous.map();
+        int index;
+        if (cached != null && previous.index() < statements.statementCount()
+                && cached.isFor(text, statements.startOf(previous.index()), statements.endOf(previous.index()))) {
+            index = previous.index();
+        } else {
+            index = plan.query() != null ? CypherPlanSourceMap.findStatement(statements, plan.query())
+                    : Math.min(statement, statements.statementCount() - 1);
+        }
+        return new SourceState(statements, index, index < 0 ? null
+                : CypherPlanSourceMap.of(plan, text, statements.startOf(index), statements.endOf(index), cached));
+    }
+
+    /**
+     * Opens {@code file} and selects the source of {@code operator}; returns false when it is unmapped.
+     */
+    private static boolean navigate(@NotNull Project project, @Nullable VirtualFile file,
+                                    @Nullable CypherPlanSourceMap map, @NotNull CypherPlan.Operator operator) {
+        if (file == null || map == null || !file.isValid() || map.startOf(operator) < 0) {
+            return false;
+        }
+        int start = map.startOf(operator);
+        Editor editor = FileEditorManager.getInstance(project)
+                .openTextEditor(new OpenFileDescriptor(project, file, start), true);
+        if (editor != null && map.endOf(operator) <= editor.getDocument().getTextLength()) {
+            editor.getSelectionModel().setSelection(start, map.endOf(operator));
+        }
+        return true;
+    }
+
+    private static final class Panel extends SimpleToolWindowPanel implements Disposable {
+        private final Project project;
+        private final CypherPlan plan;
+        private final @Nullable VirtualFile file;
+        private final @Nullable Document document;
+        private final int statement;
+        private final Tree tree;
+        private final Alarm refreshAlarm = new Alarm(this);
+        private @Nullable SourceState sourceState;
+        private @Nullable CypherPlanSourceMap sourceMap;
+
+        private Panel(@NotNull Project project, @NotNull CypherPlan plan, @NotNull CypherOpenPlanAction.Source source) {
+            super(true, true);
+            this.project = project;
+            this.plan = plan;
+            this.file = source.file();
+            this.document = source.document();
+            this.statement = source.statement();
+            long totalCost = plan.operators().stream().mapToLong(CypherPlan::cost).sum();
+
+            tree = createTree(new ChildrenModel<>(plan.root(), CypherPlan.Operator::children), new ColoredTreeCellRenderer() {
+                @Override
+                public void customizeCellRenderer(@NotNull JTree tree, Object value, boolean selected, boolean expanded,
+                                                  boolean leaf, int row, boolean hasFocus) {
+                    CypherPlan.Operator operator = (CypherPlan.Operator) value;
+                    append(operator.type(), SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+                    if (!operator.details().isEmpty()) {
+                        append("  " + abbreviate(operator.details()));
+                    }
+                    append("  " + statistics(operator, totalCost), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+                }
+            }, this::navigateToSelection);
+
+            NumberFormat format = NumberFormat.getIntegerInstance();
+            setToolbar(summaryLabel(plan.operators().size() + " operators, " + format.format(plan.totalDbHits())
+                    + " db hits, " + format.format(plan.root().rows()) + " rows"
+                    + (document == null ? "; no matching Cypher file found" : "")));
+            setContent(ScrollPaneFactory.createScrollPane(tree));
+
+            if (document != null) {
+                document.addDocumentListener(new DocumentListener() {
+                    @Override
+                    public void documentChanged(@NotNull DocumentEvent event) {
+                        refreshAlarm.cancelAllRequests();
+                        refreshAlarm.addRequest(Panel.this::refreshSourceMap, REFRESH_DELAY_MS);
+                    }
+                }, this);
+            }
+        }
+
+        /**
+         * Maps the plan onto its statement in the current document text in a background read action, which
+         * is restarted by edits, and then repaints the heatmaps.
+         */
+        private void refreshSourceMap() {
+            if (document == null) {
+                return;
+            }
+            SourceState previous = sourceState;
+            ReadAction.nonBlocking(() -> mapSource(project, plan, document, statement, previous))
+                    .expireWith(this)
+                    .coalesceBy(this)
+                    .finishOnUiThread(ModalityState.any(), state -> {
+                        sourceState = state;
+                        sourceMap = state.map();
+                        if (sourceMap == null) {
+                            clearHeatmaps();
+                            return;
+                        }
+                        for (Editor editor : EditorFactory.getInstance().getEditors(document, project)) {
+                            CypherPlanHeatmap.show(editor, this, sourceMap);
+                        }
+                    })
+                    .submit(AppExecutorUtil.getAppExecutorService());
+        }
+
+        private boolean navigateToSelection() {
+            return tree.getLastSelectedPathComponent() instanceof CypherPlan.Operator operator
+                    && navigate(project, file, sourceMap, operator);
+        }
+
+        private void clearHeatmaps() {
+            if (document != null) {
+                for (Editor editor : EditorFactory.getInstance().getEditors(document, project)) {
+                    CypherPlanHeatmap.clear(editor, this);
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            clearHeatmaps();
+        }
+    }
+
+    private static final class DiffPanel extends SimpleToolWindowPanel implements Disposable {
+        private static final SimpleTextAttributes REMOVED = new SimpleTextAttributes(
+                SimpleTextAttributes.STYLE_STRIKEOUT, JBColor.GRAY);
+        private static final SimpleTextAttributes CHEAPER = new SimpleTextAttributes(
+                SimpleTextAttributes.STYLE_PLAIN, new JBColor(new Color(0x067D17), new Color(0x6AAB73)));
+        private static final SimpleTextAttributes COSTLIER = new SimpleTextAttributes(
+                SimpleTextAttributes.STYLE_PLAIN, new JBColor(new Color(0xC7222D), new Color(0xF75464)));
+
+        private final Project project;
+        private final CypherPlanDiff diff;
+        private final CypherOpenPlanAction.Source source;
+        private final Tree tree;
+        private final Alarm refreshAlarm = new Alarm(this);
+        private @Nullable SourceState beforeState;
+        private @Nullable SourceState afterState;
+
+        private DiffPanel(@NotNull Project project, @NotNull CypherPlanDiff diff, @NotNull CypherOpenPlanAction.Source source) {
+            super(true, true);
+            this.project = project;
+            this.diff = diff;
+            this.source = source;
+            tree = createTree(new ChildrenModel<>(diff.root(), CypherPlanDiff.Node::children), new ColoredTreeCellRenderer() {
+                @Override
+                public void customizeCellRenderer(@NotNull JTree tree, Object value, boolean selected, boolean expanded,
+                                                  boolean leaf, int row, boolean hasFocus) {
+                    render(this, (CypherPlanDiff.Node) value);
+                }
+            }, this::navigateToSelection);
+            setToolbar(summaryLabel(diff.summary()
+                    + (source.document() == null ? "; no matching Cypher file found" : "")));
+            setContent(ScrollPaneFactory.createScrollPane(tree));
+
+            if (source.document() != null) {
+                source.document().addDocumentListener(new DocumentListener() {
+                    @Override
+                    public void documentChanged(@NotNull DocumentEvent event) {
+                        refreshAlarm.cancelAllRequests();
+                        refreshAlarm.addRequest(DiffPanel.this::refreshSourceMaps, REFRESH_DELAY_MS);
+                    }
+                }, this);
+            }
+        }
+
+        /**
+         * Maps both plans onto their statement in the current document text in a background read action,
+         * as {@link Panel#refreshSourceMap} does; the later plan's statement table is reused for the earlier.
+         */
+        private void refreshSourceMaps() {
+            Document document = source.document();
+            if (document == null) {
+                return;
+            }
+            SourceState previousBefore = beforeState;
+            SourceState previousAfter = afterState;
+            ReadAction.nonBlocking(() -> {
+                        SourceState after = mapSource(project, diff.after(), document, source.statement(), previousAfter);
+                        SourceState before = mapSource(project, diff.before(), document, source.statement(),
+                                previousBefore != null ? previousBefore : new SourceState(after.statements(), -1, null));
+                        return Pair.create(before, after);
+                    })
+                    .expireWith(this)
+                    .coalesceBy(this)
+                    .finishOnUiThread(ModalityState.any(), states -> {
+                        beforeState = states.first;
+                        afterState = states.second;
+                    })
+                    .submit(AppExecutorUtil.getAppExecutorService());
+        }
+
+        private static void render(@NotNull ColoredTreeCellRenderer renderer, @NotNull CypherPlanDiff.Node node) {
+            CypherPlan.Operator before = node.before();
+            CypherPlan.Operator after = node.after();
+            if (before == null || after == null) {
+                CypherPlan.Operator operator = before == null ? after : before;
+                renderer.append((before == null ? "+ " : "- ") + operator.type(),
+                        before == null ? SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES : REMOVED);
+                renderer.append("  " + abbreviate(operator.details()));
+                renderer.append("  " + statistics(operator, 0), before == null ? costAttributes(0, CypherPlan.cost(operator))
+                        : SimpleTextAttributes.GRAYED_ATTRIBUTES);
+                return;
+            }
+            renderer.append(before.type().equals(after.type()) ? after.type() : before.type() + " \u2192 " + after.type(),
+                    SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+            if (!after.details().isEmpty()) {
+                renderer.append("  " + abbreviate(after.details()));
+            }
+            if (!node.isChanged()) {
+                renderer.append("  " + statistics(after, 0), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+                return;
+            }
+            renderer.append("  db hits " + CypherPlanDiff.delta(before.dbHits(), after.dbHits())
+                            + ", rows " + CypherPlanDiff.delta(before.rows(), after.rows())
+                            + ", est. " + CypherPlanDiff.delta(before.estimatedRows(), after.estimatedRows())
+                            + (before.memory() > 0 || after.memory() > 0
+                            ? ", memory " + CypherPlanDiff.delta(before.memory(), after.memory()) : ""),
+                    costAttributes(CypherPlan.cost(before), CypherPlan.cost(after)));
+        }
+
+        private static @NotNull SimpleTextAttributes costAttributes(long before, long after) {
+            return after < before ? CHEAPER : after > before ? COSTLIER : SimpleTextAttributes.GRAYED_ATTRIBUTES;
+        }
+
+        /**
+         * Selects the source of the operator in the later plan, or in the earlier one when it was removed,
+         * from the last computed maps.
+         */
+        private boolean navigateToSelection() {
+            if (!(tree.getLastSelectedPathComponent() instanceof CypherPlanDiff.Node node)) {
+                return false;
+            }
+            boolean after = node.after() != null;
+            SourceState state = after ? afterState : beforeState;
+            return navigate(project, source.file(), state == null ? null : state.map(),
+                    after ? node.after() : node.before());
+        }
+
+        @Override
+        public void dispose() {
+        }
+    }
+}
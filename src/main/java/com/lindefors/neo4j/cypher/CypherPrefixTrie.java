@@ -0,0 +1,170 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable, case-insensitive prefix trie used to serve completion candidates. Children are stored as
+ * sorted parallel arrays so lookups allocate nothing until matches are collected, and only the
+ * {@code limit} best-scoring matches are materialized.
+ *
+ * @param <T> value stored for each key
+ */
+final class CypherPrefixTrie<T> {
+    private final Node root;
+    private final int size;
+
+    private CypherPrefixTrie(@NotNull Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    static <T> @NotNull Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns at most {@code limit} values whose key starts with {@code prefix} (ignoring case), ordered
+     * by descending score and then by insertion order.
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull Matches<T> topMatches(@NotNull String prefix, int limit, @NotNull ToIntFunction<? super T> score) {
+        Node node = find(prefix.toLowerCase(Locale.ENGLISH));
+        if (node == null || limit <= 0) {
+            return new Matches<>(List.of(), false);
+        }
+
+        PriorityQueue<Ranked> best = new PriorityQueue<>(Math.min(limit, 64) + 1);
+        int matched = 0;
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            Node current = pending.pop();
+            for (int i = 0; i < current.values.length; i++) {
+                matched++;
+                Ranked ranked = new Ranked(current.values[i], score.applyAsInt((T) current.values[i]), current.orders[i]);
+                if (best.size() < limit) {
+                    best.add(ranked);
+                } else if (ranked.compareTo(best.peek()) > 0) {
+                    best.poll();
+                    best.add(ranked);
+                }
+            }
+            for (Node child : current.children) {
+                pending.push(child);
+            }
+        }
+
+        List<T> items = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            items.add((T) best.poll().value);
+        }
+        Collections.reverse(items);
+        return new Matches<>(items, matched > items.size());
+    }
+
+    private Node find(@NotNull String lowerPrefix) {
+        Node current = root;
+        for (int i = 0; i < lowerPrefix.length() && current != null; i++) {
+            current = current.child(lowerPrefix.charAt(i));
+        }
+        return current;
+    }
+
+    /**
+     * Best matches for a prefix; {@code truncated} is set when more values matched than were returned.
+     */
+    record Matches<T>(@NotNull List<T> items, boolean truncated) {
+    }
+
+    private record Ranked(Object value, int score, int order) implements Comparable<Ranked> {
+        /**
+         * Orders worse matches first so the priority queue head is the one to evict.
+         */
+        @Override
+        public int compareTo(@NotNull Ranked other) {
+            if (score != other.score) {
+                return Integer.compare(score, other.score);
+            }
+            return Integer.compare(other.order, order);
+        }
+    }
+
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private final char[] labels;
+        private final Node[] children;
+        private final Object[] values;
+        private final int[] orders;
+
+        private Node(char[] labels, Node[] children, Object[] values, int[] orders) {
+            this.labels = labels;
+            this.children = children;
+            this.values = values;
+            this.orders = orders;
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(labels, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    static final class Builder<T> {
+        private final BuilderNode root = new BuilderNode();
+        private int size;
+
+        private Builder() {
+        }
+
+        @NotNull Builder<T> add(@NotNull String key, @NotNull T value) {
+            BuilderNode current = root;
+            String lowerKey = key.toLowerCase(Locale.ENGLISH);
+            for (int i = 0; i < lowerKey.length(); i++) {
+                current = current.children.computeIfAbsent(lowerKey.charAt(i), c -> new BuilderNode());
+            }
+            current.values.add(value);
+            current.orders.add(size++);
+            return this;
+        }
+
+        @NotNull CypherPrefixTrie<T> build() {
+            return new CypherPrefixTrie<>(root.freeze(), size);
+        }
+    }
+
+    private static final class BuilderNode {
+        private final Map<Character, BuilderNode> children = new TreeMap<>();
+        private final List<Object> values = new ArrayList<>(1);
+        private final List<Integer> orders = new ArrayList<>(1);
+
+        private Node freeze() {
+            char[] labels = new char[children.size()];
+            Node[] frozen = children.isEmpty() ? Node.NO_CHILDREN : new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, BuilderNode> entry : children.entrySet()) {
+                labels[i] = entry.getKey();
+                frozen[i] = entry.getValue().freeze();
+                i++;
+            }
+            int[] orderArray = orders.stream().mapToInt(Integer::intValue).toArray();
+            return new Node(labels, frozen, values.toArray(), orderArray);
+        }
+    }
+}
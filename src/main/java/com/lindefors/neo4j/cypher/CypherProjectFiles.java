@@ -0,0 +1,51 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects the Cypher files of selected files and directories for the project-wide actions. Excluded and
+ * ignored directories ({@link ProjectFileIndex#isExcluded}) are not entered, so build output and other
+ * excluded copies of the scripts are left out, and a file selected both directly and through its directory
+ * is listed once.
+ */
+final class CypherProjectFiles {
+    private CypherProjectFiles() {
+    }
+
+    /**
+     * Returns the Cypher files among and under {@code roots}, in visiting order. Checks for cancellation;
+     * call it under a progress indicator.
+     */
+    static @NotNull List<VirtualFile> collect(@NotNull Project project, VirtualFile @NotNull [] roots) {
+        ProjectFileIndex index = ProjectFileIndex.getInstance(project);
+        Set<VirtualFile> files = new LinkedHashSet<>();
+        for (VirtualFile root : roots) {
+            VfsUtilCore.visitChildrenRecursively(root, new VirtualFileVisitor<Void>() {
+                @Override
+                public @NotNull Result visitFileEx(@NotNull VirtualFile file) {
+                    ProgressManager.checkCanceled();
+                    if (ReadAction.compute(() -> index.isExcluded(file))) {
+                        return SKIP_CHILDREN;
+                    }
+                    if (!file.isDirectory() && file.getFileType() == CypherFileType.INSTANCE) {
+                        files.add(file);
+                    }
+                    return CONTINUE;
+                }
+            });
+        }
+        return new ArrayList<>(files);
+    }
+}
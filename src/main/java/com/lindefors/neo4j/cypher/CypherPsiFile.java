@@ -1,15 +1,26 @@
 package com.lindefors.neo4j.cypher;
 
 import com.intellij.extapi.psi.PsiFileBase;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.injection.InjectedLanguageManager;
 import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.psi.FileViewProvider;
+import com.intellij.psi.PsiElement;
+import com.intellij.util.Processor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 /**
- * PSI wrapper for Cypher files that wires the file type to the language.
+ * PSI wrapper for Cypher files that wires the file type to the language. Fragments injected into other
+ * languages start their caches from {@link CypherInjectedFragments} when an identical fragment was seen.
  */
 public class CypherPsiFile extends PsiFileBase {
+    private volatile CypherStatementTable statementTable;
+    private volatile CypherSemanticCache semanticCache;
+    private volatile CypherLintCache lintCache;
+
     public CypherPsiFile(@NotNull FileViewProvider viewProvider) {
         super(viewProvider, CypherLanguage.INSTANCE);
     }
@@ -19,6 +30,90 @@ public class CypherPsiFile extends PsiFileBase {
         return CypherFileType.INSTANCE;
     }
 
+    /**
+     * Visits the leaves that start exactly at the given ascending offsets. The parser produces a flat token
+     * list, so one forward walk replaces a linear {@code findElementAt} lookup per offset.
+     */
+    public boolean processLeavesAt(int @NotNull [] sortedOffsets, @NotNull Processor<? super PsiElement> processor) {
+        ASTNode leaf = getNode().getFirstChildNode();
+        int leafStart = 0;
+        int i = 0;
+        while (leaf != null && i < sortedOffsets.length) {
+            int target = sortedOffsets[i];
+            int leafEnd = leafStart + leaf.getTextLength();
+            if (target < leafStart) {
+                i++;
+            } else if (target >= leafEnd) {
+                leafStart = leafEnd;
+                leaf = leaf.getTreeNext();
+            } else {
+                if (target == leafStart && !processor.process(leaf.getPsi())) {
+                    return false;
+                }
+                i++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the statement table for the current contents. The table is cached and, after edits, updated
+     * by re-lexing only the statements in the ranges recorded by {@link CypherDocumentEdits}.
+     */
+    public @NotNull CypherStatementTable getStatementTable() {
+        CharSequence contents = getViewProvider().getContents();
+        CypherStatementTable table = statementTable;
+        if (table == null) {
+            CypherSemanticCache seed = isInjected() ? CypherInjectedFragments.lookup(contents) : null;
+            table = seed != null ? seed.statements().update(contents) : CypherStatementTable.build(contents);
+        } else if (table.text() != contents) {
+            table = CypherDocumentEdits.update(isInjected() ? null : getViewProvider().getDocument(), table, contents);
+        } else {
+            return table;
+        }
+        statementTable = table;
+        return table;
+    }
+
+    /**
+     * Returns the semantic roles cache for the current statement table; after edits it reuses the roles of
+     * statements whose text is unchanged.
+     */
+    @NotNull CypherSemanticCache getSemanticCache() {
+        CypherStatementTable table = getStatementTable();
+        CypherSemanticCache cache = semanticCache;
+        if (cache == null || cache.statements() != table) {
+            boolean injected = isInjected();
+            if (cache == null && injected) {
+                cache = CypherInjectedFragments.lookup(table.text());
+            }
+            cache = CypherSemanticCache.create(table, cache);
+            semanticCache = cache;
+            if (injected) {
+                CypherInjectedFragments.remember(cache);
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the lint results cache for the current semantic cache, {@code rules} and their settings; after
+     * edits it reuses the results of statements whose text is unchanged.
+     */
+    @NotNull CypherLintCache getLintCache(@NotNull List<CypherLintRule> rules) {
+        CypherSemanticCache semantics = getSemanticCache();
+        CypherLintCache cache = lintCache;
+        if (cache == null || cache.semantics() != semantics || !cache.isCurrent(rules)) {
+            cache = CypherLintCache.create(semantics, rules, cache);
+            lintCache = cache;
+        }
+        return cache;
+    }
+
+    private boolean isInjected() {
+        return InjectedLanguageManager.getInstance(getProject()).isInjectedFragment(this);
+    }
+
     @Override
     public @Nullable String toString() {
         return "Cypher File";
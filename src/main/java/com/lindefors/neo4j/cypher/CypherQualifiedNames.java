@@ -0,0 +1,80 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Helpers for dotted function and procedure names such as {@code apoc.periodic.iterate}. The lexer emits
+ * these as separate segment and {@link CypherTokenTypes#DOT} tokens; segments may also be keywords
+ * ({@code apoc.create.node}), and whitespace ends a name.
+ */
+final class CypherQualifiedNames {
+    private CypherQualifiedNames() {
+    }
+
+    static boolean isSegment(@Nullable PsiElement element) {
+        if (element == null || element.getNode() == null) {
+            return false;
+        }
+        IElementType type = element.getNode().getElementType();
+        return type == CypherTokenTypes.IDENTIFIER || type == CypherTokenTypes.KEYWORD;
+    }
+
+    /**
+     * Returns the first segment of the dotted name that ends with {@code last}.
+     */
+    static @NotNull PsiElement start(@NotNull PsiElement last) {
+        PsiElement start = last;
+        while (true) {
+            PsiElement dot = PsiTreeUtil.prevLeaf(start);
+            if (!isDot(dot)) {
+                return start;
+            }
+            PsiElement segment = PsiTreeUtil.prevLeaf(dot);
+            if (!isSegment(segment)) {
+                return start;
+            }
+            start = segment;
+        }
+    }
+
+    /**
+     * Returns the last segment of the dotted name that starts with {@code first}.
+     */
+    static @NotNull PsiElement end(@NotNull PsiElement first) {
+        PsiElement end = first;
+        while (true) {
+            PsiElement dot = PsiTreeUtil.nextLeaf(end);
+            if (!isDot(dot)) {
+                return end;
+            }
+            PsiElement segment = PsiTreeUtil.nextLeaf(dot);
+            if (!isSegment(segment)) {
+                return end;
+            }
+            end = segment;
+        }
+    }
+
+    /**
+     * Returns the full dotted name the given segment belongs to.
+     */
+    static @NotNull String around(@NotNull PsiElement segment) {
+        PsiElement end = end(segment);
+        StringBuilder name = new StringBuilder();
+        for (PsiElement current = start(segment); current != null; current = PsiTreeUtil.nextLeaf(current)) {
+            name.append(current.getText());
+            if (current == end) {
+                break;
+            }
+        }
+        return name.toString();
+    }
+
+    private static boolean isDot(@Nullable PsiElement element) {
+        return element != null && element.getNode() != null && element.getNode().getElementType() == CypherTokenTypes.DOT;
+    }
+}
@@ -0,0 +1,13 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reports the problems of every {@link CypherLintRule} that does not have an inspection of its own.
+ */
+public class CypherQueryPerformanceInspection extends CypherLintInspection {
+    @Override
+    protected boolean reports(@NotNull CypherLintRule rule) {
+        return rule.inspectionShortName() == null;
+    }
+}
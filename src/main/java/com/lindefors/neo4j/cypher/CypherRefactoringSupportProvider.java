@@ -0,0 +1,23 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.lang.refactoring.RefactoringSupportProvider;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Chooses how Cypher names are renamed in the editor. Variables are renamed in place within their
+ * statement. Labels, relationship types and property keys are edited in place at the caret and then
+ * renamed project-wide in one command, with usages found through {@link CypherSymbolIndex}.
+ */
+public class CypherRefactoringSupportProvider extends RefactoringSupportProvider {
+    @Override
+    public boolean isInplaceRenameAvailable(@NotNull PsiElement element, @Nullable PsiElement context) {
+        return element instanceof CypherIdentifierElement identifier && identifier.isVariable();
+    }
+
+    @Override
+    public boolean isMemberInplaceRenameAvailable(@NotNull PsiElement element, @Nullable PsiElement context) {
+        return element instanceof CypherIdentifierElement identifier && identifier.symbolKey() != null;
+    }
+}
@@ -0,0 +1,156 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.application.QueryExecutorBase;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.LocalSearchScope;
+import com.intellij.psi.search.PsiSearchScopeUtil;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers reference searches for Cypher symbols from token-based indexes instead of the platform's
+ * text occurrence search. Variable usages come from the owning statement's symbol table; labels, relationship
+ * types and property keys come from {@link CypherSymbolIndex}, or from the file's semantic cache for local
+ * scopes. Only the scope chosen by the user is honoured; the elements' own use scope is deliberately narrow
+ * so the generic word search stays out of the way. Files in large-file mode have no name leaves and yield no
+ * references, which is why {@link CypherRenameProcessor} refuses renames of symbols that occur in them.
+ */
+public class CypherReferenceSearcher extends QueryExecutorBase<PsiReference, ReferencesSearch.SearchParameters> {
+    public CypherReferenceSearcher() {
+        super(true);
+    }
+
+    @Override
+    public void processQuery(@NotNull ReferencesSearch.SearchParameters queryParameters,
+                             @NotNull Processor<? super PsiReference> consumer) {
+        PsiElement target = queryParameters.getElementToSearch();
+        if (target instanceof CypherIdentifierElement identifier) {
+            SearchScope scope = queryParameters.getScopeDeterminedByUser();
+            String key = identifier.symbolKey();
+            if (key != null) {
+                processSymbolReferences(target.getProject(), key, scope, consumer);
+                return;
+            }
+            identifier.processUsages(usage -> {
+                PsiReference reference = usage.getReference();
+                return reference == null || !PsiSearchScopeUtil.isInScope(scope, usage) || consumer.process(reference);
+            });
+        } else if (target instanceof CypherParameterElement parameter) {
+            String name = parameter.getName();
+            if (name != null) {
+                processParameterReferences(target.getProject(), name, queryParameters.getScopeDeterminedByUser(), consumer);
+            }
+        }
+    }
+
+    private static boolean processSymbolReferences(@NotNull Project project,
+                                                   @NotNull String key,
+                                                   @NotNull SearchScope scope,
+                                                   @NotNull Processor<? super PsiReference> consumer) {
+        if (scope instanceof LocalSearchScope localScope) {
+            for (CypherPsiFile file : cypherFiles(localScope)) {
+                int[] offsets = CypherSymbols.collectOffsets(file.getSemanticCache(), key);
+                if (!processSymbolsAt(file, key, offsets, scope, consumer)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        if (!(scope instanceof GlobalSearchScope globalScope)) {
+            return true;
+        }
+        Map<VirtualFile, int[]> occurrences = CypherSymbolIndex.findOccurrences(key, globalScope);
+        PsiManager psiManager = PsiManager.getInstance(project);
+        for (Map.Entry<VirtualFile, int[]> entry : occurrences.entrySet()) {
+            if (psiManager.findFile(entry.getKey()) instanceof CypherPsiFile file
+                    && !processSymbolsAt(file, key, entry.getValue(), scope, consumer)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean processSymbolsAt(@NotNull CypherPsiFile file,
+                                            @NotNull String key,
+                                            int @NotNull [] offsets,
+                                            @NotNull SearchScope scope,
+                                            @NotNull Processor<? super PsiReference> consumer) {
+        return file.processLeavesAt(offsets, leaf -> {
+            if (!(leaf instanceof CypherIdentifierElement identifier) || !key.equals(identifier.symbolKey())) {
+                return true;
+            }
+            PsiReference reference = identifier.getReference();
+            if (reference == null || !PsiSearchScopeUtil.isInScope(scope, identifier)) {
+                return true;
+            }
+            return consumer.process(reference);
+        });
+    }
+
+    private static @NotNull Set<CypherPsiFile> cypherFiles(@NotNull LocalSearchScope scope) {
+        Set<CypherPsiFile> files = new LinkedHashSet<>();
+        for (PsiElement element : scope.getScope()) {
+            if (element.getContainingFile() instanceof CypherPsiFile file) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private static boolean processParameterReferences(@NotNull Project project,
+                                                      @NotNull String name,
+                                                      @NotNull SearchScope scope,
+                                                      @NotNull Processor<? super PsiReference> consumer) {
+        if (scope instanceof LocalSearchScope localScope) {
+            for (CypherPsiFile file : cypherFiles(localScope)) {
+                int[] offsets = CypherParameters.collectOffsets(file.getViewProvider().getContents()).get(name);
+                if (offsets != null && !processParametersAt(file, name, offsets, scope, consumer)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        if (!(scope instanceof GlobalSearchScope globalScope)) {
+            return true;
+        }
+        Map<VirtualFile, int[]> occurrences = CypherParameterIndex.findOccurrences(name, globalScope);
+        PsiManager psiManager = PsiManager.getInstance(project);
+        for (Map.Entry<VirtualFile, int[]> entry : occurrences.entrySet()) {
+            if (psiManager.findFile(entry.getKey()) instanceof CypherPsiFile file
+                    && !processParametersAt(file, name, entry.getValue(), scope, consumer)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean processParametersAt(@NotNull CypherPsiFile file,
+                                               @NotNull String name,
+                                               int @NotNull [] offsets,
+                                               @NotNull SearchScope scope,
+                                               @NotNull Processor<? super PsiReference> consumer) {
+        return file.processLeavesAt(offsets, leaf -> {
+            if (!(leaf instanceof CypherParameterElement parameter) || !name.equals(parameter.getName())) {
+                return true;
+            }
+            PsiReference reference = parameter.getReference();
+            if (reference == null || !PsiSearchScopeUtil.isInScope(scope, parameter)) {
+                return true;
+            }
+            return consumer.process(reference);
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.refactoring.rename.RenamePsiElementProcessor;
+import com.intellij.refactoring.util.CommonRefactoringUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Refuses project-wide renames of labels, relationship types, property keys and parameters that occur in a
+ * file in large-file mode ({@link CypherLargeFileMode.Feature#SYNTAX_TREE}). Such a file has no leaf per
+ * name for {@link CypherReferenceSearcher} to return, so its occurrences would silently keep the old name.
+ * The files are looked up in the symbol and parameter indexes under a modal progress.
+ */
+public class CypherRenameProcessor extends RenamePsiElementProcessor {
+    private static final int MAX_LISTED_FILES = 3;
+
+    @Override
+    public boolean canProcessElement(@NotNull PsiElement element) {
+        return element instanceof CypherIdentifierElement identifier && identifier.symbolKey() != null
+                || element instanceof CypherParameterElement parameter && parameter.getName() != null;
+    }
+
+    @Override
+    public @Nullable PsiElement substituteElementToRename(@NotNull PsiElement element, @Nullable Editor editor) {
+        Project project = element.getProject();
+        List<String> collapsed = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                () -> ReadAction.compute(() -> collapsedFiles(project, element)), "Checking Large Cypher Files", true, project);
+        if (collapsed == null) {
+            return null;
+        }
+        if (!collapsed.isEmpty()) {
+            String files = String.join(", ", collapsed.subList(0, Math.min(collapsed.size(), MAX_LISTED_FILES)))
+                    + (collapsed.size() > MAX_LISTED_FILES ? " and " + (collapsed.size() - MAX_LISTED_FILES) + " more" : "");
+            CommonRefactoringUtil.showErrorHint(project, editor, "Cannot rename " + element.getText()
+                    + ": it occurs in " + files + ", which large-file mode keeps from being updated.", "Rename", null);
+            return null;
+        }
+        return element;
+    }
+
+    /**
+     * Returns the names of the project files in large-file mode where {@code element}'s symbol or parameter
+     * occurs.
+     */
+    private static @NotNull List<String> collapsedFiles(@NotNull Project project, @NotNull PsiElement element) {
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        Map<VirtualFile, int[]> occurrences;
+        if (element instanceof CypherIdentifierElement identifier && identifier.symbolKey() != null) {
+            occurrences = CypherSymbolIndex.findOccurrences(identifier.symbolKey(), scope);
+        } else if (element instanceof CypherParameterElement parameter && parameter.getName() != null) {
+            occurrences = CypherParameterIndex.findOccurrences(parameter.getName(), scope);
+        } else {
+            return List.of();
+        }
+        List<String> collapsed = new ArrayList<>();
+        PsiManager psiManager = PsiManager.getInstance(project);
+        for (VirtualFile file : occurrences.keySet()) {
+            PsiFile psiFile = psiManager.findFile(file);
+            if (psiFile instanceof CypherPsiFile
+                    && CypherLargeFileMode.isDegraded(CypherLargeFileMode.Feature.SYNTAX_TREE, psiFile.getTextLength())) {
+                collapsed.add(file.getName());
+            }
+        }
+        return collapsed;
+    }
+}
@@ -0,0 +1,15 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.util.Condition;
+import com.intellij.psi.PsiElement;
+
+/**
+ * Only variables and project-wide symbols (labels, relationship types and property keys) can be renamed;
+ * function and procedure names are defined outside the project, and plain keywords are not names at all.
+ */
+public class CypherRenameVetoCondition implements Condition<PsiElement> {
+    @Override
+    public boolean value(PsiElement element) {
+        return element instanceof CypherIdentifierElement identifier && !identifier.isVariable() && identifier.symbolKey() == null;
+    }
+}
@@ -0,0 +1,441 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The property indexes of a database, as far as they serve equality lookups: range and text indexes, and
+ * the indexes backing uniqueness and key constraints. Full-text, lookup, point and vector indexes and
+ * existence or type constraints are left out.
+ *
+ * <p>Indexes backing a uniqueness or key constraint are marked {@link Index#unique() unique}, so the schema
+ * also answers which properties identify a node ({@link #uniqueKey}). Indexes are read from
+ * {@code CREATE INDEX} / {@code CREATE CONSTRAINT} statements ({@link #definitions}) or from an exported
+ * {@code SHOW INDEXES} / {@code SHOW CONSTRAINTS} result ({@link #snapshot}). Single property indexes, by
+ * far the most common, are kept in one hash set, so {@link #covers} costs a hash lookup per predicate;
+ * composite indexes are listed per label or relationship type.
+ */
+final class CypherSchema {
+    static final CypherSchema EMPTY = of(List.of());
+
+    private static final Set<String> NON_LOOKUP_INDEXES = Set.of("FULLTEXT", "LOOKUP", "POINT", "VECTOR");
+    private static final Set<String> LOOKUP_INDEX_TYPES = Set.of("RANGE", "TEXT", "BTREE");
+    private static final Set<String> UNIQUE_CONSTRAINT_TYPES = Set.of("UNIQUENESS", "NODE_KEY",
+            "RELATIONSHIP_UNIQUENESS", "RELATIONSHIP_KEY", "NODE_PROPERTY_UNIQUENESS", "RELATIONSHIP_PROPERTY_UNIQUENESS");
+
+    /**
+     * An index on the {@code properties} of {@code entity}, a label or relationship type
+     * {@link CypherSymbols#key symbol key}; {@code unique} when it backs a uniqueness or key constraint.
+     */
+    record Index(@NotNull String entity, @NotNull List<String> properties, boolean unique) {
+        /**
+         * Encodes the index as one string, e.g. {@code label:Person(name,age)}, with a trailing {@code !}
+         * when it is unique.
+         */
+        @NotNull String encode() {
+            return entity + "(" + String.join(",", properties) + ")" + (unique ? "!" : "");
+        }
+
+        static @Nullable Index decode(@NotNull String encoded) {
+            boolean unique = encoded.endsWith("!");
+            String index = unique ? encoded.substring(0, encoded.length() - 1) : encoded;
+            int open = index.indexOf('(');
+            if (open <= 0 || !index.endsWith(")") || open + 2 > index.length() - 1) {
+                return null;
+            }
+            return new Index(index.substring(0, open), List.of(index.substring(open + 1, index.length() - 1).split(",")), unique);
+        }
+
+        /**
+         * Returns true when this index alone can serve a lookup with equality predicates on
+         * {@code lookupProperties}, as in {@link CypherSchema#covers}.
+         */
+        boolean serves(@NotNull Collection<String> lookupProperties) {
+            return lookupProperties.containsAll(properties);
+        }
+    }
+
+    private final Lookups all = new Lookups();
+    private final Lookups unique = new Lookups();
+
+    private CypherSchema() {
+    }
+
+    static @NotNull CypherSchema of(@NotNull Collection<Index> indexes) {
+        CypherSchema schema = new CypherSchema();
+        for (Index index : indexes) {
+            schema.add(index);
+        }
+        return schema;
+    }
+
+    /**
+     * Adds {@code index} to this schema, for callers that grow a schema of their own, as a replay of
+     * migrations does; schemas that are shared or cached, including {@link #EMPTY}, are not changed.
+     */
+    void add(@NotNull Index index) {
+        if (this == EMPTY) {
+            throw new IllegalStateException("EMPTY is shared");
+        }
+        all.add(index);
+        if (index.unique()) {
+            unique.add(index);
+        }
+    }
+
+    boolean isEmpty() {
+        return all.isEmpty();
+    }
+
+    /**
+     * Returns true when the schema has at least one uniqueness or key constraint.
+     */
+    boolean hasConstraints() {
+        return !unique.isEmpty();
+    }
+
+    /**
+     * Returns true when an index on {@code entity} can serve a lookup with equality predicates on
+     * {@code properties}: a single-property index on one of them, or a composite index on a subset of them.
+     */
+    boolean covers(@NotNull String entity, @NotNull Collection<String> properties) {
+        return all.find(entity, properties) != null;
+    }
+
+    /**
+     * Returns the properties of a uniqueness or key constraint on {@code entity} that are all among
+     * {@code properties}, or {@code null} when no constraint identifies {@code entity} by them.
+     */
+    @Nullable List<String> uniqueKey(@NotNull String entity, @NotNull Collection<String> properties) {
+        return unique.find(entity, properties);
+    }
+
+    private static @NotNull String singleKey(@NotNull String entity, @NotNull String property) {
+        return entity + '\u0000' + property;
+    }
+
+    /**
+     * Returns the indexes created by the {@code CREATE INDEX} and {@code CREATE CONSTRAINT} statements of a
+     * Cypher text. Only statements starting with {@code CREATE} are classified.
+     */
+    static @NotNull List<Index> definitions(@NotNull CharSequence text) {
+        List<Index> indexes = new ArrayList<>();
+        CypherStatementTable statements = CypherStatementTable.build(text);
+        for (int statement = 0; statement < statements.statementCount(); statement++) {
+            int start = statements.startOf(statement);
+            int end = statements.endOf(statement);
+            int first = CypherStatementSummary.firstTokenOffset(text, start, end);
+            if (!startsWithIgnoreCase(text, first, end, "CREATE")) {
+                continue;
+            }
+            Index index = definition(new CypherLintContext(text, start, end, CypherSemanticRoles.classify(text, start, end)));
+            if (index != null) {
+                indexes.add(index);
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Reads one {@code CREATE [RANGE | TEXT] INDEX} or {@code CREATE CONSTRAINT ... IS UNIQUE | KEY} statement,
+     * including the pre-5.0 forms {@code CREATE INDEX ON :Label(key)} and {@code ASSERT}.
+     */
+    static @Nullable Index definition(@NotNull CypherLintContext context) {
+        if (!context.isKeyword(0, "CREATE")) {
+            return null;
+        }
+        int kind = 1;
+        while (kind < context.size() && !context.isWord(kind, "INDEX") && !context.isWord(kind, "CONSTRAINT")) {
+            if (NON_LOOKUP_INDEXES.contains(context.text(kind).toString().toUpperCase(Locale.ENGLISH)) || kind > 2) {
+                return null;
+            }
+            kind++;
+        }
+        if (context.isWord(kind, "CONSTRAINT") && !isLookupConstraint(context, kind)) {
+            return null;
+        }
+        int entity = -1;
+        for (int i = kind + 1; i < context.size() && entity < 0; i++) {
+            if (context.role(i) == CypherSemanticRoles.Role.LABEL || context.role(i) == CypherSemanticRoles.Role.RELATIONSHIP_TYPE) {
+                entity = i;
+            }
+        }
+        if (entity < 0) {
+            return null;
+        }
+        List<String> properties = new ArrayList<>(1);
+        for (int i = entity + 1; i < context.size() && !context.isWord(i, "OPTIONS"); i++) {
+            if (context.role(i) == CypherSemanticRoles.Role.PROPERTY_KEY) {
+                addDistinct(properties, CypherVariableScopes.normalize(context.text(i)));
+            }
+        }
+        if (properties.isEmpty() && context.type(entity + 1) == CypherTokenTypes.PAREN_OPEN) {
+            // CREATE INDEX ON :Person(name)
+            for (int i = entity + 2; i < context.size() && context.type(i) != CypherTokenTypes.PAREN_CLOSE; i++) {
+                if (context.type(i) == CypherTokenTypes.IDENTIFIER || context.type(i) == CypherTokenTypes.KEYWORD) {
+                    addDistinct(properties, CypherVariableScopes.normalize(context.text(i)));
+                }
+            }
+        }
+        String key = CypherSymbols.key(context.role(entity), CypherVariableScopes.normalize(context.text(entity)));
+        return properties.isEmpty() || key == null ? null
+                : new Index(key, List.copyOf(properties), context.isWord(kind, "CONSTRAINT"));
+    }
+
+    private static boolean isLookupConstraint(@NotNull CypherLintContext context, int from) {
+        for (int i = from; i < context.size(); i++) {
+            // IS UNIQUE, IS KEY, IS NODE KEY, IS RELATIONSHIP UNIQUE, ...
+            if (context.isWord(i, "IS") && (context.isWord(i + 1, "UNIQUE") || context.isWord(i + 1, "KEY")
+                    || context.isWord(i + 2, "UNIQUE") || context.isWord(i + 2, "KEY"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the indexes in an exported {@code SHOW INDEXES} or {@code SHOW CONSTRAINTS} result. JSON
+     * exports are read object by object, tabular exports (CSV, the cypher-shell table or its plain output)
+     * line by line from the columns named in their header line; rows before a header are skipped. Each row
+     * is classified by the exact value of its {@code type} and {@code entityType} fields, so full-text,
+     * lookup, point, vector, existence and type rows are skipped whatever their names, labels and properties
+     * are; rows without a {@code type} are taken as plain indexes.
+     */
+    static @NotNull List<Index> snapshot(@NotNull CharSequence text) {
+        List<Index> indexes = new ArrayList<>();
+        String content = text.toString();
+        String trimmed = content.strip();
+        if (trimmed.startsWith("[") || trimmed.startsWith("{")) {
+            int rowStart = 0;
+            int depth = 0;
+            boolean quoted = false;
+            for (int i = 0; i < content.length(); i++) {
+                char c = content.charAt(i);
+                if (c == '"' && (i == 0 || content.charAt(i - 1) != '\\')) {
+                    quoted = !quoted;
+                } else if (!quoted && c == '{' && depth++ == 0) {
+                    rowStart = i;
+                } else if (!quoted && c == '}' && depth > 0 && --depth == 0) {
+                    String row = content.substring(rowStart, i + 1);
+                    addIndex(indexes, jsonString(row, "type"), jsonString(row, "entityType"),
+                            jsonString(row, "owningConstraint"), jsonList(row, "labelsOrTypes"), jsonList(row, "properties"));
+                }
+            }
+            return indexes;
+        }
+        Map<String, Integer> columns = null;
+        for (String line : content.split("\n")) {
+            List<String> cells = cells(line);
+            if (columns == null) {
+                columns = header(cells);
+            } else {
+                addIndex(indexes, cell(cells, columns, "type"), cell(cells, columns, "entityType"),
+                        cell(cells, columns, "owningConstraint"), list(cell(cells, columns, "labelsOrTypes")),
+                        list(cell(cells, columns, "properties")));
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Adds the index described by one exported row, unless its {@code type} is not a range, text or b-tree
+     * index or a uniqueness or key constraint. A constraint, or an index owned by one, is unique.
+     */
+    private static void addIndex(@NotNull List<Index> indexes, @Nullable String type, @Nullable String entityType,
+                                 @Nullable String owningConstraint, @NotNull List<String> entities,
+                                 @NotNull List<String> properties) {
+        String kind = type == null ? null : type.toUpperCase(Locale.ENGLISH);
+        boolean constraint = kind != null && UNIQUE_CONSTRAINT_TYPES.contains(kind);
+        if (kind != null && !constraint && !LOOKUP_INDEX_TYPES.contains(kind) || entities.isEmpty() || properties.isEmpty()) {
+            return;
+        }
+        boolean relationship = entityType != null ? entityType.equalsIgnoreCase("RELATIONSHIP")
+                : kind != null && kind.startsWith("RELATIONSHIP_");
+        CypherSemanticRoles.Role role = relationship
+                ? CypherSemanticRoles.Role.RELATIONSHIP_TYPE : CypherSemanticRoles.Role.LABEL;
+        for (String entity : entities) {
+            indexes.add(new Index(CypherSymbols.key(role, entity), properties, constraint || owningConstraint != null));
+        }
+    }
+
+    /**
+     * Returns the offset of the value of field {@code name} in a JSON object, or {@code -1}.
+     */
+    private static int jsonValue(@NotNull String row, @NotNull String name) {
+        String key = "\"" + name + "\"";
+        for (int at = row.indexOf(key); at >= 0; at = row.indexOf(key, at + 1)) {
+            int i = skipWhitespace(row, at + key.length());
+            if (i < row.length() && row.charAt(i) == ':') {
+                return skipWhitespace(row, i + 1);
+            }
+        }
+        return -1;
+    }
+
+    private static @Nullable String jsonString(@NotNull String row, @NotNull String name) {
+        int start = jsonValue(row, name);
+        if (start < 0 || start >= row.length() || row.charAt(start) != '"') {
+            return null;
+        }
+        int end = start + 1;
+        while (end < row.length() && (row.charAt(end) != '"' || row.charAt(end - 1) == '\\')) {
+            end++;
+        }
+        return row.substring(start + 1, Math.min(end, row.length()));
+    }
+
+    private static @NotNull List<String> jsonList(@NotNull String row, @NotNull String name) {
+        int start = jsonValue(row, name);
+        return start < 0 || start >= row.length() || row.charAt(start) != '[' ? List.of() : list(row.substring(start));
+    }
+
+    private static int skipWhitespace(@NotNull String text, int from) {
+        int i = from;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Splits a line of a tabular export into cells at {@code |} for tables and at {@code ,} otherwise, but
+     * not inside quotes or lists.
+     */
+    private static @NotNull List<String> cells(@NotNull String line) {
+        char separator = line.indexOf('|') >= 0 ? '|' : ',';
+        List<String> cells = new ArrayList<>();
+        boolean quoted = false;
+        int depth = 0;
+        int cellStart = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && c == '[') {
+                depth++;
+            } else if (!quoted && c == ']' && depth > 0) {
+                depth--;
+            } else if (!quoted && depth == 0 && c == separator) {
+                cells.add(line.substring(cellStart, i).strip());
+                cellStart = i + 1;
+            }
+        }
+        cells.add(line.substring(cellStart).strip());
+        return cells;
+    }
+
+    /**
+     * Returns the column of each name in a header line, or {@code null} when {@code cells} is not one.
+     */
+    private static @Nullable Map<String, Integer> header(@NotNull List<String> cells) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < cells.size(); i++) {
+            String name = unquote(cells.get(i));
+            if (name != null) {
+                columns.putIfAbsent(name, i);
+            }
+        }
+        return columns.containsKey("labelsOrTypes") && columns.containsKey("properties") ? columns : null;
+    }
+
+    /**
+     * Returns the unquoted cell of column {@code name}, or {@code null} when the row has no such cell or it
+     * is empty or {@code NULL}.
+     */
+    private static @Nullable String cell(@NotNull List<String> cells, @NotNull Map<String, Integer> columns,
+                                         @NotNull String name) {
+        Integer column = columns.get(name);
+        return column == null || column >= cells.size() ? null : unquote(cells.get(column));
+    }
+
+    private static @Nullable String unquote(@NotNull String cell) {
+        String value = cell.length() >= 2 && cell.startsWith("\"") && cell.endsWith("\"")
+                ? cell.substring(1, cell.length() - 1).replace("\"\"", "\"") : cell;
+        return value.isEmpty() || value.equalsIgnoreCase("NULL") ? null : value;
+    }
+
+    /**
+     * Returns the names in the {@code [...]} list at the start of {@code value}, with quotes and backticks
+     * removed; empty when {@code value} is {@code null} or holds no list.
+     */
+    private static @NotNull List<String> list(@Nullable String value) {
+        int open = value == null ? -1 : value.indexOf('[');
+        int close = open < 0 ? -1 : value.indexOf(']', open);
+        if (close < 0) {
+            return List.of();
+        }
+        List<String> names = new ArrayList<>(1);
+        for (String item : value.substring(open + 1, close).split(",")) {
+            String name = item.replace("\"", "").replace("`", "").replace("'", "").strip();
+            if (!name.isEmpty() && !"null".equals(name)) {
+                names.add(name);
+            }
+        }
+        return List.copyOf(names);
+    }
+
+    private static void addDistinct(@NotNull List<String> names, @NotNull String name) {
+        if (!names.contains(name)) {
+            names.add(name);
+        }
+    }
+
+    private static boolean startsWithIgnoreCase(@NotNull CharSequence text, int start, int end, @NotNull String prefix) {
+        if (end - start < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toUpperCase(text.charAt(start + i)) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Single-property indexes as one hash set of {@code entity + '\0' + property}, composite indexes listed
+     * per entity.
+     */
+    private static final class Lookups {
+        private final Set<String> single = new HashSet<>();
+        private final Map<String, List<List<String>>> composite = new HashMap<>();
+
+        private void add(@NotNull Index index) {
+            if (index.properties().size() == 1) {
+                single.add(singleKey(index.entity(), index.properties().get(0)));
+            } else {
+                composite.computeIfAbsent(index.entity(), entity -> new ArrayList<>()).add(index.properties());
+            }
+        }
+
+        private boolean isEmpty() {
+            return single.isEmpty() && composite.isEmpty();
+        }
+
+        private @Nullable List<String> find(@NotNull String entity, @NotNull Collection<String> properties) {
+            for (String property : properties) {
+                if (single.contains(singleKey(entity, property))) {
+                    return List.of(property);
+                }
+            }
+            List<List<String>> candidates = composite.get(entity);
+            if (candidates != null) {
+                for (List<String> candidate : candidates) {
+                    if (properties.containsAll(candidate)) {
+                        return candidate;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
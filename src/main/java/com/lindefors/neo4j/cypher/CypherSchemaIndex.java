@@ -0,0 +1,147 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.ScalarIndexExtension;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Project index of the indexes and lookup constraints created by Cypher files, keyed by
+ * {@link CypherSchema.Index#encode() encoded index} such as {@code label:Person(name)}. Together with the
+ * {@code SHOW INDEXES} / {@code SHOW CONSTRAINTS} exports named by the {@value #SNAPSHOT_FILES_KEY} registry
+ * key it forms the project's {@link CypherSchema}. It is cached until a Cypher file changes; the parsed
+ * snapshots are cached separately until a snapshot file or the set of project files changes.
+ */
+public class CypherSchemaIndex extends ScalarIndexExtension<String> {
+    public static final ID<String, Void> NAME = ID.create("com.lindefors.neo4j.cypher.schema");
+    static final String SNAPSHOT_FILES_KEY = "cypher.schema.snapshot.files";
+
+    private static final Key<CachedValue<CypherSchema>> SCHEMA_KEY = Key.create("cypher.schema");
+    private static final Key<CachedValue<Snapshot>> SNAPSHOT_KEY = Key.create("cypher.schema.snapshot");
+
+    @Override
+    public @NotNull ID<String, Void> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, Void, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, Void> keys = new HashMap<>();
+            for (CypherSchema.Index index : CypherSchema.definitions(inputData.getContentAsText())) {
+                keys.put(index.encode(), null);
+            }
+            return keys;
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 2;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(CypherFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Returns the schema of the project: the indexes created in its Cypher files and those listed in its
+     * snapshot files. Empty when neither exists.
+     */
+    static @NotNull CypherSchema schema(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, SCHEMA_KEY, () -> {
+            Snapshot snapshot = snapshot(project);
+            List<CypherSchema.Index> indexes = definitions(project);
+            indexes.addAll(snapshot.indexes());
+            List<Object> dependencies = new ArrayList<>(snapshot.dependencies());
+            dependencies.add(PsiModificationTracker.getInstance(project).forLanguage(CypherLanguage.INSTANCE));
+            return CachedValueProvider.Result.create(indexes.isEmpty() ? CypherSchema.EMPTY : CypherSchema.of(indexes),
+                    dependencies);
+        }, false);
+    }
+
+    /**
+     * The indexes listed in the snapshot files and what they depend on: the files themselves, through their
+     * modification stamps, the set of files in the project and the {@value #SNAPSHOT_FILES_KEY} setting.
+     */
+    private record Snapshot(@NotNull List<CypherSchema.Index> indexes, @NotNull List<Object> dependencies) {
+    }
+
+    private static @NotNull Snapshot snapshot(@NotNull Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, SNAPSHOT_KEY, () -> {
+            Snapshot snapshot = computeSnapshot(project);
+            return CachedValueProvider.Result.create(snapshot, snapshot.dependencies());
+        }, false);
+    }
+
+    private static @NotNull List<CypherSchema.Index> definitions(@NotNull Project project) {
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        FileBasedIndex index = FileBasedIndex.getInstance();
+        List<CypherSchema.Index> indexes = new ArrayList<>();
+        for (String key : index.getAllKeys(NAME, project)) {
+            CypherSchema.Index decoded = CypherSchema.Index.decode(key);
+            if (decoded != null && !index.getContainingFiles(NAME, key, scope).isEmpty()) {
+                indexes.add(decoded);
+            }
+        }
+        return indexes;
+    }
+
+    private static @NotNull Snapshot computeSnapshot(@NotNull Project project) {
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        String setting = Registry.stringValue(SNAPSHOT_FILES_KEY);
+        List<CypherSchema.Index> indexes = new ArrayList<>();
+        List<Object> dependencies = new ArrayList<>();
+        dependencies.add(VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS);
+        dependencies.add((ModificationTracker) () -> Registry.stringValue(SNAPSHOT_FILES_KEY).equals(setting) ? 0 : 1);
+        for (String name : setting.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            for (VirtualFile file : FilenameIndex.getVirtualFilesByName(name.strip(), scope)) {
+                dependencies.add(file);
+                try {
+                    indexes.addAll(CypherSchema.snapshot(VfsUtilCore.loadText(file)));
+                } catch (IOException ignored) {
+                    // an unreadable snapshot contributes no indexes
+                }
+            }
+        }
+        return new Snapshot(indexes, dependencies);
+    }
+}
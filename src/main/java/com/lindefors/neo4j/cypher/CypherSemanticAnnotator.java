@@ -0,0 +1,67 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.lang.annotation.Annotator;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.editor.colors.TextAttributesKey;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Semantic highlighting: colors names by their role (see {@link CypherSemanticRoles}) on top of the lexical
+ * highlighting. Runs in the background daemon pass; roles come from the file's {@link CypherSemanticCache},
+ * so each statement is classified once per distinct text. Handles token leaves as well as the collapsed
+ * {@link CypherTokenTypes#STATEMENTS} leaves of large-file mode.
+ */
+public class CypherSemanticAnnotator implements Annotator, DumbAware {
+    @Override
+    public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
+        ASTNode node = element.getNode();
+        if (node == null) {
+            return;
+        }
+        IElementType type = node.getElementType();
+        if (type != CypherTokenTypes.IDENTIFIER && type != CypherTokenTypes.KEYWORD && type != CypherTokenTypes.STATEMENTS) {
+            return;
+        }
+        if (!(element.getContainingFile() instanceof CypherPsiFile file)) {
+            return;
+        }
+        CypherSemanticCache cache = file.getSemanticCache();
+        CypherStatementTable statements = cache.statements();
+        if (statements.text().length() != file.getTextLength()) {
+            return; // document not committed yet; the daemon restarts once it is
+        }
+
+        TextRange range = node.getTextRange();
+        for (int index = statements.indexAt(range.getStartOffset());
+             index < statements.statementCount() && statements.startOf(index) < range.getEndOffset(); index++) {
+            ProgressManager.checkCanceled();
+            int base = statements.startOf(index);
+            CypherSemanticRoles roles = cache.roles(index);
+            for (int i = roles.indexAtOrAfter(range.getStartOffset() - base);
+                 i < roles.size() && base + roles.start(i) < range.getEndOffset(); i++) {
+                holder.newSilentAnnotation(HighlightSeverity.INFORMATION)
+                        .range(new TextRange(base + roles.start(i), base + roles.end(i)))
+                        .textAttributes(attributes(roles.role(i)))
+                        .create();
+            }
+        }
+    }
+
+    static @NotNull TextAttributesKey attributes(@NotNull CypherSemanticRoles.Role role) {
+        return switch (role) {
+            case VARIABLE -> CypherSyntaxHighlighter.VARIABLE;
+            case LABEL -> CypherSyntaxHighlighter.LABEL;
+            case RELATIONSHIP_TYPE -> CypherSyntaxHighlighter.RELATIONSHIP_TYPE;
+            case PROPERTY_KEY -> CypherSyntaxHighlighter.PROPERTY_KEY;
+            case FUNCTION -> CypherSyntaxHighlighter.FUNCTION;
+            case PROCEDURE -> CypherSyntaxHighlighter.PROCEDURE;
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Semantic roles of the statements in one {@link CypherStatementTable}, classified on first request.
+ * Classifications are also kept by a hash of the statement text; the cache for the next version of the
+ * file looks statements up there first, so after an edit only the statements whose text changed are
+ * classified again. Entries not requested for the current version are dropped with the previous cache.
+ */
+final class CypherSemanticCache {
+    private final CypherStatementTable statements;
+    private final AtomicReferenceArray<CypherSemanticRoles> byIndex;
+    private final Map<Long, CypherSemanticRoles> byHash = new ConcurrentHashMap<>();
+    private final Map<Long, CypherSemanticRoles> previous;
+
+    private CypherSemanticCache(@NotNull CypherStatementTable statements, @NotNull Map<Long, CypherSemanticRoles> previous) {
+        this.statements = statements;
+        this.byIndex = new AtomicReferenceArray<>(statements.statementCount());
+        this.previous = previous;
+    }
+
+    /**
+     * Creates the cache for {@code statements}, reusing classifications from {@code previous}.
+     */
+    static @NotNull CypherSemanticCache create(@NotNull CypherStatementTable statements, @Nullable CypherSemanticCache previous) {
+        return new CypherSemanticCache(statements, previous == null ? Map.of() : previous.byHash);
+    }
+
+    @NotNull CypherStatementTable statements() {
+        return statements;
+    }
+
+    @NotNull CypherSemanticRoles roles(int index) {
+        CypherSemanticRoles roles = byIndex.get(index);
+        if (roles != null) {
+            return roles;
+        }
+        CharSequence text = statements.text();
+        int start = statements.startOf(index);
+        int end = statements.endOf(index);
+        long hash = hash(text, start, end);
+        roles = byHash.get(hash);
+        if (roles == null) {
+            roles = previous.get(hash);
+        }
+        if (roles == null) {
+            roles = CypherSemanticRoles.classify(text, start, end);
+        }
+        byHash.put(hash, roles);
+        byIndex.set(index, roles);
+        return roles;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of {@code text[start, end)}, mixed with its length.
+     */
+    static long hash(@NotNull CharSequence text, int start, int end) {
+        long hash = 0xcbf29ce484222325L ^ (end - start);
+        for (int i = start; i < end; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
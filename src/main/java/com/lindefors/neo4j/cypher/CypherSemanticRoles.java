@@ -0,0 +1,275 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Roles of the names in one statement, as used by semantic highlighting: variables, labels, relationship
+ * types, property keys, functions and procedures. Offsets are relative to the start of the statement, so a
+ * classification can be reused for an identical statement anywhere in a file.
+ *
+ * <p>Roles are derived from tokens alone:
+ * <ul>
+ *   <li>names after {@code :} (and after {@code |}, {@code &} or {@code !} in label expressions) are labels,
+ *   or relationship types inside a bracket that follows a dash;</li>
+ *   <li>names before {@code :} directly inside braces are property keys, as are names after {@code .};</li>
+ *   <li>dotted names followed by {@code (} are functions, and procedures after {@code CALL};</li>
+ *   <li>any other identifier is a variable, except for operator words such as {@code AND} or {@code IN}
+ *   that the lexer does not treat as keywords.</li>
+ * </ul>
+ * Keywords get a role only where they are used as a label, type or property key, e.g. {@code n.count}.
+ *
+ * <p>Each variable also records its declaring occurrence, resolved by {@link CypherVariableScopes}; this is
+ * the per-statement symbol table behind variable references.
+ */
+public final class CypherSemanticRoles {
+    /**
+     * The role of a name, as reported to lint rules by {@link CypherLintContext#role(int)}.
+     */
+    public enum Role {
+        VARIABLE, LABEL, RELATIONSHIP_TYPE, PROPERTY_KEY, FUNCTION, PROCEDURE
+    }
+
+    private static final Set<String> OPERATOR_WORDS = Set.of(
+            "AND", "OR", "XOR", "NOT", "IN", "IS", "STARTS", "ENDS", "CONTAINS",
+            "CASE", "WHEN", "THEN", "ELSE", "END");
+
+    private static final Role[] ROLES = Role.values();
+    private static final CypherSemanticRoles EMPTY = new CypherSemanticRoles(new int[0], new int[0], new byte[0], new int[0], 0);
+
+    private static final byte PAREN = 0;
+    private static final byte LIST = 1;
+    private static final byte RELATIONSHIP = 2;
+    private static final byte BRACE = 3;
+
+    private final int[] starts;
+    private final int[] ends;
+    private final byte[] roles;
+    private final int[] declarations;
+    private final int size;
+
+    private CypherSemanticRoles(int @NotNull [] starts, int @NotNull [] ends, byte @NotNull [] roles,
+                                int @NotNull [] declarations, int size) {
+        this.starts = starts;
+        this.ends = ends;
+        this.roles = roles;
+        this.declarations = declarations;
+        this.size = size;
+    }
+
+    /**
+     * Classifies the names in {@code [start, end)}, which should hold whole statements.
+     */
+    static @NotNull CypherSemanticRoles classify(@NotNull CharSequence text, int start, int end) {
+        CypherTokens tokens = CypherTokens.lex(text, start, end);
+        if (tokens.size() == 0) {
+            return EMPTY;
+        }
+        Builder out = new Builder(start, Math.max(4, tokens.size() / 2));
+        byte[] stack = new byte[8];
+        int depth = 0;
+        Role labelRole = null;
+        Role chainRole = null;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            IElementType type = tokens.type(i);
+            Role expected = labelRole;
+            Role chained = chainRole;
+            labelRole = null;
+            chainRole = null;
+            if (type == CypherTokenTypes.PAREN_OPEN || type == CypherTokenTypes.BRACKET_OPEN || type == CypherTokenTypes.BRACE_OPEN) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = type == CypherTokenTypes.PAREN_OPEN ? PAREN
+                        : type == CypherTokenTypes.BRACE_OPEN ? BRACE
+                        : isDash(tokens, i - 1) ? RELATIONSHIP : LIST;
+            } else if (type == CypherTokenTypes.PAREN_CLOSE || type == CypherTokenTypes.BRACKET_CLOSE || type == CypherTokenTypes.BRACE_CLOSE) {
+                if (depth > 0) {
+                    depth--;
+                }
+            } else if (type == CypherTokenTypes.COLON) {
+                if (depth > 0 && stack[depth - 1] == BRACE) {
+                    if (isName(tokens, i - 1)) {
+                        out.set(tokens, i - 1, Role.PROPERTY_KEY);
+                    }
+                } else {
+                    labelRole = depth > 0 && stack[depth - 1] == RELATIONSHIP ? Role.RELATIONSHIP_TYPE : Role.LABEL;
+                }
+            } else if (type == CypherTokenTypes.OPERATOR) {
+                Role continued = expected != null ? expected : chained;
+                if (continued != null && isLabelOperator(tokens.text(i))) {
+                    labelRole = continued;
+                }
+            } else if (expected != null && isName(tokens, i)) {
+                out.set(tokens, i, expected);
+                chainRole = expected;
+            } else if (isName(tokens, i) && tokens.is(i - 1, CypherTokenTypes.DOT)) {
+                out.set(tokens, i, Role.PROPERTY_KEY);
+            } else if (type == CypherTokenTypes.IDENTIFIER) {
+                int last = i;
+                while (tokens.is(last + 1, CypherTokenTypes.DOT) && isName(tokens, last + 2)) {
+                    last += 2;
+                }
+                boolean procedure = tokens.isKeyword(i - 1, "CALL");
+                if (procedure || tokens.is(last + 1, CypherTokenTypes.PAREN_OPEN)) {
+                    for (int segment = i; segment <= last; segment += 2) {
+                        out.set(tokens, segment, procedure ? Role.PROCEDURE : Role.FUNCTION);
+                    }
+                    i = last;
+                } else if (!OPERATOR_WORDS.contains(tokens.text(i).toString().toUpperCase(Locale.ENGLISH))
+                        && !(tokens.textEqualsIgnoreCase(i, "COLLECT") && tokens.is(i + 1, CypherTokenTypes.BRACE_OPEN))) {
+                    out.set(tokens, i, Role.VARIABLE);
+                }
+            }
+        }
+        return out.build(tokens);
+    }
+
+    private static boolean isName(@NotNull CypherTokens tokens, int index) {
+        return tokens.is(index, CypherTokenTypes.IDENTIFIER) || tokens.is(index, CypherTokenTypes.KEYWORD);
+    }
+
+    private static boolean isDash(@NotNull CypherTokens tokens, int index) {
+        if (!tokens.is(index, CypherTokenTypes.OPERATOR)) {
+            return false;
+        }
+        CharSequence text = tokens.text(index);
+        return text.charAt(text.length() - 1) == '-';
+    }
+
+    /**
+     * Label expression operators: {@code |}, {@code &}, {@code !} and the {@code %} wildcard, possibly
+     * lexed together as in {@code &!}.
+     */
+    private static boolean isLabelOperator(@NotNull CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if ("|&!%".indexOf(text.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Start of name {@code index}, relative to the statement start.
+     */
+    int start(int index) {
+        return starts[index];
+    }
+
+    int end(int index) {
+        return ends[index];
+    }
+
+    @NotNull Role role(int index) {
+        return ROLES[roles[index]];
+    }
+
+    /**
+     * Returns true when at least one name has {@code role}.
+     */
+    boolean contains(@NotNull Role role) {
+        for (int i = 0; i < size; i++) {
+            if (ROLES[roles[i]] == role) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the index of the name declaring variable {@code index}, which is {@code index} itself for a
+     * declaration, or -1 when the name is not a variable.
+     */
+    int declaration(int index) {
+        return declarations[index];
+    }
+
+    /**
+     * Returns the index of the name containing the relative {@code offset}, or -1.
+     */
+    int indexAt(int offset) {
+        int index = indexAtOrAfter(offset + 1) - 1;
+        return index >= 0 && offset < ends[index] ? index : -1;
+    }
+
+    /**
+     * Returns the index of the first name starting at or after the relative {@code offset}; {@link #size()}
+     * if none.
+     */
+    int indexAtOrAfter(int offset) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static final class Builder {
+        private final int base;
+        private int[] starts;
+        private int[] ends;
+        private byte[] roles;
+        private int[] tokenIndices;
+        private int size;
+
+        private Builder(int base, int capacity) {
+            this.base = base;
+            starts = new int[capacity];
+            ends = new int[capacity];
+            roles = new byte[capacity];
+            tokenIndices = new int[capacity];
+        }
+
+        /**
+         * Records the role of a token; a token recorded last may be re-classified, as map keys are only
+         * recognized at the following colon.
+         */
+        private void set(@NotNull CypherTokens tokens, int index, @NotNull Role role) {
+            int start = tokens.start(index) - base;
+            if (size > 0 && starts[size - 1] == start) {
+                roles[size - 1] = (byte) role.ordinal();
+                return;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                roles = Arrays.copyOf(roles, size * 2);
+                tokenIndices = Arrays.copyOf(tokenIndices, size * 2);
+            }
+            tokenIndices[size] = index;
+            starts[size] = start;
+            ends[size] = tokens.end(index) - base;
+            roles[size] = (byte) role.ordinal();
+            size++;
+        }
+
+        private @NotNull CypherSemanticRoles build(@NotNull CypherTokens tokens) {
+            if (size == 0) {
+                return EMPTY;
+            }
+            boolean[] variables = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                variables[i] = roles[i] == Role.VARIABLE.ordinal();
+            }
+            int[] declarations = CypherVariableScopes.resolve(tokens, tokenIndices, variables, size);
+            return new CypherSemanticRoles(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+                    Arrays.copyOf(roles, size), declarations, size);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.impl.light.LightElement;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Light element standing for a bundled function or procedure, so the documentation popup can describe
+ * catalog entries that have no declaration in the project.
+ */
+final class CypherSignatureElement extends LightElement {
+    private final CypherSignatureStore.Signature signature;
+
+    CypherSignatureElement(@NotNull PsiManager manager, @NotNull CypherSignatureStore.Signature signature) {
+        super(manager, CypherLanguage.INSTANCE);
+        this.signature = signature;
+    }
+
+    @NotNull CypherSignatureStore.Signature getSignature() {
+        return signature;
+    }
+
+    @Override
+    public String getText() {
+        return signature.name();
+    }
+
+    @Override
+    public String toString() {
+        return "CypherSignature:" + signature.name();
+    }
+}
@@ -0,0 +1,267 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Read-only catalog of built-in function and procedure signatures (Cypher built-ins, APOC, GDS) stored in
+ * a compact binary resource.
+ *
+ * <p>Layout: magic, version, entry count, then a name index sorted case-insensitively (name, kind and
+ * payload offset per entry), followed by the payloads (arguments, return type or yield columns and
+ * documentation). Opening a store decodes only the name index; payloads are decoded on demand the first
+ * time a signature is requested. The bundled store is itself loaded on first use, so the plugin pays
+ * nothing at startup.
+ */
+public final class CypherSignatureStore {
+    static final String BUNDLED_RESOURCE = "/cypher/signatures.bin";
+
+    private static final int MAGIC = 0x43595347; // "CYSG"
+    private static final short VERSION = 1;
+
+    public enum Kind {
+        FUNCTION,
+        PROCEDURE
+    }
+
+    public record Argument(@NotNull String name, @NotNull String type, @Nullable String defaultValue) {
+    }
+
+    public record Column(@NotNull String name, @NotNull String type) {
+    }
+
+    /**
+     * Handle to a catalog entry whose signature has not necessarily been decoded yet; used as the lookup
+     * object of completion items so documentation can be fetched on demand.
+     */
+    public record Entry(@NotNull CypherSignatureStore store, int index) {
+        public @NotNull String name() {
+            return store.name(index);
+        }
+
+        public @NotNull Signature signature() {
+            return store.signature(index);
+        }
+    }
+
+    public record Signature(@NotNull String name,
+                            @NotNull Kind kind,
+                            @NotNull List<Argument> arguments,
+                            @Nullable String returnType,
+                            @NotNull List<Column> yields,
+                            @NotNull String description) {
+        /**
+         * Renders the argument list as Neo4j prints it, e.g. {@code (input :: STRING, n = 1 :: INTEGER)}.
+         */
+        public @NotNull String parametersText() {
+            StringBuilder text = new StringBuilder("(");
+            for (int i = 0; i < arguments.size(); i++) {
+                Argument argument = arguments.get(i);
+                if (i > 0) {
+                    text.append(", ");
+                }
+                text.append(argument.name());
+                if (argument.defaultValue() != null) {
+                    text.append(" = ").append(argument.defaultValue());
+                }
+                text.append(" :: ").append(argument.type());
+            }
+            return text.append(')').toString();
+        }
+    }
+
+    private final byte[] data;
+    private final String[] names;
+    private final Kind[] kinds;
+    private final int[] payloadOffsets;
+    private final AtomicReferenceArray<Signature> decoded;
+
+    private CypherSignatureStore(byte[] data, String[] names, Kind[] kinds, int[] payloadOffsets) {
+        this.data = data;
+        this.names = names;
+        this.kinds = kinds;
+        this.payloadOffsets = payloadOffsets;
+        this.decoded = new AtomicReferenceArray<>(names.length);
+    }
+
+    /**
+     * Returns the catalog bundled with the plugin, loading its name index on first call.
+     */
+    public static @NotNull CypherSignatureStore bundled() {
+        return BundledHolder.INSTANCE;
+    }
+
+    private static final class BundledHolder {
+        private static final CypherSignatureStore INSTANCE = loadBundled();
+
+        private static CypherSignatureStore loadBundled() {
+            try (InputStream stream = CypherSignatureStore.class.getResourceAsStream(BUNDLED_RESOURCE)) {
+                if (stream == null) {
+                    return read(new byte[0]);
+                }
+                return read(stream.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Decodes the name index of a serialized store. An empty array yields an empty store.
+     */
+    static @NotNull CypherSignatureStore read(byte @NotNull [] data) throws IOException {
+        if (data.length == 0) {
+            return new CypherSignatureStore(data, new String[0], new Kind[0], new int[0]);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+            throw new IOException("Unsupported signature catalog format");
+        }
+        int count = in.readInt();
+        String[] names = new String[count];
+        Kind[] kinds = new Kind[count];
+        int[] offsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = in.readUTF();
+            kinds[i] = Kind.values()[in.readByte()];
+            offsets[i] = in.readInt();
+        }
+        int payloadStart = data.length - in.available();
+        for (int i = 0; i < count; i++) {
+            offsets[i] += payloadStart;
+        }
+        return new CypherSignatureStore(data, names, kinds, offsets);
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public @NotNull String name(int index) {
+        return names[index];
+    }
+
+    public @NotNull Kind kind(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * Finds an entry by name, ignoring case, or returns {@code -1}.
+     */
+    public int indexOf(@NotNull String name) {
+        int low = 0;
+        int high = names.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = names[mid].compareToIgnoreCase(name);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the full signature for an entry, decoding its payload the first time it is requested.
+     */
+    public @NotNull Signature signature(int index) {
+        Signature signature = decoded.get(index);
+        if (signature == null) {
+            signature = decode(index);
+            decoded.compareAndSet(index, null, signature);
+        }
+        return signature;
+    }
+
+    public @Nullable Signature find(@NotNull String name) {
+        int index = indexOf(name);
+        return index < 0 ? null : signature(index);
+    }
+
+    private @NotNull Signature decode(int index) {
+        try {
+            DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(data, payloadOffsets[index], data.length - payloadOffsets[index]));
+            int argumentCount = in.readUnsignedShort();
+            List<Argument> arguments = new ArrayList<>(argumentCount);
+            for (int i = 0; i < argumentCount; i++) {
+                String name = in.readUTF();
+                String type = in.readUTF();
+                String defaultValue = in.readUTF();
+                arguments.add(new Argument(name, type, defaultValue.isEmpty() ? null : defaultValue));
+            }
+            String returnType = in.readUTF();
+            int yieldCount = in.readUnsignedShort();
+            List<Column> yields = new ArrayList<>(yieldCount);
+            for (int i = 0; i < yieldCount; i++) {
+                yields.add(new Column(in.readUTF(), in.readUTF()));
+            }
+            String description = in.readUTF();
+            return new Signature(names[index], kinds[index], List.copyOf(arguments),
+                    returnType.isEmpty() ? null : returnType, List.copyOf(yields), description);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Serializes signatures in the binary layout read by {@link #read(byte[])}. Used by the catalog
+     * generator; entries are sorted by name before writing.
+     */
+    static void write(@NotNull List<Signature> signatures, @NotNull OutputStream output) throws IOException {
+        List<Signature> sorted = new ArrayList<>(signatures);
+        sorted.sort(Comparator.comparing(signature -> signature.name().toLowerCase(Locale.ENGLISH)));
+
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        int[] offsets = new int[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            Signature signature = sorted.get(i);
+            offsets[i] = payload.size();
+            payload.writeShort(signature.arguments().size());
+            for (Argument argument : signature.arguments()) {
+                payload.writeUTF(argument.name());
+                payload.writeUTF(argument.type());
+                payload.writeUTF(argument.defaultValue() == null ? "" : argument.defaultValue());
+            }
+            payload.writeUTF(signature.returnType() == null ? "" : signature.returnType());
+            payload.writeShort(signature.yields().size());
+            for (Column column : signature.yields()) {
+                payload.writeUTF(column.name());
+                payload.writeUTF(column.type());
+            }
+            payload.writeUTF(signature.description());
+        }
+        payload.flush();
+
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            out.writeUTF(sorted.get(i).name());
+            out.writeByte(sorted.get(i).kind().ordinal());
+            out.writeInt(offsets[i]);
+        }
+        payloadBytes.writeTo(out);
+        out.flush();
+    }
+}
@@ -0,0 +1,139 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.ide.structureView.StructureViewTreeElement;
+import com.intellij.ide.util.treeView.smartTree.TreeElement;
+import com.intellij.navigation.ItemPresentation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.Icon;
+import java.util.Objects;
+
+/**
+ * Structure view node for a contiguous range of statements: the file itself, or a group such as
+ * "Statements 1001-2000". A node never has more than {@link #MAX_CHILDREN} children; larger ranges are
+ * split into nested groups, and children are created only when the node is expanded, so the view stays
+ * usable with hundreds of thousands of statements.
+ */
+final class CypherStatementRangeTreeElement implements StructureViewTreeElement, ItemPresentation {
+    static final int MAX_CHILDREN = 1000;
+
+    private final CypherPsiFile file;
+    private final CypherStatementTable statements;
+    private final int from;
+    private final int to;
+
+    private CypherStatementRangeTreeElement(@Nullable CypherPsiFile file, @Nullable CypherStatementTable statements, int from, int to) {
+        this.file = file;
+        this.statements = statements;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * The root node; its children are computed from the file's current statement table.
+     */
+    static @NotNull CypherStatementRangeTreeElement root(@NotNull CypherPsiFile file) {
+        return new CypherStatementRangeTreeElement(file, null, 0, -1);
+    }
+
+    private boolean isRoot() {
+        return statements == null;
+    }
+
+    @Override
+    public @NotNull Object getValue() {
+        return isRoot() ? file : this;
+    }
+
+    @Override
+    public @NotNull ItemPresentation getPresentation() {
+        return this;
+    }
+
+    @Override
+    public TreeElement @NotNull [] getChildren() {
+        CypherStatementTable table = statements;
+        int start = from;
+        int end = to;
+        if (isRoot()) {
+            if (!file.isValid()) {
+                return EMPTY_ARRAY;
+            }
+            table = file.getStatementTable();
+            end = table.statementCount();
+            if (end > 0 && isBlank(table, end - 1)) {
+                end--;
+            }
+        }
+
+        int count = end - start;
+        if (count <= MAX_CHILDREN) {
+            TreeElement[] children = new TreeElement[Math.max(0, count)];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = new CypherStatementTreeElement(file, table, start + i);
+            }
+            return children;
+        }
+
+        long span = MAX_CHILDREN;
+        while ((count + span - 1) / span > MAX_CHILDREN) {
+            span *= MAX_CHILDREN;
+        }
+        int groups = (int) ((count + span - 1) / span);
+        TreeElement[] children = new TreeElement[groups];
+        for (int i = 0; i < groups; i++) {
+            int groupStart = (int) (start + i * span);
+            int groupEnd = (int) Math.min(end, groupStart + span);
+            children[i] = new CypherStatementRangeTreeElement(file, table, groupStart, groupEnd);
+        }
+        return children;
+    }
+
+    /**
+     * Text after the last semicolon forms a statement of its own; hide it when it holds no tokens.
+     */
+    private static boolean isBlank(@NotNull CypherStatementTable table, int index) {
+        int end = table.endOf(index);
+        return CypherStatementSummary.firstTokenOffset(table.text(), table.startOf(index), end) == end;
+    }
+
+    @Override
+    public @NotNull String getPresentableText() {
+        return isRoot() ? file.getName() : "Statements " + (from + 1) + "-" + to;
+    }
+
+    @Override
+    public @Nullable Icon getIcon(boolean unused) {
+        return isRoot() ? file.getIcon(0) : AllIcons.Nodes.Folder;
+    }
+
+    @Override
+    public void navigate(boolean requestFocus) {
+        if (!isRoot()) {
+            new CypherStatementTreeElement(file, statements, from).navigate(requestFocus);
+        }
+    }
+
+    @Override
+    public boolean canNavigate() {
+        return !isRoot();
+    }
+
+    @Override
+    public boolean canNavigateToSource() {
+        return canNavigate();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CypherStatementRangeTreeElement other
+                && Objects.equals(file, other.file) && from == other.from && to == other.to && isRoot() == other.isRoot();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(file, from, to);
+    }
+}
@@ -0,0 +1,209 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * Short, human-readable descriptions of statements for the structure view and statement navigation,
+ * such as {@code MERGE (:Person)} or {@code MATCH (:Person)-[:KNOWS]->(f)}: the leading clause keywords
+ * followed by the first pattern with variables and properties dropped where labels exist, or the name
+ * of the called procedure. Only the first {@value #MAX_TOKENS} tokens of a statement are lexed, so
+ * describing a statement costs the same regardless of its length.
+ */
+final class CypherStatementSummary {
+    static final int MAX_TOKENS = 64;
+    private static final int MAX_CLAUSE_KEYWORDS = 3;
+    private static final int MAX_LENGTH = 80;
+
+    private CypherStatementSummary() {
+    }
+
+    /**
+     * Returns the offset of the first token in {@code [start, end)} that is neither whitespace nor a comment,
+     * or {@code end} when the range is blank.
+     */
+    static int firstTokenOffset(@NotNull CharSequence text, int start, int end) {
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(text, start, end, 0);
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            if (type != TokenType.WHITE_SPACE && type != CypherTokenTypes.COMMENT) {
+                return lexer.getTokenStart();
+            }
+            lexer.advance();
+        }
+        return end;
+    }
+
+    static @NotNull String describe(@NotNull CharSequence text, int start, int end) {
+        Tokens tokens = new Tokens(text, start, end);
+        if (!tokens.valid()) {
+            return "(empty)";
+        }
+
+        StringBuilder summary = new StringBuilder();
+        String keyword = null;
+        int keywords = 0;
+        while (tokens.valid() && tokens.type() == CypherTokenTypes.KEYWORD && keywords < MAX_CLAUSE_KEYWORDS) {
+            if (keywords > 0) {
+                summary.append(' ');
+            }
+            keyword = tokens.text().toString().toUpperCase(Locale.ENGLISH);
+            summary.append(keyword);
+            keywords++;
+            tokens.advance();
+        }
+        if (keywords == 0) {
+            summary.append(tokens.text());
+            tokens.advance();
+        }
+
+        if ("CALL".equals(keyword) && tokens.valid() && tokens.type() == CypherTokenTypes.IDENTIFIER) {
+            summary.append(' ');
+            appendQualifiedName(tokens, summary);
+        } else {
+            while (tokens.valid() && tokens.type() != CypherTokenTypes.PAREN_OPEN && tokens.type() != CypherTokenTypes.SEMICOLON) {
+                tokens.advance();
+            }
+            if (tokens.valid() && tokens.type() == CypherTokenTypes.PAREN_OPEN) {
+                summary.append(' ');
+                appendPath(tokens, summary);
+            }
+        }
+        if (summary.length() > MAX_LENGTH) {
+            summary.setLength(MAX_LENGTH - 3);
+            summary.append("...");
+        }
+        return summary.toString();
+    }
+
+    private static void appendQualifiedName(@NotNull Tokens tokens, @NotNull StringBuilder summary) {
+        while (tokens.valid() && (tokens.type() == CypherTokenTypes.IDENTIFIER || tokens.type() == CypherTokenTypes.KEYWORD
+                || tokens.type() == CypherTokenTypes.DOT)) {
+            summary.append(tokens.text());
+            tokens.advance();
+        }
+    }
+
+    /**
+     * Appends the path starting at the current {@code (}: nodes and relationships alternate while they are
+     * joined by dash or arrow operators.
+     */
+    private static void appendPath(@NotNull Tokens tokens, @NotNull StringBuilder summary) {
+        while (tokens.valid() && tokens.type() == CypherTokenTypes.PAREN_OPEN) {
+            appendElement(tokens, summary, CypherTokenTypes.PAREN_OPEN, CypherTokenTypes.PAREN_CLOSE, "(", ")");
+            if (!isConnector(tokens)) {
+                return;
+            }
+            summary.append(tokens.text());
+            tokens.advance();
+            if (tokens.valid() && tokens.type() == CypherTokenTypes.BRACKET_OPEN) {
+                appendElement(tokens, summary, CypherTokenTypes.BRACKET_OPEN, CypherTokenTypes.BRACKET_CLOSE, "[", "]");
+                if (!isConnector(tokens)) {
+                    return;
+                }
+                summary.append(tokens.text());
+                tokens.advance();
+            }
+        }
+    }
+
+    /**
+     * Appends a node or relationship as its labels or types ({@code (:Person)}, {@code [:KNOWS]}), or as its
+     * variable when it has none ({@code (n)}).
+     */
+    private static void appendElement(@NotNull Tokens tokens, @NotNull StringBuilder summary,
+                                      @NotNull IElementType open, @NotNull IElementType close,
+                                      @NotNull String openText, @NotNull String closeText) {
+        tokens.advance();
+        StringBuilder labels = new StringBuilder();
+        String variable = "";
+        boolean afterSeparator = false;
+        int depth = 0;
+        while (tokens.valid()) {
+            IElementType type = tokens.type();
+            if (type == close && depth == 0) {
+                tokens.advance();
+                break;
+            }
+            if (type == open || type == CypherTokenTypes.BRACE_OPEN) {
+                depth++;
+            } else if (type == close || type == CypherTokenTypes.BRACE_CLOSE) {
+                depth--;
+            } else if (depth == 0) {
+                if (type == CypherTokenTypes.COLON) {
+                    afterSeparator = true;
+                } else if (type == CypherTokenTypes.IDENTIFIER || type == CypherTokenTypes.KEYWORD) {
+                    if (afterSeparator) {
+                        labels.append(labels.length() == 0 ? ":" : "|").append(tokens.text());
+                    } else if (labels.length() == 0 && variable.isEmpty()) {
+                        variable = tokens.text().toString();
+                    }
+                    afterSeparator = false;
+                } else if (type == CypherTokenTypes.OPERATOR && "|&".contains(tokens.text())) {
+                    afterSeparator = true;
+                } else if (type == CypherTokenTypes.OPERATOR && tokens.text().charAt(0) == '*') {
+                    labels.append('*');
+                }
+            }
+            tokens.advance();
+        }
+        summary.append(openText).append(labels.length() > 0 ? labels : variable).append(closeText);
+    }
+
+    private static boolean isConnector(@NotNull Tokens tokens) {
+        if (!tokens.valid() || tokens.type() != CypherTokenTypes.OPERATOR) {
+            return false;
+        }
+        CharSequence text = tokens.text();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '-' && c != '<' && c != '>') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cursor over the significant tokens of a range, limited to {@value #MAX_TOKENS} tokens.
+     */
+    private static final class Tokens {
+        private final CharSequence text;
+        private final CypherLexer lexer = new CypherLexer();
+        private int remaining = MAX_TOKENS;
+
+        private Tokens(@NotNull CharSequence text, int start, int end) {
+            this.text = text;
+            lexer.start(text, start, end, 0);
+            skipInsignificant();
+        }
+
+        private boolean valid() {
+            return remaining > 0 && lexer.getTokenType() != null;
+        }
+
+        private IElementType type() {
+            return lexer.getTokenType();
+        }
+
+        private @NotNull CharSequence text() {
+            return text.subSequence(lexer.getTokenStart(), lexer.getTokenEnd());
+        }
+
+        private void advance() {
+            remaining--;
+            lexer.advance();
+            skipInsignificant();
+        }
+
+        private void skipInsignificant() {
+            while (lexer.getTokenType() == TokenType.WHITE_SPACE || lexer.getTokenType() == CypherTokenTypes.COMMENT) {
+                lexer.advance();
+            }
+        }
+    }
+}
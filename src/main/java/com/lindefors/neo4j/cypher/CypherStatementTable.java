@@ -0,0 +1,238 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Immutable table of the top-level statements of a Cypher text, stored as the sorted offsets just past
+ * each terminating semicolon. Statement {@code i} spans from the previous boundary (or 0) to boundary
+ * {@code i} (or the end of the text), including surrounding whitespace and comments; text after the last
+ * semicolon forms a final statement that may be blank. Boundaries come from {@link CypherLexer} tokens,
+ * so semicolons inside strings and comments are ignored.
+ *
+ * <p>{@link #update(CharSequence, Edit)} derives the table for an edited text by re-lexing only from the
+ * statement containing the edit until the lexer re-synchronizes with an old boundary after it; the edit
+ * comes from the document events recorded by {@link CypherDocumentEdits}. A block comment that the lexer's
+ * error recovery ended at a line break can be closed by an edit further down, so the table also records
+ * where such open comments start and re-lexes from the first one that may reach the edit.
+ */
+public final class CypherStatementTable {
+    private final CharSequence text;
+    private final int[] boundaries;
+    private final int[] openComments;
+
+    private CypherStatementTable(@NotNull CharSequence text, int @NotNull [] boundaries, int @NotNull [] openComments) {
+        this.text = text;
+        this.boundaries = boundaries;
+        this.openComments = openComments;
+    }
+
+    public static @NotNull CypherStatementTable build(@NotNull CharSequence text) {
+        Boundaries result = new Boundaries(Math.max(4, text.length() / 256));
+        Boundaries openComments = new Boundaries(4);
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(text, 0, text.length(), 0);
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            if (type == CypherTokenTypes.SEMICOLON) {
+                result.add(lexer.getTokenEnd());
+            } else if (type == CypherTokenTypes.COMMENT && isOpenComment(text, lexer.getTokenStart(), lexer.getTokenEnd())) {
+                openComments.add(lexer.getTokenStart());
+            }
+            lexer.advance();
+        }
+        return new CypherStatementTable(text, result.toArray(), openComments.toArray());
+    }
+
+    /**
+     * The replacement of {@code oldLength} characters at {@code offset} by {@code newLength} characters, as
+     * reported by a document event; {@link #then} folds consecutive edits into one.
+     */
+    public record Edit(int offset, int oldLength, int newLength) {
+        /**
+         * Returns the single edit that has the effect of this edit followed by {@code next}, whose offset
+         * refers to the text after this edit.
+         */
+        public @NotNull Edit then(@NotNull Edit next) {
+            int start = Math.min(offset, next.offset);
+            int end = offset + newLength;
+            int nextOldEnd = next.offset + next.oldLength;
+            if (end >= nextOldEnd) {
+                end += next.newLength - next.oldLength;
+            } else if (end > next.offset) {
+                end = next.offset + next.newLength;
+            }
+            end = Math.max(end, next.offset + next.newLength);
+            int delta = newLength - oldLength + next.newLength - next.oldLength;
+            return new Edit(start, end - delta - start, end - start);
+        }
+    }
+
+    /**
+     * Returns the table for {@code newText} when the edit that produced it is not known; the edited region
+     * is found by comparing the texts, which takes time linear in their length.
+     */
+    public @NotNull CypherStatementTable update(@NotNull CharSequence newText) {
+        if (newText == text) {
+            return this;
+        }
+        int oldLength = text.length();
+        int newLength = newText.length();
+        int prefix = 0;
+        int maxPrefix = Math.min(oldLength, newLength);
+        while (prefix < maxPrefix && text.charAt(prefix) == newText.charAt(prefix)) {
+            prefix++;
+        }
+        if (prefix == oldLength && prefix == newLength) {
+            return new CypherStatementTable(newText, boundaries, openComments);
+        }
+        int suffix = 0;
+        int maxSuffix = maxPrefix - prefix;
+        while (suffix < maxSuffix && text.charAt(oldLength - 1 - suffix) == newText.charAt(newLength - 1 - suffix)) {
+            suffix++;
+        }
+        return update(newText, new Edit(prefix, oldLength - suffix - prefix, newLength - suffix - prefix));
+    }
+
+    /**
+     * Returns the table for {@code newText}, the text of this table changed by {@code edit}, reusing the
+     * boundaries outside the edited region. Only the statements from the one containing the edit up to the
+     * first old boundary after it are re-lexed.
+     */
+    public @NotNull CypherStatementTable update(@NotNull CharSequence newText, @NotNull Edit edit) {
+        int prefix = edit.offset();
+        int oldChangeEnd = prefix + edit.oldLength();
+        int newChangeEnd = prefix + edit.newLength();
+        int delta = newChangeEnd - oldChangeEnd;
+        int newLength = newText.length();
+
+        int relexFrom = prefix;
+        int reaching = lowerBound(openComments, prefix - CypherLexer.BLOCK_COMMENT_LOOKAHEAD);
+        if (reaching < openComments.length && openComments[reaching] < prefix) {
+            relexFrom = openComments[reaching];
+        }
+        int kept = upperBound(boundaries, relexFrom);
+        Boundaries result = new Boundaries(boundaries.length + 4);
+        for (int i = 0; i < kept; i++) {
+            result.add(boundaries[i]);
+        }
+        int relexStart = kept == 0 ? 0 : boundaries[kept - 1];
+        int keptComments = lowerBound(openComments, relexStart);
+        Boundaries comments = new Boundaries(openComments.length + 4);
+        for (int i = 0; i < keptComments; i++) {
+            comments.add(openComments[i]);
+        }
+
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(newText, relexStart, newLength, 0);
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            if (type == CypherTokenTypes.SEMICOLON) {
+                int boundary = lexer.getTokenEnd();
+                result.add(boundary);
+                if (lexer.getTokenStart() >= newChangeEnd) {
+                    int old = Arrays.binarySearch(boundaries, kept, boundaries.length, boundary - delta);
+                    if (old >= 0) {
+                        for (int i = old + 1; i < boundaries.length; i++) {
+                            result.add(boundaries[i] + delta);
+                        }
+                        for (int i = lowerBound(openComments, boundary - delta); i < openComments.length; i++) {
+                            comments.add(openComments[i] + delta);
+                        }
+                        return new CypherStatementTable(newText, result.toArray(), comments.toArray());
+                    }
+                }
+            } else if (type == CypherTokenTypes.COMMENT && isOpenComment(newText, lexer.getTokenStart(), lexer.getTokenEnd())) {
+                comments.add(lexer.getTokenStart());
+            }
+            lexer.advance();
+        }
+        return new CypherStatementTable(newText, result.toArray(), comments.toArray());
+    }
+
+    /**
+     * The text this table describes.
+     */
+    public @NotNull CharSequence text() {
+        return text;
+    }
+
+    public int statementCount() {
+        return boundaries.length + 1;
+    }
+
+    /**
+     * Returns the index of the statement containing {@code offset} in O(log n). An offset directly after a
+     * semicolon belongs to the next statement.
+     */
+    public int indexAt(int offset) {
+        return upperBound(boundaries, offset);
+    }
+
+    public int startOf(int index) {
+        return index == 0 ? 0 : boundaries[index - 1];
+    }
+
+    public int endOf(int index) {
+        return index < boundaries.length ? boundaries[index] : text.length();
+    }
+
+    public @NotNull TextRange rangeOf(int index) {
+        return new TextRange(startOf(index), endOf(index));
+    }
+
+    /**
+     * Returns the number of boundaries less than or equal to {@code offset}.
+     */
+    private static int upperBound(int @NotNull [] sorted, int offset) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the number of values less than {@code offset}.
+     */
+    private static int lowerBound(int @NotNull [] sorted, int offset) {
+        return upperBound(sorted, offset - 1);
+    }
+
+    /**
+     * Returns true for a block comment that the lexer ended without its closing delimiter.
+     */
+    private static boolean isOpenComment(@NotNull CharSequence text, int start, int end) {
+        return text.charAt(start) == '/' && text.charAt(start + 1) == '*'
+                && (end - start < 4 || text.charAt(end - 2) != '*' || text.charAt(end - 1) != '/');
+    }
+
+    private static final class Boundaries {
+        private int[] values;
+        private int size;
+
+        private Boundaries(int capacity) {
+            values = new int[capacity];
+        }
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(4, size * 2));
+            }
+            values[size++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
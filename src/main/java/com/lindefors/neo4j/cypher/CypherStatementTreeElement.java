@@ -0,0 +1,93 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.ide.structureView.StructureViewTreeElement;
+import com.intellij.ide.util.treeView.smartTree.TreeElement;
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.Icon;
+import java.util.Objects;
+
+/**
+ * Structure view leaf for one statement, labelled by {@link CypherStatementSummary}. The label is computed
+ * when the node is first rendered, from the statement table snapshot the node was created with.
+ */
+final class CypherStatementTreeElement implements StructureViewTreeElement, ItemPresentation {
+    private final CypherPsiFile file;
+    private final CypherStatementTable statements;
+    private final int index;
+    private String text;
+
+    CypherStatementTreeElement(@NotNull CypherPsiFile file, @NotNull CypherStatementTable statements, int index) {
+        this.file = file;
+        this.statements = statements;
+        this.index = index;
+    }
+
+    @Override
+    public @NotNull Object getValue() {
+        return this;
+    }
+
+    @Override
+    public @NotNull ItemPresentation getPresentation() {
+        return this;
+    }
+
+    @Override
+    public TreeElement @NotNull [] getChildren() {
+        return EMPTY_ARRAY;
+    }
+
+    @Override
+    public @NotNull String getPresentableText() {
+        if (text == null) {
+            text = CypherStatementSummary.describe(statements.text(), statements.startOf(index), statements.endOf(index));
+        }
+        return text;
+    }
+
+    @Override
+    public @NotNull String getLocationString() {
+        return "#" + (index + 1);
+    }
+
+    @Override
+    public @Nullable Icon getIcon(boolean unused) {
+        return AllIcons.Nodes.Tag;
+    }
+
+    @Override
+    public void navigate(boolean requestFocus) {
+        VirtualFile virtualFile = file.getVirtualFile();
+        if (virtualFile == null) {
+            return;
+        }
+        int offset = CypherStatementSummary.firstTokenOffset(statements.text(), statements.startOf(index), statements.endOf(index));
+        new OpenFileDescriptor(file.getProject(), virtualFile, offset).navigate(requestFocus);
+    }
+
+    @Override
+    public boolean canNavigate() {
+        return file.getVirtualFile() != null;
+    }
+
+    @Override
+    public boolean canNavigateToSource() {
+        return canNavigate();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CypherStatementTreeElement other && file.equals(other.file) && index == other.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(file, index);
+    }
+}
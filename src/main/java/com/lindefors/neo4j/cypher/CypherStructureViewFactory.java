@@ -0,0 +1,33 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.ide.structureView.StructureViewBuilder;
+import com.intellij.ide.structureView.StructureViewModel;
+import com.intellij.ide.structureView.TreeBasedStructureViewBuilder;
+import com.intellij.lang.PsiStructureViewFactory;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Structure view listing the top-level statements of a Cypher file.
+ */
+public class CypherStructureViewFactory implements PsiStructureViewFactory {
+    @Override
+    public @Nullable StructureViewBuilder getStructureViewBuilder(@NotNull PsiFile psiFile) {
+        if (!(psiFile instanceof CypherPsiFile cypherFile)) {
+            return null;
+        }
+        return new TreeBasedStructureViewBuilder() {
+            @Override
+            public @NotNull StructureViewModel createStructureViewModel(@Nullable Editor editor) {
+                return new CypherStructureViewModel(cypherFile, editor);
+            }
+
+            @Override
+            public boolean isRootNodeShown() {
+                return false;
+            }
+        };
+    }
+}
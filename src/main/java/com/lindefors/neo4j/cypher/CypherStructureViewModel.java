@@ -0,0 +1,38 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.ide.structureView.StructureViewModel;
+import com.intellij.ide.structureView.StructureViewModelBase;
+import com.intellij.ide.structureView.StructureViewTreeElement;
+import com.intellij.openapi.editor.Editor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Model for the Cypher structure view. The tree is backed by {@link CypherStatementTable} rather than PSI:
+ * tree elements are created only for expanded nodes (see {@link CypherStatementRangeTreeElement}).
+ */
+public class CypherStructureViewModel extends StructureViewModelBase implements StructureViewModel.ElementInfoProvider {
+    public CypherStructureViewModel(@NotNull CypherPsiFile file, @Nullable Editor editor) {
+        super(file, editor, CypherStatementRangeTreeElement.root(file));
+    }
+
+    /**
+     * Selecting the statement at the caret would make the tree search, and so materialize, every group on
+     * the way; with hundreds of thousands of statements that defeats the lazy tree, so autoscroll from
+     * source is not supported.
+     */
+    @Override
+    public @Nullable Object getCurrentEditorElement() {
+        return null;
+    }
+
+    @Override
+    public boolean isAlwaysShowsPlus(StructureViewTreeElement element) {
+        return element instanceof CypherStatementRangeTreeElement;
+    }
+
+    @Override
+    public boolean isAlwaysLeaf(StructureViewTreeElement element) {
+        return element instanceof CypherStatementTreeElement;
+    }
+}
@@ -0,0 +1,75 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Project index from symbol key ({@code label:Person}, {@code type:KNOWS}, {@code key:name}; see
+ * {@link CypherSymbols}) to the offsets of its occurrences in each Cypher file, stored like
+ * {@link CypherParameterIndex}. Serves Find Usages and Rename of labels, relationship types and property
+ * keys without a text search.
+ */
+public class CypherSymbolIndex extends FileBasedIndexExtension<String, int[]> {
+    public static final ID<String, int[]> NAME = ID.create("com.lindefors.neo4j.cypher.symbols");
+
+    @Override
+    public @NotNull ID<String, int[]> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, int[], FileContent> getIndexer() {
+        return inputData -> CypherSymbols.collectOffsets(inputData.getContentAsText());
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<int[]> getValueExternalizer() {
+        return CypherParameterIndex.OFFSETS_EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public @NotNull FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(CypherFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Collects the files and offsets where the symbol occurs. The result is materialized before any PSI is
+     * touched because index value processors must not re-enter the index.
+     */
+    public static @NotNull Map<VirtualFile, int[]> findOccurrences(@NotNull String key, @NotNull GlobalSearchScope scope) {
+        Map<VirtualFile, int[]> occurrences = new LinkedHashMap<>();
+        FileBasedIndex.getInstance().processValues(NAME, key, null, (file, offsets) -> {
+            occurrences.put(file, offsets);
+            return true;
+        }, scope);
+        return occurrences;
+    }
+}
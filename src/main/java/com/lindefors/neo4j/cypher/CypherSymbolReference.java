@@ -0,0 +1,36 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReferenceBase;
+import com.intellij.util.IncorrectOperationException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Self-resolving reference that ties occurrences of a label, relationship type or property key together
+ * by symbol key.
+ */
+public class CypherSymbolReference extends PsiReferenceBase<CypherIdentifierElement> {
+    CypherSymbolReference(@NotNull CypherIdentifierElement element) {
+        super(element, TextRange.from(0, element.getTextLength()));
+    }
+
+    @Override
+    public @Nullable PsiElement resolve() {
+        return getElement();
+    }
+
+    @Override
+    public boolean isReferenceTo(@NotNull PsiElement element) {
+        return element instanceof CypherIdentifierElement identifier
+                && Objects.equals(identifier.symbolKey(), getElement().symbolKey());
+    }
+
+    @Override
+    public PsiElement handleElementRename(@NotNull String newElementName) throws IncorrectOperationException {
+        return getElement().setName(newElementName);
+    }
+}
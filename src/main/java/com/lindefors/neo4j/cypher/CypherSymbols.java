@@ -0,0 +1,108 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Project-wide Cypher symbols: labels, relationship types and property keys. A symbol is identified by a
+ * key combining its role and name, e.g. {@code label:Person}, so a label and a property key with the same
+ * name are distinct symbols. Occurrences are found from {@link CypherSemanticRoles}.
+ */
+public final class CypherSymbols {
+    private static final String LABEL = "label:";
+    private static final String RELATIONSHIP_TYPE = "type:";
+    private static final String PROPERTY_KEY = "key:";
+
+    private CypherSymbols() {
+    }
+
+    /**
+     * Returns the symbol key for a name with the given role, or {@code null} for roles that are not
+     * project-wide symbols (variables are scoped to their statement; functions and procedures are
+     * defined outside the project).
+     */
+    static @Nullable String key(@NotNull CypherSemanticRoles.Role role, @NotNull String name) {
+        return switch (role) {
+            case LABEL -> LABEL + name;
+            case RELATIONSHIP_TYPE -> RELATIONSHIP_TYPE + name;
+            case PROPERTY_KEY -> PROPERTY_KEY + name;
+            case VARIABLE, FUNCTION, PROCEDURE -> null;
+        };
+    }
+
+    /**
+     * Returns the kind of symbol a key names, as shown in Find Usages: {@code label}, {@code relationship type}
+     * or {@code property key}.
+     */
+    static @NotNull String typeName(@NotNull String key) {
+        if (key.startsWith(LABEL)) {
+            return "label";
+        }
+        return key.startsWith(RELATIONSHIP_TYPE) ? "relationship type" : "property key";
+    }
+
+    /**
+     * Classifies the text statement by statement and groups the start offsets of every symbol by key, in
+     * ascending order.
+     */
+    public static @NotNull Map<String, int[]> collectOffsets(@NotNull CharSequence text) {
+        CypherStatementTable statements = CypherStatementTable.build(text);
+        Offsets offsets = new Offsets();
+        for (int statement = 0; statement < statements.statementCount(); statement++) {
+            int base = statements.startOf(statement);
+            offsets.addAll(text, base, CypherSemanticRoles.classify(text, base, statements.endOf(statement)), null);
+        }
+        return offsets.toMap();
+    }
+
+    /**
+     * Returns the start offsets of symbol {@code key} in the file described by {@code cache}, reusing the
+     * cached classifications.
+     */
+    static int @NotNull [] collectOffsets(@NotNull CypherSemanticCache cache, @NotNull String key) {
+        CypherStatementTable statements = cache.statements();
+        Offsets offsets = new Offsets();
+        for (int statement = 0; statement < statements.statementCount(); statement++) {
+            offsets.addAll(statements.text(), statements.startOf(statement), cache.roles(statement), key);
+        }
+        int[] values = offsets.toMap().get(key);
+        return values == null ? new int[0] : values;
+    }
+
+    private static final class Offsets {
+        private final Map<String, int[]> offsets = new HashMap<>();
+        private final Map<String, Integer> sizes = new HashMap<>();
+
+        private void addAll(@NotNull CharSequence text, int base, @NotNull CypherSemanticRoles roles, @Nullable String onlyKey) {
+            for (int i = 0; i < roles.size(); i++) {
+                int start = base + roles.start(i);
+                String key = key(roles.role(i), CypherVariableScopes.normalize(text.subSequence(start, base + roles.end(i))));
+                if (key != null && (onlyKey == null || onlyKey.equals(key))) {
+                    add(key, start);
+                }
+            }
+        }
+
+        private void add(@NotNull String key, int offset) {
+            int size = sizes.getOrDefault(key, 0);
+            int[] values = offsets.get(key);
+            if (values == null) {
+                values = new int[4];
+            } else if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = offset;
+            offsets.put(key, values);
+            sizes.put(key, size + 1);
+        }
+
+        private @NotNull Map<String, int[]> toMap() {
+            offsets.replaceAll((key, values) -> Arrays.copyOf(values, sizes.get(key)));
+            return offsets;
+        }
+    }
+}
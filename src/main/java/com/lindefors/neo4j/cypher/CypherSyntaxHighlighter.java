@@ -12,7 +12,8 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Simple syntax highlighter that maps lexer token types to IntelliJ text attributes for Cypher.
+ * Simple syntax highlighter that maps lexer token types to IntelliJ text attributes for Cypher. The role
+ * keys (variables, labels, ...) are applied on top by {@link CypherSemanticAnnotator}.
  */
 public class CypherSyntaxHighlighter extends SyntaxHighlighterBase {
     private static final Map<IElementType, TextAttributesKey> KEYS = new HashMap<>();
@@ -40,6 +41,19 @@ public class CypherSyntaxHighlighter extends SyntaxHighlighterBase {
     public static final TextAttributesKey PARAMETER =
             TextAttributesKey.createTextAttributesKey("CYPHER_PARAMETER", DefaultLanguageHighlighterColors.INSTANCE_FIELD);
 
+    public static final TextAttributesKey VARIABLE =
+            TextAttributesKey.createTextAttributesKey("CYPHER_VARIABLE", DefaultLanguageHighlighterColors.LOCAL_VARIABLE);
+    public static final TextAttributesKey LABEL =
+            TextAttributesKey.createTextAttributesKey("CYPHER_LABEL", DefaultLanguageHighlighterColors.CLASS_NAME);
+    public static final TextAttributesKey RELATIONSHIP_TYPE =
+            TextAttributesKey.createTextAttributesKey("CYPHER_RELATIONSHIP_TYPE", DefaultLanguageHighlighterColors.INTERFACE_NAME);
+    public static final TextAttributesKey PROPERTY_KEY =
+            TextAttributesKey.createTextAttributesKey("CYPHER_PROPERTY_KEY", DefaultLanguageHighlighterColors.INSTANCE_FIELD);
+    public static final TextAttributesKey FUNCTION =
+            TextAttributesKey.createTextAttributesKey("CYPHER_FUNCTION", DefaultLanguageHighlighterColors.FUNCTION_CALL);
+    public static final TextAttributesKey PROCEDURE =
+            TextAttributesKey.createTextAttributesKey("CYPHER_PROCEDURE", DefaultLanguageHighlighterColors.STATIC_METHOD);
+
     static {
         KEYS.put(CypherTokenTypes.KEYWORD, KEYWORD);
         KEYS.put(CypherTokenTypes.IDENTIFIER, IDENTIFIER);
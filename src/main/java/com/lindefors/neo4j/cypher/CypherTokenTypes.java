@@ -57,4 +57,10 @@ public final class CypherTokenTypes {
 
     public static final IElementType OPERATOR = new IElementType("OPERATOR", CypherLanguage.INSTANCE);
     public static final IElementType PARAMETER = new IElementType("PARAMETER", CypherLanguage.INSTANCE);
+
+    /**
+     * Run of whole statements collapsed into one leaf by {@link CypherParser} in large-file mode; never
+     * produced by the lexer.
+     */
+    public static final IElementType STATEMENTS = new IElementType("STATEMENTS", CypherLanguage.INSTANCE);
 }
@@ -0,0 +1,135 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Significant tokens (no whitespace or comments) of a text range, stored in parallel arrays. Lets
+ * editor heuristics walk tokens by index without a PSI tree or per-token allocations.
+ */
+final class CypherTokens {
+    private final CharSequence text;
+    private IElementType[] types;
+    private int[] starts;
+    private int[] ends;
+    private int size;
+
+    private CypherTokens(@NotNull CharSequence text, int capacity) {
+        this.text = text;
+        this.types = new IElementType[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+    }
+
+    static @NotNull CypherTokens lex(@NotNull CharSequence text) {
+        return lex(text, 0, text.length());
+    }
+
+    static @NotNull CypherTokens lex(@NotNull CharSequence text, int startOffset, int endOffset) {
+        CypherTokens tokens = new CypherTokens(text, Math.max(16, (endOffset - startOffset) / 4));
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(text, startOffset, endOffset, 0);
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            if (type != TokenType.WHITE_SPACE && type != CypherTokenTypes.COMMENT) {
+                tokens.add(type, lexer.getTokenStart(), lexer.getTokenEnd());
+            }
+            lexer.advance();
+        }
+        return tokens;
+    }
+
+    private void add(IElementType type, int start, int end) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        types[size] = type;
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @NotNull CharSequence text() {
+        return text;
+    }
+
+    /**
+     * Returns the type of token {@code index}, or {@code null} when the index is out of range.
+     */
+    @Nullable IElementType type(int index) {
+        return index >= 0 && index < size ? types[index] : null;
+    }
+
+    int start(int index) {
+        return starts[index];
+    }
+
+    int end(int index) {
+        return ends[index];
+    }
+
+    @NotNull CharSequence text(int index) {
+        return text.subSequence(starts[index], ends[index]);
+    }
+
+    boolean is(int index, @NotNull IElementType type) {
+        return type(index) == type;
+    }
+
+    /**
+     * Returns true when token {@code index} is the given keyword, ignoring case.
+     */
+    boolean isKeyword(int index, @NotNull String keyword) {
+        return is(index, CypherTokenTypes.KEYWORD) && textEqualsIgnoreCase(index, keyword);
+    }
+
+    boolean textEqualsIgnoreCase(int index, @NotNull String value) {
+        int length = ends[index] - starts[index];
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(starts[index] + i);
+            if (Character.toUpperCase(c) != Character.toUpperCase(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true when tokens {@code index} and {@code index + 1} touch, i.e. no whitespace or comment
+     * separates them.
+     */
+    boolean adjacent(int index) {
+        return index >= 0 && index + 1 < size && ends[index] == starts[index + 1];
+    }
+
+    /**
+     * Returns the index of the first token starting at or after {@code offset}; {@link #size()} if none.
+     */
+    int indexAtOrAfter(int offset) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
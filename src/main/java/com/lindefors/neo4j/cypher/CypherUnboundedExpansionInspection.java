@@ -0,0 +1,8 @@
+package com.lindefors.neo4j.cypher;
+
+/**
+ * Reports unbounded or very deep variable-length relationships and unlimited sorts over them, found by
+ * {@link CypherExpansionRule}.
+ */
+public class CypherUnboundedExpansionInspection extends CypherLintInspection {
+}
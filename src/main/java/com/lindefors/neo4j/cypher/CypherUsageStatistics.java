@@ -0,0 +1,203 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-project table of how often keywords, functions, labels and relationship types are used. Counts are
+ * learned from the Cypher files completion runs in (once per file and session) and from accepted
+ * completion items, then persisted in the IDE cache directory. When the table grows past
+ * {@link #DECAY_THRESHOLD} all counts are halved, so recent usage outweighs history.
+ */
+@Service(Service.Level.PROJECT)
+@State(name = "CypherUsageStatistics", storages = @Storage(StoragePathMacros.CACHE_FILE))
+public final class CypherUsageStatistics implements PersistentStateComponent<CypherUsageStatistics.State>, ModificationTracker {
+    static final int DECAY_THRESHOLD = 200_000;
+    private static final int ACCEPTED_ITEM_WEIGHT = 5;
+
+    public enum Kind {
+        KEYWORD("kw:"),
+        FUNCTION("fn:"),
+        LABEL("label:"),
+        RELATIONSHIP_TYPE("type:"),
+        OPERATOR("op:");
+
+        private final String keyPrefix;
+
+        Kind(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        @NotNull String key(@NotNull String name) {
+            return keyPrefix + (this == KEYWORD || this == FUNCTION || this == OPERATOR ? name.toLowerCase(Locale.ENGLISH) : name);
+        }
+
+        boolean owns(@NotNull String key) {
+            return key.startsWith(keyPrefix);
+        }
+
+        @NotNull String nameOf(@NotNull String key) {
+            return key.substring(keyPrefix.length());
+        }
+    }
+
+    private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+    private final Set<String> learnedFiles = ConcurrentHashMap.newKeySet();
+    private final AtomicLong modificationCount = new AtomicLong();
+    private long total;
+
+    public static @NotNull CypherUsageStatistics getInstance(@NotNull Project project) {
+        return project.getService(CypherUsageStatistics.class);
+    }
+
+    public int count(@NotNull Kind kind, @NotNull String name) {
+        return counts.getOrDefault(kind.key(name), 0);
+    }
+
+    /**
+     * Incremented whenever counts change; lets callers cache derived lookups such as label tries.
+     */
+    @Override
+    public long getModificationCount() {
+        return modificationCount.get();
+    }
+
+    /**
+     * Records an accepted completion item, which weighs more than a plain occurrence in a file.
+     */
+    public void recordAccepted(@NotNull Kind kind, @NotNull String name) {
+        add(kind.key(name), ACCEPTED_ITEM_WEIGHT);
+        modificationCount.incrementAndGet();
+    }
+
+    /**
+     * Returns a snapshot of the learned names of the given kind with their counts.
+     */
+    public @NotNull Map<String, Integer> snapshot(@NotNull Kind kind) {
+        Map<String, Integer> result = new HashMap<>();
+        counts.forEach((key, count) -> {
+            if (kind.owns(key)) {
+                result.put(kind.nameOf(key), count);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Learns usage counts from a file on a pooled thread the first time it is seen in this session.
+     */
+    public void learnInBackground(@NotNull PsiFile file) {
+        VirtualFile virtualFile = file.getVirtualFile();
+        if (virtualFile == null || !learnedFiles.add(virtualFile.getUrl())) {
+            return;
+        }
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            CharSequence text = ReadAction.compute(() -> file.isValid() ? file.getViewProvider().getContents() : null);
+            if (text != null) {
+                learnFrom(text);
+            }
+        });
+    }
+
+    /**
+     * Counts keywords, function calls ({@code name(}), labels ({@code :Label} outside brackets and maps)
+     * and relationship types ({@code :TYPE} inside brackets) in a single lexer pass.
+     */
+    void learnFrom(@NotNull CharSequence text) {
+        Map<String, Integer> learned = new HashMap<>();
+        StringBuilder containers = new StringBuilder();
+        IElementType previous = null;
+        CharSequence previousText = "";
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(text, 0, text.length(), 0);
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            if (type == TokenType.WHITE_SPACE || type == CypherTokenTypes.COMMENT) {
+                lexer.advance();
+                continue;
+            }
+            CharSequence tokenText = text.subSequence(lexer.getTokenStart(), lexer.getTokenEnd());
+            char container = containers.length() == 0 ? ' ' : containers.charAt(containers.length() - 1);
+            if (type == CypherTokenTypes.KEYWORD) {
+                learned.merge(Kind.KEYWORD.key(tokenText.toString()), 1, Integer::sum);
+            } else if (type == CypherTokenTypes.IDENTIFIER && container != '{' && isLabelSeparator(previous, previousText)) {
+                Kind kind = container == '[' ? Kind.RELATIONSHIP_TYPE : Kind.LABEL;
+                learned.merge(kind.key(tokenText.toString()), 1, Integer::sum);
+            } else if (type == CypherTokenTypes.PAREN_OPEN && previous == CypherTokenTypes.IDENTIFIER) {
+                learned.merge(Kind.FUNCTION.key(previousText.toString()), 1, Integer::sum);
+            }
+
+            if (type == CypherTokenTypes.PAREN_OPEN || type == CypherTokenTypes.BRACKET_OPEN
+                    || type == CypherTokenTypes.BRACE_OPEN) {
+                containers.append(tokenText.charAt(0));
+            } else if ((type == CypherTokenTypes.PAREN_CLOSE || type == CypherTokenTypes.BRACKET_CLOSE
+                    || type == CypherTokenTypes.BRACE_CLOSE) && containers.length() > 0) {
+                containers.setLength(containers.length() - 1);
+            }
+            previous = type;
+            previousText = tokenText;
+            lexer.advance();
+        }
+        learned.forEach(this::add);
+        modificationCount.incrementAndGet();
+    }
+
+    private static boolean isLabelSeparator(IElementType type, @NotNull CharSequence text) {
+        return type == CypherTokenTypes.COLON
+                || (type == CypherTokenTypes.OPERATOR && "|".contentEquals(text));
+    }
+
+    private synchronized void add(@NotNull String key, int amount) {
+        counts.merge(key, amount, Integer::sum);
+        total += amount;
+        if (total > DECAY_THRESHOLD) {
+            total = 0;
+            counts.replaceAll((k, count) -> count / 2);
+            counts.values().removeIf(count -> count == 0);
+            for (int count : counts.values()) {
+                total += count;
+            }
+        }
+    }
+
+    @Override
+    public @NotNull State getState() {
+        State state = new State();
+        state.counts.putAll(counts);
+        return state;
+    }
+
+    @Override
+    public synchronized void loadState(@NotNull State state) {
+        counts.clear();
+        counts.putAll(state.counts);
+        total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        modificationCount.incrementAndGet();
+    }
+
+    public static final class State {
+        public Map<String, Integer> counts = new HashMap<>();
+    }
+}
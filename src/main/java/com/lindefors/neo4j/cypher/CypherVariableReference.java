@@ -0,0 +1,27 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReferenceBase;
+import com.intellij.util.IncorrectOperationException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reference from a variable occurrence to the occurrence that declares it in the same scope.
+ */
+public class CypherVariableReference extends PsiReferenceBase<CypherIdentifierElement> {
+    CypherVariableReference(@NotNull CypherIdentifierElement element) {
+        super(element, TextRange.from(0, element.getTextLength()));
+    }
+
+    @Override
+    public @Nullable PsiElement resolve() {
+        return getElement().resolveDeclaration();
+    }
+
+    @Override
+    public PsiElement handleElementRename(@NotNull String newElementName) throws IncorrectOperationException {
+        return getElement().setName(newElementName);
+    }
+}
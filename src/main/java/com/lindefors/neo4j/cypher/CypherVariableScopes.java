@@ -0,0 +1,324 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves the variables of one statement to their declaring occurrence, the first occurrence visible in
+ * its scope:
+ * <ul>
+ *   <li>{@code WITH} replaces the visible variables with its projection ({@code *} keeps them);</li>
+ *   <li>{@code UNION} starts over;</li>
+ *   <li>{@code CALL { ... }} sees only what it imports with a leading {@code WITH} or a
+ *   {@code CALL (x, y)} scope clause, and exposes what its {@code RETURN} projects;</li>
+ *   <li>{@code EXISTS}, {@code COUNT} and {@code COLLECT} subqueries see the enclosing variables, but
+ *   their own declarations stay inside;</li>
+ *   <li>iteration variables of list comprehensions, {@code FOREACH}, {@code reduce} and the list
+ *   predicates ({@code x IN list}) are visible only inside the enclosing brackets or parentheses.</li>
+ * </ul>
+ * Only token order and nesting are used, so unusual queries may resolve approximately.
+ */
+final class CypherVariableScopes {
+    private static final Set<String> CLAUSES = Set.of(
+            "MATCH", "OPTIONAL", "WHERE", "ORDER", "SKIP", "LIMIT", "UNWIND", "CREATE", "MERGE", "SET",
+            "DELETE", "DETACH", "REMOVE", "CALL", "FOREACH", "LOAD", "UNION", "USE", "WITH", "RETURN", "ON");
+
+    private CypherVariableScopes() {
+    }
+
+    private static final class Frame {
+        private final Map<String, Integer> names = new HashMap<>();
+        private final int depth;
+        private final boolean call;
+        private final boolean iteration;
+        private boolean started;
+        private boolean importing;
+        private @Nullable Map<String, Integer> returned;
+
+        private Frame(int depth, boolean call, boolean iteration) {
+            this.depth = depth;
+            this.call = call;
+            this.iteration = iteration;
+        }
+    }
+
+    private static final class Projection {
+        private final boolean with;
+        private final int depth;
+        private final Frame frame;
+        private final boolean importing;
+        private final Map<String, Integer> output = new HashMap<>();
+        private boolean star;
+        private int itemTokens;
+        private int itemVariable = -1;
+        private String itemName;
+
+        private Projection(boolean with, int depth, @NotNull Frame frame, boolean importing) {
+            this.with = with;
+            this.depth = depth;
+            this.frame = frame;
+            this.importing = importing;
+        }
+    }
+
+    /**
+     * Returns, for each name, the index of the name that declares it, or -1 for names that are not
+     * variables. {@code nameTokens[i]} is the token index of name {@code i} and {@code variable[i]} tells
+     * whether it is a variable.
+     */
+    static int @NotNull [] resolve(@NotNull CypherTokens tokens, int @NotNull [] nameTokens, boolean @NotNull [] variable,
+                                   int size) {
+        int[] declarations = new int[size];
+        Arrays.fill(declarations, -1);
+        Deque<Frame> frames = new ArrayDeque<>();
+        frames.push(new Frame(0, false, false));
+        Frame[] openedFrames = new Frame[8];
+        int depth = 0;
+        int name = 0;
+        boolean afterAs = false;
+        boolean pendingCall = false;
+        boolean pendingSubquery = false;
+        Map<String, Integer> imports = null;
+        int importsDepth = -1;
+        Projection projection = null;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            IElementType type = tokens.type(i);
+            int current = name < size && nameTokens[name] == i ? name++ : -1;
+            // only the token right after AS is an alias, whatever its type: in "count(*) AS count" it is a keyword
+            boolean alias = afterAs;
+            afterAs = false;
+            String word = type == CypherTokenTypes.KEYWORD ? tokens.text(i).toString().toUpperCase(Locale.ENGLISH) : null;
+            Frame top = frames.peek();
+            if (top.call && !top.started) {
+                top.started = true;
+                top.importing = tokens.isKeyword(i, "WITH");
+            }
+            boolean clause = word != null && CLAUSES.contains(word);
+            boolean closing = type == CypherTokenTypes.PAREN_CLOSE || type == CypherTokenTypes.BRACKET_CLOSE
+                    || type == CypherTokenTypes.BRACE_CLOSE;
+            if (projection != null && (depth > projection.depth || depth == projection.depth && !clause && !closing)) {
+                if (type == CypherTokenTypes.COMMA && depth == projection.depth) {
+                    finishItem(projection, declarations);
+                } else if (!tokens.isKeyword(i, "DISTINCT")) {
+                    if (projection.itemTokens == 0 && depth == projection.depth && type == CypherTokenTypes.OPERATOR
+                            && "*".contentEquals(tokens.text(i))) {
+                        projection.star = true;
+                    }
+                    projection.itemTokens++;
+                }
+            }
+
+            if (type == CypherTokenTypes.PAREN_OPEN || type == CypherTokenTypes.BRACKET_OPEN || type == CypherTokenTypes.BRACE_OPEN) {
+                depth++;
+                Frame opened = null;
+                if (type == CypherTokenTypes.BRACE_OPEN && pendingCall) {
+                    opened = new Frame(depth, true, false);
+                    if (imports != null) {
+                        opened.names.putAll(imports);
+                    }
+                    pendingCall = false;
+                    imports = null;
+                } else if (type == CypherTokenTypes.BRACE_OPEN && pendingSubquery) {
+                    opened = new Frame(depth, false, false);
+                    pendingSubquery = false;
+                }
+                if (opened != null) {
+                    frames.push(opened);
+                }
+                if (depth == openedFrames.length) {
+                    openedFrames = Arrays.copyOf(openedFrames, depth * 2);
+                }
+                openedFrames[depth] = opened;
+                continue;
+            }
+            if (closing) {
+                if (depth == 0) {
+                    continue;
+                }
+                if (projection != null && projection.depth >= depth) {
+                    finishProjection(projection, declarations);
+                    projection = null;
+                }
+                while (frames.size() > 1 && frames.peek().iteration && frames.peek().depth >= depth) {
+                    frames.pop();
+                }
+                Frame opened = openedFrames[depth];
+                openedFrames[depth] = null;
+                if (opened != null) {
+                    while (frames.size() > 1 && frames.pop() != opened) {
+                        // drop frames left open inside the subquery
+                    }
+                    if (opened.returned != null) {
+                        frames.peek().names.putAll(opened.returned);
+                    }
+                }
+                depth--;
+                if (imports != null && depth < importsDepth) {
+                    importsDepth = -1;
+                }
+                continue;
+            }
+
+            if (word != null) {
+                if (projection != null && depth == projection.depth && clause) {
+                    finishProjection(projection, declarations);
+                    projection = null;
+                }
+                switch (word) {
+                    case "AS" -> afterAs = true;
+                    case "WITH", "RETURN" -> {
+                        if (depth == top.depth) {
+                            projection = new Projection(word.equals("WITH"), depth, top, top.importing);
+                        }
+                    }
+                    case "UNION" -> {
+                        if (depth == top.depth) {
+                            top.names.clear();
+                        }
+                    }
+                    case "CALL" -> {
+                        if (tokens.is(i + 1, CypherTokenTypes.BRACE_OPEN)) {
+                            pendingCall = true;
+                        } else if (tokens.is(i + 1, CypherTokenTypes.PAREN_OPEN)) {
+                            pendingCall = true;
+                            imports = new HashMap<>();
+                            importsDepth = depth + 1;
+                        }
+                    }
+                    case "EXISTS", "COUNT" -> pendingSubquery = tokens.is(i + 1, CypherTokenTypes.BRACE_OPEN);
+                    default -> {
+                    }
+                }
+                continue;
+            }
+            if (type == CypherTokenTypes.IDENTIFIER && tokens.textEqualsIgnoreCase(i, "COLLECT")
+                    && tokens.is(i + 1, CypherTokenTypes.BRACE_OPEN)) {
+                pendingSubquery = true;
+                continue;
+            }
+            if (current < 0 || !variable[current]) {
+                continue;
+            }
+
+            String variableName = normalize(tokens.text(i));
+            int declaration;
+            if (alias) {
+                declaration = current;
+                if (projection != null && depth == projection.depth) {
+                    projection.output.put(variableName, current);
+                } else {
+                    top.names.put(variableName, current);
+                }
+            } else if (declaresIterationVariable(tokens, i, top, depth)) {
+                Frame iteration = top.iteration && top.depth == depth ? top : new Frame(depth, false, true);
+                if (iteration != top) {
+                    frames.push(iteration);
+                }
+                iteration.names.put(variableName, current);
+                declaration = current;
+            } else {
+                Integer found = lookup(frames, variableName, projection != null && projection.importing);
+                declaration = found != null ? found : current;
+                if (found == null) {
+                    top.names.put(variableName, current);
+                }
+                if (imports != null && importsDepth == depth) {
+                    imports.put(variableName, declaration);
+                }
+            }
+            declarations[current] = declaration;
+            if (projection != null && depth == projection.depth && projection.itemTokens == 1) {
+                projection.itemVariable = current;
+                projection.itemName = variableName;
+            }
+        }
+        if (projection != null) {
+            finishProjection(projection, declarations);
+        }
+        return declarations;
+    }
+
+    /**
+     * Iteration variables: {@code [x IN ...}, {@code any(x IN ...)}, {@code FOREACH (x IN ...)}, and the
+     * accumulator and variable of {@code reduce(acc = 0, x IN ...)}.
+     */
+    private static boolean declaresIterationVariable(@NotNull CypherTokens tokens, int index, @NotNull Frame top, int depth) {
+        boolean in = tokens.is(index + 1, CypherTokenTypes.IDENTIFIER) && tokens.textEqualsIgnoreCase(index + 1, "IN");
+        if (tokens.is(index - 1, CypherTokenTypes.COMMA)) {
+            return in && top.iteration && top.depth == depth;
+        }
+        if (tokens.is(index - 1, CypherTokenTypes.BRACKET_OPEN)) {
+            return in;
+        }
+        if (!tokens.is(index - 1, CypherTokenTypes.PAREN_OPEN)) {
+            return false;
+        }
+        if (tokens.is(index - 2, CypherTokenTypes.IDENTIFIER)) {
+            return in || tokens.textEqualsIgnoreCase(index - 2, "reduce") && tokens.is(index + 1, CypherTokenTypes.OPERATOR)
+                    && "=".contentEquals(tokens.text(index + 1));
+        }
+        return in && (tokens.isKeyword(index - 2, "FOREACH") || tokens.isKeyword(index - 2, "ALL"));
+    }
+
+    private static @Nullable Integer lookup(@NotNull Deque<Frame> frames, @NotNull String name, boolean importing) {
+        for (Frame frame : frames) {
+            boolean skip = importing && frame.call && frame.importing;
+            if (!skip) {
+                Integer declaration = frame.names.get(name);
+                if (declaration != null) {
+                    return declaration;
+                }
+                if (frame.call) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void finishItem(@NotNull Projection projection, int @NotNull [] declarations) {
+        if (projection.itemTokens == 1 && projection.itemVariable >= 0) {
+            projection.output.put(projection.itemName, declarations[projection.itemVariable]);
+        }
+        projection.itemTokens = 0;
+        projection.itemVariable = -1;
+    }
+
+    private static void finishProjection(@NotNull Projection projection, int @NotNull [] declarations) {
+        finishItem(projection, declarations);
+        Frame frame = projection.frame;
+        if (projection.with) {
+            if (!projection.star) {
+                frame.names.clear();
+            }
+            frame.names.putAll(projection.output);
+            frame.importing = false;
+        } else {
+            frame.names.putAll(projection.output);
+            if (frame.call) {
+                frame.returned = new HashMap<>(projection.output);
+            }
+        }
+    }
+
+    /**
+     * Returns the variable name without backticks, so {@code `n`} and {@code n} are the same variable.
+     */
+    static @NotNull String normalize(@NotNull CharSequence text) {
+        int length = text.length();
+        if (length >= 2 && text.charAt(0) == '`' && text.charAt(length - 1) == '`') {
+            return text.subSequence(1, length - 1).toString();
+        }
+        return text.toString();
+    }
+}
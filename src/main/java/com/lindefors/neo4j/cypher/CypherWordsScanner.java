@@ -0,0 +1,113 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.lang.cacheBuilder.VersionedWordsScanner;
+import com.intellij.lang.cacheBuilder.WordOccurrence;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Splits Cypher files into index words using {@link CypherLexer} instead of generic text scanning.
+ * Identifiers, keywords and parameter names are indexed as code, comments as comment words, and string
+ * literals only up to a configurable length so huge generated payloads do not bloat the word index.
+ */
+public class CypherWordsScanner extends VersionedWordsScanner {
+    static final String MAX_STRING_LENGTH_KEY = "cypher.index.max.string.length";
+
+    private final int maxStringLength;
+
+    public CypherWordsScanner() {
+        this(maxIndexedStringLength());
+    }
+
+    CypherWordsScanner(int maxStringLength) {
+        this.maxStringLength = maxStringLength;
+    }
+
+    /**
+     * Longest string literal whose words are indexed; a negative value indexes all strings.
+     */
+    static int maxIndexedStringLength() {
+        return Registry.intValue(MAX_STRING_LENGTH_KEY, 256);
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public void processWords(@NotNull CharSequence fileText, @NotNull Processor<? super WordOccurrence> processor) {
+        WordOccurrence occurrence = new WordOccurrence(fileText, 0, 0, null);
+        scan(fileText, maxStringLength, (start, end, kind) -> {
+            occurrence.init(fileText, start, end, kind);
+            return processor.process(occurrence);
+        });
+    }
+
+    /**
+     * Receives the word ranges found by {@link #scan}.
+     */
+    interface WordConsumer {
+        boolean consume(int start, int end, @NotNull WordOccurrence.Kind kind);
+    }
+
+    /**
+     * Lexes {@code text} once and reports every indexable word. Shared with {@link CypherIdIndexer} so
+     * the word and id indexes always agree.
+     */
+    static boolean scan(@NotNull CharSequence text, int maxStringLength, @NotNull WordConsumer consumer) {
+        CypherLexer lexer = new CypherLexer();
+        lexer.start(text, 0, text.length(), 0);
+        IElementType type;
+        while ((type = lexer.getTokenType()) != null) {
+            int start = lexer.getTokenStart();
+            int end = lexer.getTokenEnd();
+            boolean proceed = true;
+            if (type == CypherTokenTypes.IDENTIFIER || type == CypherTokenTypes.KEYWORD
+                    || type == CypherTokenTypes.PARAMETER) {
+                proceed = splitWords(text, start, end, WordOccurrence.Kind.CODE, consumer);
+            } else if (type == CypherTokenTypes.COMMENT) {
+                proceed = splitWords(text, start, end, WordOccurrence.Kind.COMMENTS, consumer);
+            } else if (type == CypherTokenTypes.STRING && (maxStringLength < 0 || end - start <= maxStringLength)) {
+                proceed = splitWords(text, start, end, WordOccurrence.Kind.LITERALS, consumer);
+            }
+            if (!proceed) {
+                return false;
+            }
+            lexer.advance();
+        }
+        return true;
+    }
+
+    /**
+     * Reports each run of letters, digits and underscores inside {@code [start, end)}. This drops
+     * {@code $}, braces and backticks so {@code $name}, {@code {name}} and {@code `name`} all index as
+     * {@code name}.
+     */
+    private static boolean splitWords(@NotNull CharSequence text,
+                                      int start,
+                                      int end,
+                                      @NotNull WordOccurrence.Kind kind,
+                                      @NotNull WordConsumer consumer) {
+        int i = start;
+        while (i < end) {
+            while (i < end && !isWordPart(text.charAt(i))) {
+                i++;
+            }
+            int wordStart = i;
+            while (i < end && isWordPart(text.charAt(i))) {
+                i++;
+            }
+            if (i > wordStart && !consumer.consume(wordStart, i, kind)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
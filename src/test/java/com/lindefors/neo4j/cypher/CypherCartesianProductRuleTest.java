@@ -0,0 +1,37 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherCartesianProductRuleTest {
+    private static List<String> disconnected(String query) {
+        CypherSemanticRoles roles = CypherSemanticRoles.classify(query, 0, query.length());
+        return CypherLintEngine.lint(query, 0, query.length(), roles, List.of(new CypherCartesianProductRule())).stream()
+                .map(problem -> query.substring(problem.start(), problem.end()))
+                .toList();
+    }
+
+    @Test
+    void reportsPartsWithoutConnection() {
+        assertEquals(List.of("(b:Y)"), disconnected("MATCH (a:X), (b:Y) RETURN a, b"));
+        assertEquals(List.of("(c:Z)"), disconnected("OPTIONAL MATCH (a:X)-->(b), (b)-->(:W), (c:Z) RETURN a, c"));
+    }
+
+    @Test
+    void acceptsPartsJoinedThroughVariables() {
+        assertTrue(disconnected("MATCH (a:X)-[:R]->(b:Y), (b)-[:S]->(c:Z) RETURN c").isEmpty());
+        assertTrue(disconnected("MATCH (a:X), (b:Y) WHERE a.ref = b.id RETURN a, b").isEmpty());
+        assertTrue(disconnected("MATCH (a:X), (b:Y) WHERE id(a) = b.ref RETURN a, b").isEmpty());
+        assertTrue(disconnected("MATCH (a:X), (b:Y {id: a.ref}) RETURN b").isEmpty());
+    }
+
+    @Test
+    void treatsVariablesFromEarlierClausesAsConnected() {
+        assertTrue(disconnected("UNWIND $rows AS row MATCH (a:X {id: row.a}), (b:Y {id: row.b}) MERGE (a)-[:R]->(b)").isEmpty());
+        assertEquals(List.of("(b:Y)"), disconnected("MATCH (a:X) WITH a MATCH (a)-->(c), (b:Y) RETURN b"));
+    }
+}
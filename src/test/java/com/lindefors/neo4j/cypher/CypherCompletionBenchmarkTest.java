@@ -0,0 +1,73 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures the per-keystroke cost of resolving the completion context while a name is typed at the end
+ * of a 5,000 line statement. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class CypherCompletionBenchmarkTest {
+    private static final int LINES = 5_000;
+    private static final String TYPED = "friendOfFriend";
+
+    @Test
+    void cachedContextMakesKeystrokesNearConstant() {
+        StringBuilder statement = new StringBuilder();
+        for (int i = 0; i < LINES - 1; i++) {
+            statement.append("MATCH (n").append(i).append(":Person {id: $id").append(i).append("})-[:KNOWS]->(m")
+                    .append(i).append(")\n");
+        }
+        statement.append("RETURN ");
+        int nameStart = statement.length();
+
+        long[] uncached = new long[TYPED.length()];
+        long[] cached = new long[TYPED.length()];
+        for (int round = 0; round < 5; round++) {
+            StringBuilder text = new StringBuilder(statement);
+            CypherCompletionContext.Cache cache = null;
+            for (int keystroke = 0; keystroke < TYPED.length(); keystroke++) {
+                text.append(TYPED.charAt(keystroke));
+                String snapshot = text.toString();
+
+                long start = System.nanoTime();
+                CypherCompletionContext fresh = CypherCompletionContext.compute(snapshot, nameStart);
+                uncached[keystroke] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                if (cache != null) {
+                    cache = cache.edited(snapshot.length() - 1, "", snapshot.subSequence(snapshot.length() - 1, snapshot.length()), keystroke);
+                }
+                CypherCompletionContext reused = cache == null ? null : cache.get(nameStart, keystroke);
+                if (reused == null) {
+                    reused = CypherCompletionContext.compute(snapshot, nameStart);
+                    cache = CypherCompletionContext.Cache.create(reused, snapshot, nameStart, keystroke);
+                }
+                cached[keystroke] = System.nanoTime() - start;
+
+                assertNotNull(cache);
+                assertSame(fresh.kind(), reused.kind());
+            }
+        }
+
+        long uncachedMedian = median(uncached);
+        long narrowingMedian = median(Arrays.copyOfRange(cached, 1, cached.length));
+        System.out.printf("Context per keystroke: recomputed %,d ns, cached %,d ns (first keystroke %,d ns)%n",
+                uncachedMedian, narrowingMedian, cached[0]);
+        assertTrue(narrowingMedian * 100 < uncachedMedian,
+                "Narrowing the prefix should not depend on the statement length");
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,96 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CypherCompletionContextTest {
+    @Test
+    void offersLabelsAndTypesOnlyAfterSeparators() {
+        assertEquals(CypherCompletionContext.Kind.LABEL, kindAtEnd("MATCH (n:"));
+        assertEquals(CypherCompletionContext.Kind.LABEL, kindAtEnd("MATCH (n:Person|"));
+        assertEquals(CypherCompletionContext.Kind.RELATIONSHIP_TYPE, kindAtEnd("MATCH (a)-[r:"));
+        assertEquals(CypherCompletionContext.Kind.NONE, kindAtEnd("MATCH (n "));
+    }
+
+    @Test
+    void recognizesProcedureCallsAndYieldLists() {
+        String call = "CALL apoc.periodic.it";
+        assertEquals(CypherCompletionContext.Kind.PROCEDURE, compute(call, call.indexOf("apoc")).kind());
+
+        CypherCompletionContext yield = compute("CALL db.labels() YIELD ");
+        assertEquals(CypherCompletionContext.Kind.YIELD_COLUMN, yield.kind());
+        assertEquals("db.labels", yield.procedure());
+
+        CypherCompletionContext keywordSegments = compute("CALL apoc.create.node(['A'], {}) YIELD node AS n, ");
+        assertEquals("apoc.create.node", keywordSegments.procedure());
+    }
+
+    @Test
+    void collectsVisibleIdentifiersNearestFirst() {
+        CypherCompletionContext context = compute(
+                "MATCH (person:Person)-[:KNOWS]->(friend) WITH person, {name: friend.name} AS info RETURN ");
+
+        assertEquals(CypherCompletionContext.Kind.VALUE, context.kind());
+        assertEquals(List.of("info", "person", "friend"), context.identifiers());
+        assertEquals(CypherCompletionContext.Kind.GENERAL, kindAtEnd("MATCH (n) "));
+    }
+
+    @Test
+    void lexesOnlyTheStatementAroundTheName() {
+        String text = "MATCH (a) RETURN a;\nMATCH (b) RETURN ";
+        CypherStatementTable statements = CypherStatementTable.build(text);
+
+        CypherCompletionContext context = CypherCompletionContext.compute(statements, text.length());
+
+        assertEquals(List.of("b"), context.identifiers());
+    }
+
+    @Test
+    void windowedContextIgnoresTextFarFromTheName() {
+        String text = "MATCH (far) RETURN far;\n" + "// padding\n".repeat(100) + "MATCH (near) WITH near\nRETURN ";
+        CypherStatementTable statements = CypherStatementTable.build(text);
+
+        CypherCompletionContext context = CypherCompletionContext.compute(text, null, text.length(), 40);
+
+        assertEquals(CypherCompletionContext.Kind.VALUE, context.kind());
+        assertEquals(List.of("near"), context.identifiers());
+        assertEquals(List.of("near"), CypherCompletionContext.compute(text, statements, text.length(), 10_000).identifiers());
+        assertEquals(CypherCompletionContext.Kind.LABEL,
+                CypherCompletionContext.compute("MATCH (n:", null, 9, 4).kind());
+    }
+
+    @Test
+    void cacheSurvivesEditsToTheNameOnly() {
+        String text = "MATCH (n) RETURN na";
+        int nameStart = text.indexOf("na");
+        CypherCompletionContext context = compute(text, nameStart);
+        CypherCompletionContext.Cache cache = CypherCompletionContext.Cache.create(context, text, nameStart, 1);
+
+        CypherCompletionContext.Cache typed = cache.edited(text.length(), "", "m", 2);
+        assertNotNull(typed);
+        assertSame(context, typed.get(nameStart, 2));
+        assertNull(typed.get(nameStart, 1), "Stale stamps never hit");
+        assertNull(typed.get(nameStart + 1, 2), "Other name positions never hit");
+
+        assertNull(cache.edited(nameStart - 1, "", "x", 2), "Edits before the name invalidate");
+        assertNull(cache.edited(text.length(), "", " ", 2), "Whitespace ends the name");
+    }
+
+    private static CypherCompletionContext.Kind kindAtEnd(String text) {
+        return compute(text).kind();
+    }
+
+    private static CypherCompletionContext compute(String text) {
+        return compute(text, text.length());
+    }
+
+    private static CypherCompletionContext compute(String text, int nameStart) {
+        return CypherCompletionContext.compute(text, nameStart);
+    }
+}
@@ -0,0 +1,58 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CypherCompletionPositionTest {
+    @Test
+    void findsDottedNameStart() {
+        String text = "MATCH (n) RETURN n; CALL apoc.periodic.it";
+        CypherCompletionPosition position = at(text);
+
+        assertEquals(CypherCompletionPosition.Kind.NAME, position.kind());
+        assertEquals(text.indexOf("apoc"), position.nameStart());
+        assertEquals(text.indexOf("it"), position.segmentStart());
+    }
+
+    @Test
+    void startsAnEmptyNameAtTheCaret() {
+        String text = "MATCH (n:";
+        CypherCompletionPosition position = at(text);
+
+        assertEquals(text.length(), position.nameStart());
+        assertEquals(text.length(), position.segmentStart());
+    }
+
+    @Test
+    void recognizesParameters() {
+        String text = "MATCH (n) WHERE n.id = $us";
+        CypherCompletionPosition position = at(text);
+
+        assertEquals(CypherCompletionPosition.Kind.PARAMETER, position.kind());
+        assertEquals(text.indexOf('$'), position.segmentStart());
+        assertEquals(CypherCompletionPosition.Kind.PARAMETER, at("RETURN $").kind());
+    }
+
+    @Test
+    void recognizesOpenCommentsAndStrings() {
+        assertEquals(CypherCompletionPosition.Kind.COMMENT_OR_STRING, at("RETURN 1 // no").kind());
+        assertEquals(CypherCompletionPosition.Kind.COMMENT_OR_STRING, at("RETURN /* a\nb").kind());
+        assertEquals(CypherCompletionPosition.Kind.COMMENT_OR_STRING, at("RETURN 'it''").kind());
+        assertEquals(CypherCompletionPosition.Kind.NAME, at("RETURN 'it'").kind());
+        assertEquals(CypherCompletionPosition.Kind.NAME, at("RETURN /* a */ x").kind());
+    }
+
+    @Test
+    void lexesOnlyTheWindowInLargeFiles() {
+        String text = "RETURN '" + "x".repeat(100) + "\nMATCH (n) RETURN n.na";
+        CypherCompletionPosition position = CypherCompletionPosition.at(text, null, text.length(), 20);
+
+        assertEquals(CypherCompletionPosition.Kind.NAME, position.kind());
+        assertEquals(text.length() - 2, position.segmentStart());
+    }
+
+    private static CypherCompletionPosition at(String text) {
+        return CypherCompletionPosition.at(text, CypherStatementTable.build(text), text.length(), Integer.MAX_VALUE);
+    }
+}
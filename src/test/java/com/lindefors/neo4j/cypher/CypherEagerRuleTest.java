@@ -0,0 +1,59 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherEagerRuleTest {
+    private static List<CypherLintProblem> lint(String query) {
+        CypherSemanticRoles roles = CypherSemanticRoles.classify(query, 0, query.length());
+        return CypherLintEngine.lint(query, 0, query.length(), roles, List.of(new CypherEagerRule()));
+    }
+
+    private static List<String> conflicts(String query) {
+        return lint(query).stream().map(problem -> query.substring(problem.start(), problem.end())).toList();
+    }
+
+    private static String applyFix(String query) {
+        CypherLintFix fix = lint(query).get(0).fix();
+        assertEquals(fix.original(), query.substring(fix.start(), fix.end()));
+        return query.substring(0, fix.start()) + fix.replacement() + query.substring(fix.end());
+    }
+
+    @Test
+    void reportsInterleavedReadsAndWrites() {
+        assertEquals(List.of("MERGE"), conflicts("UNWIND $rows AS row MERGE (a:Person {id: row.a}) MERGE (b:Person {id: row.b})"));
+        assertEquals(List.of("CREATE"), conflicts("LOAD CSV FROM 'f.csv' AS row MATCH (p:Person) CREATE (:Person {id: row[0]})"));
+        assertEquals(List.of("SET"), conflicts("UNWIND $rows AS row MATCH (p:Person {id: row.id}) SET p.id = row.newId"));
+        assertEquals(List.of("OPTIONAL MATCH"),
+                conflicts("UNWIND $ids AS id MATCH (n {id: id}) DETACH DELETE n OPTIONAL MATCH (m {id: id}) RETURN m"));
+    }
+
+    @Test
+    void acceptsIndependentClausesAndBatchedStatements() {
+        assertTrue(conflicts("LOAD CSV WITH HEADERS FROM 'f.csv' AS row MERGE (p:Person {id: row.id}) "
+                + "MERGE (c:Company {name: row.company}) MERGE (p)-[:WORKS_AT]->(c) SET p.title = row.title").isEmpty());
+        assertTrue(conflicts("MATCH (p:Person) CREATE (:Person)").isEmpty());
+        assertTrue(conflicts("UNWIND $rows AS row CALL { WITH row MERGE (a:Person {id: row.a}) MERGE (b:Person {id: row.b}) } "
+                + "IN TRANSACTIONS OF 500 ROWS").isEmpty());
+    }
+
+    @Test
+    void fixWrapsTheRestOfTheStatement() {
+        assertEquals("""
+                LOAD CSV WITH HEADERS FROM 'f.csv' AS row
+                CALL {
+                  WITH row
+                  MERGE (a:Person {id: row.a})
+                  MERGE (b:Person {id: row.b})
+                } IN TRANSACTIONS OF 1000 ROWS;""", applyFix("""
+                LOAD CSV WITH HEADERS FROM 'f.csv' AS row
+                MERGE (a:Person {id: row.a})
+                MERGE (b:Person {id: row.b});"""));
+        assertNull(lint("UNWIND $rows AS row MERGE (a:Person {id: row.a}) MERGE (b:Person {id: row.b}) RETURN b").get(0).fix());
+    }
+}
@@ -0,0 +1,71 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherExpansionRuleTest {
+    private static List<CypherLintProblem> lint(String query) {
+        CypherSemanticRoles roles = CypherSemanticRoles.classify(query, 0, query.length());
+        return CypherLintEngine.lint(query, 0, query.length(), roles, List.of(new CypherExpansionRule(10, 5)));
+    }
+
+    private static List<String> reported(String query) {
+        return lint(query).stream().map(problem -> query.substring(problem.start(), problem.end())).toList();
+    }
+
+    private static String applyFirstFix(String query) {
+        CypherLintFix fix = lint(query).get(0).fix();
+        assertEquals(fix.original(), query.substring(fix.start(), fix.end()));
+        return query.substring(0, fix.start()) + fix.replacement() + query.substring(fix.end());
+    }
+
+    @Test
+    void parsesRanges() {
+        String query = "MATCH (a)-[*]->(b), (a)-[:KNOWS*3]-(c), (a)-[*..5]-(d), (a)-[r:R*2..]-(e), (a)-[*0..4]-(f) RETURN a";
+        CypherSemanticRoles roles = CypherSemanticRoles.classify(query, 0, query.length());
+        CypherLintContext context = new CypherLintContext(query, 0, query.length(), roles);
+        List<String> ranges = CypherPatterns.parse(context, 1, context.clauseEnd(0)).stream()
+                .map(part -> part.relationships().get(0).range())
+                .map(range -> range.lower() + ".." + (range.isUnbounded() ? "" : range.upper()))
+                .toList();
+        assertEquals(List.of("1..", "3..3", "1..5", "2..", "0..4"), ranges);
+    }
+
+    @Test
+    void reportsUnboundedAndDeepExpansions() {
+        assertEquals(List.of("*", "*2..", "*1..50"),
+                reported("MATCH (a:X)-[*]->(b), (a)-[:KNOWS*2..]-(c), (a)-[*1..50]-(d) RETURN b, c, d"));
+        assertTrue(reported("MATCH (a:X)-[:KNOWS*1..3]-(b) RETURN b").isEmpty());
+        assertTrue(reported("MATCH p = shortestPath((a:X)-[*]-(b:Y)) RETURN p").isEmpty());
+        assertTrue(reported("MATCH p = SHORTEST 1 (a:X)-[*]-(b:Y) RETURN p").isEmpty());
+    }
+
+    @Test
+    void reportsSortsWithoutLimitOverLargeExpansions() {
+        assertEquals(List.of("ORDER BY"), reported("MATCH (a:X)-[*1..6]-(b) RETURN b ORDER BY b.name"));
+        assertTrue(reported("MATCH (a:X)-[*1..6]-(b) RETURN b ORDER BY b.name SKIP 10 LIMIT 10").isEmpty());
+        assertTrue(reported("MATCH (a:X)-[*1..2]-(b) RETURN b ORDER BY b.name").isEmpty());
+    }
+
+    @Test
+    void fixesAddBounds() {
+        assertEquals("MATCH (a:X)-[:KNOWS*..10]->(b) RETURN b", applyFirstFix("MATCH (a:X)-[:KNOWS*]->(b) RETURN b"));
+        assertEquals("MATCH (a:X)-[*2..10]->(b) RETURN b", applyFirstFix("MATCH (a:X)-[*2..]->(b) RETURN b"));
+        assertEquals("MATCH (a:X)-[*1..10]->(b) RETURN b", applyFirstFix("MATCH (a:X)-[*1..50]->(b) RETURN b"));
+        assertNull(lint("MATCH (a:X)-[*20..30]->(b) RETURN b").get(0).fix());
+        assertEquals("MATCH (a:X)-[*1..6]-(b) RETURN b ORDER BY b.name LIMIT 1000;",
+                applyFirstFix("MATCH (a:X)-[*1..6]-(b) RETURN b ORDER BY b.name;"));
+    }
+
+    @Test
+    void thresholdsAreSettings() {
+        assertEquals(List.of(10, 5), new CypherExpansionRule(10, 5).settings());
+        assertEquals(List.of(CypherExpansionRule.DEFAULT_MAX_HOPS, CypherExpansionRule.DEFAULT_SORT_HOPS),
+                new CypherExpansionRule().settings());
+    }
+}
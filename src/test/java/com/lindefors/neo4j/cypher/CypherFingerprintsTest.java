@@ -0,0 +1,41 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CypherFingerprintsTest {
+    private static long fingerprint(String query) {
+        return CypherFingerprints.fingerprint(query, 0, query.length());
+    }
+
+    @Test
+    void ignoresLayoutCommentsKeywordCaseAndLiterals() {
+        long expected = fingerprint("MATCH (p:Person {name: 'Ann', age: 42}) WHERE p.active = true RETURN p");
+
+        assertEquals(expected, fingerprint("match (p:Person {name: \"Bob\", age: 7})\n  // active only\n  where p.active = FALSE\nreturn p;"));
+        assertNotEquals(expected, fingerprint("MATCH (p:Person {name: 'Ann', age: 42}) WHERE p.active = true RETURN p.name"));
+        assertNotEquals(expected, fingerprint("MATCH (p:person {name: 'Ann', age: 42}) WHERE p.active = true RETURN p"));
+        assertNotEquals(expected, fingerprint("MATCH (p:Person {name: $name, age: 42}) WHERE p.active = true RETURN p"));
+    }
+
+    @Test
+    void skipsShortStatements() {
+        assertEquals(CypherFingerprints.NONE, fingerprint("MATCH (n) RETURN n"));
+    }
+
+    @Test
+    void groupsStatementOffsetsByFingerprint() {
+        String first = "MATCH (a:Person {id: 1})-[:KNOWS]->(b) RETURN b";
+        String script = first + ";\n/* again */ MATCH (a:Person {id: 2})-[:KNOWS]->(b) RETURN b;\nMATCH (n) RETURN n;";
+
+        Map<Long, int[]> offsets = CypherFingerprints.collectOffsets(script);
+
+        assertEquals(1, offsets.size());
+        assertArrayEquals(new int[]{0, script.indexOf("MATCH", 1)}, offsets.get(fingerprint(first)));
+    }
+}
@@ -0,0 +1,53 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherFoldingBuilderTest {
+    private static final String TEXT = String.join("\n",
+            "/* Seed data",
+            "   for tests */",
+            "MATCH (p:Person)",
+            "CALL {",
+            "  WITH p",
+            "  RETURN [x IN range(1,",
+            "    3) | x] AS xs",
+            "}",
+            "RETURN p;",
+            "RETURN 1;");
+
+    @Test
+    void foldsDelimitersCommentsAndStatements() {
+        List<CypherFoldingBuilder.Region> regions = CypherFoldingBuilder.computeRegions(TEXT, false, 100);
+
+        assertTrue(regions.contains(region("/* Seed data", "tests */", "/*...*/")));
+        assertTrue(regions.contains(region("(1,", "3)", "(...)")));
+        assertTrue(regions.contains(region("[x IN", "x]", "[...]")));
+        assertTrue(regions.contains(region("{\n  WITH", "}", "{...}")));
+        assertTrue(regions.contains(region("MATCH (p", "RETURN p;", "MATCH (p:Person)...")));
+        assertEquals(5, regions.size(), "Single-line statements and pairs are not folded: " + regions);
+    }
+
+    @Test
+    void quickModeReportsOnlyBracesAndComments() {
+        List<CypherFoldingBuilder.Region> regions = CypherFoldingBuilder.computeRegions(TEXT, true, 100);
+
+        assertEquals(List.of(region("/* Seed data", "tests */", "/*...*/"), region("{\n  WITH", "}", "{...}")), regions);
+    }
+
+    @Test
+    void stopsAtRegionCap() {
+        assertEquals(2, CypherFoldingBuilder.computeRegions(TEXT, false, 2).size());
+        assertTrue(CypherFoldingBuilder.computeRegions(TEXT, false, 0).isEmpty());
+    }
+
+    private static CypherFoldingBuilder.Region region(String startText, String endText, String placeholder) {
+        int start = TEXT.indexOf(startText);
+        int end = TEXT.indexOf(endText, start) + endText.length();
+        return new CypherFoldingBuilder.Region(start, end, placeholder);
+    }
+}
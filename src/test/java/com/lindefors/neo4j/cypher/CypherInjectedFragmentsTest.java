@@ -0,0 +1,34 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherInjectedFragmentsTest {
+    @Test
+    void recognizesQueriesByTheirLeadingKeyword() {
+        assertTrue(CypherInjectedFragments.looksLikeCypher("MATCH (n) RETURN n", 0, 18));
+        assertTrue(CypherInjectedFragments.looksLikeCypher("\"  // find\n  optional match (n)\"", 1, 32));
+        assertTrue(CypherInjectedFragments.looksLikeCypher("DROP INDEX person_name", 0, 22));
+        assertTrue(CypherInjectedFragments.looksLikeCypher("CYPHER runtime=slotted MATCH (n) RETURN n", 0, 41));
+        assertFalse(CypherInjectedFragments.looksLikeCypher("SELECT * FROM person", 0, 20));
+        assertFalse(CypherInjectedFragments.looksLikeCypher("Hello, world", 0, 12));
+        assertFalse(CypherInjectedFragments.looksLikeCypher("", 0, 0));
+    }
+
+    @Test
+    void remembersFragmentsByText() {
+        String query = "MATCH (p:Person {id: $id}) RETURN p.name";
+        CypherSemanticCache cache = CypherSemanticCache.create(CypherStatementTable.build(query), null);
+
+        CypherInjectedFragments.remember(cache);
+
+        assertSame(cache, CypherInjectedFragments.lookup(new StringBuilder(query)));
+        assertNull(CypherInjectedFragments.lookup(query + " LIMIT 1"));
+        assertNotNull(CypherInjectedFragments.lookup(query).statements());
+    }
+}
@@ -0,0 +1,54 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherInlineLiteralRuleTest {
+    private static List<String> literals(String query) {
+        CypherSemanticRoles roles = CypherSemanticRoles.classify(query, 0, query.length());
+        return CypherLintEngine.lint(query, 0, query.length(), roles, List.of(new CypherInlineLiteralRule())).stream()
+                .map(problem -> query.substring(problem.start(), problem.end()))
+                .toList();
+    }
+
+    private static String parameterize(String text) {
+        return CypherLiteralParameters.apply(text, CypherLiteralParameters.fixes(text));
+    }
+
+    @Test
+    void reportsLiteralsInPredicatesAndProperties() {
+        assertEquals(List.of("'Oliver Stone'"), literals("MATCH (p:Person {name: 'Oliver Stone'}) RETURN p"));
+        assertEquals(List.of("42", "'A'", "18"),
+                literals("MATCH (n:Node) WHERE n.id = 42 AND n.name STARTS WITH 'A' OR 18 <= n.age RETURN n"));
+        assertEquals(List.of("1", "'now'"), literals("MERGE (n:Node {id: 1}) ON CREATE SET n.created = 'now'"));
+    }
+
+    @Test
+    void ignoresOtherLiterals() {
+        assertTrue(literals("MATCH (n:Node) WHERE n.id = $id RETURN n LIMIT 10").isEmpty());
+        assertTrue(literals("MATCH (n:Node) WHERE n.id IN [1, 2] AND n.x = 1 + n.y RETURN {a: 'b'}").isEmpty());
+        assertTrue(literals("CREATE INDEX FOR (n:Node) ON (n.id) OPTIONS {indexProvider: 'range-1.0'}").isEmpty());
+    }
+
+    @Test
+    void parameterizesWholeTextsByteForByte() {
+        String text = """
+                // people
+                MATCH (a:Person {id: 1}), (b:Person {id: 2})
+                WHERE a.name  =  "Ann" AND b.id <> $id
+                RETURN a, b;
+                MATCH (m:Movie {title: 'Heat'}) RETURN m;
+                """;
+        assertEquals("""
+                // people
+                MATCH (a:Person {id: $id2}), (b:Person {id: $id3})
+                WHERE a.name  =  $name AND b.id <> $id
+                RETURN a, b;
+                MATCH (m:Movie {title: $title}) RETURN m;
+                """, parameterize(text));
+    }
+}
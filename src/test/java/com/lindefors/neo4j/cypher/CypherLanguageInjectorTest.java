@@ -0,0 +1,48 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.lang.injection.InjectedLanguageManager;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiLanguageInjectionHost;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.util.List;
+
+public class CypherLanguageInjectorTest extends LightJavaCodeInsightFixtureTestCase {
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addClass("package org.neo4j.driver; public interface QueryRunner { Object run(String query); }");
+        myFixture.addClass("package org.neo4j.driver; public interface Session extends QueryRunner {}");
+        myFixture.addClass("package org.springframework.jdbc.core; public class JdbcTemplate {"
+                + " public Object query(String sql) { return null; } }");
+        myFixture.addClass("package example; public class Runner { public Object run(String command) { return null; } }");
+    }
+
+    private boolean isInjected(String call) {
+        myFixture.configureByText("Queries.java", "class Queries {\n"
+                + "    Object query(org.neo4j.driver.Session session, org.springframework.jdbc.core.JdbcTemplate jdbc,\n"
+                + "                 example.Runner runner) {\n"
+                + "        return " + call + ";\n"
+                + "    }\n"
+                + "}\n");
+        PsiElement leaf = myFixture.getFile().findElementAt(myFixture.getCaretOffset());
+        PsiLanguageInjectionHost host = PsiTreeUtil.getParentOfType(leaf, PsiLanguageInjectionHost.class);
+        assertNotNull(host);
+        List<Pair<PsiElement, TextRange>> injected = InjectedLanguageManager.getInstance(getProject()).getInjectedPsiFiles(host);
+        return injected != null && injected.get(0).first.getLanguage() == CypherLanguage.INSTANCE;
+    }
+
+    public void testInjectsIntoDriverCalls() {
+        assertTrue(isInjected("session.run(\"MATCH (n)<caret> RETURN n\")"));
+        assertTrue(isInjected("session.run(\"WITH 1 AS x<caret> RETURN x\")"));
+    }
+
+    public void testSkipsSqlApisAndOtherRunMethods() {
+        assertFalse(isInjected("jdbc.query(\"WITH cte AS (SELECT 1)<caret> SELECT * FROM cte\")"));
+        assertFalse(isInjected("jdbc.query(\"CALL<caret> proc()\")"));
+        assertFalse(isInjected("runner.run(\"MATCH (n)<caret> RETURN n\")"));
+    }
+}
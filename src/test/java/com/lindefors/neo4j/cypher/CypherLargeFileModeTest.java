@@ -0,0 +1,35 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherLargeFileModeTest {
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    void degradesFeaturesAsTheFileGrows() {
+        assertTrue(CypherLargeFileMode.degradedFeatures(MB).isEmpty());
+        assertEquals(EnumSet.of(CypherLargeFileMode.Feature.FORMATTING), CypherLargeFileMode.degradedFeatures(3 * MB));
+        assertEquals(EnumSet.allOf(CypherLargeFileMode.Feature.class), CypherLargeFileMode.degradedFeatures(500 * MB));
+    }
+
+    @Test
+    void thresholdIsExclusive() {
+        long threshold = CypherLargeFileMode.Feature.FOLDING.threshold();
+        assertFalse(CypherLargeFileMode.isDegraded(CypherLargeFileMode.Feature.FOLDING, threshold));
+        assertTrue(CypherLargeFileMode.isDegraded(CypherLargeFileMode.Feature.FOLDING, threshold + 1));
+    }
+
+    @Test
+    void describesDegradedFeaturesInOrder() {
+        Set<CypherLargeFileMode.Feature> features = EnumSet.of(CypherLargeFileMode.Feature.FOLDING,
+                CypherLargeFileMode.Feature.FORMATTING);
+        assertEquals("formatting disabled, folding disabled", CypherLargeFileMode.describe(features));
+    }
+}
@@ -0,0 +1,87 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CypherLexerRecoveryTest {
+    @Test
+    void unterminatedStringEndsAtLineBreak() {
+        List<Token> tokens = lex(new CypherLexer(), "RETURN 'oops\nMATCH (n) RETURN 'ok'");
+
+        assertEquals(new Token(CypherTokenTypes.STRING, "'oops"), tokens.get(1));
+        assertEquals(new Token(CypherTokenTypes.KEYWORD, "MATCH"), tokens.get(2));
+        assertEquals(new Token(CypherTokenTypes.STRING, "'ok'"), tokens.get(tokens.size() - 1));
+    }
+
+    @Test
+    void closedStringsAndEscapesAreUnaffected() {
+        assertEquals(List.of(new Token(CypherTokenTypes.STRING, "'Bob''s'"), new Token(CypherTokenTypes.STRING, "\"x\"")),
+                lex(new CypherLexer(), "'Bob''s' \"x\""));
+    }
+
+    @Test
+    void unboundedModeKeepsMultiLineStrings() {
+        String text = "'line one\nline two'";
+        assertEquals(List.of(new Token(CypherTokenTypes.STRING, text)), lex(new CypherLexer(false), text));
+    }
+
+    @Test
+    void backtickIdentifiersAndApocParametersStopAtLineBreak() {
+        List<Token> tokens = lex(new CypherLexer(), "`open\n$(x\nRETURN");
+
+        assertEquals(List.of(new Token(CypherTokenTypes.IDENTIFIER, "`open"), new Token(CypherTokenTypes.PARAMETER, "$(x"),
+                new Token(CypherTokenTypes.KEYWORD, "RETURN")), tokens);
+    }
+
+    @Test
+    void blockCommentClosedOnALaterLineIsOneToken() {
+        String comment = "/* first\nsecond */";
+        assertEquals(List.of(new Token(CypherTokenTypes.COMMENT, comment), new Token(CypherTokenTypes.KEYWORD, "RETURN")),
+                lex(new CypherLexer(), comment + " RETURN"));
+    }
+
+    @Test
+    void unclosedBlockCommentBeforeAnotherCommentEndsAtLineEnd() {
+        List<Token> tokens = lex(new CypherLexer(), "/* oops\nMATCH (n)\n/* real */ RETURN n");
+
+        assertEquals(new Token(CypherTokenTypes.COMMENT, "/* oops"), tokens.get(0));
+        assertEquals(new Token(CypherTokenTypes.KEYWORD, "MATCH"), tokens.get(1));
+        assertEquals(new Token(CypherTokenTypes.COMMENT, "/* real */"), tokens.get(5));
+    }
+
+    @Test
+    void unclosedBlockCommentEndsAtLineEndBeyondLookahead() {
+        String filler = "RETURN 1;\n".repeat(CypherLexer.BLOCK_COMMENT_LOOKAHEAD / 10 + 1);
+        List<Token> tokens = lex(new CypherLexer(), "/* oops\n" + filler + "*/");
+
+        assertEquals(new Token(CypherTokenTypes.COMMENT, "/* oops"), tokens.get(0));
+        assertEquals(new Token(CypherTokenTypes.KEYWORD, "RETURN"), tokens.get(1));
+    }
+
+    @Test
+    void unclosedBlockCommentNearEndOfInputRunsToTheEnd() {
+        assertEquals(List.of(new Token(CypherTokenTypes.COMMENT, "/* tail\nRETURN 1")), lex(new CypherLexer(), "/* tail\nRETURN 1"));
+        assertEquals(List.of(new Token(CypherTokenTypes.COMMENT, "/* a /* b */")), lex(new CypherLexer(false), "/* a /* b */"));
+    }
+
+    private static List<Token> lex(CypherLexer lexer, String source) {
+        lexer.start(source, 0, source.length(), 0);
+        List<Token> tokens = new ArrayList<>();
+        while (lexer.getTokenType() != null) {
+            if (lexer.getTokenType() != TokenType.WHITE_SPACE) {
+                tokens.add(new Token(lexer.getTokenType(), source.substring(lexer.getTokenStart(), lexer.getTokenEnd())));
+            }
+            lexer.advance();
+        }
+        return tokens;
+    }
+
+    private record Token(IElementType type, String text) {
+    }
+}
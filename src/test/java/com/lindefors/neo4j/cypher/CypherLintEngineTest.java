@@ -0,0 +1,66 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherLintEngineTest {
+    private static List<CypherLintProblem> lint(String query, CypherLintRule... rules) {
+        CypherSemanticRoles roles = CypherSemanticRoles.classify(query, 0, query.length());
+        return CypherLintEngine.lint(query, 0, query.length(), roles, List.of(rules));
+    }
+
+    private static String reported(String query, CypherLintProblem problem) {
+        return query.substring(problem.start(), problem.end());
+    }
+
+    @Test
+    void runsAllRulesOverOneContext() {
+        String query = "LOAD CSV FROM 'file:///people.csv' AS row MATCH (n) WHERE n.name = row.name SET n.seen = true";
+
+        List<CypherLintProblem> problems = lint(query, new CypherAllNodesScanRule(), new CypherLoadCsvTransactionsRule());
+
+        assertEquals(2, problems.size());
+        assertEquals("MATCH", reported(query, problems.get(0)));
+        assertEquals("LOAD CSV", reported(query, problems.get(1)));
+    }
+
+    @Test
+    void acceptsMatchesWithAnAnchor() {
+        CypherLintRule rule = new CypherAllNodesScanRule();
+
+        assertTrue(lint("MATCH (n:Person) RETURN n", rule).isEmpty());
+        assertTrue(lint("MATCH (n) WHERE n:Person RETURN n", rule).isEmpty());
+        assertTrue(lint("MATCH (a)-[:KNOWS]->(b) RETURN b", rule).isEmpty());
+        assertTrue(lint("MATCH (a:Person) OPTIONAL MATCH (a)--(b) RETURN b", rule).isEmpty());
+        assertTrue(lint("MATCH (n) WHERE elementId(n) = $id RETURN n", rule).isEmpty());
+        assertEquals("OPTIONAL MATCH", reported("MATCH (a:A) OPTIONAL MATCH (b) RETURN a, b",
+                lint("MATCH (a:A) OPTIONAL MATCH (b) RETURN a, b", rule).get(0)));
+    }
+
+    @Test
+    void acceptsBatchedImports() {
+        CypherLintRule rule = new CypherLoadCsvTransactionsRule();
+
+        assertTrue(lint("LOAD CSV FROM 'f' AS row CALL { WITH row CREATE (:P {id: row.id}) } IN TRANSACTIONS OF 1000 ROWS", rule).isEmpty());
+        assertTrue(lint("LOAD CSV FROM 'f' AS row RETURN count(row)", rule).isEmpty());
+    }
+
+    @Test
+    void clausesAreSplitAtTheirOwnDepth() {
+        String query = "MATCH (n:P) WHERE n.name STARTS WITH 'a' AND EXISTS { MATCH (n)-->(m) } MERGE (x:X) ON CREATE SET x.a = 1 RETURN n";
+        CypherLintContext context = new CypherLintContext(query, 0, query.length(), CypherSemanticRoles.classify(query, 0, query.length()));
+
+        StringBuilder clauses = new StringBuilder();
+        for (int i = 0; i < context.size(); i++) {
+            if (context.isClauseStart(i)) {
+                clauses.append(context.text(i)).append('@').append(context.depth(i)).append(' ');
+            }
+        }
+
+        assertEquals("MATCH@0 WHERE@0 MATCH@1 MERGE@0 RETURN@0 ", clauses.toString());
+    }
+}
@@ -0,0 +1,67 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherMergeConstraintsTest {
+    private static final CypherSchema SCHEMA = CypherSchema.of(CypherSchema.definitions("""
+            CREATE CONSTRAINT FOR (p:Person) REQUIRE p.id IS UNIQUE;
+            CREATE CONSTRAINT FOR (c:Company) REQUIRE (c.name, c.country) IS NODE KEY;
+            CREATE INDEX FOR (m:Movie) ON (m.title);
+            """));
+
+    private static List<CypherMergeConstraints.Finding> check(String query) {
+        CypherSemanticRoles roles = CypherSemanticRoles.classify(query, 0, query.length());
+        return CypherMergeConstraints.check(new CypherLintContext(query, 0, query.length(), roles), SCHEMA);
+    }
+
+    private static String applyFix(String query) {
+        CypherLintFix fix = check(query).get(0).fix();
+        assertEquals(fix.original(), query.substring(fix.start(), fix.end()));
+        return query.substring(0, fix.start()) + fix.replacement() + query.substring(fix.end());
+    }
+
+    @Test
+    void reportsMergeWithoutConstraint() {
+        List<CypherMergeConstraints.Finding> findings = check("UNWIND $rows AS row MERGE (m:Movie {title: row.title})");
+        assertEquals(1, findings.size());
+        assertEquals("CREATE CONSTRAINT movie_title IF NOT EXISTS FOR (n:Movie) REQUIRE n.title IS UNIQUE",
+                findings.get(0).createConstraint());
+        assertFalse(findings.get(0).message().contains("scans"));
+        findings = check("MERGE (r:Review {movie: $m, author: $a})");
+        assertTrue(findings.get(0).message().contains("MERGE scans every :Review node"));
+        assertEquals("CREATE CONSTRAINT review_movie_author IF NOT EXISTS FOR (n:Review) REQUIRE (n.movie, n.author) IS UNIQUE",
+                findings.get(0).createConstraint());
+        assertTrue(check("MERGE (p:Person {id: $id})").isEmpty());
+        assertTrue(check("MERGE (c:Company {country: $c, name: $n})").isEmpty());
+        assertTrue(check("MATCH (m:Movie {title: $t}) MERGE (m)-[:IN]->(g:Genre)").isEmpty());
+    }
+
+    @Test
+    void rewritesMergeOnFullPatternToMergeOnKey() {
+        assertEquals("MERGE (p:Person {id: row.id}) ON CREATE SET p.name = row.name, p.born = toInteger(row.born)",
+                applyFix("MERGE (p:Person {id: row.id, name: row.name, born: toInteger(row.born)})"));
+        assertEquals("""
+                MERGE (p:Person {id: $id})
+                ON CREATE SET p.name = $name, p.created = timestamp()
+                ON MATCH SET p.seen = timestamp()""", applyFix("""
+                MERGE (p:Person {id: $id, name: $name})
+                ON CREATE SET p.created = timestamp()
+                ON MATCH SET p.seen = timestamp()"""));
+        assertEquals("""
+                MERGE (p:Person {id: $id})
+                ON CREATE SET p.name = $name
+                RETURN p""", applyFix("""
+                MERGE (p:Person {name: $name, id: $id})
+                RETURN p"""));
+        assertEquals("MERGE (p:Person {id: $id}) ON CREATE SET p.name = $n;",
+                applyFix("MERGE (p:Person {id: $id, name: $n});"));
+        assertNull(check("MERGE (:Person {id: $id, name: $name})").get(0).fix());
+    }
+}
@@ -0,0 +1,76 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherMigrationAnalyzerTest {
+    /**
+     * Analyzes scripts given as alternating names and texts, counting how often each text is loaded.
+     */
+    private static List<CypherMigrationAnalyzer.Finding> analyze(List<String> namesAndTexts) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < namesAndTexts.size(); i += 2) {
+            names.add(namesAndTexts.get(i));
+        }
+        int[] loads = new int[names.size()];
+        List<CypherMigrationAnalyzer.Finding> findings = CypherMigrationAnalyzer.analyze(names, script -> {
+            loads[script]++;
+            return namesAndTexts.get(2 * script + 1);
+        });
+        for (int count : loads) {
+            assertTrue(count <= 2, "a script is loaded once per pass");
+        }
+        return findings;
+    }
+
+    @Test
+    void ordersScriptsByVersion() {
+        List<String> names = new ArrayList<>(List.of("V10__late.cypher", "README.cypher", "V2_1__b.cypher",
+                "V2__a.cypher", "V1.5__x.cypher", "003-indexes.cypher"));
+        names.sort(CypherMigrationAnalyzer.VERSION_ORDER);
+        assertEquals(List.of("V1.5__x.cypher", "V2__a.cypher", "V2_1__b.cypher", "003-indexes.cypher",
+                "V10__late.cypher", "README.cypher"), names);
+        assertArrayEquals(new long[]{1, 2}, CypherMigrationAnalyzer.version("V1_2__add_people.cypher"));
+        assertArrayEquals(new long[]{20240105}, CypherMigrationAnalyzer.version("20240105_people.cypher"));
+        assertNull(CypherMigrationAnalyzer.version("Version.cypher"));
+    }
+
+    @Test
+    void reportsDataStatementsBeforeTheirIndex() {
+        String load = "UNWIND $rows AS row MERGE (p:Person {email: row.email});\nMATCH (m:Movie {title: $t}) RETURN m;";
+        List<CypherMigrationAnalyzer.Finding> findings = analyze(List.of(
+                "V1__load.cypher", load,
+                "V2__indexes.cypher",
+                "CREATE CONSTRAINT FOR (p:Person) REQUIRE p.email IS UNIQUE;\nMATCH (p:Person {email: $e}) RETURN p;"));
+        assertEquals(1, findings.size());
+        CypherMigrationAnalyzer.Finding finding = findings.get(0);
+        assertEquals(0, finding.script());
+        assertEquals(load.indexOf("(p:Person"), finding.offset());
+        assertTrue(finding.message().contains("constraint on :Person(email) is created in V2__indexes.cypher"),
+                finding.message());
+    }
+
+    @Test
+    void reportsDuplicateIndexes() {
+        List<CypherMigrationAnalyzer.Finding> findings = analyze(List.of(
+                "V1__schema.cypher", """
+                        CREATE CONSTRAINT FOR (p:Person) REQUIRE p.id IS UNIQUE;
+                        CREATE INDEX FOR (p:Person) ON (p.name);
+                        CREATE TEXT INDEX FOR (p:Person) ON (p.name);""",
+                "V2__more.cypher", """
+                        CREATE INDEX person_id FOR (n:Person) ON (n.id);
+                        CREATE INDEX FOR (n:Person) ON (n.name, n.born);"""));
+        assertEquals(1, findings.size());
+        assertEquals(1, findings.get(0).script());
+        assertEquals(0, findings.get(0).offset());
+        assertTrue(findings.get(0).message().startsWith("Duplicates the constraint on :Person(id) created in V1__schema.cypher"),
+                findings.get(0).message());
+    }
+}
@@ -0,0 +1,40 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CypherParametersTest {
+    @Test
+    void extractsNamesFromDollarAndLegacyParameters() {
+        assertEquals("userId", CypherParameters.nameOf("$userId"));
+        assertEquals("param_name", CypherParameters.nameOf("{  param_name  }"));
+    }
+
+    @Test
+    void ignoresExpressionAndBareParameters() {
+        assertNull(CypherParameters.nameOf("$(userName)"));
+        assertNull(CypherParameters.nameOf("$"));
+    }
+
+    @Test
+    void renamesWhilePreservingSyntax() {
+        assertEquals("$accountId", CypherParameters.withName("$userId", "accountId"));
+        assertEquals("{ accountId }", CypherParameters.withName("{ userId }", "accountId"));
+    }
+
+    @Test
+    void collectsAscendingOffsetsPerName() {
+        String query = "MATCH (n {id: $id}) WHERE n.name = {name} AND n.id <> $id RETURN $(expr), '$id'";
+
+        Map<String, int[]> offsets = CypherParameters.collectOffsets(query);
+
+        assertEquals(2, offsets.size(), "Expression parameters and strings are not indexed");
+        assertArrayEquals(new int[]{query.indexOf("$id"), query.indexOf("$id RETURN")}, offsets.get("id"));
+        assertArrayEquals(new int[]{query.indexOf("{name}")}, offsets.get("name"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherPlanDiffTest {
+    private static String operator(String type, long dbHits, String... children) {
+        return "{\"operatorType\": \"" + type + "\", \"dbHits\": " + dbHits + ", \"rows\": 1, \"children\": ["
+                + String.join(", ", children) + "]}";
+    }
+
+    /**
+     * Lists the merged tree in pre-order as {@code depth:before/after}, with {@code -} for a missing side.
+     */
+    private static List<String> flatten(CypherPlanDiff.Node node, int depth, List<String> result) {
+        result.add(depth + ":" + (node.before() == null ? "-" : node.before().type()) + "/"
+                + (node.after() == null ? "-" : node.after().type()));
+        for (CypherPlanDiff.Node child : node.children()) {
+            flatten(child, depth + 1, result);
+        }
+        return result;
+    }
+
+    @Test
+    void alignsReplacedScanAndRemovedFilter() {
+        CypherPlan before = CypherPlan.parse(operator("ProduceResults", 0,
+                operator("Filter", 5000, operator("NodeByLabelScan", 5001))));
+        CypherPlan after = CypherPlan.parse(operator("ProduceResults", 0, operator("NodeIndexSeek", 2)));
+        CypherPlanDiff diff = CypherPlanDiff.compare(before, after);
+        assertEquals(List.of("0:ProduceResults/ProduceResults", "1:Filter/-", "2:NodeByLabelScan/NodeIndexSeek"),
+                flatten(diff.root(), 0, new ArrayList<>()));
+        assertEquals(List.of("0:ProduceResults/ProduceResults", "1:-/Filter", "2:NodeIndexSeek/NodeByLabelScan"),
+                flatten(CypherPlanDiff.compare(after, before).root(), 0, new ArrayList<>()));
+        assertFalse(diff.root().isChanged());
+        assertEquals("db hits 10,001 → 2 (-100%), rows 1, estimated rows 0, memory 0, operators 3 → 2 (-33%)",
+                diff.summary());
+    }
+
+    @Test
+    void keepsPairingBelowInsertedOperators() {
+        CypherPlan before = CypherPlan.parse(operator("ProduceResults", 0,
+                operator("Expand(All)", 40, operator("NodeByLabelScan", 100))));
+        CypherPlan after = CypherPlan.parse(operator("ProduceResults", 0,
+                operator("Limit", 0, operator("Expand(All)", 12, operator("NodeByLabelScan", 100)))));
+        CypherPlanDiff.Node root = CypherPlanDiff.compare(before, after).root();
+        assertEquals(List.of("0:ProduceResults/ProduceResults", "1:-/Limit", "2:Expand(All)/Expand(All)",
+                "3:NodeByLabelScan/NodeByLabelScan"), flatten(root, 0, new ArrayList<>()));
+        CypherPlanDiff.Node expand = root.children().get(0).children().get(0);
+        assertTrue(expand.isChanged());
+        assertFalse(expand.children().get(0).isChanged());
+    }
+
+    @Test
+    void pairsBranchesByType() {
+        CypherPlan before = CypherPlan.parse(operator("CartesianProduct", 0,
+                operator("NodeByLabelScan", 10), operator("AllNodesScan", 50)));
+        CypherPlan after = CypherPlan.parse(operator("NodeHashJoin", 0,
+                operator("NodeIndexSeek", 1), operator("AllNodesScan", 50), operator("Argument", 0)));
+        assertEquals(List.of("0:CartesianProduct/NodeHashJoin", "1:NodeByLabelScan/NodeIndexSeek",
+                        "1:AllNodesScan/AllNodesScan", "1:-/Argument"),
+                flatten(CypherPlanDiff.compare(before, after).root(), 0, new ArrayList<>()));
+    }
+
+    @Test
+    void comparesLargePlans() {
+        int depth = 3000;
+        String before = operator("NodeByLabelScan", 1);
+        String after = operator("NodeIndexSeek", 1);
+        for (int i = 0; i < depth; i++) {
+            before = operator("Apply", i, before);
+            after = operator("Apply", i + (i % 2), after);
+        }
+        CypherPlanDiff diff = CypherPlanDiff.compare(CypherPlan.parse(before), CypherPlan.parse(after));
+        CypherPlanDiff.Node node = diff.root();
+        int changed = 0;
+        while (!node.children().isEmpty()) {
+            changed += node.isChanged() ? 1 : 0;
+            node = node.children().get(0);
+        }
+        assertEquals(depth / 2, changed);
+        assertEquals("NodeByLabelScan", node.before().type());
+        assertEquals("NodeIndexSeek", node.after().type());
+    }
+}
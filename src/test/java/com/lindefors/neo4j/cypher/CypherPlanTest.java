@@ -0,0 +1,108 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherPlanTest {
+    private static final String QUERY = """
+            MATCH (p:Person {name: $name})
+            MATCH (p)-[:KNOWS]->(f:Person)
+            WHERE f.age > 30
+            RETURN f.name AS name
+            ORDER BY name""";
+
+    // driver ProfiledPlan serialized with its field names
+    private static final String DRIVER_PLAN = """
+            {"query": {"text": "MATCH (p:Person {name: $name}) MATCH (p)-[:KNOWS]->(f:Person) WHERE f.age > 30 RETURN f.name AS name ORDER BY name"},
+             "profile": {"operatorType": "ProduceResults@neo4j", "identifiers": ["f", "name", "p"], "records": 12, "dbHits": 0,
+              "arguments": {"Details": "name", "EstimatedRows": 11.5},
+              "children": [{"operatorType": "Sort@neo4j", "identifiers": ["f", "name", "p"], "records": 12, "dbHits": 0,
+               "children": [{"operatorType": "Projection@neo4j", "identifiers": ["f", "name", "p"], "records": 12, "dbHits": 24,
+                "children": [{"operatorType": "Filter@neo4j", "identifiers": ["f", "p"], "records": 12, "dbHits": 80,
+                 "children": [{"operatorType": "Expand(All)@neo4j", "identifiers": ["anon_0", "f", "p"], "records": 40, "dbHits": 41,
+                  "children": [{"operatorType": "NodeIndexSeek@neo4j", "identifiers": ["p"], "records": 1, "dbHits": 2,
+                   "pageCacheHits": 3, "pageCacheMisses": 1, "time": 7, "children": []}]}]}]}]}]}}
+            """;
+
+    private static CypherPlan.Operator operator(CypherPlan plan, String type) {
+        return plan.operators().stream().filter(operator -> operator.type().equals(type)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void readsJson() {
+        Object value = CypherPlanJson.parse(" {\"a\": [1, -2.5e1, \"x\\\"\\u0041\", true, null, {}], \"b\": []} ");
+        assertEquals(Map.of("a", java.util.Arrays.asList(1L, -25.0, "x\"A", true, null, Map.of()), "b", List.of()), value);
+        assertThrows(IllegalArgumentException.class, () -> CypherPlanJson.parse("{\"a\": 1"));
+        assertThrows(IllegalArgumentException.class, () -> CypherPlanJson.parse("[1, 2] 3"));
+    }
+
+    @Test
+    void readsDriverProfile() {
+        CypherPlan plan = CypherPlan.parse(DRIVER_PLAN);
+        assertEquals(6, plan.operators().size());
+        assertEquals("ProduceResults", plan.root().type());
+        assertEquals("name", plan.root().details());
+        assertEquals(12, plan.root().estimatedRows());
+        assertEquals(147, plan.totalDbHits());
+        CypherPlan.Operator seek = operator(plan, "NodeIndexSeek");
+        assertEquals(List.of(5, 1, 3, 1, 7), List.of(seek.id(), (int) seek.rows(), (int) seek.pageCacheHits(),
+                (int) seek.pageCacheMisses(), (int) seek.time()));
+        assertEquals("MATCH (p:Person {name: $name}) MATCH (p)-[:KNOWS]->(f:Person) WHERE f.age > 30 RETURN f.name AS name ORDER BY name",
+                plan.query());
+    }
+
+    @Test
+    void readsBrowserExportAndDeepPlans() {
+        CypherPlan plan = CypherPlan.parse("""
+                {"plan": {"operatorType": "NodeByLabelScan", "identifiers": ["n"], "children": [],
+                 "arguments": {"Rows": 5000, "DbHits": 5001, "EstimatedRows": 4800.0, "Memory": 64, "Details": "n:Person"}}}""");
+        assertNull(plan.query());
+        assertEquals(List.of(5000L, 5001L, 4800L, 64L), List.of(plan.root().rows(), plan.root().dbHits(),
+                plan.root().estimatedRows(), plan.root().memory()));
+
+        int depth = 5000;
+        String deep = "{\"operatorType\": \"Apply\", \"children\": [".repeat(depth) + "{\"operatorType\": \"Argument\"}"
+                + "]}".repeat(depth);
+        CypherPlan deepPlan = CypherPlan.parse(deep);
+        assertEquals(depth + 1, deepPlan.operators().size());
+        assertEquals("Argument", deepPlan.operators().get(depth).type());
+        assertThrows(IllegalArgumentException.class, () -> CypherPlan.parse("{\"results\": []}"));
+    }
+
+    @Test
+    void mapsOperatorsToSource() {
+        String text = "RETURN 1;\n" + QUERY + ";\n";
+        CypherPlan plan = CypherPlan.parse(DRIVER_PLAN);
+        CypherStatementTable statements = CypherStatementTable.build(text);
+        int index = CypherPlanSourceMap.findStatement(statements, plan.query());
+        assertEquals(1, index);
+        CypherPlanSourceMap map = CypherPlanSourceMap.of(plan, text, statements.startOf(index), statements.endOf(index), null);
+        assertEquals("(p:Person {name: $name})", source(text, map, operator(plan, "NodeIndexSeek")));
+        assertEquals("(f:Person)", source(text, map, operator(plan, "Expand(All)")));
+        assertEquals("WHERE f.age > 30", source(text, map, operator(plan, "Filter")));
+        assertEquals("RETURN f.name AS name", source(text, map, operator(plan, "Projection")));
+        assertEquals("ORDER BY name", source(text, map, operator(plan, "Sort")));
+
+        String edited = "RETURN 10;\n" + QUERY + ";\n";
+        CypherPlanSourceMap moved = CypherPlanSourceMap.of(plan, edited, statements.startOf(index) + 1,
+                statements.endOf(index) + 1, map);
+        assertEquals("WHERE f.age > 30", source(edited, moved, operator(plan, "Filter")));
+        assertSame(moved, CypherPlanSourceMap.of(plan, edited, statements.startOf(index) + 1,
+                statements.endOf(index) + 1, moved));
+        assertTrue(moved.isFor(edited, statements.startOf(index) + 1, statements.endOf(index) + 1));
+        assertFalse(moved.isFor(edited, 0, statements.endOf(0) + 1));
+    }
+
+    private static String source(String text, CypherPlanSourceMap map, CypherPlan.Operator operator) {
+        return text.substring(map.startOf(operator), map.endOf(operator));
+    }
+}
@@ -0,0 +1,50 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherPrefixTrieTest {
+    private final CypherPrefixTrie<String> trie = CypherPrefixTrie.<String>builder()
+            .add("MATCH", "MATCH")
+            .add("MERGE", "MERGE")
+            .add("LIMIT", "LIMIT")
+            .add("Movie", "Movie")
+            .build();
+
+    @Test
+    void matchesPrefixesIgnoringCase() {
+        List<String> items = trie.topMatches("m", 10, item -> 0).items();
+
+        assertEquals(List.of("MATCH", "MERGE", "Movie"), items, "Ties keep insertion order");
+    }
+
+    @Test
+    void ranksByScoreAndKeepsOnlyTopK() {
+        Map<String, Integer> scores = Map.of("MERGE", 7, "Movie", 3);
+
+        CypherPrefixTrie.Matches<String> matches = trie.topMatches("M", 2, item -> scores.getOrDefault(item, 0));
+
+        assertEquals(List.of("MERGE", "Movie"), matches.items());
+        assertTrue(matches.truncated(), "MATCH was cut off");
+    }
+
+    @Test
+    void returnsNothingForUnknownPrefix() {
+        CypherPrefixTrie.Matches<String> matches = trie.topMatches("xyz", 10, item -> 0);
+
+        assertTrue(matches.items().isEmpty());
+        assertFalse(matches.truncated());
+    }
+
+    @Test
+    void emptyPrefixMatchesEverything() {
+        assertEquals(4, trie.topMatches("", 10, item -> 0).items().size());
+        assertEquals(4, trie.size());
+    }
+}
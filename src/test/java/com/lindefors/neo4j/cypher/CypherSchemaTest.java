@@ -0,0 +1,110 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherSchemaTest {
+    private static List<String> encoded(List<CypherSchema.Index> indexes) {
+        return indexes.stream().map(CypherSchema.Index::encode).toList();
+    }
+
+    private static List<String> unindexed(String query, CypherSchema schema) {
+        CypherSemanticRoles roles = CypherSemanticRoles.classify(query, 0, query.length());
+        CypherLintContext context = new CypherLintContext(query, 0, query.length(), roles);
+        return CypherIndexLookups.unindexed(context, schema).stream()
+                .map(lookup -> query.substring(lookup.start(), lookup.end()))
+                .toList();
+    }
+
+    @Test
+    void readsIndexAndConstraintDefinitions() {
+        String migration = """
+                CREATE INDEX person_name IF NOT EXISTS FOR (p:Person) ON (p.name);
+                CREATE RANGE INDEX FOR ()-[k:KNOWS]-() ON (k.since);
+                CREATE INDEX ON :Company(name);
+                CREATE CONSTRAINT person_key FOR (p:Person) REQUIRE (p.first, p.last) IS NODE KEY;
+                CREATE CONSTRAINT FOR (m:Movie) REQUIRE m.title IS UNIQUE OPTIONS {indexProvider: 'range-1.0'};
+                CREATE CONSTRAINT FOR (m:Movie) REQUIRE m.year IS NOT NULL;
+                CREATE FULLTEXT INDEX titles FOR (m:Movie) ON EACH [m.title];
+                CREATE (:Person {name: 'Ann'});
+                """;
+        assertEquals(List.of("label:Person(name)", "type:KNOWS(since)", "label:Company(name)",
+                "label:Person(first,last)!", "label:Movie(title)!"), encoded(CypherSchema.definitions(migration)));
+    }
+
+    @Test
+    void readsShowIndexesExports() {
+        String json = """
+                [{"name": "person_email", "type": "RANGE", "entityType": "NODE",
+                  "labelsOrTypes": ["Person"], "properties": ["email"]},
+                 {"name": "index_343aff4e", "type": "LOOKUP", "entityType": "NODE",
+                  "labelsOrTypes": null, "properties": null},
+                 {"name": "since", "type": "RANGE", "entityType": "RELATIONSHIP",
+                  "labelsOrTypes": ["KNOWS"], "properties": ["since"]}]
+                """;
+        assertEquals(List.of("label:Person(email)", "type:KNOWS(since)"), encoded(CypherSchema.snapshot(json)));
+
+        String table = """
+                | id | name           | type       | entityType | labelsOrTypes | properties |
+                | 3  | "person_email" | "RANGE"    | "NODE"     | ["Person"]    | ["email"]  |
+                | 4  | "bio"          | "FULLTEXT" | "NODE"     | ["Person"]    | ["bio"]    |
+                """;
+        assertEquals(List.of("label:Person(email)"), encoded(CypherSchema.snapshot(table)));
+    }
+
+    @Test
+    void classifiesExportRowsByTypeFieldsOnly() {
+        String json = """
+                [{"name": "status", "type": "RANGE", "entityType": "NODE",
+                  "labelsOrTypes": ["Person"], "properties": ["relationshipStatus"], "owningConstraint": null},
+                 {"name": "poi_point_idx", "type": "RANGE", "entityType": "NODE",
+                  "labelsOrTypes": ["Place"], "properties": ["point"]},
+                 {"name": "fulltext_lookupKey", "type": "FULLTEXT", "entityType": "NODE",
+                  "labelsOrTypes": ["Place"], "properties": ["lookupKey"]},
+                 {"name": "place_key", "type": "UNIQUENESS", "entityType": "NODE",
+                  "labelsOrTypes": ["Place"], "properties": ["lookupKey"]},
+                 {"name": "uniqueness_note", "type": "NODE_PROPERTY_EXISTENCE", "entityType": "NODE",
+                  "labelsOrTypes": ["Place"], "properties": ["note"]}]
+                """;
+        assertEquals(List.of("label:Person(relationshipStatus)", "label:Place(point)", "label:Place(lookupKey)!"),
+                encoded(CypherSchema.snapshot(json)));
+
+        String csv = """
+                id,name,state,type,entityType,labelsOrTypes,properties,owningConstraint
+                1,"index_343aff4e","ONLINE","LOOKUP","NODE",,,
+                2,"rel_point","ONLINE","RANGE","RELATIONSHIP","[""LOOKUP_AT""]","[""point"", ""since""]",
+                3,"place_key","ONLINE","RANGE","NODE","[""Place""]","[""lookupKey""]","place_key"
+                """;
+        assertEquals(List.of("type:LOOKUP_AT(point,since)", "label:Place(lookupKey)!"), encoded(CypherSchema.snapshot(csv)));
+    }
+
+    @Test
+    void reportsLookupsWithoutIndex() {
+        CypherSchema schema = CypherSchema.of(CypherSchema.definitions(
+                "CREATE INDEX FOR (p:Person) ON (p.email); CREATE INDEX FOR (c:Company) ON (c.name, c.country);"));
+        assertEquals(List.of("(p:Person {name: $name})"), unindexed("MATCH (p:Person {name: $name}) RETURN p", schema));
+        assertEquals(List.of("(p:Person)"), unindexed("MATCH (p:Person) WHERE p.name STARTS WITH 'A' RETURN p", schema));
+        assertEquals(List.of("(c:Company {name: row.c})"), unindexed("UNWIND $rows AS row MERGE (c:Company {name: row.c})", schema));
+
+        assertTrue(unindexed("MATCH (p:Person) WHERE p.email = $e RETURN p", schema).isEmpty());
+        assertTrue(unindexed("MATCH (c:Company {name: $n}) WHERE c.country = $c RETURN c", schema).isEmpty());
+        assertTrue(unindexed("MATCH (a:Person {email: $e})-[:WORKS_AT]->(c:Company {name: $n}) RETURN c", schema).isEmpty());
+        assertTrue(unindexed("MATCH (a:Person {email: $e}) MATCH (a)-->(b:Person {name: $n}) RETURN b", schema).isEmpty());
+    }
+
+    @Test
+    void suggestsIndexAndCoversSingleProperties() {
+        CypherIndexLookups.Lookup lookup = new CypherIndexLookups.Lookup(0, 0, List.of("label:Person"), List.of("name"));
+        assertEquals("CREATE INDEX person_name IF NOT EXISTS FOR (n:Person) ON (n.name)",
+                CypherIndexLookups.createIndexStatement(lookup));
+        CypherSchema schema = CypherSchema.of(List.of(new CypherSchema.Index("label:Person", List.of("name"), false)));
+        assertTrue(schema.covers("label:Person", List.of("age", "name")));
+        assertFalse(schema.covers("label:Company", List.of("name")));
+        assertTrue(CypherSchema.EMPTY.isEmpty());
+    }
+}
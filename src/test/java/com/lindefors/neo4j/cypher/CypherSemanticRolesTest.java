@@ -0,0 +1,75 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CypherSemanticRolesTest {
+    @Test
+    void classifiesPatternNames() {
+        assertEquals(List.of("p=VARIABLE", "Person=LABEL", "name=PROPERTY_KEY", "r=VARIABLE", "KNOWS=RELATIONSHIP_TYPE",
+                        "LIKES=RELATIONSHIP_TYPE", "f=VARIABLE", "Admin=LABEL", "Index=LABEL"),
+                roles("MATCH (p:Person {name: 'x'})-[r:KNOWS|LIKES]->(f:Admin&!Index)"));
+    }
+
+    @Test
+    void classifiesPropertiesMapsAndCalls() {
+        assertEquals(List.of("n=VARIABLE", "n=VARIABLE", "Person=LABEL", "n=VARIABLE", "count=PROPERTY_KEY", "apoc=FUNCTION",
+                        "coll=FUNCTION", "sum=FUNCTION", "xs=VARIABLE", "total=VARIABLE", "n=VARIABLE", "name=PROPERTY_KEY",
+                        "label=PROPERTY_KEY", "n=VARIABLE"),
+                roles("WITH n WHERE n:Person AND n.count > apoc.coll.sum(xs) AS total RETURN n {.name, label: n}"));
+        assertEquals(List.of("db=PROCEDURE", "labels=PROCEDURE", "label=VARIABLE"), roles("CALL db.labels() YIELD label"));
+    }
+
+    @Test
+    void bracketsWithoutDashAreLists() {
+        assertEquals(List.of("x=VARIABLE", "xs=VARIABLE", "x=VARIABLE", "Person=LABEL"), roles("RETURN [x IN xs WHERE x:Person]"));
+    }
+
+    @Test
+    void offsetsAreRelativeToTheStatement() {
+        String text = "RETURN 1;\nMATCH (n) RETURN n";
+        CypherSemanticRoles roles = CypherSemanticRoles.classify(text, 9, text.length());
+
+        assertEquals(text.indexOf("(n)") + 1 - 9, roles.start(0));
+        assertEquals(1, roles.indexAtOrAfter(roles.start(0) + 1));
+    }
+
+    @Test
+    void cacheReclassifiesOnlyChangedStatements() {
+        String text = "\nMATCH (a:A) RETURN a;\nMATCH (b:B) RETURN b;\nMATCH (a:A) RETURN a;";
+        CypherStatementTable table = CypherStatementTable.build(text);
+        CypherSemanticCache cache = CypherSemanticCache.create(table, null);
+        CypherSemanticRoles first = cache.roles(0);
+        CypherSemanticRoles second = cache.roles(1);
+        assertSame(first, cache.roles(2), "identical statement text shares roles");
+
+        String edited = text.replace("(b:B)", "(b:Bee)");
+        CypherSemanticCache next = CypherSemanticCache.create(table.update(edited), cache);
+
+        assertSame(first, next.roles(0));
+        assertNotSame(second, next.roles(1));
+        assertEquals(List.of("b=VARIABLE", "Bee=LABEL", "b=VARIABLE"), describe(edited, next, 1));
+    }
+
+    private static List<String> roles(String text) {
+        return describe(text, CypherSemanticRoles.classify(text, 0, text.length()), 0);
+    }
+
+    private static List<String> describe(String text, CypherSemanticCache cache, int index) {
+        return describe(text, cache.roles(index), cache.statements().startOf(index));
+    }
+
+    private static List<String> describe(String text, CypherSemanticRoles roles, int base) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < roles.size(); i++) {
+            result.add(text.substring(base + roles.start(i), base + roles.end(i)) + "=" + roles.role(i));
+        }
+        return result;
+    }
+}
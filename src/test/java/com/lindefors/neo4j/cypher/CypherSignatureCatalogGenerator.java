@@ -0,0 +1,89 @@
+package com.lindefors.neo4j.cypher;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles {@code src/main/catalog/cypher-signatures.txt} into the binary catalog read by
+ * {@link CypherSignatureStore}. Run through the {@code generateSignatureCatalog} Gradle task.
+ */
+public final class CypherSignatureCatalogGenerator {
+    static final Path SOURCE = Path.of("src/main/catalog/cypher-signatures.txt");
+    static final Path TARGET = Path.of("src/main/resources/cypher/signatures.bin");
+
+    private CypherSignatureCatalogGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path source = args.length > 0 ? Path.of(args[0]) : SOURCE;
+        Path target = args.length > 1 ? Path.of(args[1]) : TARGET;
+        List<CypherSignatureStore.Signature> signatures = parse(Files.readAllLines(source, StandardCharsets.UTF_8));
+        Files.createDirectories(target.getParent());
+        try (OutputStream output = Files.newOutputStream(target)) {
+            CypherSignatureStore.write(signatures, output);
+        }
+        System.out.println("Wrote " + signatures.size() + " signatures to " + target);
+    }
+
+    static @NotNull List<CypherSignatureStore.Signature> parse(@NotNull List<String> lines) {
+        List<CypherSignatureStore.Signature> signatures = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(";", -1);
+            if (fields.length != 5) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": expected 5 fields but found " + fields.length);
+            }
+            CypherSignatureStore.Kind kind = CypherSignatureStore.Kind.valueOf(fields[0].strip().toUpperCase());
+            List<CypherSignatureStore.Argument> arguments = new ArrayList<>();
+            for (String argument : split(fields[2])) {
+                String[] typed = typed(argument, i);
+                int equals = typed[0].indexOf('=');
+                arguments.add(equals < 0
+                        ? new CypherSignatureStore.Argument(typed[0], typed[1], null)
+                        : new CypherSignatureStore.Argument(typed[0].substring(0, equals).strip(), typed[1],
+                        typed[0].substring(equals + 1).strip()));
+            }
+            String returnType = null;
+            List<CypherSignatureStore.Column> yields = new ArrayList<>();
+            if (kind == CypherSignatureStore.Kind.FUNCTION) {
+                returnType = fields[3].strip();
+            } else {
+                for (String column : split(fields[3])) {
+                    String[] typed = typed(column, i);
+                    yields.add(new CypherSignatureStore.Column(typed[0], typed[1]));
+                }
+            }
+            signatures.add(new CypherSignatureStore.Signature(fields[1].strip(), kind, arguments, returnType, yields,
+                    fields[4].strip()));
+        }
+        return signatures;
+    }
+
+    private static List<String> split(String list) {
+        List<String> parts = new ArrayList<>();
+        for (String part : list.split(",")) {
+            if (!part.isBlank()) {
+                parts.add(part.strip());
+            }
+        }
+        return parts;
+    }
+
+    private static String[] typed(String declaration, int lineIndex) {
+        int separator = declaration.lastIndexOf("::");
+        if (separator < 0) {
+            throw new IllegalArgumentException("Line " + (lineIndex + 1) + ": missing type in '" + declaration + "'");
+        }
+        return new String[]{declaration.substring(0, separator).strip(), declaration.substring(separator + 2).strip()};
+    }
+}
@@ -0,0 +1,64 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherSignatureStoreTest {
+    @Test
+    void roundTripsSignaturesSortedByName() throws IOException {
+        CypherSignatureStore store = store(List.of(
+                "procedure;db.labels;;label :: STRING;Lists labels.",
+                "function;toUpper;input :: STRING;STRING;Uppercases.",
+                "function;round;value :: FLOAT, precision = 0 :: INTEGER;FLOAT;Rounds."));
+
+        assertEquals(3, store.size());
+        assertEquals("db.labels", store.name(0));
+        assertEquals("toUpper", store.name(2));
+
+        CypherSignatureStore.Signature round = store.find("ROUND");
+        assertNotNull(round);
+        assertEquals(CypherSignatureStore.Kind.FUNCTION, round.kind());
+        assertEquals("FLOAT", round.returnType());
+        assertEquals("(value :: FLOAT, precision = 0 :: INTEGER)", round.parametersText());
+
+        CypherSignatureStore.Signature labels = store.signature(store.indexOf("db.labels"));
+        assertNull(labels.returnType());
+        assertEquals(List.of(new CypherSignatureStore.Column("label", "STRING")), labels.yields());
+        assertEquals("Lists labels.", labels.description());
+        assertEquals(-1, store.indexOf("db.label"));
+    }
+
+    @Test
+    void bundledCatalogIsGeneratedFromSource() throws IOException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        CypherSignatureStore.write(CypherSignatureCatalogGenerator.parse(
+                Files.readAllLines(CypherSignatureCatalogGenerator.SOURCE, StandardCharsets.UTF_8)), expected);
+
+        try (InputStream bundled = CypherSignatureStore.class.getResourceAsStream(CypherSignatureStore.BUNDLED_RESOURCE)) {
+            assertNotNull(bundled, "Bundled catalog is missing");
+            assertArrayEquals(expected.toByteArray(), bundled.readAllBytes(),
+                    "signatures.bin is stale; run ./gradlew generateSignatureCatalog");
+        }
+        CypherSignatureStore store = CypherSignatureStore.bundled();
+        assertTrue(store.indexOf("apoc.periodic.iterate") >= 0);
+        assertTrue(store.indexOf("gds.pageRank.stream") >= 0);
+    }
+
+    private static CypherSignatureStore store(List<String> lines) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CypherSignatureStore.write(CypherSignatureCatalogGenerator.parse(lines), output);
+        return CypherSignatureStore.read(output.toByteArray());
+    }
+}
@@ -0,0 +1,31 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CypherStatementSummaryTest {
+    @Test
+    void showsLeadingClauseAndFirstPattern() {
+        assertEquals("MERGE (:Person)", describe("MERGE (p:Person {id: $id}) SET p.name = $name"));
+        assertEquals("OPTIONAL MATCH (:Person)-[:KNOWS|LIKES]->(f)", describe("optional match (p:Person)-[r:KNOWS|LIKES]->(f) RETURN f"));
+        assertEquals("MATCH (n)<-[*]-()", describe("MATCH (n)<-[*1..3]-() RETURN n"));
+    }
+
+    @Test
+    void showsCalledProcedureAndSkipsLeadingComments() {
+        assertEquals("CALL apoc.periodic.iterate", describe("// batch\n/* load */ CALL apoc.periodic.iterate('a', 'b', {})"));
+        assertEquals("RETURN", describe("RETURN 1"));
+        assertEquals("(empty)", describe("  // nothing\n"));
+    }
+
+    @Test
+    void findsFirstSignificantToken() {
+        String text = "  /* c */\n  MATCH (n)";
+        assertEquals(text.indexOf("MATCH"), CypherStatementSummary.firstTokenOffset(text, 0, text.length()));
+    }
+
+    private static String describe(String text) {
+        return CypherStatementSummary.describe(text, 0, text.length());
+    }
+}
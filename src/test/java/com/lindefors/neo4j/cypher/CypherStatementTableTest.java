@@ -0,0 +1,97 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CypherStatementTableTest {
+    private static final String TEXT = "MATCH (n) RETURN n;\n"
+            + "RETURN 'a;b' // trailing; comment\n"
+            + "  /* ; */ AS s;\n"
+            + "RETURN 3";
+
+    @Test
+    void ignoresSemicolonsInStringsAndComments() {
+        CypherStatementTable table = CypherStatementTable.build(TEXT);
+
+        assertEquals(3, table.statementCount());
+        assertEquals(TEXT.indexOf(';') + 1, table.endOf(0));
+        assertEquals(TEXT.indexOf("AS s;") + 5, table.endOf(1));
+        assertEquals(TEXT.length(), table.endOf(2));
+    }
+
+    @Test
+    void findsStatementByOffset() {
+        CypherStatementTable table = CypherStatementTable.build(TEXT);
+
+        assertEquals(0, table.indexAt(0));
+        assertEquals(0, table.indexAt(TEXT.indexOf(';')));
+        assertEquals(1, table.indexAt(TEXT.indexOf(';') + 1));
+        assertEquals(1, table.indexAt(TEXT.indexOf("a;b")));
+        assertEquals(2, table.indexAt(TEXT.length()));
+        assertEquals(table.endOf(1), table.startOf(2));
+    }
+
+    @Test
+    void closingAnEarlierCommentRelexesFromItsStart() {
+        String text = "/* disabled\nRETURN 1;\nRETURN 2;\n/* note */";
+        CypherStatementTable table = CypherStatementTable.build(text);
+        int end = text.indexOf("/* note");
+        String closed = text.substring(0, end) + "*/" + text.substring(end);
+
+        CypherStatementTable updated = table.update(closed, new CypherStatementTable.Edit(end, 0, 2));
+
+        assertEquals(3, table.statementCount());
+        assertEquals(1, updated.statementCount());
+    }
+
+    @Test
+    void incrementalUpdatesMatchFullBuilds() {
+        String[] fragments = {";", "'", "\"", "/*", "*/", "//", "\n", " x ", "RETURN 1;", "{", "}"};
+        Random random = new Random(42);
+        String text = TEXT.repeat(20);
+        CypherStatementTable table = CypherStatementTable.build(text);
+        for (int edit = 0; edit < 500; edit++) {
+            int start = random.nextInt(text.length() + 1);
+            int end = Math.min(text.length(), start + random.nextInt(4));
+            String replacement = random.nextInt(3) == 0 ? "" : fragments[random.nextInt(fragments.length)];
+            text = text.substring(0, start) + replacement + text.substring(end);
+
+            table = edit % 2 == 0 ? table.update(text)
+                    : table.update(text, new CypherStatementTable.Edit(start, end - start, replacement.length()));
+            CypherStatementTable expected = CypherStatementTable.build(text);
+            assertEquals(expected.statementCount(), table.statementCount(), "after edit " + edit);
+            for (int i = 0; i < expected.statementCount(); i++) {
+                assertEquals(expected.endOf(i), table.endOf(i), "statement " + i + " after edit " + edit);
+            }
+        }
+    }
+
+    @Test
+    void foldedEditsMatchFullBuilds() {
+        String[] fragments = {";", "'", "/*", "*/", "\n", "RETURN 1;", ""};
+        Random random = new Random(7);
+        String text = TEXT.repeat(10);
+        CypherStatementTable table = CypherStatementTable.build(text);
+        for (int batch = 0; batch < 100; batch++) {
+            CypherStatementTable.Edit folded = null;
+            for (int edit = random.nextInt(4); edit >= 0; edit--) {
+                int start = random.nextInt(text.length() + 1);
+                int end = Math.min(text.length(), start + random.nextInt(4));
+                String replacement = fragments[random.nextInt(fragments.length)];
+                text = text.substring(0, start) + replacement + text.substring(end);
+                CypherStatementTable.Edit next = new CypherStatementTable.Edit(start, end - start, replacement.length());
+                folded = folded == null ? next : folded.then(next);
+            }
+
+            table = table.update(text, folded);
+            CypherStatementTable expected = CypherStatementTable.build(text);
+            assertEquals(expected.statementCount(), table.statementCount(), "after batch " + batch);
+            for (int i = 0; i < expected.statementCount(); i++) {
+                assertEquals(expected.endOf(i), table.endOf(i), "statement " + i + " after batch " + batch);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CypherSymbolsTest {
+    @Test
+    void keysSeparateRolesWithTheSameName() {
+        assertEquals("label:Person", CypherSymbols.key(CypherSemanticRoles.Role.LABEL, "Person"));
+        assertEquals("key:Person", CypherSymbols.key(CypherSemanticRoles.Role.PROPERTY_KEY, "Person"));
+        assertNull(CypherSymbols.key(CypherSemanticRoles.Role.VARIABLE, "Person"));
+        assertNull(CypherSymbols.key(CypherSemanticRoles.Role.FUNCTION, "count"));
+        assertEquals("relationship type", CypherSymbols.typeName("type:KNOWS"));
+    }
+
+    @Test
+    void collectsAscendingOffsetsAcrossStatements() {
+        String query = "MATCH (a:Person)-[:KNOWS]->(b:`Person`) RETURN a.name;\nCREATE (:Person {name: 'x'})";
+
+        Map<String, int[]> offsets = CypherSymbols.collectOffsets(query);
+
+        assertArrayEquals(new int[]{query.indexOf("Person"), query.indexOf("`Person`"), query.lastIndexOf("Person")},
+                offsets.get("label:Person"));
+        assertArrayEquals(new int[]{query.indexOf("KNOWS")}, offsets.get("type:KNOWS"));
+        assertArrayEquals(new int[]{query.indexOf("name"), query.lastIndexOf("name")}, offsets.get("key:name"));
+        assertFalse(offsets.containsKey("label:a"), "Variables are not project-wide symbols");
+    }
+}
@@ -0,0 +1,76 @@
+package com.lindefors.neo4j.cypher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CypherVariableScopesTest {
+    @Test
+    void resolvesToTheFirstOccurrence() {
+        assertEquals(List.of("m1->m1", "p1->p1", "m2->m1", "m3->m1", "p2->p1"),
+                resolve("MATCH (m:Movie)<-[:ACTED_IN]-(p) WHERE m.year > 2000 RETURN m, p"));
+        assertEquals(List.of("n1->n1", "n2->n1"), resolve("MATCH (`n`) RETURN n"));
+    }
+
+    @Test
+    void withReplacesTheVisibleVariables() {
+        assertEquals(List.of("a1->a1", "b1->b1", "a2->a1", "b2->b2", "a3->a1", "b3->b2"),
+                resolve("MATCH (a)-->(b) WITH a MATCH (b) RETURN a, b"));
+        assertEquals(List.of("a1->a1", "a2->a1", "x1->x1", "x2->x1"), resolve("MATCH (a) WITH a AS x RETURN x"));
+        assertEquals(List.of("a1->a1", "b1->b1", "c1->c1", "b2->b1", "c2->c1"),
+                resolve("MATCH (a), (b) WITH *, 1 AS c RETURN b, c"));
+        assertEquals(List.of("n1->n1", "n2->n1", "n3->n1", "n4->n1"),
+                resolve("MATCH (n) WITH n, count(*) AS count WHERE n.x > 0 RETURN n"));
+    }
+
+    @Test
+    void callSubqueriesImportAndReturnExplicitly() {
+        assertEquals(List.of("a1->a1", "a2->a1", "a3->a1", "b1->b1", "b2->b1", "a4->a1", "b3->b1"),
+                resolve("MATCH (a) CALL { WITH a MATCH (a)-->(b) RETURN b } RETURN a, b"));
+        assertEquals(List.of("a1->a1", "a2->a2", "a3->a2", "c1->c1", "c2->c1"),
+                resolve("MATCH (a) CALL { MATCH (a) RETURN a AS c } RETURN c"));
+        assertEquals(List.of("a1->a1", "a2->a1", "a3->a1", "one1->one1"),
+                resolve("MATCH (a) CALL (a) { MATCH (a) RETURN 1 AS one } RETURN 1"));
+    }
+
+    @Test
+    void existsSubqueriesSeeOuterVariablesOnly() {
+        assertEquals(List.of("n1->n1", "n2->n1", "m1->m1", "n3->n1", "m2->m2"),
+                resolve("MATCH (n) WHERE EXISTS { MATCH (n)-->(m) } RETURN n, m"));
+    }
+
+    @Test
+    void iterationVariablesAreLocal() {
+        assertEquals(List.of("x1->x1", "x2->x2", "xs1->xs1", "x3->x2", "ys1->ys1", "x4->x1"),
+                resolve("MATCH (x) RETURN [x IN xs | x] AS ys, x"));
+        assertEquals(List.of("acc1->acc1", "x1->x1", "xs1->xs1", "acc2->acc1", "x2->x1", "x3->x3"),
+                resolve("RETURN reduce(acc = 0, x IN xs | acc + x), x"));
+    }
+
+    @Test
+    void unionStartsOver() {
+        assertEquals(List.of("n1->n1", "n2->n1", "n3->n3", "n4->n3"),
+                resolve("MATCH (n) RETURN n UNION MATCH (n) RETURN n"));
+    }
+
+    private static List<String> resolve(String text) {
+        CypherSemanticRoles roles = CypherSemanticRoles.classify(text, 0, text.length());
+        Map<String, Integer> counts = new HashMap<>();
+        Map<Integer, String> labels = new HashMap<>();
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < roles.size(); i++) {
+            if (roles.declaration(i) < 0) {
+                continue;
+            }
+            String name = CypherVariableScopes.normalize(text.substring(roles.start(i), roles.end(i)));
+            labels.put(i, name + counts.merge(name, 1, Integer::sum));
+            result.add(labels.get(i) + "->" + labels.get(roles.declaration(i)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package com.lindefors.neo4j.cypher;
+
+import com.intellij.lang.cacheBuilder.WordOccurrence;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CypherWordsScannerTest {
+    @Test
+    void indexesCodeWordsWithoutParameterSyntax() {
+        List<Word> words = scan("MATCH (n:`Movie`) WHERE n.id = $movieId OR n.key = {legacy} RETURN n", 256);
+
+        assertTrue(words.contains(new Word("MATCH", WordOccurrence.Kind.CODE)));
+        assertTrue(words.contains(new Word("Movie", WordOccurrence.Kind.CODE)), "Backticks are stripped");
+        assertTrue(words.contains(new Word("movieId", WordOccurrence.Kind.CODE)), "$ is stripped");
+        assertTrue(words.contains(new Word("legacy", WordOccurrence.Kind.CODE)), "Legacy braces are stripped");
+    }
+
+    @Test
+    void classifiesCommentAndStringWords() {
+        List<Word> words = scan("// TODO fix\nRETURN 'Oliver Stone'", 256);
+
+        assertTrue(words.contains(new Word("TODO", WordOccurrence.Kind.COMMENTS)));
+        assertTrue(words.contains(new Word("Oliver", WordOccurrence.Kind.LITERALS)));
+        assertTrue(words.contains(new Word("Stone", WordOccurrence.Kind.LITERALS)));
+    }
+
+    @Test
+    void skipsStringsAboveLimit() {
+        List<Word> words = scan("CREATE (:Blob {data: 'aaaa bbbb cccc'})", 8);
+
+        assertTrue(words.stream().noneMatch(word -> word.kind() == WordOccurrence.Kind.LITERALS),
+                "Oversized strings should not be indexed");
+        assertTrue(words.contains(new Word("data", WordOccurrence.Kind.CODE)));
+    }
+
+    @Test
+    void negativeLimitIndexesAllStrings() {
+        List<Word> words = scan("RETURN 'aaaa bbbb cccc'", -1);
+
+        assertEquals(3, words.stream().filter(word -> word.kind() == WordOccurrence.Kind.LITERALS).count());
+    }
+
+    private List<Word> scan(String text, int maxStringLength) {
+        List<Word> words = new ArrayList<>();
+        CypherWordsScanner.scan(text, maxStringLength, (start, end, kind) -> {
+            words.add(new Word(text.substring(start, end), kind));
+            return true;
+        });
+        return words;
+    }
+
+    private record Word(String text, WordOccurrence.Kind kind) {
+    }
+}